@@ -0,0 +1,43 @@
+package com.example.onlinebanking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the executor that runs logins.
+ * Password hashing is CPU-bound by design, so logins run on a small, bounded pool of their own: a burst of logins
+ * occupies at most {@code banking.auth.login-threads} cores and leaves the rest to the other endpoints.
+ * Logins that do not fit in the queue are rejected with HTTP status 503 (Service Unavailable).
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Configuration
+public class LoginExecutorConfig {
+
+    @Value("${banking.auth.login-threads:0}")
+    private int loginThreads = 0;
+
+    @Value("${banking.auth.login-queue-capacity:200}")
+    private int loginQueueCapacity = 200;
+
+    /**
+     * Configures the executor used by {@link com.example.onlinebanking.service.AuthService#login}.
+     * A thread count of {@code 0} means half of the available processors, and at least one.
+     *
+     * @return the configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor loginExecutor() {
+        int threads = loginThreads > 0 ? loginThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(loginQueueCapacity);
+        executor.setThreadNamePrefix("login-");
+        return executor;
+    }
+}
@@ -1,15 +1,30 @@
 package com.example.onlinebanking.config;
 
+import com.example.onlinebanking.security.CustomUserDetailsService;
+import com.example.onlinebanking.security.JwtAuthenticationFilter;
+import com.example.onlinebanking.security.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Configuration class for Spring Security.
@@ -24,17 +39,58 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${banking.security.password.encoder:bcrypt}")
+    private String passwordEncoderId = "bcrypt";
+
+    @Value("${banking.security.password.bcrypt-strength:10}")
+    private int bcryptStrength = 10;
+
+    @Value("${banking.security.password.pbkdf2-iterations:310000}")
+    private int pbkdf2Iterations = 310000;
+
+    @Value("${banking.security.password.argon2-memory-kb:16384}")
+    private int argon2MemoryKb = 16384;
+
+    @Value("${banking.security.password.argon2-iterations:2}")
+    private int argon2Iterations = 2;
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    /**
+     * Configures the provider that authenticates logins against the stored users.
+     * The provider loads each user once per login, re-encodes outdated password hashes through
+     * {@link CustomUserDetailsService#updatePassword}, and keeps users it has just loaded in the given short-lived cache.
+     *
+     * @param userDetailsService the service loading users from the database.
+     * @param passwordEncoder the encoder checking passwords.
+     * @param userCache the cache of recently loaded users.
+     * @return the configured {@link DaoAuthenticationProvider}.
+     */
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+                                                            PasswordEncoder passwordEncoder, UserCache userCache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.setUserCache(userCache);
+        return provider;
+    }
+
     /**
      * Configures the security filter chain for the application.
      * This method defines the following security rules:
      * 1. Disables CSRF protection (for simplicity, not recommended in production).
-     * 2. Permits all requests to the `/api/auth/**` endpoint without authentication.
+     * 2. Permits all requests to the `/api/auth/**` endpoint and the `/.well-known/jwks.json` key set without authentication.
      * 3. Requires authentication for all other requests.
+     * 4. Authenticates requests from their bearer token with a {@link JwtAuthenticationFilter}, without a database query.
+     * 5. Never creates an HTTP session, since every request carries its own token.
      *
      * @param http the {@link HttpSecurity} object to configure.
      * @return the configured {@link SecurityFilterChain}.
@@ -48,19 +104,40 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable) // Disable CSRF using the new API
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll() // Allow public access to /api/auth/**
+                        .requestMatchers("/.well-known/jwks.json").permitAll() // Publish the token verification keys
                         .anyRequest().authenticated() // Require authentication for all other requests
-                );
+                )
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new JwtAuthenticationFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
     /**
      * Configures a password encoder for securely hashing passwords.
-     * This method uses the {@link BCryptPasswordEncoder} for password hashing.
+     * This method returns a {@link DelegatingPasswordEncoder} that hashes new passwords with the encoder selected by
+     * {@code banking.security.password.encoder} ({@code bcrypt}, {@code pbkdf2} or {@code argon2}) and its configured
+     * work factor, and prefixes every hash with the encoder's ID, e.g. {@code {bcrypt}$2a$10$...}.
+     *
+     * <p>Stored hashes of any of these encoders keep matching, and hashes without a prefix are read as BCrypt.
+     * After a successful login, a hash produced by another encoder or a lower work factor is re-encoded and stored
+     * through {@link com.example.onlinebanking.security.CustomUserDetailsService#updatePassword}.
      *
      * @return the configured {@link PasswordEncoder}.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        encoders.put("argon2", new Argon2PasswordEncoder(16, 32, 1, argon2MemoryKb, argon2Iterations));
+        if (!encoders.containsKey(passwordEncoderId)) {
+            throw new IllegalStateException("Unknown password encoder: " + passwordEncoderId);
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordEncoderId, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
-}
\ No newline at end of file
+}
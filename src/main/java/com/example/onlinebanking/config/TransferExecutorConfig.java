@@ -0,0 +1,58 @@
+package com.example.onlinebanking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the executor that performs transfers submitted asynchronously.
+ *
+ * <p>Each transfer holds a database connection for its whole transaction, so by default transfers run on
+ * {@code banking.transfer.async.workers} platform threads, sized like the connection pool, behind a queue of
+ * {@code banking.transfer.async.max-pending} transfers.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true}, which requires Java 21, Spring Boot serves requests on virtual
+ * threads, and transfers get a virtual thread each as well. Their concurrency is then bounded by the connection pool
+ * and by the admission limit of {@link com.example.onlinebanking.service.AsyncTransferService}.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Configuration
+public class TransferExecutorConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads = false;
+
+    @Value("${banking.transfer.async.workers:10}")
+    private int workers = 10;
+
+    @Value("${banking.transfer.async.max-pending:10000}")
+    private int maxPending = 10000;
+
+    /**
+     * Configures the executor used by {@link com.example.onlinebanking.service.AsyncTransferService}.
+     *
+     * @return a virtual-thread executor if virtual threads are enabled, a bounded {@link ThreadPoolTaskExecutor} otherwise.
+     */
+    @Bean
+    public AsyncTaskExecutor transferExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("transfer-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(maxPending);
+        executor.setThreadNamePrefix("transfer-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -1,16 +1,46 @@
 package com.example.onlinebanking.controller;
 
 import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.TransactionRecord;
+import com.example.onlinebanking.model.dto.AccountCacheStatsDTO;
+import com.example.onlinebanking.model.dto.AccountDTO;
+import com.example.onlinebanking.model.dto.AccountImportResultDTO;
+import com.example.onlinebanking.model.dto.TransactionDTO;
+import com.example.onlinebanking.model.dto.TransactionPageDTO;
+import com.example.onlinebanking.service.AccountImportService;
 import com.example.onlinebanking.service.AccountService;
+import com.example.onlinebanking.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Optional;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller for managing {@link Account} entities.
- * This class exposes endpoints for creating, retrieving, and deleting accounts.
- * It interacts with the {@link AccountService} to perform business logic operations.
+ * This class exposes endpoints for creating (one at a time or in bulk), retrieving, and deleting accounts, and for
+ * reading their transaction history and statements.
+ * It interacts with the {@link AccountService}, {@link AccountImportService} and {@link TransactionService} to perform
+ * business logic operations.
  *
  * @author Your Name
  * @version 1.0
@@ -20,9 +50,28 @@ import java.util.Optional;
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    private static final int EXPORT_BLOCK_RECORDS = 256;
+
+    private static final int STATEMENT_BUFFER_SIZE = 64 * 1024;
+
+    private static final String STATEMENT_CSV_HEADER = "id,timestamp,type,fromAccount,toAccount,amount\n";
+
+    private static final LocalDateTime STATEMENT_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Creates a new account.
      * This endpoint accepts a JSON representation of an account and saves it to the database.
@@ -35,18 +84,71 @@ public class AccountController {
         return accountService.createAccount(account);
     }
 
+    /**
+     * Creates accounts in bulk from a CSV request body.
+     * This variant is selected with {@code Content-Type: text/csv}. The body starts with the header line
+     * {@code accountNumber,userId,balance}, followed by one account per line. The body is streamed, so memory use does
+     * not depend on the number of accounts.
+     *
+     * @param body the request body.
+     * @return the number of imported and rejected rows, and the rejected rows with the reason.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public AccountImportResultDTO importAccountsCsv(InputStream body) throws IOException {
+        return accountImportService.importAccounts(body, AccountImportService.Format.CSV);
+    }
+
+    /**
+     * Creates accounts in bulk from a newline-delimited JSON request body.
+     * This variant is selected with {@code Content-Type: application/x-ndjson}. Each line is an object with
+     * {@code accountNumber}, {@code userId} and {@code balance} fields. The body is streamed, so memory use does not
+     * depend on the number of accounts.
+     *
+     * @param body the request body.
+     * @return the number of imported and rejected rows, and the rejected rows with the reason.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public AccountImportResultDTO importAccountsNdjson(InputStream body) throws IOException {
+        return accountImportService.importAccounts(body, AccountImportService.Format.NDJSON);
+    }
+
     /**
      * Retrieves an account by its unique identifier.
-     * This endpoint returns the account details if the account is found.
+     * This endpoint returns the ID, account number and balance of the account, or 404 Not Found if there is no such account.
      *
      * @param id the ID of the account to retrieve, provided as a path variable.
-     * @return an {@link Optional} containing the account if found, or an empty Optional if no account is found.
+     * @return the account details.
      */
     @GetMapping("/{id}")
-    public Optional<Account> getAccount(@PathVariable Long id) {
+    public AccountDTO getAccount(@PathVariable Long id) {
         return accountService.getAccount(id);
     }
 
+    /**
+     * Retrieves an account by its account number.
+     * This endpoint returns the ID, account number and last committed balance of the account from the account lookup cache,
+     * or 404 Not Found if there is no such account.
+     *
+     * @param accountNumber the account number of the account to retrieve, provided as a path variable.
+     * @return the account details.
+     */
+    @GetMapping("/by-number/{accountNumber}")
+    public AccountDTO getAccountByNumber(@PathVariable String accountNumber) {
+        return accountService.getAccountByNumber(accountNumber);
+    }
+
+    /**
+     * Retrieves the hit and miss statistics of the account lookup cache.
+     *
+     * @return the current {@link AccountCacheStatsDTO}.
+     */
+    @GetMapping("/cache/stats")
+    public AccountCacheStatsDTO getCacheStats() {
+        return accountService.getCacheStats();
+    }
+
     /**
      * Deletes an account by its unique identifier.
      * This endpoint removes the account from the database if it exists.
@@ -57,4 +159,198 @@ public class AccountController {
     public void deleteAccount(@PathVariable Long id) {
         accountService.deleteAccount(id);
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves one page of the transaction history of an account, newest first.
+     * Pages are chained with keyset pagination: the {@code nextCursor} of a page is passed as the {@code cursor}
+     * of the next request, and is {@code null} on the last page.
+     *
+     * @param accountNumber the account number, provided as a path variable.
+     * @param cursor the cursor returned with the previous page, omitted for the first page.
+     * @param limit the maximum number of transactions in the page.
+     * @return the requested page of transactions.
+     */
+    @GetMapping(value = "/{accountNumber}/transactions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TransactionPageDTO getTransactions(@PathVariable String accountNumber,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int limit) {
+        return transactionService.getTransactionHistory(accountNumber, cursor, limit);
+    }
+
+    /**
+     * Streams the whole transaction history of an account, newest first, as newline-delimited JSON.
+     * This variant is selected with {@code Accept: application/x-ndjson}. Rows are written to the response
+     * as they are read from the database cursor, so memory use stays flat regardless of the size of the history.
+     *
+     * @param accountNumber the account number, provided as a path variable.
+     * @return the response body writing one transaction per line.
+     */
+    @GetMapping(value = "/{accountNumber}/transactions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamTransactions(@PathVariable String accountNumber) {
+        Long accountId = transactionService.getAccountId(accountNumber);
+        return out -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                transactionService.streamTransactionHistory(accountId, transaction -> {
+                    try {
+                        writer.write(transaction);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Streams the whole transaction history of an account, newest first, as fixed-width binary records.
+     * This variant is selected with {@code Accept: application/octet-stream}. Each transaction is one
+     * {@link TransactionRecord} of {@value TransactionRecord#SIZE} bytes in big-endian order, with account IDs instead
+     * of account numbers. Records are encoded into a reused block, which is written to the response whenever it fills.
+     *
+     * @param accountNumber the account number, provided as a path variable.
+     * @return the response body writing the records.
+     */
+    @GetMapping(value = "/{accountNumber}/transactions", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public StreamingResponseBody exportTransactions(@PathVariable String accountNumber) {
+        Long accountId = transactionService.getAccountId(accountNumber);
+        return out -> {
+            ByteBuffer block = ByteBuffer.allocate(EXPORT_BLOCK_RECORDS * TransactionRecord.SIZE);
+            TransactionRecord record = new TransactionRecord();
+            transactionService.streamTransactionRecords(accountId, transaction -> {
+                if (!block.hasRemaining()) {
+                    writeBlock(out, block);
+                }
+                record.wrap(block, block.position()).write(transaction);
+                block.position(block.position() + TransactionRecord.SIZE);
+            });
+            writeBlock(out, block);
+        };
+    }
+
+    /**
+     * Streams the statement of an account for a period, oldest first, as CSV or newline-delimited JSON.
+     * The period runs from the start of {@code from} to the end of {@code to}; without {@code from} it starts with the
+     * first transaction, and without {@code to} it ends now. Rows are written to the response as they are read from
+     * the database cursor, through a fixed-size buffer, so memory use does not depend on the length of the statement.
+     * When the request accepts {@code gzip} encoding, the response is compressed as it is written.
+     *
+     * @param accountNumber the account number, provided as a path variable.
+     * @param from the first day of the period, in ISO format, optional.
+     * @param to the last day of the period, in ISO format, optional.
+     * @param format {@code csv} (the default) or {@code ndjson}.
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request, optional.
+     * @return the response writing the statement, as an attachment.
+     * @throws RuntimeException if the format is unknown or the period ends before it starts.
+     */
+    @GetMapping("/{accountNumber}/statement")
+    public ResponseEntity<StreamingResponseBody> getStatement(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean csv = switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> true;
+            case "ndjson" -> false;
+            default -> throw new RuntimeException("Unsupported statement format " + format);
+        };
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new RuntimeException("Statement period ends before it starts");
+        }
+        Long accountId = transactionService.getAccountId(accountNumber);
+        LocalDateTime start = from == null ? STATEMENT_EPOCH : from.atStartOfDay();
+        LocalDateTime end = to == null ? LocalDateTime.now() : to.plusDays(1).atStartOfDay();
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, STATEMENT_BUFFER_SIZE) : out;
+            if (csv) {
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8),
+                        STATEMENT_BUFFER_SIZE)) {
+                    writer.write(STATEMENT_CSV_HEADER);
+                    transactionService.streamStatement(accountId, start, end,
+                            transaction -> writeCsvRow(writer, transaction));
+                }
+            } else {
+                try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(target)) {
+                    transactionService.streamStatement(accountId, start, end, transaction -> {
+                        try {
+                            writer.write(transaction);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    });
+                }
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + accountNumber + (csv ? ".csv" : ".ndjson"))
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header accepts {@code gzip}, that is, lists it without {@code q=0}.
+     *
+     * @param acceptEncoding the header, or {@code null}.
+     * @return {@code true} if the response may be compressed with gzip.
+     */
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].strip().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private void writeCsvRow(Writer writer, TransactionDTO transaction) {
+        try {
+            writer.write(Long.toString(transaction.getId()));
+            writer.write(',');
+            writer.write(transaction.getTimestamp().toString());
+            writer.write(',');
+            writer.write(csvField(transaction.getType()));
+            writer.write(',');
+            writer.write(csvField(transaction.getFromAccount()));
+            writer.write(',');
+            writer.write(csvField(transaction.getToAccount()));
+            writer.write(',');
+            writer.write(transaction.getAmount().toPlainString());
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeBlock(OutputStream out, ByteBuffer block) {
+        try {
+            out.write(block.array(), 0, block.position());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        block.clear();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.onlinebanking.controller;
 
 import com.example.onlinebanking.model.dto.AuthRequest;
 import com.example.onlinebanking.model.dto.AuthResponse;
+import com.example.onlinebanking.model.dto.RefreshRequest;
 import com.example.onlinebanking.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,9 +18,10 @@ import org.springframework.web.bind.annotation.RestController;
  * <p>This class is annotated with {@link RestController} to indicate that it handles RESTful requests
  * and {@link RequestMapping} to define the base URL path for all endpoints in this controller.</p>
  *
- * <p>The primary endpoint provided by this controller is:
+ * <p>The endpoints provided by this controller are:
  * <ul>
  *     <li>{@code POST /api/auth/login}: Authenticates a user and returns a JWT token upon successful login.</li>
+ *     <li>{@code POST /api/auth/refresh}: Exchanges a refresh token for a new JWT token and refresh token.</li>
  * </ul>
  * </p>
  *
@@ -53,4 +55,18 @@ public class AuthController {
     public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest authRequest) {
         return ResponseEntity.ok(authService.login(authRequest));
     }
-}
\ No newline at end of file
+
+    /**
+     * Exchanges a refresh token for a new JWT token and a new refresh token.
+     * <p>
+     * The presented refresh token is consumed: presenting it again revokes every token issued from the same login.
+     * </p>
+     *
+     * @param refreshRequest the request containing the refresh token, provided in the request body.
+     * @return a {@link ResponseEntity} containing the {@link AuthResponse} with the new tokens and HTTP status {@link org.springframework.http.HttpStatus#OK}.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest refreshRequest) {
+        return ResponseEntity.ok(authService.refresh(refreshRequest));
+    }
+}
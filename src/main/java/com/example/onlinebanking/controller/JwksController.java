@@ -0,0 +1,47 @@
+package com.example.onlinebanking.controller;
+
+import com.example.onlinebanking.security.JwtKeyRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwksController publishes the public keys that verify the tokens issued by this service.
+ *
+ * <p>The endpoint provided by this controller is:
+ * <ul>
+ *     <li>{@code GET /.well-known/jwks.json}: Returns the JSON Web Key Set of the current and recently retired
+ *     signing keys. Other services select the key by the {@code kid} header of a token.</li>
+ * </ul>
+ *
+ * <p>The set is empty when tokens are signed with a shared HMAC secret.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ * @see JwtKeyRegistry
+ */
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JwtKeyRegistry keyRegistry;
+
+    /**
+     * Returns the JSON Web Key Set of the token signing keys.
+     * Clients may cache it for five minutes, and should fetch it again when they meet an unknown {@code kid}.
+     *
+     * @return a {@link ResponseEntity} containing the JWK Set and HTTP status {@link org.springframework.http.HttpStatus#OK}.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(keyRegistry.jwks());
+    }
+}
@@ -1,17 +1,39 @@
 package com.example.onlinebanking.controller;
 
+import com.example.onlinebanking.model.dto.TransferRequest;
+import com.example.onlinebanking.model.dto.TransferResult;
+import com.example.onlinebanking.model.dto.TransferStatsDTO;
+import com.example.onlinebanking.model.dto.TransferStatusDTO;
+import com.example.onlinebanking.service.AsyncTransferService;
+import com.example.onlinebanking.service.IdempotencyService;
 import com.example.onlinebanking.service.TransferService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.math.BigDecimal;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * REST controller for handling fund transfer operations.
- * This class exposes an endpoint for transferring funds between two accounts.
+ * This class exposes endpoints for transferring funds between two accounts, one transfer or a whole batch at a time.
  * It interacts with the {@link TransferService} to perform the business logic for fund transfers.
  *
  * @author Your Name
@@ -25,20 +47,130 @@ public class TransferController {
     @Autowired
     private TransferService transferService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AsyncTransferService asyncTransferService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${banking.transfer.batch.max-size:50000}")
+    private int batchMaxSize = 50000;
+
     /**
      * Transfers funds from one account to another.
      * This endpoint accepts the source account number, destination account number, and the amount to transfer as request parameters.
      * It delegates the transfer operation to the {@link TransferService}.
      *
+     * <p>A client that may retry the request sends an {@code Idempotency-Key} header, e.g. a random UUID per transfer.
+     * A retry with the same key and parameters is not performed again; it returns the outcome of the original request
+     * (see {@link IdempotencyService}).
+     *
+     * <p>A client that sends {@code Prefer: respond-async} (RFC 7240) does not wait for the transfer: once the request is
+     * checked and queued, the endpoint returns 202 (Accepted) with the transfer ID, and the outcome is read from
+     * {@code GET /api/transfers/{id}} (see {@link AsyncTransferService}). A retry with the same {@code Idempotency-Key}
+     * gets the ID and status of the transfer accepted first.
+     *
      * @param fromAccountNumber the account number of the source account, provided as a request parameter.
      * @param toAccountNumber the account number of the destination account, provided as a request parameter.
      * @param amount the amount to transfer, provided as a request parameter.
+     * @param idempotencyKey the optional {@code Idempotency-Key} header.
+     * @param prefer the optional {@code Prefer} header.
+     * @param principal the authenticated client, or {@code null}.
+     * @return 200 (OK) once the transfer is performed, or 202 (Accepted) with its {@link TransferStatusDTO} once it is queued.
      * @throws RuntimeException if the source or destination account is not found, or if the source account has insufficient balance.
+     * @throws com.example.onlinebanking.exception.IdempotencyConflictException if the key was used for another transfer,
+     *                                                                          or its transfer is still in progress.
      */
     @PostMapping
-    public void transferFunds(@RequestParam String fromAccountNumber,
-                              @RequestParam String toAccountNumber,
-                              @RequestParam BigDecimal amount) {
-        transferService.transferFunds(fromAccountNumber, toAccountNumber, amount);
+    public ResponseEntity<TransferStatusDTO> transferFunds(@RequestParam String fromAccountNumber,
+                                                           @RequestParam String toAccountNumber,
+                                                           @RequestParam BigDecimal amount,
+                                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                           @RequestHeader(value = "Prefer", required = false) String prefer,
+                                                           Principal principal) {
+        Runnable transfer;
+        String owner = principal == null ? "" : principal.getName();
+        if (idempotencyKey == null) {
+            transfer = () -> transferService.transferFunds(fromAccountNumber, toAccountNumber, amount);
+        } else {
+            String fingerprint = fromAccountNumber + ":" + toAccountNumber + ":" + amount.stripTrailingZeros().toPlainString();
+            transfer = () -> idempotencyService.execute(owner, idempotencyKey, fingerprint,
+                    () -> transferService.transferFunds(fromAccountNumber, toAccountNumber, amount));
+        }
+
+        if (prefer != null && prefer.contains("respond-async")) {
+            TransferStatusDTO status = asyncTransferService.submit(owner, idempotencyKey, fromAccountNumber,
+                    toAccountNumber, amount, transfer);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/transfers/" + status.getId()))
+                    .header("Preference-Applied", "respond-async")
+                    .body(status);
+        }
+        transfer.run();
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Retrieves the status of a transfer submitted with {@code Prefer: respond-async}.
+     *
+     * @param id the transfer ID returned when the transfer was accepted.
+     * @return the current {@link TransferStatusDTO}.
+     * @throws com.example.onlinebanking.exception.ResourceNotFoundException if the ID is unknown or its status has expired.
+     */
+    @GetMapping("/{id}")
+    public TransferStatusDTO getTransferStatus(@PathVariable String id) {
+        return asyncTransferService.getStatus(id);
+    }
+
+    /**
+     * Retrieves the concurrency statistics of the transfer service.
+     * This endpoint reports the active locking mode together with the optimistic conflict and retry counts,
+     * which indicate whether the workload is better served by the pessimistic mode.
+     *
+     * @return the current {@link TransferStatsDTO}.
+     */
+    @GetMapping("/stats")
+    public TransferStatsDTO getStats() {
+        return transferService.getStats();
+    }
+
+    /**
+     * Transfers funds for a batch of transfers submitted as a JSON array.
+     * The transfers are applied in a few database transactions with JDBC batching, and one result is returned per transfer.
+     *
+     * @param transfers the transfers to perform, provided in the request body.
+     * @return the outcome of each transfer, in submission order.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<TransferResult> transferBatch(@RequestBody List<TransferRequest> transfers) {
+        return transferService.transferBatch(transfers);
+    }
+
+    /**
+     * Transfers funds for a batch of transfers submitted as newline-delimited JSON (one transfer object per line).
+     *
+     * <p>The body is read one line at a time, and reading stops as soon as it holds more than
+     * {@code banking.transfer.batch.max-size} transfers.
+     *
+     * @param body the request body stream.
+     * @return the outcome of each transfer, in submission order.
+     * @throws IOException if the request body cannot be read or parsed.
+     * @throws RuntimeException if the body holds more than {@code banking.transfer.batch.max-size} transfers.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<TransferResult> transferBatchNdjson(InputStream body) throws IOException {
+        List<TransferRequest> transfers = new ArrayList<>();
+        try (MappingIterator<TransferRequest> lines = objectMapper.readerFor(TransferRequest.class).readValues(body)) {
+            while (lines.hasNextValue()) {
+                if (transfers.size() == batchMaxSize) {
+                    throw new RuntimeException("Batch exceeds the maximum of " + batchMaxSize + " transfers");
+                }
+                transfers.add(lines.nextValue());
+            }
+        }
+        return transferService.transferBatch(transfers);
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * The {@code GlobalExceptionHandler} class is a global exception handler that centralizes the handling of exceptions
@@ -40,6 +41,36 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles {@link IdempotencyConflictException} by returning a structured error response with HTTP status 409 (Conflict).
+     *
+     * <p>This exception is thrown when a retried request cannot be answered from its {@code Idempotency-Key}, because the
+     * original request is still in progress or had different parameters.
+     *
+     * @param ex the {@link IdempotencyConflictException} instance that was thrown.
+     * @return a {@link ResponseEntity} containing the error details and HTTP status 409 (Conflict).
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorDetails> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), ex.getMessage(), "Conflict");
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles {@link RejectedExecutionException} by returning a structured error response with HTTP status 503 (Service Unavailable).
+     *
+     * <p>This exception is thrown when a bounded executor, such as the one running logins, has no room for more work.
+     * Clients may retry later.
+     *
+     * @param ex the {@link RejectedExecutionException} instance that was thrown.
+     * @return a {@link ResponseEntity} containing the error details and HTTP status 503 (Service Unavailable).
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorDetails> handleRejectedExecutionException(RejectedExecutionException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), "Server busy, try again later", "Service Unavailable");
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * Handles all other exceptions by returning a structured error response with HTTP status 500 (Internal Server Error).
      *
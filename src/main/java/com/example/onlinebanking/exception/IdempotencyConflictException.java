@@ -0,0 +1,46 @@
+package com.example.onlinebanking.exception;
+
+/**
+ * IdempotencyConflictException is a custom runtime exception used to indicate that a request carrying an
+ * {@code Idempotency-Key} header cannot be answered from that key.
+ *
+ * <p>It is thrown when the original request with the same key is still being performed, or when the key was already
+ * used for a request with different parameters. It is mapped to HTTP status 409 (Conflict).</p>
+ *
+ * @see RuntimeException
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final boolean inProgress;
+
+    /**
+     * Constructs a new {@link IdempotencyConflictException} with the specified detail message, for a key that was used
+     * for a different request.
+     *
+     * @param message the detail message describing the conflict.
+     */
+    public IdempotencyConflictException(String message) {
+        this(message, false);
+    }
+
+    /**
+     * Constructs a new {@link IdempotencyConflictException} with the specified detail message.
+     *
+     * @param message the detail message describing the conflict.
+     * @param inProgress whether the original request is still being performed, so that a later retry may succeed.
+     */
+    public IdempotencyConflictException(String message, boolean inProgress) {
+        super(message);
+        this.inProgress = inProgress;
+    }
+
+    /**
+     * Indicates whether the original request is still being performed, rather than the key having been used for a
+     * different request.
+     *
+     * @return {@code true} if a later retry may get the outcome of the original request.
+     */
+    public boolean isInProgress() {
+        return inProgress;
+    }
+}
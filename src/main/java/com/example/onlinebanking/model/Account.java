@@ -1,5 +1,6 @@
 package com.example.onlinebanking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
@@ -19,10 +20,11 @@ public class Account {
 
     /**
      * The unique identifier for the account.
-     * This field is automatically generated by the database.
+     * This value is drawn from the {@code account_seq} sequence.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -33,11 +35,12 @@ public class Account {
     private String accountNumber;
 
     /**
-     * The balance of the account.
-     * This field cannot be null and is represented as a BigDecimal for precision.
+     * The balance of the account in minor units (cents).
+     * The column is mapped through {@link #getBalance()}, which keeps it a {@code DECIMAL} for the queries that add to
+     * it in SQL, while transfers check and update the balance in memory with {@link Money} arithmetic on this field.
      */
-    @Column(nullable = false)
-    private BigDecimal balance;
+    @Transient
+    private long balanceMinorUnits;
 
     /**
      * The user associated with the account.
@@ -56,6 +59,13 @@ public class Account {
     @OneToMany(mappedBy = "fromAccount", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Transaction> transactions;
 
+    /**
+     * The optimistic-locking version of the account.
+     * This field is incremented by JPA on every update, and an update based on a stale version is rejected.
+     */
+    @Version
+    private Long version;
+
     /**
      * Gets the unique identifier of the account.
      *
@@ -94,20 +104,44 @@ public class Account {
 
     /**
      * Gets the balance of the account.
+     * This is the persistent property of the {@code balance} column.
      *
-     * @return the balance.
+     * @return the balance, with two decimal places.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "balance", nullable = false)
     public BigDecimal getBalance() {
-        return balance;
+        return Money.toBigDecimal(balanceMinorUnits);
     }
 
     /**
      * Sets the balance of the account.
      *
-     * @param balance the balance.
+     * @param balance the balance, with at most two decimal places.
+     * @throws RuntimeException if the balance has more than two decimal places.
      */
     public void setBalance(BigDecimal balance) {
-        this.balance = balance;
+        this.balanceMinorUnits = Money.toMinorUnits(balance);
+    }
+
+    /**
+     * Gets the balance of the account in minor units, without allocating.
+     *
+     * @return the balance in cents.
+     */
+    @JsonIgnore
+    public long getBalanceMinorUnits() {
+        return balanceMinorUnits;
+    }
+
+    /**
+     * Sets the balance of the account in minor units, without allocating.
+     *
+     * @param balanceMinorUnits the balance in cents.
+     */
+    @JsonIgnore
+    public void setBalanceMinorUnits(long balanceMinorUnits) {
+        this.balanceMinorUnits = balanceMinorUnits;
     }
 
     /**
@@ -145,4 +179,22 @@ public class Account {
     public void setTransactions(Set<Transaction> transactions) {
         this.transactions = transactions;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the optimistic-locking version of the account.
+     *
+     * @return the version.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the optimistic-locking version of the account.
+     *
+     * @param version the version.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
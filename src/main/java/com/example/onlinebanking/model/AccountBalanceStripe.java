@@ -0,0 +1,113 @@
+package com.example.onlinebanking.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One sub-balance of a striped hot account.
+ *
+ * <p>Used by {@link com.example.onlinebanking.service.BalanceStripingService}: credits to a striped account are added
+ * to one of its stripes, chosen at random, instead of to the {@link Account} row, so that concurrent credits update
+ * different rows. The balance of a striped account is the balance of its {@link Account} row plus the balances of all
+ * its stripes.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Entity
+@Table(name = "account_balance_stripe", uniqueConstraints = @UniqueConstraint(
+        name = "uk_account_balance_stripe_account_stripe", columnNames = {"account_id", "stripe"}))
+public class AccountBalanceStripe {
+
+    /**
+     * Unique identifier for the stripe.
+     * This value is drawn from the {@code account_balance_stripe_seq} sequence.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_balance_stripe_seq")
+    @SequenceGenerator(name = "account_balance_stripe_seq", sequenceName = "account_balance_stripe_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The ID of the striped account.
+     */
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * The number of the stripe within its account, from {@code 0} to the number of stripes minus one.
+     */
+    @Column(nullable = false)
+    private int stripe;
+
+    /**
+     * The part of the account's balance held by this stripe.
+     */
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    /**
+     * Constructs an empty AccountBalanceStripe, as required by JPA.
+     */
+    public AccountBalanceStripe() {
+    }
+
+    /**
+     * Constructs an empty stripe of an account.
+     *
+     * @param accountId the ID of the striped account.
+     * @param stripe the number of the stripe within its account.
+     */
+    public AccountBalanceStripe(Long accountId, int stripe) {
+        this.accountId = accountId;
+        this.stripe = stripe;
+        this.balance = BigDecimal.ZERO;
+    }
+
+    /**
+     * Gets the unique identifier of the stripe.
+     *
+     * @return the stripe ID.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ID of the striped account.
+     *
+     * @return the account ID.
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Gets the number of the stripe within its account.
+     *
+     * @return the stripe number.
+     */
+    public int getStripe() {
+        return stripe;
+    }
+
+    /**
+     * Gets the part of the account's balance held by this stripe.
+     *
+     * @return the balance.
+     */
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    /**
+     * Sets the part of the account's balance held by this stripe.
+     *
+     * @param balance the balance.
+     */
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.onlinebanking.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records a request made with an {@code Idempotency-Key} header and its outcome, so that a retried request returns the
+ * original result instead of being performed again.
+ *
+ * <p>A key is claimed by inserting its record before the request is performed. The unique constraint on
+ * (owner, idempotency key) lets exactly one insert succeed, even when the same request is retried on several
+ * instances at once.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Entity
+@Table(name = "idempotency_record", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_record_owner_key", columnNames = {"owner", "idempotency_key"})
+})
+public class IdempotencyRecord {
+
+    /**
+     * Status of a request that is being performed.
+     */
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+
+    /**
+     * Status of a request that succeeded.
+     */
+    public static final String COMPLETED = "COMPLETED";
+
+    /**
+     * Status of a request that was rejected.
+     */
+    public static final String FAILED = "FAILED";
+
+    /**
+     * Unique identifier for the record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_record_seq")
+    @SequenceGenerator(name = "idempotency_record_seq", sequenceName = "idempotency_record_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The username of the client that sent the request; keys of different clients never collide.
+     * This value is empty for unauthenticated requests.
+     */
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    /**
+     * The value of the {@code Idempotency-Key} header chosen by the client.
+     */
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * The parameters of the request, so that a key reused for a different request can be rejected.
+     */
+    @Column(nullable = false, length = 512)
+    private String fingerprint;
+
+    /**
+     * The outcome of the request: IN_PROGRESS, COMPLETED or FAILED.
+     */
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    /**
+     * The error message of a failed request, or {@code null}.
+     */
+    @Column(length = 1000)
+    private String message;
+
+    /**
+     * The date and time when the key was claimed.
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Gets the unique identifier of the record.
+     *
+     * @return the record ID.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the unique identifier of the record.
+     *
+     * @param id the record ID to set.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the username of the client that sent the request.
+     *
+     * @return the owner.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Sets the username of the client that sent the request.
+     *
+     * @param owner the owner to set.
+     */
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Gets the idempotency key chosen by the client.
+     *
+     * @return the idempotency key.
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * Sets the idempotency key chosen by the client.
+     *
+     * @param idempotencyKey the idempotency key to set.
+     */
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    /**
+     * Gets the parameters of the request.
+     *
+     * @return the request fingerprint.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Sets the parameters of the request.
+     *
+     * @param fingerprint the request fingerprint to set.
+     */
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Gets the outcome of the request.
+     *
+     * @return {@link #IN_PROGRESS}, {@link #COMPLETED} or {@link #FAILED}.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the outcome of the request.
+     *
+     * @param status the status to set.
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the error message of a failed request.
+     *
+     * @return the message, or {@code null}.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets the error message of a failed request.
+     *
+     * @param message the message to set.
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the date and time when the key was claimed.
+     *
+     * @return the creation time.
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the date and time when the key was claimed.
+     *
+     * @param createdAt the creation time to set.
+     */
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
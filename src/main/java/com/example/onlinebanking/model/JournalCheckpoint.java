@@ -0,0 +1,77 @@
+package com.example.onlinebanking.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The position up to which a write-ahead journal has been applied to the database.
+ *
+ * <p>Used by {@link com.example.onlinebanking.service.engine.ShardedBalanceEngine}: every batch of journaled transfers
+ * written to the database moves the checkpoint of the journal to the last sequence number of the batch, in the same
+ * database transaction. After a crash the records beyond the checkpoint are replayed, and the records up to it are
+ * skipped, so no transfer is applied twice.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Entity
+@Table(name = "journal_checkpoint")
+public class JournalCheckpoint {
+
+    /**
+     * The name of the journal.
+     */
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    /**
+     * The sequence number of the last journal record applied to the database.
+     */
+    @Column(nullable = false)
+    private long appliedSequence;
+
+    /**
+     * Constructs an empty JournalCheckpoint, as required by JPA.
+     */
+    public JournalCheckpoint() {
+    }
+
+    /**
+     * Constructs the checkpoint of a journal.
+     *
+     * @param name the name of the journal.
+     * @param appliedSequence the sequence number of the last record applied to the database.
+     */
+    public JournalCheckpoint(String name, long appliedSequence) {
+        this.name = name;
+        this.appliedSequence = appliedSequence;
+    }
+
+    /**
+     * Gets the name of the journal.
+     *
+     * @return the journal name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the sequence number of the last journal record applied to the database.
+     *
+     * @return the applied sequence number.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Sets the sequence number of the last journal record applied to the database.
+     *
+     * @param appliedSequence the applied sequence number.
+     */
+    public void setAppliedSequence(long appliedSequence) {
+        this.appliedSequence = appliedSequence;
+    }
+}
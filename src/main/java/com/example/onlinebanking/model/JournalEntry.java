@@ -0,0 +1,139 @@
+package com.example.onlinebanking.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One entry of the append-only double-entry ledger: a business event, such as a transfer, and the {@link Posting}s
+ * that move money between accounts because of it.
+ *
+ * <p>Entries and postings are only ever inserted, never updated or deleted, so the ledger is the audit trail of every
+ * balance change. The postings of a {@link JournalEntryType#TRANSFER} entry sum to zero. The balance of an
+ * {@link Account} is the materialized running total of its postings, updated in the same database transaction as the
+ * entry is inserted.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Entity
+@Table(name = "journal_entry")
+public class JournalEntry {
+
+    /**
+     * Unique identifier for the journal entry.
+     * This value is drawn from the {@code journal_entry_seq} sequence.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_entry_seq")
+    @SequenceGenerator(name = "journal_entry_seq", sequenceName = "journal_entry_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The kind of the entry.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JournalEntryType type;
+
+    /**
+     * The date and time of the event.
+     */
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    /**
+     * The ID of the {@link Transaction} recorded for the same event in the transaction history,
+     * or {@code null} if there is none, as for an opening balance.
+     */
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    /**
+     * The postings of the entry, inserted with it.
+     */
+    @OneToMany(mappedBy = "journalEntry", cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
+    private List<Posting> postings = new ArrayList<>();
+
+    /**
+     * Constructs an empty JournalEntry, as required by JPA.
+     */
+    protected JournalEntry() {
+    }
+
+    /**
+     * Constructs a journal entry without postings.
+     *
+     * @param type the kind of the entry.
+     * @param timestamp the date and time of the event.
+     * @param transactionId the ID of the matching {@link Transaction}, or {@code null}.
+     */
+    public JournalEntry(JournalEntryType type, LocalDateTime timestamp, Long transactionId) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.transactionId = transactionId;
+    }
+
+    /**
+     * Adds a posting to the entry. The posting is inserted when the entry is saved.
+     *
+     * @param accountId the ID of the account the posting applies to.
+     * @param direction whether the amount is taken from or added to the balance of the account.
+     * @param amount the amount, which must be positive.
+     * @return this entry.
+     */
+    public JournalEntry addPosting(Long accountId, PostingDirection direction, BigDecimal amount) {
+        postings.add(new Posting(this, accountId, direction, amount));
+        return this;
+    }
+
+    /**
+     * Gets the unique identifier of the journal entry.
+     *
+     * @return the journal entry ID.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the kind of the entry.
+     *
+     * @return the entry type.
+     */
+    public JournalEntryType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the date and time of the event.
+     *
+     * @return the timestamp.
+     */
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the ID of the matching {@link Transaction}.
+     *
+     * @return the transaction ID, or {@code null} if there is none.
+     */
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * Gets the postings of the entry.
+     *
+     * @return an unmodifiable view of the postings.
+     */
+    public List<Posting> getPostings() {
+        return Collections.unmodifiableList(postings);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.onlinebanking.model;
+
+/**
+ * Enumerates the kinds of {@link JournalEntry} in the ledger.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public enum JournalEntryType {
+
+    /**
+     * The opening balance of a new account. Its single credit posting brings money into the ledger from outside,
+     * so it is the only kind of entry whose postings do not sum to zero.
+     */
+    OPENING,
+
+    /**
+     * A transfer between two accounts: a debit posting on the source account and a credit posting of the same
+     * amount on the destination account.
+     */
+    TRANSFER
+}
@@ -0,0 +1,208 @@
+package com.example.onlinebanking.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money in minor units (cents), held in a {@code long}.
+ *
+ * <p>Amounts are stored in the database as {@code DECIMAL} columns with two decimal places and exchanged as
+ * {@link BigDecimal} in the API, but a {@link BigDecimal} allocates an object for every operation. A Money value holds
+ * the same amount exactly, and the static methods of this class work on plain {@code long} minor units, so that hot
+ * paths can check and update balances without allocating anything. Every operation is checked: an amount with more
+ * than two decimal places, or a result beyond the range of a {@code long}, is rejected instead of being rounded or
+ * wrapped around.
+ *
+ * <p>Money is immutable and serialized to JSON as a plain number. {@link MoneyConverter} maps it to a
+ * {@code DECIMAL} column.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * The number of decimal places of an amount.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * No money.
+     */
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Returns the amount of a number of minor units.
+     *
+     * @param minorUnits the amount in cents.
+     * @return the amount.
+     */
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Returns the amount of a decimal number.
+     *
+     * @param amount the amount, with at most two decimal places.
+     * @return the amount.
+     * @throws RuntimeException if the amount has more than two decimal places or is out of range.
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return ofMinorUnits(toMinorUnits(amount));
+    }
+
+    /**
+     * Gets the amount in minor units.
+     *
+     * @return the amount in cents.
+     */
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Converts the amount to a decimal number.
+     *
+     * @return the amount, with two decimal places.
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minorUnits);
+    }
+
+    /**
+     * Adds an amount to this one.
+     *
+     * @param other the amount to add.
+     * @return the sum.
+     * @throws RuntimeException if the sum is out of range.
+     */
+    public Money plus(Money other) {
+        return ofMinorUnits(add(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Subtracts an amount from this one.
+     *
+     * @param other the amount to subtract.
+     * @return the difference.
+     * @throws RuntimeException if the difference is out of range.
+     */
+    public Money minus(Money other) {
+        return ofMinorUnits(subtract(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Tells whether this amount is lower than another one.
+     *
+     * @param other the amount to compare with.
+     * @return {@code true} if this amount is lower.
+     */
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    /**
+     * Returns the sign of the amount.
+     *
+     * @return {@code -1}, {@code 0} or {@code 1}.
+     */
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof Money money && minorUnits == money.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * Converts an amount to minor units (cents).
+     *
+     * @param amount the amount, with at most two decimal places.
+     * @return the amount in minor units.
+     * @throws RuntimeException if the amount has more than two decimal places or does not fit in a {@code long}.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        BigDecimal scaled;
+        try {
+            scaled = amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException ex) {
+            throw new RuntimeException("Amount must have at most 2 decimal places", ex);
+        }
+        try {
+            return scaled.unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new RuntimeException("Amount out of range", ex);
+        }
+    }
+
+    /**
+     * Converts minor units (cents) to a decimal amount.
+     *
+     * @param minorUnits the amount in cents.
+     * @return the amount, with two decimal places.
+     */
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Adds two amounts in minor units, without allocating.
+     *
+     * @param augend the first amount in cents.
+     * @param addend the second amount in cents.
+     * @return the sum in cents.
+     * @throws RuntimeException if the sum does not fit in a {@code long}.
+     */
+    public static long add(long augend, long addend) {
+        try {
+            return Math.addExact(augend, addend);
+        } catch (ArithmeticException ex) {
+            throw new RuntimeException("Amount out of range", ex);
+        }
+    }
+
+    /**
+     * Subtracts an amount in minor units from another, without allocating.
+     *
+     * @param minuend the amount in cents to subtract from.
+     * @param subtrahend the amount in cents to subtract.
+     * @return the difference in cents.
+     * @throws RuntimeException if the difference does not fit in a {@code long}.
+     */
+    public static long subtract(long minuend, long subtrahend) {
+        try {
+            return Math.subtractExact(minuend, subtrahend);
+        } catch (ArithmeticException ex) {
+            throw new RuntimeException("Amount out of range", ex);
+        }
+    }
+}
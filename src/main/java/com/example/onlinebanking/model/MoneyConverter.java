@@ -0,0 +1,40 @@
+package com.example.onlinebanking.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps a {@link Money} attribute to a {@code DECIMAL} column with two decimal places.
+ * The conversion is exact in both directions; a stored value with more than two decimal places is rejected.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    /**
+     * Converts an amount to the value stored in the column.
+     *
+     * @param money the amount, or {@code null}.
+     * @return the amount with two decimal places, or {@code null}.
+     */
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    /**
+     * Converts the value stored in the column to an amount.
+     *
+     * @param value the stored value, or {@code null}.
+     * @return the amount, or {@code null}.
+     */
+    @Override
+    public Money convertToEntityAttribute(BigDecimal value) {
+        return value == null ? null : Money.of(value);
+    }
+}
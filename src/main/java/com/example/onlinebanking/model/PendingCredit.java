@@ -0,0 +1,87 @@
+package com.example.onlinebanking.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * A credit of a transfer that has been debited and recorded but not yet added to the balance of its destination account.
+ *
+ * <p>Used by {@link com.example.onlinebanking.service.engine.AccountMailboxEngine}: the transaction that debits the
+ * source account inserts this row together with the {@link Transaction}, and a background flusher adds the sum of
+ * the pending credits of each account to its balance with one update, then deletes the rows. Because the credit is
+ * stored with the debit, a crash between the two loses nothing.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Entity
+@Table(name = "pending_credit")
+public class PendingCredit {
+
+    /**
+     * Unique identifier for the pending credit.
+     * This value is drawn from the {@code pending_credit_seq} sequence.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_credit_seq")
+    @SequenceGenerator(name = "pending_credit_seq", sequenceName = "pending_credit_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The ID of the account to credit.
+     */
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * The amount to add to the balance of the account.
+     */
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    /**
+     * Constructs an empty PendingCredit, as required by JPA.
+     */
+    public PendingCredit() {
+    }
+
+    /**
+     * Constructs a PendingCredit for an account.
+     *
+     * @param accountId the ID of the account to credit.
+     * @param amount the amount to add to its balance.
+     */
+    public PendingCredit(Long accountId, BigDecimal amount) {
+        this.accountId = accountId;
+        this.amount = amount;
+    }
+
+    /**
+     * Gets the unique identifier of the pending credit.
+     *
+     * @return the pending credit ID.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ID of the account to credit.
+     *
+     * @return the account ID.
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Gets the amount to add to the balance of the account.
+     *
+     * @return the amount.
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.onlinebanking.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a {@link JournalEntry}: an amount taken from or added to the balance of one account.
+ *
+ * <p>Postings are append-only. The ledger balance of an account is the sum of its credit postings minus the sum of its
+ * debit postings, read through the index on the account.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Entity
+@Table(name = "posting", indexes = @Index(name = "idx_posting_account", columnList = "account_id"))
+public class Posting {
+
+    /**
+     * Unique identifier for the posting.
+     * This value is drawn from the {@code posting_seq} sequence.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posting_seq")
+    @SequenceGenerator(name = "posting_seq", sequenceName = "posting_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The journal entry the posting belongs to.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "journal_entry_id", nullable = false)
+    private JournalEntry journalEntry;
+
+    /**
+     * The ID of the account the posting applies to.
+     */
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * Whether the amount is taken from or added to the balance of the account.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private PostingDirection direction;
+
+    /**
+     * The amount of the posting, always positive.
+     */
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    /**
+     * Constructs an empty Posting, as required by JPA.
+     */
+    protected Posting() {
+    }
+
+    /**
+     * Constructs a posting of a journal entry; see {@link JournalEntry#addPosting(Long, PostingDirection, BigDecimal)}.
+     *
+     * @param journalEntry the journal entry the posting belongs to.
+     * @param accountId the ID of the account the posting applies to.
+     * @param direction whether the amount is taken from or added to the balance of the account.
+     * @param amount the amount, which must be positive.
+     */
+    Posting(JournalEntry journalEntry, Long accountId, PostingDirection direction, BigDecimal amount) {
+        this.journalEntry = journalEntry;
+        this.accountId = accountId;
+        this.direction = direction;
+        this.amount = amount;
+    }
+
+    /**
+     * Gets the unique identifier of the posting.
+     *
+     * @return the posting ID.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the journal entry the posting belongs to.
+     *
+     * @return the journal entry.
+     */
+    public JournalEntry getJournalEntry() {
+        return journalEntry;
+    }
+
+    /**
+     * Gets the ID of the account the posting applies to.
+     *
+     * @return the account ID.
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Gets whether the amount is taken from or added to the balance of the account.
+     *
+     * @return the direction.
+     */
+    public PostingDirection getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the amount of the posting.
+     *
+     * @return the amount, always positive.
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.onlinebanking.model;
+
+/**
+ * Enumerates the sides of a {@link Posting}. The amount of a posting is always positive; the direction says whether
+ * it is taken from or added to the balance of its account.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public enum PostingDirection {
+
+    /**
+     * The amount is taken from the balance of the account.
+     */
+    DEBIT,
+
+    /**
+     * The amount is added to the balance of the account.
+     */
+    CREDIT
+}
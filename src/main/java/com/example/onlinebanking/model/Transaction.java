@@ -2,7 +2,6 @@ package com.example.onlinebanking.model;
 
 import jakarta.persistence.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -10,27 +9,37 @@ import java.time.LocalDateTime;
  * This entity is used to store details about transactions such as deposits, withdrawals, and transfers.
  * Each transaction is associated with one or more accounts, depending on the type of transaction.
  *
+ * <p>The history of an account is read newest first from either side of the transaction, so each side has a
+ * composite index on (account, timestamp, id), which is exactly the order of the history. A history query scans both
+ * indexes in order and merges the results.
+ *
  * @author Your Name
  * @version 1.0
  * @since 2023-10-01
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_transaction_from_account_timestamp", columnList = "from_account_id, timestamp, id"),
+        @Index(name = "idx_transaction_to_account_timestamp", columnList = "to_account_id, timestamp, id")
+})
 public class Transaction {
 
     /**
      * Unique identifier for the transaction.
-     * This value is automatically generated by the database.
+     * This value is drawn from the {@code transaction_seq} sequence.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     /**
      * The amount of money involved in the transaction.
-     * This value cannot be null.
+     * This value cannot be null, and is stored as a {@code DECIMAL} with two decimal places.
      */
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     /**
      * The type of transaction.
@@ -88,7 +97,7 @@ public class Transaction {
      *
      * @return the transaction amount.
      */
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
@@ -97,7 +106,7 @@ public class Transaction {
      *
      * @param amount the transaction amount to set.
      */
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -0,0 +1,264 @@
+package com.example.onlinebanking.model;
+
+import com.example.onlinebanking.model.dto.TransactionRecordView;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Fixed-width binary encoding of a {@link Transaction}, read and written in place over a {@link ByteBuffer}.
+ *
+ * <p>A {@link Transaction} holds a {@link BigDecimal}, a {@link LocalDateTime}, a {@link String} and two entity
+ * references. A record holds the same information in {@value #SIZE} bytes, in the byte order of the buffer:
+ * <pre>
+ *  offset  size  field
+ *       0     8  id (or a sequence number, for records not stored yet)
+ *       8     8  ID of the source account, 0 if none
+ *      16     8  ID of the destination account, 0 if none
+ *      24     8  amount in minor units (cents)
+ *      32     8  timestamp in microseconds since the epoch, the local date and time read as UTC
+ *      40     1  type code, see {@link #typeCode(String)}
+ *      41     7  reserved, zero, so that records stay aligned on 8 bytes
+ * </pre>
+ *
+ * <p>The class is a flyweight: {@link #wrap(ByteBuffer, int)} points it at a record, and its accessors read and write
+ * that record directly, without copying it or moving the position of the buffer. One instance can therefore walk
+ * a whole buffer of records without allocating. An instance is not thread-safe.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public final class TransactionRecord {
+
+    /**
+     * The size of a record in bytes.
+     */
+    public static final int SIZE = 48;
+
+    /**
+     * The type code of a {@code TRANSFER} transaction.
+     */
+    public static final byte TYPE_TRANSFER = 1;
+
+    /**
+     * The type code of a {@code DEPOSIT} transaction.
+     */
+    public static final byte TYPE_DEPOSIT = 2;
+
+    /**
+     * The type code of a {@code WITHDRAWAL} transaction.
+     */
+    public static final byte TYPE_WITHDRAWAL = 3;
+
+    private static final int ID = 0;
+    private static final int FROM_ACCOUNT_ID = 8;
+    private static final int TO_ACCOUNT_ID = 16;
+    private static final int AMOUNT = 24;
+    private static final int TIMESTAMP = 32;
+    private static final int TYPE = 40;
+    private static final int RESERVED = 41;
+
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    /**
+     * Points this record at {@value #SIZE} bytes of a buffer.
+     *
+     * @param buffer the buffer holding the record.
+     * @param offset the index of the first byte of the record.
+     * @return this record.
+     * @throws IndexOutOfBoundsException if the buffer does not hold a whole record at the offset.
+     */
+    public TransactionRecord wrap(ByteBuffer buffer, int offset) {
+        if (offset < 0 || offset > buffer.limit() - SIZE) {
+            throw new IndexOutOfBoundsException("No room for a transaction record at offset " + offset);
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Writes all the fields of the record.
+     *
+     * @param id the transaction ID.
+     * @param fromAccountId the ID of the source account, 0 if none.
+     * @param toAccountId the ID of the destination account, 0 if none.
+     * @param amount the amount in minor units.
+     * @param timestampMicros the timestamp in microseconds since the epoch.
+     * @param typeCode the type code.
+     */
+    public void write(long id, long fromAccountId, long toAccountId, long amount, long timestampMicros, byte typeCode) {
+        buffer.putLong(offset + ID, id);
+        buffer.putLong(offset + FROM_ACCOUNT_ID, fromAccountId);
+        buffer.putLong(offset + TO_ACCOUNT_ID, toAccountId);
+        buffer.putLong(offset + AMOUNT, amount);
+        buffer.putLong(offset + TIMESTAMP, timestampMicros);
+        buffer.put(offset + TYPE, typeCode);
+        buffer.put(offset + RESERVED, (byte) 0);
+        buffer.putShort(offset + RESERVED + 1, (short) 0);
+        buffer.putInt(offset + RESERVED + 3, 0);
+    }
+
+    /**
+     * Writes a transaction into the record.
+     *
+     * @param transaction the transaction, with its account references set.
+     * @throws RuntimeException if the amount has more than two decimal places or the type is unknown.
+     */
+    public void write(Transaction transaction) {
+        write(transaction.getId() == null ? 0 : transaction.getId(),
+                transaction.getFromAccount() == null ? 0 : transaction.getFromAccount().getId(),
+                transaction.getToAccount() == null ? 0 : transaction.getToAccount().getId(),
+                transaction.getAmount().getMinorUnits(),
+                toEpochMicros(transaction.getTimestamp()),
+                typeCode(transaction.getType()));
+    }
+
+    /**
+     * Writes a transaction read by the export query into the record.
+     *
+     * @param transaction the transaction.
+     * @throws RuntimeException if the amount has more than two decimal places or the type is unknown.
+     */
+    public void write(TransactionRecordView transaction) {
+        write(transaction.getId(),
+                transaction.getFromAccountId() == null ? 0 : transaction.getFromAccountId(),
+                transaction.getToAccountId() == null ? 0 : transaction.getToAccountId(),
+                Money.toMinorUnits(transaction.getAmount()),
+                toEpochMicros(transaction.getTimestamp()),
+                typeCode(transaction.getType()));
+    }
+
+    /**
+     * Gets the transaction ID, or the sequence number of a record not stored yet.
+     *
+     * @return the ID.
+     */
+    public long getId() {
+        return buffer.getLong(offset + ID);
+    }
+
+    /**
+     * Gets the ID of the source account.
+     *
+     * @return the account ID, 0 if none.
+     */
+    public long getFromAccountId() {
+        return buffer.getLong(offset + FROM_ACCOUNT_ID);
+    }
+
+    /**
+     * Gets the ID of the destination account.
+     *
+     * @return the account ID, 0 if none.
+     */
+    public long getToAccountId() {
+        return buffer.getLong(offset + TO_ACCOUNT_ID);
+    }
+
+    /**
+     * Gets the amount in minor units.
+     *
+     * @return the amount in cents.
+     */
+    public long getAmountMinorUnits() {
+        return buffer.getLong(offset + AMOUNT);
+    }
+
+    /**
+     * Gets the amount.
+     *
+     * @return the amount, with two decimal places.
+     */
+    public BigDecimal getAmount() {
+        return Money.toBigDecimal(getAmountMinorUnits());
+    }
+
+    /**
+     * Gets the timestamp in microseconds since the epoch.
+     *
+     * @return the timestamp.
+     */
+    public long getTimestampMicros() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    /**
+     * Gets the timestamp.
+     *
+     * @return the timestamp, to the microsecond.
+     */
+    public LocalDateTime getTimestamp() {
+        return fromEpochMicros(getTimestampMicros());
+    }
+
+    /**
+     * Gets the type code.
+     *
+     * @return the type code.
+     */
+    public byte getTypeCode() {
+        return buffer.get(offset + TYPE);
+    }
+
+    /**
+     * Gets the transaction type.
+     *
+     * @return the type: {@code DEPOSIT}, {@code WITHDRAWAL} or {@code TRANSFER}.
+     * @throws RuntimeException if the type code is unknown.
+     */
+    public String getType() {
+        byte code = getTypeCode();
+        return switch (code) {
+            case TYPE_TRANSFER -> "TRANSFER";
+            case TYPE_DEPOSIT -> "DEPOSIT";
+            case TYPE_WITHDRAWAL -> "WITHDRAWAL";
+            default -> throw new RuntimeException("Unknown transaction type code " + code);
+        };
+    }
+
+    /**
+     * Returns the code of a transaction type.
+     *
+     * @param type the type: {@code DEPOSIT}, {@code WITHDRAWAL} or {@code TRANSFER}.
+     * @return the type code.
+     * @throws RuntimeException if the type is unknown.
+     */
+    public static byte typeCode(String type) {
+        if (type == null) {
+            throw new RuntimeException("Unknown transaction type null");
+        }
+        return switch (type) {
+            case "TRANSFER" -> TYPE_TRANSFER;
+            case "DEPOSIT" -> TYPE_DEPOSIT;
+            case "WITHDRAWAL" -> TYPE_WITHDRAWAL;
+            default -> throw new RuntimeException("Unknown transaction type " + type);
+        };
+    }
+
+    /**
+     * Converts a timestamp to microseconds since the epoch, reading it as UTC. Nanoseconds are truncated.
+     *
+     * @param timestamp the timestamp.
+     * @return the microseconds since the epoch.
+     */
+    public static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    /**
+     * Converts microseconds since the epoch back to a timestamp.
+     *
+     * @param micros the microseconds since the epoch.
+     * @return the timestamp.
+     */
+    public static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
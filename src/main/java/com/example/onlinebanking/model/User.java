@@ -7,21 +7,23 @@ import java.util.Set;
 /**
  * Represents a user entity in the system.
  * This class is used to store user information such as username, password, role, and associated accounts.
- * It is mapped to a database table using JPA annotations.
+ * It is mapped to the "users" table, because USER is a reserved word in H2 and most other databases.
  *
  * @author Your Name
  * @version 1.0
  * @since 2023-10-01
  */
 @Entity
+@Table(name = "users")
 public class User {
 
     /**
      * The unique identifier for the user.
-     * This field is automatically generated by the database.
+     * This value is drawn from the {@code users_seq} sequence.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -0,0 +1,98 @@
+package com.example.onlinebanking.model.dto;
+
+/**
+ * Data Transfer Object (DTO) reporting the statistics of the account lookup cache.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public class AccountCacheStatsDTO {
+
+    /**
+     * The number of lookups served from the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of lookups that had to read the database.
+     */
+    private long misses;
+
+    /**
+     * The ratio of hits to lookups, {@code 1.0} if there was no lookup yet.
+     */
+    private double hitRate;
+
+    /**
+     * The number of entries evicted because of the size limit or the time-to-live.
+     */
+    private long evictions;
+
+    /**
+     * The approximate number of cached accounts.
+     */
+    private long size;
+
+    /**
+     * Constructs an AccountCacheStatsDTO with the provided values.
+     *
+     * @param hits the number of hits.
+     * @param misses the number of misses.
+     * @param hitRate the ratio of hits to lookups.
+     * @param evictions the number of evictions.
+     * @param size the approximate number of cached accounts.
+     */
+    public AccountCacheStatsDTO(long hits, long misses, double hitRate, long evictions, long size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.hitRate = hitRate;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return the hit count.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to read the database.
+     *
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the ratio of hits to lookups.
+     *
+     * @return the hit rate.
+     */
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    /**
+     * Gets the number of entries evicted because of the size limit or the time-to-live.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the approximate number of cached accounts.
+     *
+     * @return the cache size.
+     */
+    public long getSize() {
+        return size;
+    }
+}
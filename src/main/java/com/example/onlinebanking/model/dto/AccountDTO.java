@@ -1,5 +1,7 @@
 package com.example.onlinebanking.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 
 /**
@@ -7,12 +9,22 @@ import java.math.BigDecimal;
  * This class is used to transfer account-related data between layers of the application,
  * such as between the controller and service layers, without exposing the underlying entity structure.
  *
+ * <p>Account read endpoints return this DTO, populated by a constructor projection that selects only the ID,
+ * account number and balance, so neither the user nor the transactions of the account are loaded or serialized.
+ * Fields that are not populated are omitted from the JSON output.
+ *
  * @author Your Name
  * @version 1.0
  * @since 2023-10-01
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class AccountDTO {
 
+    /**
+     * The unique identifier of the account.
+     */
+    private Long id;
+
     /**
      * The account number of the account.
      */
@@ -28,6 +40,44 @@ public class AccountDTO {
      */
     private Long userId;
 
+    /**
+     * Default constructor for AccountDTO.
+     */
+    public AccountDTO() {
+    }
+
+    /**
+     * Constructs an AccountDTO with the given ID, account number and balance.
+     * This constructor is used by the JPQL constructor projection of the account repository.
+     *
+     * @param id the unique identifier of the account.
+     * @param accountNumber the account number.
+     * @param balance the balance.
+     */
+    public AccountDTO(Long id, String accountNumber, BigDecimal balance) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+    }
+
+    /**
+     * Gets the unique identifier of the account.
+     *
+     * @return the account ID.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the unique identifier of the account.
+     *
+     * @param id the account ID.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     /**
      * Gets the account number of the account.
      *
@@ -0,0 +1,66 @@
+package com.example.onlinebanking.model.dto;
+
+/**
+ * Data Transfer Object (DTO) describing one row of a bulk account import that was not imported.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public class AccountImportRejectionDTO {
+
+    /**
+     * The line number of the row in the request body, starting at 1 (the header of a CSV body is line 1).
+     */
+    private long line;
+
+    /**
+     * The account number of the row, or {@code null} if it could not be read.
+     */
+    private String accountNumber;
+
+    /**
+     * The reason why the row was rejected.
+     */
+    private String reason;
+
+    /**
+     * Constructs an AccountImportRejectionDTO with the provided values.
+     *
+     * @param line the line number of the row.
+     * @param accountNumber the account number of the row, or {@code null}.
+     * @param reason the reason why the row was rejected.
+     */
+    public AccountImportRejectionDTO(long line, String accountNumber, String reason) {
+        this.line = line;
+        this.accountNumber = accountNumber;
+        this.reason = reason;
+    }
+
+    /**
+     * Gets the line number of the row.
+     *
+     * @return the line number.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the account number of the row.
+     *
+     * @return the account number, or {@code null} if it could not be read.
+     */
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    /**
+     * Gets the reason why the row was rejected.
+     *
+     * @return the reason.
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.onlinebanking.model.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) summarizing a bulk account import.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public class AccountImportResultDTO {
+
+    /**
+     * The number of accounts created.
+     */
+    private long imported;
+
+    /**
+     * The number of rows rejected.
+     */
+    private long rejected;
+
+    /**
+     * The rejected rows, chunk by chunk. The list is capped, so it can be shorter than {@link #rejected}.
+     */
+    private List<AccountImportRejectionDTO> rejections;
+
+    /**
+     * Constructs an AccountImportResultDTO with the provided values.
+     *
+     * @param imported the number of accounts created.
+     * @param rejected the number of rows rejected.
+     * @param rejections the reported rejected rows.
+     */
+    public AccountImportResultDTO(long imported, long rejected, List<AccountImportRejectionDTO> rejections) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.rejections = rejections;
+    }
+
+    /**
+     * Gets the number of accounts created.
+     *
+     * @return the imported account count.
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Gets the number of rows rejected.
+     *
+     * @return the rejected row count.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the reported rejected rows.
+     *
+     * @return the rejected rows, at most {@code banking.account.import.max-reported-rejections} of them.
+     */
+    public List<AccountImportRejectionDTO> getRejections() {
+        return rejections;
+    }
+}
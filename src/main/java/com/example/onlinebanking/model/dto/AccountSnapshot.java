@@ -0,0 +1,33 @@
+package com.example.onlinebanking.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable snapshot of an account as held by the account lookup cache.
+ * The ID, account number and owner never change; the balance is the last committed one, identified by its version.
+ *
+ * @param id the unique identifier of the account.
+ * @param accountNumber the account number.
+ * @param userId the unique identifier of the user owning the account.
+ * @param balance the committed balance.
+ * @param version the optimistic-locking version of the committed balance, or {@code null} if the row has none yet.
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public record AccountSnapshot(Long id, String accountNumber, Long userId, BigDecimal balance, Long version) {
+
+    /**
+     * Tells whether this snapshot reflects a later committed state of the account than another one.
+     *
+     * @param other the snapshot to compare with.
+     * @return {@code true} if this snapshot has a higher version.
+     */
+    public boolean isNewerThan(AccountSnapshot other) {
+        return versionOrZero(version) > versionOrZero(other.version);
+    }
+
+    private static long versionOrZero(Long version) {
+        return version == null ? 0L : version;
+    }
+}
@@ -2,7 +2,8 @@ package com.example.onlinebanking.model.dto;
 
 /**
  * AuthResponse is a Data Transfer Object (DTO) class used for handling authentication responses.
- * It encapsulates the JWT token generated after a successful authentication process.
+ * It encapsulates the JWT token generated after a successful authentication process, and the refresh token
+ * that can be exchanged for a new one when it expires.
  *
  * <p>This class is primarily used to transfer the authentication token from the server to the client,
  * typically in response to a successful login operation.
@@ -22,6 +23,10 @@ public class AuthResponse {
 
     private String token;
 
+    private String refreshToken;
+
+    private Long expiresIn;
+
     /**
      * Constructs an AuthResponse object with the provided JWT token.
      *
@@ -31,6 +36,19 @@ public class AuthResponse {
         this.token = token;
     }
 
+    /**
+     * Constructs an AuthResponse object with the provided JWT token and refresh token.
+     *
+     * @param token the JWT token generated after successful authentication.
+     * @param refreshToken the refresh token to exchange for a new JWT token at {@code POST /api/auth/refresh}.
+     * @param expiresIn the lifetime of the JWT token, in seconds.
+     */
+    public AuthResponse(String token, String refreshToken, Long expiresIn) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
     // Getters and Setters
 
     /**
@@ -50,4 +68,40 @@ public class AuthResponse {
     public void setToken(String token) {
         this.token = token;
     }
+
+    /**
+     * Gets the refresh token.
+     *
+     * @return the refresh token.
+     */
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    /**
+     * Sets the refresh token.
+     *
+     * @param refreshToken the refresh token to set.
+     */
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    /**
+     * Gets the lifetime of the JWT token.
+     *
+     * @return the lifetime of the JWT token, in seconds.
+     */
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+
+    /**
+     * Sets the lifetime of the JWT token.
+     *
+     * @param expiresIn the lifetime of the JWT token, in seconds.
+     */
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
 }
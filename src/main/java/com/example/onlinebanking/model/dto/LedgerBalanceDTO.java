@@ -0,0 +1,94 @@
+package com.example.onlinebanking.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) comparing the stored balance of an account with the balance derived from its ledger
+ * postings. Both should always be equal; a difference is reported by the ledger reconciliation.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public class LedgerBalanceDTO {
+
+    /**
+     * The ID of the account.
+     */
+    private Long accountId;
+
+    /**
+     * The account number of the account.
+     */
+    private String accountNumber;
+
+    /**
+     * The stored balance, including stripes and credits not yet applied.
+     */
+    private BigDecimal balance;
+
+    /**
+     * The sum of the credit postings minus the sum of the debit postings of the account.
+     */
+    private BigDecimal ledgerBalance;
+
+    /**
+     * Constructs a LedgerBalanceDTO with the provided values.
+     *
+     * @param accountId the ID of the account.
+     * @param accountNumber the account number of the account.
+     * @param balance the stored balance.
+     * @param ledgerBalance the balance derived from the postings.
+     */
+    public LedgerBalanceDTO(Long accountId, String accountNumber, BigDecimal balance, BigDecimal ledgerBalance) {
+        this.accountId = accountId;
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.ledgerBalance = ledgerBalance;
+    }
+
+    /**
+     * Tells whether the stored balance equals the balance derived from the postings.
+     *
+     * @return {@code true} if both balances are numerically equal.
+     */
+    public boolean isReconciled() {
+        return balance.compareTo(ledgerBalance) == 0;
+    }
+
+    /**
+     * Gets the ID of the account.
+     *
+     * @return the account ID.
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Gets the account number of the account.
+     *
+     * @return the account number.
+     */
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    /**
+     * Gets the stored balance.
+     *
+     * @return the balance.
+     */
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    /**
+     * Gets the balance derived from the postings.
+     *
+     * @return the ledger balance.
+     */
+    public BigDecimal getLedgerBalance() {
+        return ledgerBalance;
+    }
+}
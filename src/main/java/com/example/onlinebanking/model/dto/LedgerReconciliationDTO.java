@@ -0,0 +1,77 @@
+package com.example.onlinebanking.model.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) reporting the outcome of a ledger reconciliation.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public class LedgerReconciliationDTO {
+
+    /**
+     * The number of accounts checked.
+     */
+    private long accountsChecked;
+
+    /**
+     * The accounts whose stored balance differs from their ledger balance.
+     */
+    private List<LedgerBalanceDTO> mismatches;
+
+    /**
+     * The number of transfer entries whose postings do not sum to zero.
+     */
+    private long unbalancedEntries;
+
+    /**
+     * Constructs a LedgerReconciliationDTO with the provided values.
+     *
+     * @param accountsChecked the number of accounts checked.
+     * @param mismatches the accounts whose balances differ.
+     * @param unbalancedEntries the number of unbalanced transfer entries.
+     */
+    public LedgerReconciliationDTO(long accountsChecked, List<LedgerBalanceDTO> mismatches, long unbalancedEntries) {
+        this.accountsChecked = accountsChecked;
+        this.mismatches = mismatches;
+        this.unbalancedEntries = unbalancedEntries;
+    }
+
+    /**
+     * Tells whether every balance matches the ledger and every transfer entry balances.
+     *
+     * @return {@code true} if nothing was found.
+     */
+    public boolean isReconciled() {
+        return mismatches.isEmpty() && unbalancedEntries == 0;
+    }
+
+    /**
+     * Gets the number of accounts checked.
+     *
+     * @return the account count.
+     */
+    public long getAccountsChecked() {
+        return accountsChecked;
+    }
+
+    /**
+     * Gets the accounts whose stored balance differs from their ledger balance.
+     *
+     * @return the mismatched accounts.
+     */
+    public List<LedgerBalanceDTO> getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Gets the number of transfer entries whose postings do not sum to zero.
+     *
+     * @return the unbalanced entry count.
+     */
+    public long getUnbalancedEntries() {
+        return unbalancedEntries;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.onlinebanking.model.dto;
+
+/**
+ * RefreshRequest is a Data Transfer Object (DTO) class used to exchange a refresh token for a new JWT token.
+ *
+ * @author [Your Name]
+ * @version 1.0
+ * @since [Date]
+ */
+public class RefreshRequest {
+
+    private String refreshToken;
+
+    /**
+     * Constructs an empty RefreshRequest object.
+     */
+    public RefreshRequest() {
+    }
+
+    /**
+     * Constructs a RefreshRequest object with the provided refresh token.
+     *
+     * @param refreshToken the refresh token returned by the previous login or refresh.
+     */
+    public RefreshRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    /**
+     * Gets the refresh token.
+     *
+     * @return the refresh token.
+     */
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    /**
+     * Sets the refresh token.
+     *
+     * @param refreshToken the refresh token to set.
+     */
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
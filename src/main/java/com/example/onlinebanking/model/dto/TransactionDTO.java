@@ -1,12 +1,16 @@
 package com.example.onlinebanking.model.dto;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 /**
  * TransactionDTO is a Data Transfer Object (DTO) class representing a simplified view of a {@link Transaction}.
  * It is used to transfer transaction-related data between layers of the application, such as between the
  * controller and service layers, without exposing the entire entity.
  *
  * <p>This class includes fields such as source account, destination account, and transaction amount,
- * which are essential for transaction-related operations.
+ * which are essential for transaction-related operations. It is also used as a JPQL constructor projection
+ * for the transaction history, so that history rows are read without loading the entities.
  *
  * <p>Key features:
  * <ul>
@@ -22,14 +26,63 @@ package com.example.onlinebanking.model.dto;
  */
 public class TransactionDTO {
 
+    private Long id;
+
     private String fromAccount;
 
     private String toAccount;
 
-    private Double amount;
+    private BigDecimal amount;
+
+    private String type;
+
+    private LocalDateTime timestamp;
+
+    /**
+     * Default constructor for TransactionDTO.
+     */
+    public TransactionDTO() {
+    }
+
+    /**
+     * Constructs a TransactionDTO with all fields.
+     *
+     * @param id the transaction ID.
+     * @param fromAccount the source account number, or {@code null} for a deposit.
+     * @param toAccount the destination account number, or {@code null} for a withdrawal.
+     * @param amount the transaction amount.
+     * @param type the transaction type.
+     * @param timestamp the date and time of the transaction.
+     */
+    public TransactionDTO(Long id, String fromAccount, String toAccount, BigDecimal amount, String type, LocalDateTime timestamp) {
+        this.id = id;
+        this.fromAccount = fromAccount;
+        this.toAccount = toAccount;
+        this.amount = amount;
+        this.type = type;
+        this.timestamp = timestamp;
+    }
 
     // Getters and Setters
 
+    /**
+     * Gets the ID of the transaction.
+     *
+     * @return the transaction ID.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the transaction.
+     *
+     * @param id the transaction ID to set.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     /**
      * Gets the source account number for the transaction.
      *
@@ -71,7 +124,7 @@ public class TransactionDTO {
      *
      * @return the transaction amount.
      */
-    public Double getAmount() {
+    public BigDecimal getAmount() {
         return amount;
     }
 
@@ -80,7 +133,43 @@ public class TransactionDTO {
      *
      * @param amount the transaction amount to set.
      */
-    public void setAmount(Double amount) {
+    public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
+
+    /**
+     * Gets the type of the transaction.
+     *
+     * @return the transaction type.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the type of the transaction.
+     *
+     * @param type the transaction type to set.
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the date and time of the transaction.
+     *
+     * @return the transaction timestamp.
+     */
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Sets the date and time of the transaction.
+     *
+     * @param timestamp the transaction timestamp to set.
+     */
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
 }
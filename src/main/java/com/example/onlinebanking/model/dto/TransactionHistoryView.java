@@ -0,0 +1,58 @@
+package com.example.onlinebanking.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Interface-based projection of one row of an account's transaction history.
+ * It is the result type of the native history queries of the transaction repository, whose column aliases
+ * match the getters below, and is converted to a {@link TransactionDTO} by the service layer.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public interface TransactionHistoryView {
+
+    /**
+     * Gets the ID of the transaction.
+     *
+     * @return the transaction ID.
+     */
+    Long getId();
+
+    /**
+     * Gets the source account number of the transaction.
+     *
+     * @return the source account number, or {@code null} for a deposit.
+     */
+    String getFromAccount();
+
+    /**
+     * Gets the destination account number of the transaction.
+     *
+     * @return the destination account number, or {@code null} for a withdrawal.
+     */
+    String getToAccount();
+
+    /**
+     * Gets the amount of the transaction.
+     *
+     * @return the transaction amount.
+     */
+    BigDecimal getAmount();
+
+    /**
+     * Gets the type of the transaction.
+     *
+     * @return the transaction type.
+     */
+    String getType();
+
+    /**
+     * Gets the date and time of the transaction.
+     *
+     * @return the transaction timestamp.
+     */
+    LocalDateTime getTimestamp();
+}
@@ -0,0 +1,53 @@
+package com.example.onlinebanking.model.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) holding one page of an account's transaction history, newest first.
+ * The next page is requested by passing {@link #getNextCursor()} back as the {@code cursor} parameter.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public class TransactionPageDTO {
+
+    /**
+     * The transactions of this page, ordered by timestamp and ID, newest first.
+     */
+    private List<TransactionDTO> transactions;
+
+    /**
+     * The opaque position of the last transaction of this page, or {@code null} if this is the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Constructs a TransactionPageDTO with the provided values.
+     *
+     * @param transactions the transactions of the page.
+     * @param nextCursor the cursor of the next page, or {@code null} if there is none.
+     */
+    public TransactionPageDTO(List<TransactionDTO> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the transactions of this page.
+     *
+     * @return the transactions, newest first.
+     */
+    public List<TransactionDTO> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return the cursor of the next page, or {@code null} if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
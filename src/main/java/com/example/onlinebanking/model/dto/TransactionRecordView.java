@@ -0,0 +1,58 @@
+package com.example.onlinebanking.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Interface-based projection of one transaction with the IDs of its accounts instead of their account numbers.
+ * It is the result type of the native export query of the transaction repository, whose column aliases match the
+ * getters below, and is encoded as a {@link com.example.onlinebanking.model.TransactionRecord}.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public interface TransactionRecordView {
+
+    /**
+     * Gets the ID of the transaction.
+     *
+     * @return the transaction ID.
+     */
+    Long getId();
+
+    /**
+     * Gets the ID of the source account of the transaction.
+     *
+     * @return the source account ID, or {@code null} for a deposit.
+     */
+    Long getFromAccountId();
+
+    /**
+     * Gets the ID of the destination account of the transaction.
+     *
+     * @return the destination account ID, or {@code null} for a withdrawal.
+     */
+    Long getToAccountId();
+
+    /**
+     * Gets the amount of the transaction.
+     *
+     * @return the transaction amount.
+     */
+    BigDecimal getAmount();
+
+    /**
+     * Gets the type of the transaction.
+     *
+     * @return the transaction type.
+     */
+    String getType();
+
+    /**
+     * Gets the date and time of the transaction.
+     *
+     * @return the transaction timestamp.
+     */
+    LocalDateTime getTimestamp();
+}
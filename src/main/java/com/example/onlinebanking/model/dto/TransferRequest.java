@@ -0,0 +1,95 @@
+package com.example.onlinebanking.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * TransferRequest is a Data Transfer Object (DTO) class describing a single transfer inside a batch.
+ * It carries the same values as the request parameters of {@code POST /api/transfers}.
+ *
+ * @author [Your Name]
+ * @version 1.0
+ * @since [Date]
+ */
+public class TransferRequest {
+
+    private String fromAccountNumber;
+
+    private String toAccountNumber;
+
+    private BigDecimal amount;
+
+    /**
+     * Constructs an empty TransferRequest, used when deserializing a request body.
+     */
+    public TransferRequest() {
+    }
+
+    /**
+     * Constructs a TransferRequest with the provided values.
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to transfer.
+     */
+    public TransferRequest(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        this.fromAccountNumber = fromAccountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.amount = amount;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Gets the account number of the source account.
+     *
+     * @return the source account number.
+     */
+    public String getFromAccountNumber() {
+        return fromAccountNumber;
+    }
+
+    /**
+     * Sets the account number of the source account.
+     *
+     * @param fromAccountNumber the source account number to set.
+     */
+    public void setFromAccountNumber(String fromAccountNumber) {
+        this.fromAccountNumber = fromAccountNumber;
+    }
+
+    /**
+     * Gets the account number of the destination account.
+     *
+     * @return the destination account number.
+     */
+    public String getToAccountNumber() {
+        return toAccountNumber;
+    }
+
+    /**
+     * Sets the account number of the destination account.
+     *
+     * @param toAccountNumber the destination account number to set.
+     */
+    public void setToAccountNumber(String toAccountNumber) {
+        this.toAccountNumber = toAccountNumber;
+    }
+
+    /**
+     * Gets the amount to transfer.
+     *
+     * @return the amount.
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    /**
+     * Sets the amount to transfer.
+     *
+     * @param amount the amount to set.
+     */
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
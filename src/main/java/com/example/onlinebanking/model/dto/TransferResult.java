@@ -0,0 +1,89 @@
+package com.example.onlinebanking.model.dto;
+
+/**
+ * TransferResult is a Data Transfer Object (DTO) class reporting the outcome of one transfer of a batch.
+ * Results are returned in the order of the submitted transfers, and {@link #getIndex()} refers to that position.
+ *
+ * @author [Your Name]
+ * @version 1.0
+ * @since [Date]
+ */
+public class TransferResult {
+
+    /**
+     * Status of a transfer that was applied.
+     */
+    public static final String COMPLETED = "COMPLETED";
+
+    /**
+     * Status of a transfer that was rejected.
+     */
+    public static final String FAILED = "FAILED";
+
+    private final int index;
+
+    private final String status;
+
+    private final String message;
+
+    /**
+     * Constructs a TransferResult with the provided values.
+     *
+     * @param index the zero-based position of the transfer in the batch.
+     * @param status the outcome, {@link #COMPLETED} or {@link #FAILED}.
+     * @param message the reason of a failure, or {@code null} for a completed transfer.
+     */
+    public TransferResult(int index, String status, String message) {
+        this.index = index;
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * Creates the result of a completed transfer.
+     *
+     * @param index the zero-based position of the transfer in the batch.
+     * @return the result.
+     */
+    public static TransferResult completed(int index) {
+        return new TransferResult(index, COMPLETED, null);
+    }
+
+    /**
+     * Creates the result of a rejected transfer.
+     *
+     * @param index the zero-based position of the transfer in the batch.
+     * @param message the reason of the failure.
+     * @return the result.
+     */
+    public static TransferResult failed(int index, String message) {
+        return new TransferResult(index, FAILED, message);
+    }
+
+    /**
+     * Gets the zero-based position of the transfer in the batch.
+     *
+     * @return the index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the outcome of the transfer.
+     *
+     * @return {@link #COMPLETED} or {@link #FAILED}.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the reason of a failure.
+     *
+     * @return the failure message, or {@code null} for a completed transfer.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.onlinebanking.model.dto;
+
+/**
+ * Data Transfer Object (DTO) reporting concurrency statistics of the transfer service.
+ * It is used to decide whether the optimistic or the pessimistic locking mode suits the current workload.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public class TransferStatsDTO {
+
+    /**
+     * The active locking mode.
+     */
+    private String lockingMode;
+
+    /**
+     * The number of optimistic version conflicts detected.
+     */
+    private long conflicts;
+
+    /**
+     * The number of attempts that were retried after a conflict.
+     */
+    private long retries;
+
+    /**
+     * The number of transfers that failed because the retry budget was exhausted.
+     */
+    private long exhausted;
+
+    /**
+     * Constructs a TransferStatsDTO with the provided values.
+     *
+     * @param lockingMode the active locking mode.
+     * @param conflicts the number of optimistic version conflicts detected.
+     * @param retries the number of retried attempts.
+     * @param exhausted the number of transfers that ran out of retries.
+     */
+    public TransferStatsDTO(String lockingMode, long conflicts, long retries, long exhausted) {
+        this.lockingMode = lockingMode;
+        this.conflicts = conflicts;
+        this.retries = retries;
+        this.exhausted = exhausted;
+    }
+
+    /**
+     * Gets the active locking mode.
+     *
+     * @return the locking mode.
+     */
+    public String getLockingMode() {
+        return lockingMode;
+    }
+
+    /**
+     * Gets the number of optimistic version conflicts detected.
+     *
+     * @return the conflict count.
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Gets the number of attempts that were retried after a conflict.
+     *
+     * @return the retry count.
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * Gets the number of transfers that failed because the retry budget was exhausted.
+     *
+     * @return the exhausted count.
+     */
+    public long getExhausted() {
+        return exhausted;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.onlinebanking.model.dto;
+
+/**
+ * Data Transfer Object (DTO) reporting the state of a transfer submitted for asynchronous execution.
+ * It is returned when the transfer is accepted and by {@code GET /api/transfers/{id}}.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public class TransferStatusDTO {
+
+    /**
+     * Status of a transfer that is queued or being performed.
+     */
+    public static final String PENDING = "PENDING";
+
+    /**
+     * Status of a transfer that was applied.
+     */
+    public static final String COMPLETED = TransferResult.COMPLETED;
+
+    /**
+     * Status of a transfer that was rejected.
+     */
+    public static final String FAILED = TransferResult.FAILED;
+
+    /**
+     * The ID the transfer was accepted under.
+     */
+    private final String id;
+
+    /**
+     * The state of the transfer: PENDING, COMPLETED or FAILED.
+     */
+    private final String status;
+
+    /**
+     * The reason of a failure, or {@code null}.
+     */
+    private final String message;
+
+    /**
+     * Constructs a TransferStatusDTO with the provided values.
+     *
+     * @param id the ID the transfer was accepted under.
+     * @param status the state of the transfer.
+     * @param message the reason of a failure, or {@code null}.
+     */
+    public TransferStatusDTO(String id, String status, String message) {
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * Gets the ID the transfer was accepted under.
+     *
+     * @return the transfer ID.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the state of the transfer.
+     *
+     * @return {@link #PENDING}, {@link #COMPLETED} or {@link #FAILED}.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the reason of a failure.
+     *
+     * @return the failure message, or {@code null}.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
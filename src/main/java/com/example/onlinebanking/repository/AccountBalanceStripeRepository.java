@@ -0,0 +1,75 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.AccountBalanceStripe;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link AccountBalanceStripe} entities.
+ * This interface extends {@link JpaRepository} to provide CRUD operations and custom query methods for the
+ * AccountBalanceStripe entity.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public interface AccountBalanceStripeRepository extends JpaRepository<AccountBalanceStripe, Long> {
+
+    /**
+     * Counts the stripes of every striped account.
+     *
+     * @return one {@code [accountId, stripeCount]} pair per striped account.
+     */
+    @Query("select s.accountId, count(s) from AccountBalanceStripe s group by s.accountId")
+    List<Object[]> countStripesByAccount();
+
+    /**
+     * Counts the stripes of an account.
+     *
+     * @param accountId the ID of the account.
+     * @return the number of stripes, {@code 0} if the account is not striped.
+     */
+    long countByAccountId(Long accountId);
+
+    /**
+     * Sums the balances of the stripes of an account.
+     *
+     * @param accountId the ID of the account.
+     * @return the sum, {@code 0} if the account is not striped.
+     */
+    @Query("select coalesce(sum(s.balance), 0) from AccountBalanceStripe s where s.accountId = :accountId")
+    BigDecimal sumBalanceByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Finds the stripes of an account and locks their rows ({@code SELECT ... FOR UPDATE}), in stripe order.
+     * Must be called within a transaction.
+     *
+     * @param accountId the ID of the account.
+     * @return the locked stripes, ordered by stripe number.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "10000"))
+    @Query("select s from AccountBalanceStripe s where s.accountId = :accountId order by s.stripe")
+    List<AccountBalanceStripe> findByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    /**
+     * Adds an amount to the balance of one stripe with a single {@code UPDATE} statement, without loading the entity.
+     *
+     * @param accountId the ID of the account.
+     * @param stripe the number of the stripe.
+     * @param amount the amount to add.
+     * @return the number of updated rows, {@code 0} if the stripe does not exist.
+     */
+    @Modifying
+    @Query("update AccountBalanceStripe s set s.balance = s.balance + :amount where s.accountId = :accountId and s.stripe = :stripe")
+    int credit(@Param("accountId") Long accountId, @Param("stripe") int stripe, @Param("amount") BigDecimal amount);
+}
@@ -1,9 +1,22 @@
 package com.example.onlinebanking.repository;
 
 import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.dto.AccountDTO;
+import com.example.onlinebanking.model.dto.AccountSnapshot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository interface for managing {@link Account} entities.
@@ -24,4 +37,116 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      * @return an {@link Optional} containing the account if found, or an empty Optional if no account is found.
      */
     Optional<Account> findByAccountNumber(String accountNumber);
-}
\ No newline at end of file
+
+    /**
+     * Finds the ID, account number and balance of an account by its unique identifier.
+     * The result is a constructor projection, so the user and transactions of the account are not loaded.
+     * The balance includes the {@link com.example.onlinebanking.model.AccountBalanceStripe}s of a striped account,
+     * read by the same statement as the account row.
+     *
+     * @param id the ID of the account to find.
+     * @return an {@link Optional} containing the account projection if found, or an empty Optional if no account is found.
+     */
+    @Query("select new com.example.onlinebanking.model.dto.AccountDTO(a.id, a.accountNumber, a.balance + "
+            + "coalesce((select sum(s.balance) from AccountBalanceStripe s where s.accountId = a.id), 0)) "
+            + "from Account a where a.id = :id")
+    Optional<AccountDTO> findDtoById(@Param("id") Long id);
+
+    /**
+     * Reads an {@link AccountSnapshot} of an account by its account number, without loading the entity.
+     * Because nothing is added to the persistence context, the snapshot can be read inside a transaction that
+     * locks the same account afterwards.
+     *
+     * @param accountNumber the account number of the account to find.
+     * @return an {@link Optional} containing the snapshot if found, or an empty Optional if no account is found.
+     */
+    @Query("select new com.example.onlinebanking.model.dto.AccountSnapshot(a.id, a.accountNumber, a.user.id, a.balance, a.version) "
+            + "from Account a where a.accountNumber = :accountNumber")
+    Optional<AccountSnapshot> findSnapshotByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Finds all accounts whose account number is in the given collection, with a single query.
+     *
+     * @param accountNumbers the account numbers of the accounts to find.
+     * @return the accounts found; unknown account numbers are skipped.
+     */
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    /**
+     * Finds all accounts whose account number is in the given collection and locks their rows ({@code SELECT ... FOR UPDATE})
+     * with a single query. Rows are read in ascending id order, the same order used for single transfers.
+     *
+     * @param accountNumbers the account numbers of the accounts to lock.
+     * @return the locked accounts, ordered by id; unknown account numbers are skipped.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "10000"))
+    @Query("select a from Account a where a.accountNumber in :accountNumbers order by a.id")
+    List<Account> findByAccountNumberInForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    /**
+     * Resolves the identifier of an account from its account number without loading the entity.
+     * Used to determine the lock order before any account row is read into the persistence context.
+     *
+     * @param accountNumber the account number of the account to find.
+     * @return an {@link Optional} containing the account ID if found, or an empty Optional if no account is found.
+     */
+    @Query("select a.id from Account a where a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Finds the identifiers of all accounts owned by a user without loading the entities.
+     *
+     * @param userId the ID of the user.
+     * @return the IDs of the user's accounts, in ascending order.
+     */
+    @Query("select a.id from Account a where a.user.id = :userId order by a.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Finds an account by its unique identifier and takes a pessimistic write lock ({@code SELECT ... FOR UPDATE}) on its row.
+     * The lock is held until the surrounding transaction completes.
+     *
+     * @param id the ID of the account to lock.
+     * @return an {@link Optional} containing the locked account if found, or an empty Optional if no account is found.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "10000"))
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Adds a signed delta to the balance of an account with a single {@code UPDATE} statement, without loading the entity.
+     * The optimistic-locking version is incremented so that concurrent entity-based updates detect the change.
+     *
+     * @param id the ID of the account to update.
+     * @param delta the amount to add to the balance (negative to debit).
+     * @return the number of updated rows, {@code 0} if the account does not exist.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :delta, a.version = a.version + 1 where a.id = :id")
+    int adjustBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    /**
+     * Subtracts an amount from the balance of an account with a single {@code UPDATE} statement, only if the balance
+     * covers it. The check and the update are atomic, so the balance can never go negative, whatever else updates the row.
+     * The optimistic-locking version is incremented so that concurrent entity-based updates detect the change.
+     *
+     * @param id the ID of the account to debit.
+     * @param amount the amount to subtract, which must be positive.
+     * @return {@code 1} if the account was debited, {@code 0} if it does not exist or its balance is too low.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount, a.version = a.version + 1 "
+            + "where a.id = :id and a.balance >= :amount")
+    int debitIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Finds which of the given account numbers are already taken, with a single query.
+     *
+     * @param accountNumbers the account numbers to check.
+     * @return the account numbers that belong to an existing account.
+     */
+    @Query("select a.accountNumber from Account a where a.accountNumber in :accountNumbers")
+    Set<String> findExistingAccountNumbers(@Param("accountNumbers") Collection<String> accountNumbers);
+}
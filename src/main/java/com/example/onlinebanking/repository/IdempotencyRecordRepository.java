@@ -0,0 +1,56 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing {@link IdempotencyRecord} entities.
+ * This interface extends {@link JpaRepository} to provide CRUD operations and custom query methods for the
+ * IdempotencyRecord entity.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Finds the record of an idempotency key through the unique index on (owner, idempotency key).
+     *
+     * @param owner the username of the client.
+     * @param idempotencyKey the idempotency key chosen by the client.
+     * @return an {@link Optional} containing the record if the key was claimed, or an empty Optional otherwise.
+     */
+    Optional<IdempotencyRecord> findByOwnerAndIdempotencyKey(String owner, String idempotencyKey);
+
+    /**
+     * Deletes the claim of a request that was never completed, if it is still in progress and older than a given time.
+     * Only one of several instances taking over the same claim deletes it.
+     *
+     * @param id the ID of the record.
+     * @param claimedBefore the claim is deleted only if it was made before this time.
+     * @return 1 if the claim was deleted, 0 if it was completed, renewed or deleted in the meantime.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.status = 'IN_PROGRESS' and r.createdAt < :claimedBefore")
+    int deleteStaleClaim(@Param("id") Long id, @Param("claimedBefore") LocalDateTime claimedBefore);
+
+    /**
+     * Deletes the records of keys claimed before a given time with a single {@code DELETE} statement.
+     *
+     * @param createdBefore the records created before this time are deleted.
+     * @return the number of deleted records.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
@@ -0,0 +1,16 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for managing {@link JournalCheckpoint} entities.
+ * This interface extends {@link JpaRepository} to provide CRUD operations for the JournalCheckpoint entity,
+ * keyed by journal name.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+}
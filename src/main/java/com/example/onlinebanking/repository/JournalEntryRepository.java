@@ -0,0 +1,27 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.JournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Repository interface for managing {@link JournalEntry} entities.
+ * This interface extends {@link JpaRepository} to provide CRUD operations and custom query methods for the
+ * JournalEntry entity. Saving an entry also inserts its postings.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+
+    /**
+     * Counts the transfer entries whose postings do not sum to zero.
+     *
+     * @return the number of unbalanced transfer entries, {@code 0} for a consistent ledger.
+     */
+    @Query("select count(e) from JournalEntry e where e.type = com.example.onlinebanking.model.JournalEntryType.TRANSFER "
+            + "and coalesce((select sum(case when p.direction = com.example.onlinebanking.model.PostingDirection.CREDIT "
+            + "then p.amount else -p.amount end) from Posting p where p.journalEntry = e), 0) <> 0")
+    long countUnbalancedTransfers();
+}
@@ -0,0 +1,49 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.PendingCredit;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link PendingCredit} entities.
+ * This interface extends {@link JpaRepository} to provide CRUD operations and custom query methods for the
+ * PendingCredit entity.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public interface PendingCreditRepository extends JpaRepository<PendingCredit, Long> {
+
+    /**
+     * Finds and locks the oldest pending credits, so that no other flusher applies them at the same time.
+     * Must be called within a transaction.
+     *
+     * @param pageable the maximum number of credits to return.
+     * @return the oldest pending credits, in ID order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "10000"))
+    @Query("select p from PendingCredit p order by p.id")
+    List<PendingCredit> findOldestForUpdate(Pageable pageable);
+
+    /**
+     * Deletes pending credits by ID with a single {@code DELETE} statement.
+     *
+     * @param ids the IDs of the credits to delete.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from PendingCredit p where p.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
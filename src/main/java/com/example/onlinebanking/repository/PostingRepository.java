@@ -0,0 +1,51 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.Posting;
+import com.example.onlinebanking.model.dto.LedgerBalanceDTO;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for managing {@link Posting} entities.
+ * This interface extends {@link JpaRepository} to provide CRUD operations and custom query methods for the
+ * Posting entity.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public interface PostingRepository extends JpaRepository<Posting, Long> {
+
+    /**
+     * Sums the postings of an account: credits minus debits.
+     *
+     * @param accountId the ID of the account.
+     * @return the ledger balance of the account, {@code 0} if it has no postings.
+     */
+    @Query("select coalesce(sum(case when p.direction = com.example.onlinebanking.model.PostingDirection.CREDIT "
+            + "then p.amount else -p.amount end), 0) from Posting p where p.accountId = :accountId")
+    BigDecimal sumByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Streams the stored and the ledger balance of every account, in account ID order, from a database cursor.
+     * The stored balance includes the account's stripes and its credits not yet applied. Both sums are computed by the
+     * database in the same statement, so nothing but one row per account is transferred.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream of one {@link LedgerBalanceDTO} per account.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new com.example.onlinebanking.model.dto.LedgerBalanceDTO(a.id, a.accountNumber, a.balance "
+            + "+ coalesce((select sum(s.balance) from AccountBalanceStripe s where s.accountId = a.id), 0) "
+            + "+ coalesce((select sum(c.amount) from PendingCredit c where c.accountId = a.id), 0), "
+            + "coalesce((select sum(case when p.direction = com.example.onlinebanking.model.PostingDirection.CREDIT "
+            + "then p.amount else -p.amount end) from Posting p where p.accountId = a.id), 0)) "
+            + "from Account a order by a.id")
+    Stream<LedgerBalanceDTO> streamAccountBalances();
+}
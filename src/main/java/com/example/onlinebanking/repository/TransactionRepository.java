@@ -1,9 +1,17 @@
 package com.example.onlinebanking.repository;
 
 import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.model.dto.TransactionHistoryView;
+import com.example.onlinebanking.model.dto.TransactionRecordView;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Transaction} entities.
@@ -23,6 +31,204 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @param fromAccount the account number of the sender account.
      * @param toAccount the account number of the receiver account.
      * @return a list of transactions where the account is either the sender or the receiver.
+     * @see #findHistory(Long, int)
      */
     List<Transaction> findByFromAccount_AccountNumberOrToAccount_AccountNumber(String fromAccount, String toAccount);
-}
\ No newline at end of file
+
+    /**
+     * Finds the newest transactions of an account, either as the sender or the receiver, ordered by timestamp and ID.
+     * <p>
+     * Instead of filtering on {@code from_account_id OR to_account_id}, which forces a scan of the whole table,
+     * each side is read newest first from its {@code (account, timestamp)} index and cut at {@code limit} rows,
+     * then the two ordered runs are merged. Rows where the account is on both sides are only taken from the first run.
+     * </p>
+     *
+     * @param accountId the ID of the account.
+     * @param limit the maximum number of rows to return.
+     * @return the newest transactions of the account.
+     */
+    @Query(nativeQuery = true, value = """
+            select h.id as id, f.account_number as fromAccount, d.account_number as toAccount,
+                   h.amount as amount, h.type as type, h.timestamp as timestamp
+            from ((select t.id, t.from_account_id, t.to_account_id, t.amount, t.type, t.timestamp
+                   from transaction t
+                   where t.from_account_id = :accountId
+                   order by t.timestamp desc, t.id desc
+                   limit :limit)
+                  union all
+                  (select t.id, t.from_account_id, t.to_account_id, t.amount, t.type, t.timestamp
+                   from transaction t
+                   where t.to_account_id = :accountId
+                     and (t.from_account_id is null or t.from_account_id <> :accountId)
+                   order by t.timestamp desc, t.id desc
+                   limit :limit)) h
+            left join account f on f.id = h.from_account_id
+            left join account d on d.id = h.to_account_id
+            order by h.timestamp desc, h.id desc
+            limit :limit""")
+    List<TransactionHistoryView> findHistory(@Param("accountId") Long accountId, @Param("limit") int limit);
+
+    /**
+     * Finds the transactions of an account that come strictly after the given position in the history
+     * (keyset pagination). Unlike an offset, the position is a seek predicate on {@code (timestamp, id)},
+     * so the cost of a page does not grow with the number of pages already read.
+     * Both sides are read from their index and merged as in {@link #findHistory(Long, int)}.
+     *
+     * @param accountId the ID of the account.
+     * @param timestamp the timestamp of the last transaction already returned.
+     * @param id the ID of the last transaction already returned.
+     * @param limit the maximum number of rows to return.
+     * @return the next transactions of the account, newest first.
+     */
+    @Query(nativeQuery = true, value = """
+            select h.id as id, f.account_number as fromAccount, d.account_number as toAccount,
+                   h.amount as amount, h.type as type, h.timestamp as timestamp
+            from ((select t.id, t.from_account_id, t.to_account_id, t.amount, t.type, t.timestamp
+                   from transaction t
+                   where t.from_account_id = :accountId
+                     and (t.timestamp < :timestamp or (t.timestamp = :timestamp and t.id < :id))
+                   order by t.timestamp desc, t.id desc
+                   limit :limit)
+                  union all
+                  (select t.id, t.from_account_id, t.to_account_id, t.amount, t.type, t.timestamp
+                   from transaction t
+                   where t.to_account_id = :accountId
+                     and (t.from_account_id is null or t.from_account_id <> :accountId)
+                     and (t.timestamp < :timestamp or (t.timestamp = :timestamp and t.id < :id))
+                   order by t.timestamp desc, t.id desc
+                   limit :limit)) h
+            left join account f on f.id = h.from_account_id
+            left join account d on d.id = h.to_account_id
+            order by h.timestamp desc, h.id desc
+            limit :limit""")
+    List<TransactionHistoryView> findHistoryBefore(@Param("accountId") Long accountId,
+                                                   @Param("timestamp") LocalDateTime timestamp,
+                                                   @Param("id") Long id,
+                                                   @Param("limit") int limit);
+
+    /**
+     * Streams the transactions sent by an account, newest first, from a database cursor.
+     * <p>
+     * The whole history is the ordered merge of this stream and {@link #streamReceivedHistory(Long)}, done by the
+     * caller. Each stream is a range scan of one {@code (account, timestamp, id)} index whose order is the requested
+     * one, so the database returns the first row at once: ordering a union of the two sides would sort the whole
+     * history before returning anything. Rows are fetched from the driver in blocks, so memory use does not depend on
+     * the size of the history. The stream must be consumed and closed inside a transaction.
+     * </p>
+     *
+     * @param accountId the ID of the account.
+     * @return a stream of the transactions sent by the account.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(nativeQuery = true, value = """
+            select t.id as id, f.account_number as fromAccount, d.account_number as toAccount,
+                   t.amount as amount, t.type as type, t.timestamp as timestamp
+            from transaction t
+            left join account f on f.id = t.from_account_id
+            left join account d on d.id = t.to_account_id
+            where t.from_account_id = :accountId
+            order by t.timestamp desc, t.id desc""")
+    Stream<TransactionHistoryView> streamSentHistory(@Param("accountId") Long accountId);
+
+    /**
+     * Streams the transactions received by an account from another account or a deposit, newest first.
+     * See {@link #streamSentHistory(Long)}.
+     *
+     * @param accountId the ID of the account.
+     * @return a stream of the transactions received by the account.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(nativeQuery = true, value = """
+            select t.id as id, f.account_number as fromAccount, d.account_number as toAccount,
+                   t.amount as amount, t.type as type, t.timestamp as timestamp
+            from transaction t
+            left join account f on f.id = t.from_account_id
+            left join account d on d.id = t.to_account_id
+            where t.to_account_id = :accountId
+              and (t.from_account_id is null or t.from_account_id <> :accountId)
+            order by t.timestamp desc, t.id desc""")
+    Stream<TransactionHistoryView> streamReceivedHistory(@Param("accountId") Long accountId);
+
+    /**
+     * Streams the transactions sent by an account in a period, oldest first, for a statement.
+     * The statement is the ordered merge of this stream and {@link #streamReceivedInPeriod}, read from the indexes as
+     * in {@link #streamSentHistory(Long)}, with the driver fetching rows in blocks of 1000.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @param accountId the ID of the account.
+     * @param from the start of the period, inclusive.
+     * @param to the end of the period, exclusive.
+     * @return a stream of the transactions sent by the account in the period.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(nativeQuery = true, value = """
+            select t.id as id, f.account_number as fromAccount, d.account_number as toAccount,
+                   t.amount as amount, t.type as type, t.timestamp as timestamp
+            from transaction t
+            left join account f on f.id = t.from_account_id
+            left join account d on d.id = t.to_account_id
+            where t.from_account_id = :accountId
+              and t.timestamp >= :from and t.timestamp < :to
+            order by t.timestamp, t.id""")
+    Stream<TransactionHistoryView> streamSentInPeriod(@Param("accountId") Long accountId,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to);
+
+    /**
+     * Streams the transactions received by an account in a period, oldest first, for a statement.
+     * See {@link #streamSentInPeriod}.
+     *
+     * @param accountId the ID of the account.
+     * @param from the start of the period, inclusive.
+     * @param to the end of the period, exclusive.
+     * @return a stream of the transactions received by the account in the period.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(nativeQuery = true, value = """
+            select t.id as id, f.account_number as fromAccount, d.account_number as toAccount,
+                   t.amount as amount, t.type as type, t.timestamp as timestamp
+            from transaction t
+            left join account f on f.id = t.from_account_id
+            left join account d on d.id = t.to_account_id
+            where t.to_account_id = :accountId
+              and (t.from_account_id is null or t.from_account_id <> :accountId)
+              and t.timestamp >= :from and t.timestamp < :to
+            order by t.timestamp, t.id""")
+    Stream<TransactionHistoryView> streamReceivedInPeriod(@Param("accountId") Long accountId,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("to") LocalDateTime to);
+
+    /**
+     * Streams the transactions sent by an account, newest first, with account IDs instead of account numbers,
+     * so no account row is joined. Merged with {@link #streamReceivedRecords(Long)} as in
+     * {@link #streamSentHistory(Long)}. The stream must be consumed and closed inside a transaction.
+     *
+     * @param accountId the ID of the account.
+     * @return a stream of the transactions sent by the account.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(nativeQuery = true, value = """
+            select t.id as id, t.from_account_id as fromAccountId, t.to_account_id as toAccountId,
+                   t.amount as amount, t.type as type, t.timestamp as timestamp
+            from transaction t
+            where t.from_account_id = :accountId
+            order by t.timestamp desc, t.id desc""")
+    Stream<TransactionRecordView> streamSentRecords(@Param("accountId") Long accountId);
+
+    /**
+     * Streams the transactions received by an account from another account or a deposit, newest first, with account
+     * IDs. See {@link #streamSentRecords(Long)}.
+     *
+     * @param accountId the ID of the account.
+     * @return a stream of the transactions received by the account.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(nativeQuery = true, value = """
+            select t.id as id, t.from_account_id as fromAccountId, t.to_account_id as toAccountId,
+                   t.amount as amount, t.type as type, t.timestamp as timestamp
+            from transaction t
+            where t.to_account_id = :accountId
+              and (t.from_account_id is null or t.from_account_id <> :accountId)
+            order by t.timestamp desc, t.id desc""")
+    Stream<TransactionRecordView> streamReceivedRecords(@Param("accountId") Long accountId);
+}
@@ -2,8 +2,14 @@ package com.example.onlinebanking.repository;
 
 import com.example.onlinebanking.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository interface for managing {@link User} entities.
@@ -24,4 +30,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return an {@link Optional} containing the user if found, or an empty Optional if no user is found.
      */
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * Replaces the stored password hash of a user with a single {@code UPDATE} statement, without loading the entity.
+     *
+     * @param username the username of the user to update.
+     * @param password the new password hash.
+     * @return the number of updated rows, {@code 0} if the user does not exist.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    /**
+     * Finds which of the given user IDs belong to an existing user, with a single query.
+     *
+     * @param ids the user IDs to check.
+     * @return the IDs of the existing users.
+     */
+    @Query("select u.id from User u where u.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
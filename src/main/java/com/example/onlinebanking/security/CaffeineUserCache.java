@@ -0,0 +1,78 @@
+package com.example.onlinebanking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived Caffeine cache of {@link UserDetails} for the authentication provider.
+ *
+ * <p>A client that logs in several times in quick succession, e.g. a retry after a timeout, is loaded from the database
+ * once. The provider only trusts a cached user when the password matches its hash; on a mismatch it reloads the user
+ * from the database, so a password change is never masked by the cache. Entries expire after
+ * {@code banking.security.user-cache.ttl-seconds}.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ * @see org.springframework.security.authentication.dao.DaoAuthenticationProvider#setUserCache(UserCache)
+ */
+@Component
+public class CaffeineUserCache implements UserCache {
+
+    @Value("${banking.security.user-cache.max-size:10000}")
+    private long maxSize = 10_000;
+
+    @Value("${banking.security.user-cache.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    private Cache<String, UserDetails> users;
+
+    /**
+     * Builds the cache from the configured size and time-to-live.
+     */
+    @PostConstruct
+    public void init() {
+        users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Returns the cached user with the given username.
+     *
+     * @param username the username.
+     * @return the cached user, or {@code null} if the user is not in the cache.
+     */
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return users.getIfPresent(username);
+    }
+
+    /**
+     * Puts a user loaded from the database into the cache.
+     *
+     * @param user the user to cache.
+     */
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    /**
+     * Removes a user from the cache.
+     *
+     * @param username the username of the user to remove.
+     */
+    @Override
+    public void removeUserFromCache(String username) {
+        users.invalidate(username);
+    }
+}
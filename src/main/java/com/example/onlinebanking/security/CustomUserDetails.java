@@ -6,6 +6,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * CustomUserDetails is a custom implementation of the {@link UserDetails} interface used for Spring Security authentication.
@@ -30,6 +31,7 @@ import java.util.Collections;
  */
 public class CustomUserDetails implements UserDetails {
     private final User user;
+    private final List<Long> accountIds;
 
     /**
      * Constructs a new {@link CustomUserDetails} instance with the specified {@link User} entity.
@@ -37,7 +39,46 @@ public class CustomUserDetails implements UserDetails {
      * @param user the {@link User} entity to wrap.
      */
     public CustomUserDetails(User user) {
+        this(user, Collections.emptyList());
+    }
+
+    /**
+     * Constructs a new {@link CustomUserDetails} instance with the specified {@link User} entity
+     * and the IDs of the accounts the user owns.
+     *
+     * @param user the {@link User} entity to wrap.
+     * @param accountIds the IDs of the user's accounts.
+     */
+    public CustomUserDetails(User user, List<Long> accountIds) {
         this.user = user;
+        this.accountIds = List.copyOf(accountIds);
+    }
+
+    /**
+     * Returns the ID of the user.
+     *
+     * @return the user's ID.
+     */
+    public Long getUserId() {
+        return user.getId();
+    }
+
+    /**
+     * Returns the role of the user.
+     *
+     * @return the user's role.
+     */
+    public String getRole() {
+        return user.getRole();
+    }
+
+    /**
+     * Returns the IDs of the accounts owned by the user at the time the user was loaded.
+     *
+     * @return the IDs of the user's accounts.
+     */
+    public List<Long> getAccountIds() {
+        return accountIds;
     }
 
     /**
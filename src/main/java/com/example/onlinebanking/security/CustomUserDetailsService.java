@@ -1,8 +1,12 @@
 package com.example.onlinebanking.security;
 
 import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.AccountRepository;
 import com.example.onlinebanking.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -18,7 +22,8 @@ import org.springframework.stereotype.Service;
  * <ul>
  *     <li>Loading user details by username for authentication.</li>
  *     <li>Throwing a {@link UsernameNotFoundException} if the user is not found in the database.</li>
- *     <li>Wrapping the retrieved {@link User} entity in a {@link CustomUserDetails} object.</li>
+ *     <li>Wrapping the retrieved {@link User} entity and the IDs of its accounts in a {@link CustomUserDetails} object.</li>
+ *     <li>Storing the re-encoded password of a user whose hash was upgraded after a successful login.</li>
  * </ul>
  * </p>
  *
@@ -30,17 +35,24 @@ import org.springframework.stereotype.Service;
  * @see UsernameNotFoundException
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired(required = false)
+    private UserCache userCache;
+
     /**
      * Loads user details by username for authentication.
      * <p>
      * This method retrieves a {@link User} entity from the database using the provided username.
      * If the user is not found, it throws a {@link UsernameNotFoundException}.
-     * The retrieved user is then wrapped in a {@link CustomUserDetails} object and returned.
+     * The retrieved user is then wrapped in a {@link CustomUserDetails} object, together with the IDs of its accounts,
+     * and returned.
      * </p>
      *
      * @param username the username of the user to be loaded.
@@ -50,6 +62,35 @@ public class CustomUserDetailsService implements UserDetailsService {
     public CustomUserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return new CustomUserDetails(user);
+        return new CustomUserDetails(user, accountRepository.findIdsByUserId(user.getId()));
+    }
+
+    /**
+     * Stores the new password hash of a user.
+     * <p>
+     * Spring Security calls this method after a successful login when the stored hash was produced by an encoder
+     * or work factor other than the current one, see {@link com.example.onlinebanking.config.SecurityConfig#passwordEncoder()}.
+     * </p>
+     *
+     * @param user the authenticated user.
+     * @param newPassword the password re-encoded with the current encoder.
+     * @return the user details with the new password.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        // The provider has just cached the user with the old hash
+        if (userCache != null) {
+            userCache.removeUserFromCache(user.getUsername());
+        }
+        User updated = new User();
+        updated.setUsername(user.getUsername());
+        updated.setPassword(newPassword);
+        if (!(user instanceof CustomUserDetails details)) {
+            return new CustomUserDetails(updated);
+        }
+        updated.setId(details.getUserId());
+        updated.setRole(details.getRole());
+        return new CustomUserDetails(updated, details.getAccountIds());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.example.onlinebanking.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JwtAuthenticationFilter authenticates requests carrying a bearer token in their {@code Authorization} header.
+ *
+ * <p>The {@link org.springframework.security.core.Authentication} is built purely from the signed claims of the token
+ * (username, user ID, role and account IDs, see {@link JwtUtil#generateToken(CustomUserDetails)}), so an authenticated
+ * request costs no database query. Tokens already verified are served from the cache of {@link JwtUtil}.
+ *
+ * <p>Requests without a bearer token, or with a token that is malformed, tampered with or expired, are passed on
+ * unauthenticated and rejected by the authorization rules of {@link com.example.onlinebanking.config.SecurityConfig}.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ * @see JwtUtil
+ * @see JwtPrincipal
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+
+    /**
+     * Constructs a new {@link JwtAuthenticationFilter}.
+     *
+     * @param jwtUtil the utility used to verify tokens.
+     */
+    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    /**
+     * Authenticates the request from its bearer token, if it has a valid one, and continues the filter chain.
+     *
+     * @param request the current request.
+     * @param response the current response.
+     * @param filterChain the remaining filter chain.
+     * @throws ServletException if a later filter fails.
+     * @throws IOException if an I/O error occurs in a later filter.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                Claims claims = jwtUtil.extractAllClaims(header.substring(BEARER_PREFIX.length()));
+                JwtPrincipal principal = toPrincipal(claims);
+
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, authorities(principal.role()));
+                authentication.setDetails(authenticationDetailsSource.buildDetails(request));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            } catch (JwtException | IllegalArgumentException ex) {
+                // Leave the request unauthenticated
+                SecurityContextHolder.clearContext();
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private JwtPrincipal toPrincipal(Claims claims) {
+        Number userId = claims.get(JwtUtil.USER_ID_CLAIM, Number.class);
+        List<?> accounts = claims.get(JwtUtil.ACCOUNT_IDS_CLAIM, List.class);
+        List<Long> accountIds = accounts == null
+                ? Collections.emptyList()
+                : accounts.stream().map(id -> ((Number) id).longValue()).toList();
+        return new JwtPrincipal(userId == null ? null : userId.longValue(), claims.getSubject(),
+                claims.get(JwtUtil.ROLE_CLAIM, String.class), accountIds);
+    }
+
+    private List<GrantedAuthority> authorities(String role) {
+        if (role == null || role.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+}
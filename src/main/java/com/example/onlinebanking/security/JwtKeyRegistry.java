@@ -0,0 +1,225 @@
+package com.example.onlinebanking.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the keys tokens are signed and verified with.
+ *
+ * <p>The algorithm is chosen with {@code jwt.signing.algorithm}:
+ * <ul>
+ *     <li>{@code RS256} (RSA 2048) and {@code ES256} (ECDSA on P-256) sign with a private key; other services verify
+ *     tokens with the public keys published at {@code GET /.well-known/jwks.json}, without holding any secret.</li>
+ *     <li>{@code HS256} signs and verifies with the shared secret {@code jwt.signing.secret} (Base64), for deployments
+ *     where only this service reads its tokens.</li>
+ * </ul>
+ *
+ * <p>Every key has an ID, written to the {@code kid} header of the tokens it signs. When
+ * {@code jwt.signing.rotation-interval-hours} is set, a new key replaces the current one at that interval. A replaced
+ * key only verifies from then on, and is dropped once every token it signed has expired. Keys are parsed once when they
+ * are created and looked up by ID, so verifying a token costs one map lookup on top of the signature check.
+ *
+ * <p>Asymmetric keys are generated at startup and kept in memory only. Each instance therefore signs with its own keys
+ * and publishes them.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ * @see SigningKey
+ */
+@Component
+public class JwtKeyRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRegistry.class);
+
+    @Value("${jwt.signing.algorithm:RS256}")
+    private String algorithm = "RS256";
+
+    @Value("${jwt.signing.secret:}")
+    private String secret = "";
+
+    @Value("${jwt.signing.rotation-interval-hours:0}")
+    private long rotationIntervalHours = 0;
+
+    @Value("${jwt.access-token.ttl-seconds:900}")
+    private long accessTokenTtlSeconds = 900;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, SigningKey> keys = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> retiredAt = new ConcurrentHashMap<>();
+
+    private volatile SigningKey current;
+
+    private SignatureAlgorithm signatureAlgorithm;
+
+    private ScheduledExecutorService rotator;
+
+    /**
+     * Creates the first key and schedules the rotation, if enabled.
+     *
+     * @throws IllegalStateException if the algorithm is not supported, or HS256 is chosen without a secret.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            signatureAlgorithm = SignatureAlgorithm.forName(algorithm);
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("Unsupported token signing algorithm: " + algorithm, ex);
+        }
+        if (signatureAlgorithm != SignatureAlgorithm.HS256 && signatureAlgorithm != SignatureAlgorithm.RS256
+                && signatureAlgorithm != SignatureAlgorithm.ES256) {
+            throw new IllegalStateException("Unsupported token signing algorithm: " + algorithm);
+        }
+        if (signatureAlgorithm.isHmac()) {
+            if (secret.isEmpty()) {
+                throw new IllegalStateException("jwt.signing.secret must be set for " + algorithm);
+            }
+            install(new SecretKeySpec(TextCodec.BASE64.decode(secret), signatureAlgorithm.getJcaName()), null);
+        } else {
+            rotate();
+        }
+
+        if (rotationIntervalHours > 0) {
+            rotator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jwt-key-rotation");
+                thread.setDaemon(true);
+                return thread;
+            });
+            rotator.scheduleAtFixedRate(this::rotateQuietly, rotationIntervalHours, rotationIntervalHours, TimeUnit.HOURS);
+        }
+    }
+
+    /**
+     * Stops the key rotation.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (rotator != null) {
+            rotator.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the key new tokens are signed with.
+     *
+     * @return the current signing key.
+     */
+    public SigningKey current() {
+        return current;
+    }
+
+    /**
+     * Finds the key a token was signed with.
+     * A token without a {@code kid} header, issued before keys had IDs, is verified with the current key if that key
+     * is an HMAC secret.
+     *
+     * @param kid the {@code kid} header of the token, or {@code null}.
+     * @return an {@link Optional} containing the key if it is known and not yet retired, or an empty Optional otherwise.
+     */
+    public Optional<SigningKey> find(String kid) {
+        if (kid == null) {
+            SigningKey key = current;
+            return key.algorithm().isHmac() ? Optional.of(key) : Optional.empty();
+        }
+        return Optional.ofNullable(keys.get(kid));
+    }
+
+    /**
+     * Replaces the current key with a new one and drops the keys whose tokens have all expired.
+     * An HMAC key is replaced with a new random secret.
+     */
+    public synchronized void rotate() {
+        try {
+            if (signatureAlgorithm.isHmac()) {
+                byte[] bytes = new byte[32];
+                random.nextBytes(bytes);
+                install(new SecretKeySpec(bytes, signatureAlgorithm.getJcaName()), null);
+            } else if (signatureAlgorithm.isRsa()) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048, random);
+                KeyPair keyPair = generator.generateKeyPair();
+                install(keyPair.getPrivate(), keyPair);
+            } else {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"), random);
+                KeyPair keyPair = generator.generateKeyPair();
+                install(keyPair.getPrivate(), keyPair);
+            }
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not generate a " + signatureAlgorithm + " key", ex);
+        }
+    }
+
+    /**
+     * Returns the public keys that verify live tokens, newest first, as a JSON Web Key Set (RFC 7517).
+     * HMAC secrets are never included.
+     *
+     * @return the JWK Set.
+     */
+    public Map<String, Object> jwks() {
+        List<Map<String, Object>> publicKeys = keys.values().stream()
+                .filter(SigningKey::isPublic)
+                .sorted(Comparator.comparingLong(SigningKey::createdAt).reversed())
+                .map(SigningKey::toJwk)
+                .toList();
+        return Map.of("keys", publicKeys);
+    }
+
+    private void install(Key signingKey, KeyPair keyPair) {
+        long now = System.currentTimeMillis();
+        byte[] id = new byte[9];
+        random.nextBytes(id);
+        SigningKey key = new SigningKey(Base64.getUrlEncoder().withoutPadding().encodeToString(id), signatureAlgorithm,
+                signingKey, keyPair == null ? signingKey : keyPair.getPublic(), now);
+
+        SigningKey previous = current;
+        keys.put(key.kid(), key);
+        current = key;
+        if (previous != null) {
+            retiredAt.put(previous.kid(), now);
+            log.info("Rotated token signing key {} -> {}", previous.kid(), key.kid());
+        }
+        // A replaced key verifies for one token lifetime (plus a minute of clock skew), then is dropped
+        long retiredBefore = now - TimeUnit.SECONDS.toMillis(accessTokenTtlSeconds + 60);
+        retiredAt.entrySet().removeIf(retired -> {
+            if (retired.getValue() < retiredBefore) {
+                keys.remove(retired.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void rotateQuietly() {
+        try {
+            rotate();
+        } catch (RuntimeException ex) {
+            log.warn("Token signing key rotation failed, will retry", ex);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.onlinebanking.security;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The principal of a request authenticated by {@link JwtAuthenticationFilter}.
+ * It is built from the signed claims of the request's token, without loading the user from the database.
+ *
+ * <p>The account IDs are those the user owned when the token was issued. As a {@link Principal}, its name is the
+ * username, which is what {@link org.springframework.security.core.Authentication#getName()} returns for it.
+ *
+ * @param userId the ID of the user.
+ * @param username the username of the user.
+ * @param role the role of the user.
+ * @param accountIds the IDs of the user's accounts.
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public record JwtPrincipal(Long userId, String username, String role, List<Long> accountIds) implements Principal {
+
+    /**
+     * Returns the username of the user.
+     *
+     * @return the username.
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+}
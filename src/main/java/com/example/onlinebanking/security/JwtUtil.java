@@ -1,14 +1,29 @@
 package com.example.onlinebanking.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -24,7 +39,10 @@ import java.util.function.Function;
  *   <li>Generates JWT tokens for authenticated users.</li>
  *   <li>Extracts claims such as username and expiration date from tokens.</li>
  *   <li>Validates JWT tokens against user details.</li>
- *   <li>Uses a secret key for signing and verifying tokens.</li>
+ *   <li>Signs tokens with the current key of the {@link JwtKeyRegistry} and verifies them with the key named by their
+ *   {@code kid} header.</li>
+ *   <li>Parses and verifies each token once: the signing key and parser are built once, and the claims of verified
+ *   tokens are kept in a bounded cache keyed by a SHA-256 hash of the token until the token expires.</li>
  * </ul>
  *
  * @author [Your Name]
@@ -37,7 +55,51 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
-    private String SECRET_KEY = "secret";
+    /**
+     * The maximum number of verified tokens kept in the cache.
+     */
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    /**
+     * The claim holding the ID of the user.
+     */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * The claim holding the role of the user.
+     */
+    public static final String ROLE_CLAIM = "role";
+
+    /**
+     * The claim holding the IDs of the user's accounts.
+     */
+    public static final String ACCOUNT_IDS_CLAIM = "accounts";
+
+    @Autowired
+    private JwtKeyRegistry keyRegistry;
+
+    @Value("${jwt.access-token.ttl-seconds:900}")
+    private long accessTokenTtlSeconds = 900;
+
+    private final JwtParser parser = Jwts.parser().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            return resolveVerificationKey(header);
+        }
+    });
+
+    private final Cache<TokenHash, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfter(new ExpireAtTokenExpiration())
+            .build();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    });
 
     /**
      * Extracts the username from the provided JWT token.
@@ -73,24 +135,90 @@ public class JwtUtil {
     }
 
     /**
-     * Extracts all claims from the provided JWT token.
+     * Extracts all claims from the provided JWT token, verifying its signature and expiration.
+     * The claims of a token that was already verified are served from the cache; otherwise the token is parsed and
+     * its signature verified once, and the claims are cached until the token expires.
      *
      * @param token the JWT token from which to extract the claims.
      * @return the claims contained in the token.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, its signature does not match, or it has expired.
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
+    public Claims extractAllClaims(String token) {
+        TokenHash hash = TokenHash.of(token);
+        Claims claims = verifiedTokens.getIfPresent(hash);
+        if (claims == null) {
+            claims = verify(token);
+            // Tokens without an expiration are not cached, so that they are re-verified every time
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(hash, claims);
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Parses the provided JWT token and verifies its signature, without using the cache.
+     *
+     * @param token the JWT token to verify.
+     * @return the claims contained in the token.
+     */
+    Claims verify(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Returns the key that verifies a token, from the token's {@code kid} header.
+     * The token's algorithm must be the algorithm of the key, so that a token cannot pick a weaker check,
+     * e.g. an HMAC over a public key.
+     *
+     * @param header the header of the token.
+     * @return the verification key.
+     * @throws SignatureException if the key is unknown or retired, or its algorithm differs from the token's.
+     */
+    private Key resolveVerificationKey(JwsHeader<?> header) {
+        SigningKey key = keyRegistry.find(header.getKeyId())
+                .orElseThrow(() -> new SignatureException("Unknown signing key: " + header.getKeyId()));
+        if (!key.algorithm().getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("Unexpected signing algorithm: " + header.getAlgorithm());
+        }
+        return key.verificationKey();
     }
 
     /**
      * Generates a JWT token for the provided user details.
+     * The user's ID, role and account IDs are embedded in the token, so that requests carrying it can be authenticated
+     * from the token alone, see {@link JwtAuthenticationFilter}.
      *
      * @param userDetails the user details for which to generate the token.
      * @return the generated JWT token.
      */
     public String generateToken(CustomUserDetails userDetails) {
+        return generateToken(new JwtPrincipal(userDetails.getUserId(), userDetails.getUsername(),
+                userDetails.getRole(), userDetails.getAccountIds()));
+    }
+
+    /**
+     * Generates a JWT token for the provided principal, e.g. when a refresh token is exchanged for a new access token.
+     * The token expires after {@code jwt.access-token.ttl-seconds}.
+     *
+     * @param principal the principal for which to generate the token.
+     * @return the generated JWT token.
+     */
+    public String generateToken(JwtPrincipal principal) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        claims.put(USER_ID_CLAIM, principal.userId());
+        claims.put(ROLE_CLAIM, principal.role());
+        claims.put(ACCOUNT_IDS_CLAIM, principal.accountIds());
+        return createToken(claims, principal.username());
+    }
+
+    /**
+     * Returns the lifetime of the access tokens generated by this class.
+     *
+     * @return the lifetime of access tokens, in seconds.
+     */
+    public long getAccessTokenTtlSeconds() {
+        return accessTokenTtlSeconds;
     }
 
     /**
@@ -101,31 +229,77 @@ public class JwtUtil {
      * @return the created JWT token.
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder().setClaims(claims).setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY).compact();
+        long now = System.currentTimeMillis();
+        SigningKey key = keyRegistry.current();
+        return Jwts.builder().setHeaderParam(JwsHeader.KEY_ID, key.kid())
+                .setClaims(claims).setSubject(subject)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.SECONDS.toMillis(accessTokenTtlSeconds)))
+                .signWith(key.algorithm(), key.signingKey()).compact();
     }
 
     /**
      * Validates the provided JWT token against the user details.
+     * The token is parsed at most once, and not at all if it is already in the cache of verified tokens.
      *
      * @param token the JWT token to validate.
      * @param userDetails the user details to validate against.
      * @return true if the token is valid for the user, false otherwise.
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (ExpiredJwtException ex) {
+            return false;
+        }
+        return (claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 
     /**
-     * Checks if the provided JWT token is expired.
+     * Checks if the provided JWT claims are expired.
      *
-     * @param token the JWT token to check.
+     * @param claims the claims of the JWT token to check.
      * @return true if the token is expired, false otherwise.
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * The first 128 bits of the SHA-256 hash of a token, used as the key of the verified-token cache
+     * so that the cache does not hold the tokens themselves.
+     *
+     * @param high the first 64 bits of the hash.
+     * @param low the next 64 bits of the hash.
+     */
+    private record TokenHash(long high, long low) {
+
+        static TokenHash of(String token) {
+            ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenHash(digest.getLong(), digest.getLong());
+        }
+    }
+
+    /**
+     * Expires each cached token at its own {@code exp} claim.
+     */
+    private static final class ExpireAtTokenExpiration implements Expiry<TokenHash, Claims> {
+
+        @Override
+        public long expireAfterCreate(TokenHash key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenHash key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenHash key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
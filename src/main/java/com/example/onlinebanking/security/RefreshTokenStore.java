@@ -0,0 +1,319 @@
+package com.example.onlinebanking.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory store of refresh tokens, so that exchanging a refresh token for a new access token
+ * needs neither a password check nor a database query.
+ *
+ * <p>Refresh tokens are opaque random strings. Tokens rotate: each refresh token can be used once and is replaced by a
+ * new one of the same <em>family</em>, which starts at login. The store keeps one entry per family: the SHA-256 hash
+ * of its current token and the {@link JwtPrincipal} the next access token is issued for. Presenting an older token of
+ * a family means that token has leaked, so the whole family is revoked and the client has to log in again.
+ * Each rotation extends the family's lifetime by {@code banking.auth.refresh-tokens.ttl-seconds}. Expired families are
+ * removed every {@code banking.auth.refresh-tokens.purge-interval-seconds}, whether or not snapshots are enabled.
+ *
+ * <p>When {@code banking.auth.refresh-tokens.snapshot-file} is set, the store is written to that file every
+ * {@code banking.auth.refresh-tokens.snapshot-interval-seconds} and on shutdown, and read back on startup, so that
+ * clients stay logged in across restarts. A snapshot is written to a temporary file and then moved into place, so a
+ * crash during a write leaves the previous snapshot intact. Tokens issued after the last snapshot are lost on a crash.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final int FAMILY_BYTES = 16;
+
+    private static final int SECRET_BYTES = 32;
+
+    @Value("${banking.auth.refresh-tokens.ttl-seconds:1209600}")
+    private long ttlSeconds = 1_209_600;
+
+    @Value("${banking.auth.refresh-tokens.snapshot-file:}")
+    private String snapshotFile = "";
+
+    @Value("${banking.auth.refresh-tokens.snapshot-interval-seconds:30}")
+    private long snapshotIntervalSeconds = 30;
+
+    @Value("${banking.auth.refresh-tokens.purge-interval-seconds:300}")
+    private long purgeIntervalSeconds = 300;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * A family of refresh tokens.
+     *
+     * @param currentHash the hash of the only token of the family that can still be used.
+     * @param principal the principal access tokens are issued for.
+     * @param expiresAt the expiration time of the current token, in epoch milliseconds.
+     */
+    record Family(String currentHash, JwtPrincipal principal, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    /**
+     * Loads the last snapshot, if any, and schedules the periodic purges and snapshots.
+     */
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purgeExpired, purgeIntervalSeconds, purgeIntervalSeconds,
+                TimeUnit.SECONDS);
+        if (snapshotFile.isEmpty()) {
+            return;
+        }
+        Path path = Path.of(snapshotFile);
+        if (Files.exists(path)) {
+            try {
+                load(path);
+                log.info("Loaded {} refresh token families from {}", families.size(), path);
+            } catch (IOException ex) {
+                log.warn("Could not read the refresh token snapshot {}, starting empty", path, ex);
+                families.clear();
+            }
+        }
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalSeconds, snapshotIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic purges and snapshots and writes a final snapshot, if one is configured.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler = null;
+        snapshotQuietly();
+    }
+
+    /**
+     * Issues a new refresh token for a principal, starting a new family.
+     *
+     * @param principal the principal access tokens are issued for.
+     * @return the refresh token to hand to the client.
+     */
+    public String issue(JwtPrincipal principal) {
+        String token = randomString(FAMILY_BYTES) + "." + randomString(SECRET_BYTES);
+        families.put(familyOf(token), new Family(hash(token), principal, expiresAt()));
+        return token;
+    }
+
+    /**
+     * Exchanges a refresh token for a new one of the same family.
+     * The presented token can no longer be used afterwards.
+     *
+     * @param refreshToken the refresh token presented by the client.
+     * @return the new refresh token and the principal it was issued for.
+     * @throws BadCredentialsException if the token is unknown, expired or revoked, or was already used.
+     */
+    public Rotation rotate(String refreshToken) {
+        String family = familyOf(refreshToken);
+        String hash = hash(refreshToken);
+        long now = System.currentTimeMillis();
+        String next = family + "." + randomString(SECRET_BYTES);
+        boolean[] reused = new boolean[1];
+        Family rotated = families.computeIfPresent(family, (key, current) -> {
+            if (current.isExpired(now)) {
+                return null;
+            }
+            if (!MessageDigest.isEqual(current.currentHash().getBytes(StandardCharsets.US_ASCII),
+                    hash.getBytes(StandardCharsets.US_ASCII))) {
+                // An older token of the family was presented again: whoever holds the family, it can no longer be trusted
+                reused[0] = true;
+                return null;
+            }
+            return new Family(hash(next), current.principal(), expiresAt());
+        });
+        if (rotated == null) {
+            if (reused[0]) {
+                log.warn("Refresh token reuse detected, revoked its token family");
+            }
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        return new Rotation(next, rotated.principal());
+    }
+
+    /**
+     * Revokes a refresh token and every token of its family.
+     *
+     * @param refreshToken the refresh token to revoke.
+     */
+    public void revoke(String refreshToken) {
+        families.remove(familyOf(refreshToken));
+    }
+
+    /**
+     * Removes the expired token families, which can no longer be rotated.
+     */
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        families.values().removeIf(family -> family.isExpired(now));
+    }
+
+    /**
+     * Returns the number of live token families, i.e. of clients that can refresh their access token.
+     *
+     * @return the number of token families.
+     */
+    public int size() {
+        return families.size();
+    }
+
+    /**
+     * The result of a successful {@link #rotate(String)}.
+     *
+     * @param refreshToken the new refresh token to hand to the client.
+     * @param principal the principal the new access token is issued for.
+     */
+    public record Rotation(String refreshToken, JwtPrincipal principal) {
+    }
+
+    /**
+     * Removes expired token families and writes the store to the snapshot file, if one is configured.
+     * Revoked families are no longer in the store, so they are not written.
+     *
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void snapshot() throws IOException {
+        if (snapshotFile.isEmpty()) {
+            return;
+        }
+        purgeExpired();
+
+        Path path = Path.of(snapshotFile).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        List<Map.Entry<String, Family>> entries = new ArrayList<>(families.entrySet());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Family> entry : entries) {
+                Family family = entry.getValue();
+                JwtPrincipal principal = family.principal();
+                out.writeUTF(entry.getKey());
+                out.writeUTF(family.currentHash());
+                out.writeLong(family.expiresAt());
+                out.writeLong(principal.userId() == null ? -1 : principal.userId());
+                out.writeUTF(principal.username());
+                out.writeUTF(principal.role() == null ? "" : principal.role());
+                out.writeInt(principal.accountIds().size());
+                for (Long accountId : principal.accountIds()) {
+                    out.writeLong(accountId);
+                }
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void load(Path path) throws IOException {
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = in.readInt();
+            if (version != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported refresh token snapshot version " + version);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String family = in.readUTF();
+                String currentHash = in.readUTF();
+                long expiresAt = in.readLong();
+                long userId = in.readLong();
+                String username = in.readUTF();
+                String role = in.readUTF();
+                int accountCount = in.readInt();
+                List<Long> accountIds = new ArrayList<>(accountCount);
+                for (int j = 0; j < accountCount; j++) {
+                    accountIds.add(in.readLong());
+                }
+                if (expiresAt > now) {
+                    JwtPrincipal principal = new JwtPrincipal(userId < 0 ? null : userId, username,
+                            role.isEmpty() ? null : role, List.copyOf(accountIds));
+                    families.put(family, new Family(currentHash, principal, expiresAt));
+                }
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Refresh token snapshot failed, will retry", ex);
+        }
+    }
+
+    private long expiresAt() {
+        return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    private String randomString(int bytes) {
+        byte[] value = new byte[bytes];
+        random.nextBytes(value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    private static String familyOf(String token) {
+        int separator = token == null ? -1 : token.indexOf('.');
+        if (separator <= 0) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        return token.substring(0, separator);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
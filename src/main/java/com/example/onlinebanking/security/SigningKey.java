@@ -0,0 +1,82 @@
+package com.example.onlinebanking.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A key of the {@link JwtKeyRegistry}, identified by the {@code kid} header of the tokens it signs.
+ *
+ * <p>For asymmetric algorithms the signing key is the private key and the verification key the public key;
+ * for HMAC both are the same secret key.
+ *
+ * @param kid the key ID written to the {@code kid} header.
+ * @param algorithm the signature algorithm of the key.
+ * @param signingKey the key tokens are signed with.
+ * @param verificationKey the key signatures are verified with.
+ * @param createdAt the time the key was created, in epoch milliseconds.
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public record SigningKey(String kid, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey, long createdAt) {
+
+    /**
+     * Indicates whether the verification key can be published.
+     *
+     * @return {@code true} for RSA and EC keys, {@code false} for HMAC secrets.
+     */
+    public boolean isPublic() {
+        return algorithm.isRsa() || algorithm.isEllipticCurve();
+    }
+
+    /**
+     * Returns the public verification key as a JSON Web Key (RFC 7517).
+     *
+     * @return the JWK members of the public key.
+     * @throws IllegalStateException if the key is an HMAC secret, which must never be published.
+     */
+    public Map<String, Object> toJwk() {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        if (verificationKey instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(rsa.getModulus(), 0));
+            jwk.put("e", base64Url(rsa.getPublicExponent(), 0));
+        } else if (verificationKey instanceof ECPublicKey ec) {
+            int size = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + ec.getParams().getCurve().getField().getFieldSize());
+            jwk.put("x", base64Url(ec.getW().getAffineX(), size));
+            jwk.put("y", base64Url(ec.getW().getAffineY(), size));
+        } else {
+            throw new IllegalStateException("HMAC keys cannot be published");
+        }
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        return jwk;
+    }
+
+    /**
+     * Encodes an unsigned big-endian integer, left-padded to {@code size} bytes when {@code size} is positive.
+     */
+    private static String base64Url(BigInteger value, int size) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (size > bytes.length) {
+            byte[] padded = new byte[size];
+            System.arraycopy(bytes, 0, padded, size - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
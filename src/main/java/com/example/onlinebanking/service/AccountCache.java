@@ -0,0 +1,191 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.dto.AccountCacheStatsDTO;
+import com.example.onlinebanking.model.dto.AccountSnapshot;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local Caffeine cache of {@link AccountSnapshot}s keyed by account number, in front of the {@link AccountRepository}.
+ *
+ * <p>The ID, account number and owner of an account never change, so they can be served from the cache for as long as
+ * the entry lives. The cached balance is only ever replaced by a <em>committed</em> one:
+ * <ul>
+ *     <li>Writers call {@link #updateAfterCommit(Account)} or {@link #evictAfterCommit(Collection)}; nothing happens
+ *     until the surrounding transaction commits, and nothing at all if it rolls back.</li>
+ *     <li>An update only replaces a snapshot with a higher version, so a reader that loaded the previous balance
+ *     just before the commit cannot overwrite the newer one.</li>
+ *     <li>Loads and after-commit changes of the same key are serialized by the cache, so an eviction that races with
+ *     a load waits for it and removes its result.</li>
+ * </ul>
+ * Once a transfer has returned, every later read therefore sees its balances.
+ *
+ * <p>The size and time-to-live are set with {@code banking.cache.accounts.max-size} and
+ * {@code banking.cache.accounts.expire-after-write-seconds}; hit and miss counts are reported by {@link #getStats()}.
+ * The index used by {@link #evictById(Long)} holds the IDs of the cached snapshots exactly: an ID is added and removed
+ * in the same atomic step as its snapshot, so a cached snapshot can always be found by ID.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Component
+public class AccountCache {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Value("${banking.cache.accounts.max-size:100000}")
+    private long maxSize = 100_000;
+
+    @Value("${banking.cache.accounts.expire-after-write-seconds:600}")
+    private long expireAfterWriteSeconds = 600;
+
+    private Cache<String, AccountSnapshot> snapshots;
+
+    private final Map<Long, String> accountNumbersById = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the cache from the configured size and time-to-live.
+     */
+    @PostConstruct
+    public void init() {
+        accountNumbersById.clear();
+        // The eviction listener runs inside the atomic removal of the entry, so a reload cannot slip in between
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .<String, AccountSnapshot>evictionListener((accountNumber, snapshot, cause) -> {
+                    if (snapshot != null) {
+                        accountNumbersById.remove(snapshot.id());
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the snapshot of an account, loading it from the database on a miss.
+     * Must be called before the current transaction, if any, modifies the account.
+     *
+     * @param accountNumber the account number.
+     * @return an {@link Optional} containing the snapshot if the account exists, or an empty Optional otherwise.
+     */
+    public Optional<AccountSnapshot> get(String accountNumber) {
+        return Optional.ofNullable(snapshots.get(accountNumber, this::load));
+    }
+
+    /**
+     * Returns the ID of an account, loading it from the database on a miss.
+     *
+     * @param accountNumber the account number.
+     * @return an {@link Optional} containing the account ID if the account exists, or an empty Optional otherwise.
+     */
+    public Optional<Long> findId(String accountNumber) {
+        return get(accountNumber).map(AccountSnapshot::id);
+    }
+
+    /**
+     * Stores the state of a modified account once the current transaction has committed.
+     * The balance and version are read from the entity at commit time, after Hibernate has flushed it.
+     * Outside a transaction the entry is evicted immediately instead.
+     *
+     * @param account the modified account.
+     */
+    public void updateAfterCommit(Account account) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(account.getAccountNumber());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(new AccountSnapshot(account.getId(), account.getAccountNumber(),
+                        account.getUser() != null ? account.getUser().getId() : null,
+                        account.getBalance(), account.getVersion()));
+            }
+        });
+    }
+
+    /**
+     * Evicts accounts by ID once the current transaction has committed.
+     * Used by writers that change balances with bulk updates and have no entity at hand.
+     * Outside a transaction the entries are evicted immediately.
+     *
+     * @param accountIds the IDs of the modified accounts.
+     */
+    public void evictAfterCommit(Collection<Long> accountIds) {
+        List<Long> ids = List.copyOf(accountIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(this::evictById);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(AccountCache.this::evictById);
+            }
+        });
+    }
+
+    /**
+     * Evicts an account by ID immediately, for example after it has been deleted.
+     *
+     * @param accountId the ID of the account.
+     */
+    public void evictById(Long accountId) {
+        String accountNumber = accountNumbersById.get(accountId);
+        if (accountNumber != null) {
+            evict(accountNumber);
+        }
+    }
+
+    /**
+     * Returns the hit and miss statistics of the cache since startup.
+     *
+     * @return an {@link AccountCacheStatsDTO} with the current statistics.
+     */
+    public AccountCacheStatsDTO getStats() {
+        CacheStats stats = snapshots.stats();
+        return new AccountCacheStatsDTO(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), snapshots.estimatedSize());
+    }
+
+    private AccountSnapshot load(String accountNumber) {
+        AccountSnapshot snapshot = accountRepository.findSnapshotByAccountNumber(accountNumber).orElse(null);
+        if (snapshot != null) {
+            accountNumbersById.put(snapshot.id(), accountNumber);
+        }
+        return snapshot;
+    }
+
+    private void put(AccountSnapshot snapshot) {
+        snapshots.asMap().compute(snapshot.accountNumber(), (accountNumber, cached) -> {
+            accountNumbersById.put(snapshot.id(), accountNumber);
+            return cached == null || !cached.isNewerThan(snapshot) ? snapshot : cached;
+        });
+    }
+
+    private void evict(String accountNumber) {
+        snapshots.asMap().computeIfPresent(accountNumber, (key, cached) -> {
+            accountNumbersById.remove(cached.id());
+            return null;
+        });
+    }
+}
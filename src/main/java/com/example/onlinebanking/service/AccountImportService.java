@@ -0,0 +1,338 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.Money;
+import com.example.onlinebanking.model.dto.AccountImportRejectionDTO;
+import com.example.onlinebanking.model.dto.AccountImportResultDTO;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Service class for creating {@link Account} entities in bulk, such as when a partner bank is onboarded.
+ *
+ * <p>The rows are read from a CSV or newline-delimited JSON stream in chunks of
+ * {@code banking.account.import.chunk-size} lines, so memory use depends on the chunk size and not on the size of the
+ * import. The lines of a chunk are parsed and validated in parallel. The valid rows are then checked against the
+ * database with one query for their users and one for their account numbers, and the accounts and the ledger entries
+ * of their opening balances are inserted in JDBC batches of {@code banking.account.import.jdbc-batch-size} rows, in one
+ * database transaction per chunk.
+ *
+ * <p>A row that cannot be imported is reported as rejected without affecting the others; a chunk that fails as a
+ * whole (for example on a database error) reports all of its rows as rejected and is rolled back, while the chunks
+ * before it stay committed. An account number that appears twice is imported once, and the second row is rejected.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Service
+public class AccountImportService {
+
+    /**
+     * The header line of a CSV import.
+     */
+    public static final String CSV_HEADER = "accountNumber,userId,balance";
+
+    private static final Logger log = LoggerFactory.getLogger(AccountImportService.class);
+
+    private static final int MAX_ACCOUNT_NUMBER_LENGTH = 255;
+
+    private static final ObjectReader JSON_READER = new ObjectMapper()
+            .readerFor(JsonNode.class)
+            .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    /**
+     * The formats of an import.
+     */
+    public enum Format {
+
+        /**
+         * Comma-separated values, starting with the {@link #CSV_HEADER} line.
+         */
+        CSV,
+
+        /**
+         * One JSON object per line, with {@code accountNumber}, {@code userId} and {@code balance} fields.
+         */
+        NDJSON
+    }
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${banking.account.import.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Value("${banking.account.import.jdbc-batch-size:1000}")
+    private int jdbcBatchSize = 1000;
+
+    @Value("${banking.account.import.max-reported-rejections:1000}")
+    private int maxReportedRejections = 1000;
+
+    /**
+     * Creates an account for every valid row of a stream, with its opening balance recorded in the ledger.
+     * Blank lines are skipped.
+     *
+     * @param in the rows, in UTF-8.
+     * @param format the format of the rows.
+     * @return an {@link AccountImportResultDTO} with the number of imported and rejected rows, and the rejected rows.
+     * @throws IOException if the stream cannot be read.
+     * @throws RuntimeException if a CSV stream does not start with the {@link #CSV_HEADER} line.
+     */
+    public AccountImportResultDTO importAccounts(InputStream in, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        ImportSummary summary = new ImportSummary();
+        long lineNumber = 0;
+        if (format == Format.CSV) {
+            String header = reader.readLine();
+            if (header == null) {
+                return summary.toDTO();
+            }
+            lineNumber++;
+            if (!header.strip().equalsIgnoreCase(CSV_HEADER)) {
+                throw new RuntimeException("CSV import must start with the header " + CSV_HEADER);
+            }
+        }
+
+        List<String> lines = new ArrayList<>(chunkSize);
+        long firstLine = lineNumber + 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            lines.add(line);
+            if (lines.size() == chunkSize) {
+                importChunk(lines, firstLine, format, summary);
+                lines.clear();
+                firstLine = lineNumber + 1;
+            }
+        }
+        if (!lines.isEmpty()) {
+            importChunk(lines, firstLine, format, summary);
+        }
+        log.info("Imported {} accounts, rejected {} rows", summary.imported, summary.rejected);
+        return summary.toDTO();
+    }
+
+    /**
+     * Validates the lines of a chunk in parallel, then inserts its valid rows in one database transaction.
+     *
+     * @param lines the lines of the chunk.
+     * @param firstLine the line number of the first line of the chunk.
+     * @param format the format of the lines.
+     * @param summary the summary to add the outcome of the chunk to.
+     */
+    private void importChunk(List<String> lines, long firstLine, Format format, ImportSummary summary) {
+        List<ImportRow> rows = IntStream.range(0, lines.size())
+                .parallel()
+                .mapToObj(i -> parse(lines.get(i), firstLine + i, format))
+                .filter(Objects::nonNull)
+                .toList();
+
+        List<ImportRow> valid = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (row.error() != null) {
+                summary.reject(row);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<ImportRow> rejected = transactionTemplate.execute(status -> insertChunk(valid));
+            summary.imported += valid.size() - rejected.size();
+            rejected.forEach(summary::reject);
+        } catch (RuntimeException ex) {
+            log.warn("Account import chunk at line {} failed", firstLine, ex);
+            for (ImportRow row : valid) {
+                summary.reject(row.rejected(ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Inserts the accounts of valid rows inside the current transaction, skipping the rows whose user does not exist
+     * or whose account number is taken.
+     *
+     * @param rows the valid rows of a chunk, in order.
+     * @return the rows that were not inserted, with the reason.
+     */
+    private List<ImportRow> insertChunk(List<ImportRow> rows) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        Set<Long> users = userRepository.findExistingIds(
+                rows.stream().map(ImportRow::userId).collect(Collectors.toSet()));
+        Set<String> accountNumbers = new HashSet<>(accountRepository.findExistingAccountNumbers(
+                rows.stream().map(ImportRow::accountNumber).toList()));
+
+        List<ImportRow> rejected = new ArrayList<>();
+        List<Account> accounts = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (!users.contains(row.userId())) {
+                rejected.add(row.rejected("User not found"));
+            } else if (!accountNumbers.add(row.accountNumber())) {
+                rejected.add(row.rejected("Account number already exists"));
+            } else {
+                Account account = new Account();
+                account.setAccountNumber(row.accountNumber());
+                account.setBalanceMinorUnits(row.balance());
+                account.setUser(userRepository.getReferenceById(row.userId()));
+                accounts.add(account);
+            }
+        }
+        // Managed entities: the inserts are flushed in JDBC batches at commit
+        accountRepository.saveAll(accounts);
+        ledgerService.recordOpenings(accounts);
+        return rejected;
+    }
+
+    /**
+     * Parses and validates one line.
+     *
+     * @param line the line.
+     * @param lineNumber the line number of the line.
+     * @param format the format of the line.
+     * @return the row, with an error if it is invalid, or {@code null} if the line is blank.
+     */
+    private ImportRow parse(String line, long lineNumber, Format format) {
+        if (line.isBlank()) {
+            return null;
+        }
+        if (format == Format.CSV) {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3) {
+                return new ImportRow(lineNumber, null, 0, 0, "Expected 3 fields, found " + fields.length);
+            }
+            return validate(lineNumber, fields[0].strip(), fields[1].strip(), fields[2].strip());
+        }
+        JsonNode node;
+        try {
+            node = JSON_READER.readTree(line);
+        } catch (JsonProcessingException ex) {
+            return new ImportRow(lineNumber, null, 0, 0, "Invalid JSON");
+        }
+        return validate(lineNumber, text(node, "accountNumber"), text(node, "userId"), text(node, "balance"));
+    }
+
+    private String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? "" : value.asText().strip();
+    }
+
+    /**
+     * Validates the fields of one row.
+     *
+     * @param lineNumber the line number of the row.
+     * @param accountNumber the account number.
+     * @param userId the user ID.
+     * @param balance the opening balance.
+     * @return the row, with an error if it is invalid.
+     */
+    private ImportRow validate(long lineNumber, String accountNumber, String userId, String balance) {
+        if (accountNumber.isEmpty()) {
+            return new ImportRow(lineNumber, null, 0, 0, "Missing account number");
+        }
+        if (accountNumber.length() > MAX_ACCOUNT_NUMBER_LENGTH) {
+            return new ImportRow(lineNumber, null, 0, 0,
+                    "Account number is longer than " + MAX_ACCOUNT_NUMBER_LENGTH + " characters");
+        }
+        long user;
+        try {
+            user = Long.parseLong(userId);
+        } catch (NumberFormatException ex) {
+            return new ImportRow(lineNumber, accountNumber, 0, 0, "Invalid user ID");
+        }
+        long minorUnits;
+        try {
+            minorUnits = Money.toMinorUnits(new BigDecimal(balance));
+        } catch (NumberFormatException ex) {
+            return new ImportRow(lineNumber, accountNumber, user, 0, "Invalid balance");
+        } catch (RuntimeException ex) {
+            return new ImportRow(lineNumber, accountNumber, user, 0, ex.getMessage());
+        }
+        if (minorUnits < 0) {
+            return new ImportRow(lineNumber, accountNumber, user, minorUnits, "Balance must not be negative");
+        }
+        return new ImportRow(lineNumber, accountNumber, user, minorUnits, null);
+    }
+
+    /**
+     * One row of an import.
+     *
+     * @param line the line number of the row.
+     * @param accountNumber the account number, or {@code null} if it could not be read.
+     * @param userId the ID of the owner.
+     * @param balance the opening balance in minor units.
+     * @param error the reason why the row is rejected, or {@code null} if it is valid.
+     */
+    private record ImportRow(long line, String accountNumber, long userId, long balance, String error) {
+
+        ImportRow rejected(String reason) {
+            return new ImportRow(line, accountNumber, userId, balance, reason);
+        }
+    }
+
+    /**
+     * The running outcome of an import. At most {@code max-reported-rejections} rejected rows are kept.
+     */
+    private final class ImportSummary {
+
+        private long imported;
+
+        private long rejected;
+
+        private final List<AccountImportRejectionDTO> rejections = new ArrayList<>();
+
+        void reject(ImportRow row) {
+            rejected++;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new AccountImportRejectionDTO(row.line(), row.accountNumber(), row.error()));
+            }
+        }
+
+        AccountImportResultDTO toDTO() {
+            return new AccountImportResultDTO(imported, rejected, rejections);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.onlinebanking.service;
 
+import com.example.onlinebanking.exception.ResourceNotFoundException;
 import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.dto.AccountCacheStatsDTO;
+import com.example.onlinebanking.model.dto.AccountDTO;
+import com.example.onlinebanking.model.dto.AccountSnapshot;
 import com.example.onlinebanking.repository.AccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-
-import java.util.Optional;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class for managing {@link Account} entities.
@@ -22,32 +25,75 @@ public class AccountService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired(required = false)
+    private BalanceStripingService balanceStriping;
+
+    @Autowired
+    private LedgerService ledgerService;
+
     /**
-     * Creates a new account and saves it to the database.
+     * Creates a new account and saves it to the database, together with the ledger entry of its opening balance.
      *
      * @param account the account entity to be created.
      * @return the saved account entity.
      */
+    @Transactional
     public Account createAccount(Account account) {
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        ledgerService.recordOpening(saved);
+        return saved;
     }
 
     /**
-     * Retrieves an account by its unique identifier.
+     * Retrieves the ID, account number and balance of an account by its unique identifier.
      *
      * @param id the ID of the account to retrieve.
-     * @return an {@link Optional} containing the account if found, or an empty Optional if no account is found.
+     * @return the account projection.
+     * @throws ResourceNotFoundException if no account is found.
+     */
+    public AccountDTO getAccount(Long id) {
+        return accountRepository.findDtoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+    }
+
+    /**
+     * Retrieves the ID, account number and last committed balance of an account by its account number.
+     * The account is served from the {@link AccountCache}, which is updated whenever a transfer commits.
+     * The balance of a striped account is read from the database instead, since credits to its stripes do not
+     * update the cache (see {@link BalanceStripingService}).
+     *
+     * @param accountNumber the account number of the account to retrieve.
+     * @return the account projection.
+     * @throws ResourceNotFoundException if no account is found.
+     */
+    public AccountDTO getAccountByNumber(String accountNumber) {
+        AccountSnapshot snapshot = accountCache.get(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        if (balanceStriping != null && balanceStriping.isStriped(snapshot.id())) {
+            return getAccount(snapshot.id());
+        }
+        return new AccountDTO(snapshot.id(), snapshot.accountNumber(), snapshot.balance());
+    }
+
+    /**
+     * Returns the hit and miss statistics of the account lookup cache.
+     *
+     * @return an {@link AccountCacheStatsDTO} with the current statistics.
      */
-    public Optional<Account> getAccount(Long id) {
-        return accountRepository.findById(id);
+    public AccountCacheStatsDTO getCacheStats() {
+        return accountCache.getStats();
     }
 
     /**
-     * Deletes an account by its unique identifier.
+     * Deletes an account by its unique identifier, and removes it from the account lookup cache.
      *
      * @param id the ID of the account to delete.
      */
     public void deleteAccount(Long id) {
         accountRepository.deleteById(id);
+        accountCache.evictById(id);
     }
 }
\ No newline at end of file
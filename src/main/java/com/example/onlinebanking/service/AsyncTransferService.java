@@ -0,0 +1,257 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.exception.IdempotencyConflictException;
+import com.example.onlinebanking.exception.ResourceNotFoundException;
+import com.example.onlinebanking.model.dto.TransferStatusDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class for transfers submitted for asynchronous execution.
+ *
+ * <p>{@link #submit(String, String, BigDecimal, Runnable)} checks the request, queues the transfer on the
+ * {@code transferExecutor} and returns at once with a transfer ID, so the request thread is not held for the database
+ * transaction. The client then polls {@link #getStatus(String)}. Checks that need the balances, such as insufficient
+ * funds, are made when the transfer is performed and reported by its status.
+ *
+ * <p>At most {@code banking.transfer.async.max-pending} transfers are queued or running; beyond that, submissions are
+ * rejected with HTTP status 503 (Service Unavailable) instead of growing the queue without bound.
+ *
+ * <p>Statuses are kept in memory, up to {@code banking.transfer.async.status-max-size} of them, for
+ * {@code banking.transfer.async.status-ttl-minutes} after their last change. They are lost on restart; clients that
+ * need to recover from that send an {@code Idempotency-Key} with the transfer.
+ *
+ * <p>A retry of a transfer sent with an {@code Idempotency-Key}, typically after the 202 response was lost, is not
+ * queued again: it gets the ID and status of the transfer accepted first, for as long as that status is kept. If the
+ * key is still being performed elsewhere, e.g. by a synchronous request or on another instance, the worker waits for
+ * that outcome instead of reporting the conflict as a failure.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Service
+public class AsyncTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncTransferService.class);
+
+    private static final long IN_PROGRESS_RETRY_MS = 100;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    @Qualifier("transferExecutor")
+    private AsyncTaskExecutor transferExecutor;
+
+    @Value("${banking.transfer.async.max-pending:10000}")
+    private int maxPending = 10000;
+
+    @Value("${banking.transfer.async.status-ttl-minutes:60}")
+    private long statusTtlMinutes = 60;
+
+    @Value("${banking.transfer.async.status-max-size:1000000}")
+    private long statusMaxSize = 1_000_000;
+
+    private Cache<String, TransferStatusDTO> statuses;
+
+    private Cache<RequestKey, Accepted> acceptedByKey;
+
+    private Semaphore admissions;
+
+    /**
+     * The idempotency key of a client.
+     */
+    private record RequestKey(String owner, String idempotencyKey) {
+    }
+
+    /**
+     * A transfer accepted under an idempotency key, so that its retries get the same ID.
+     */
+    private record Accepted(String id, String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+
+        boolean isSameTransfer(String from, String to, BigDecimal value) {
+            return fromAccountNumber.equals(from) && toAccountNumber.equals(to) && amount.compareTo(value) == 0;
+        }
+    }
+
+    /**
+     * Builds the status store and the admission limit.
+     */
+    @PostConstruct
+    public void init() {
+        statuses = Caffeine.newBuilder()
+                .maximumSize(statusMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(statusTtlMinutes))
+                .build();
+        acceptedByKey = Caffeine.newBuilder()
+                .maximumSize(statusMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(statusTtlMinutes))
+                .build();
+        admissions = new Semaphore(maxPending);
+    }
+
+    /**
+     * Checks a transfer and queues it for execution.
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred.
+     * @param transfer performs the transfer, e.g. through {@link TransferService#transferFunds(String, String, BigDecimal)}.
+     * @return the {@link TransferStatusDTO#PENDING} status of the accepted transfer.
+     * @throws RuntimeException if the amount is not positive, the accounts are the same, or an account is not found.
+     * @throws RejectedExecutionException if too many transfers are pending.
+     */
+    public TransferStatusDTO submit(String fromAccountNumber, String toAccountNumber, BigDecimal amount, Runnable transfer) {
+        return submit(null, null, fromAccountNumber, toAccountNumber, amount, transfer);
+    }
+
+    /**
+     * Checks a transfer sent with an idempotency key and queues it, unless a transfer was already accepted with that key.
+     *
+     * @param owner the username of the client, or an empty string for an unauthenticated request.
+     * @param idempotencyKey the value of the {@code Idempotency-Key} header, or {@code null} if there is none.
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred.
+     * @param transfer performs the transfer, e.g. through {@link IdempotencyService#execute(String, String, String, Runnable)}.
+     * @return the {@link TransferStatusDTO#PENDING} status of the accepted transfer, or the current status of the
+     *         transfer accepted first with the same key.
+     * @throws RuntimeException if the amount is not positive, the accounts are the same, or an account is not found.
+     * @throws IdempotencyConflictException if the key was used for a different transfer.
+     * @throws RejectedExecutionException if too many transfers are pending.
+     */
+    public TransferStatusDTO submit(String owner, String idempotencyKey, String fromAccountNumber, String toAccountNumber,
+                                    BigDecimal amount, Runnable transfer) {
+        RequestKey key = idempotencyKey == null ? null : new RequestKey(owner, idempotencyKey);
+        if (key != null) {
+            TransferStatusDTO retried = findAccepted(key, fromAccountNumber, toAccountNumber, amount);
+            if (retried != null) {
+                return retried;
+            }
+        }
+        if (amount.signum() <= 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            throw new RuntimeException("Cannot transfer to the same account");
+        }
+        accountCache.findId(fromAccountNumber).orElseThrow(() -> new RuntimeException("From account not found"));
+        accountCache.findId(toAccountNumber).orElseThrow(() -> new RuntimeException("To account not found"));
+
+        if (!admissions.tryAcquire()) {
+            throw new RejectedExecutionException("Too many pending transfers");
+        }
+        String id = UUID.randomUUID().toString();
+        TransferStatusDTO pending = new TransferStatusDTO(id, TransferStatusDTO.PENDING, null);
+        statuses.put(id, pending);
+        Accepted accepted = new Accepted(id, fromAccountNumber, toAccountNumber, amount);
+        if (key != null) {
+            // A concurrent retry may have been accepted first; its status is put before it is published here
+            Accepted first = acceptedByKey.asMap().putIfAbsent(key, accepted);
+            TransferStatusDTO firstStatus = first == null ? null : statuses.getIfPresent(first.id());
+            if (firstStatus != null) {
+                statuses.invalidate(id);
+                admissions.release();
+                checkSameTransfer(first, fromAccountNumber, toAccountNumber, amount);
+                return firstStatus;
+            }
+            if (first != null) {
+                acceptedByKey.put(key, accepted);
+            }
+        }
+        try {
+            transferExecutor.execute(() -> perform(id, transfer));
+        } catch (RuntimeException ex) {
+            statuses.invalidate(id);
+            if (key != null) {
+                acceptedByKey.asMap().remove(key, accepted);
+            }
+            admissions.release();
+            throw ex;
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the status of a submitted transfer.
+     *
+     * @param id the transfer ID returned by {@link #submit(String, String, BigDecimal, Runnable)}.
+     * @return the current {@link TransferStatusDTO}.
+     * @throws ResourceNotFoundException if the ID is unknown or its status has expired.
+     */
+    public TransferStatusDTO getStatus(String id) {
+        TransferStatusDTO status = statuses.getIfPresent(id);
+        if (status == null) {
+            throw new ResourceNotFoundException("Transfer not found");
+        }
+        return status;
+    }
+
+    /**
+     * Returns the number of transfers queued or running.
+     *
+     * @return the number of pending transfers.
+     */
+    public int getPendingCount() {
+        return maxPending - admissions.availablePermits();
+    }
+
+    private TransferStatusDTO findAccepted(RequestKey key, String fromAccountNumber, String toAccountNumber,
+                                           BigDecimal amount) {
+        Accepted accepted = acceptedByKey.getIfPresent(key);
+        TransferStatusDTO status = accepted == null ? null : statuses.getIfPresent(accepted.id());
+        if (status != null) {
+            checkSameTransfer(accepted, fromAccountNumber, toAccountNumber, amount);
+        }
+        return status;
+    }
+
+    private void checkSameTransfer(Accepted accepted, String fromAccountNumber, String toAccountNumber,
+                                   BigDecimal amount) {
+        if (!accepted.isSameTransfer(fromAccountNumber, toAccountNumber, amount)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private void perform(String id, Runnable transfer) {
+        try {
+            while (true) {
+                try {
+                    transfer.run();
+                    statuses.put(id, new TransferStatusDTO(id, TransferStatusDTO.COMPLETED, null));
+                    return;
+                } catch (IdempotencyConflictException ex) {
+                    if (!ex.isInProgress()) {
+                        throw ex;
+                    }
+                    // Its outcome is replayed once recorded, or the key taken over once its lease expires
+                    TimeUnit.MILLISECONDS.sleep(IN_PROGRESS_RETRY_MS);
+                }
+            }
+        } catch (InterruptedException ex) {
+            // Shutting down: the outcome is unknown, so the transfer stays pending
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.debug("Asynchronous transfer {} failed", id, ex);
+            statuses.put(id, new TransferStatusDTO(id, TransferStatusDTO.FAILED, ex.getMessage()));
+        } finally {
+            admissions.release();
+        }
+    }
+}
@@ -2,14 +2,23 @@ package com.example.onlinebanking.service;
 
 import com.example.onlinebanking.model.dto.AuthRequest;
 import com.example.onlinebanking.model.dto.AuthResponse;
+import com.example.onlinebanking.model.dto.RefreshRequest;
 import com.example.onlinebanking.security.CustomUserDetails;
 import com.example.onlinebanking.security.CustomUserDetailsService;
+import com.example.onlinebanking.security.JwtPrincipal;
 import com.example.onlinebanking.security.JwtUtil;
+import com.example.onlinebanking.security.RefreshTokenStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
 /**
  * AuthService is a service class responsible for handling authentication-related operations,
  * such as user login and JWT token generation.
@@ -20,11 +29,15 @@ import org.springframework.stereotype.Service;
  * <p>Key responsibilities include:
  * <ul>
  *   <li>Authenticating users using their credentials (username and password).</li>
- *   <li>Loading user details using the {@link CustomUserDetailsService}.</li>
+ *   <li>Reusing the user details loaded by the {@link CustomUserDetailsService} during authentication.</li>
  *   <li>Generating a JWT token for authenticated users.</li>
  *   <li>Returning an {@link AuthResponse} containing the generated token.</li>
+ *   <li>Exchanging refresh tokens for new short-lived tokens through the {@link RefreshTokenStore}.</li>
  * </ul>
  *
+ * <p>Logins run on the bounded {@code loginExecutor}, so that password hashing cannot take CPU time away from
+ * the other endpoints, see {@link com.example.onlinebanking.config.LoginExecutorConfig}.
+ *
  * @author [Your Name]
  * @version 1.0
  * @since [Date]
@@ -44,7 +57,11 @@ public class AuthService {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    @Qualifier("loginExecutor")
+    private Executor loginExecutor;
 
     /**
      * Authenticates a user using the provided credentials and generates a JWT token upon successful authentication.
@@ -52,28 +69,58 @@ public class AuthService {
      * <p>This method performs the following steps:
      * <ol>
      *   <li>Authenticates the user using the {@link AuthenticationManager} and the provided username and password.</li>
-     *   <li>Loads the user details using the {@link CustomUserDetailsService}.</li>
-     *   <li>Generates a JWT token using the {@link JwtUtil} utility.</li>
-     *   <li>Returns an {@link AuthResponse} containing the generated token.</li>
+     *   <li>Takes the user details from the returned authentication, without loading the user again.</li>
+     *   <li>Generates a JWT token using the {@link JwtUtil} utility, and a refresh token.</li>
+     *   <li>Returns an {@link AuthResponse} containing the generated tokens.</li>
      * </ol>
      *
      * @param authRequest the {@link AuthRequest} object containing the user's credentials (username and password).
      * @return an {@link AuthResponse} object containing the JWT token.
      * @throws org.springframework.security.core.AuthenticationException if authentication fails.
+     * @throws java.util.concurrent.RejectedExecutionException if the login queue is full.
      */
     public AuthResponse login(AuthRequest authRequest) {
-        // Authenticate the user
-        authenticationManager.authenticate(
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(authRequest), loginExecutor).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private AuthResponse authenticate(AuthRequest authRequest) {
+        // Authenticate the user; the provider has already loaded the user details
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword())
         );
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
 
-        // Load user details
-        CustomUserDetails userDetails = (CustomUserDetails) userDetailsService.loadUserByUsername(authRequest.getUsername());
-
-        // Generate JWT token
+        // Generate JWT token and start a new refresh token family
         String token = jwtUtil.generateToken(userDetails);
+        String refreshToken = refreshTokenStore.issue(new JwtPrincipal(userDetails.getUserId(),
+                userDetails.getUsername(), userDetails.getRole(), userDetails.getAccountIds()));
 
-        // Return the token in the response
-        return new AuthResponse(token);
+        // Return the tokens in the response
+        return new AuthResponse(token, refreshToken, jwtUtil.getAccessTokenTtlSeconds());
+    }
+
+    /**
+     * Exchanges a refresh token for a new JWT token and a new refresh token.
+     *
+     * <p>The refresh token is checked against the in-memory {@link RefreshTokenStore} and the new JWT token is issued
+     * for the principal stored with it, so no password is hashed and no database query is run.
+     * The presented refresh token can no longer be used afterwards.
+     *
+     * @param refreshRequest the {@link RefreshRequest} object containing the refresh token.
+     * @return an {@link AuthResponse} object containing the new tokens.
+     * @throws org.springframework.security.authentication.BadCredentialsException if the refresh token is invalid,
+     *         expired, revoked or was already used.
+     */
+    public AuthResponse refresh(RefreshRequest refreshRequest) {
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(refreshRequest.getRefreshToken());
+        String token = jwtUtil.generateToken(rotation.principal());
+        return new AuthResponse(token, rotation.refreshToken(), jwtUtil.getAccessTokenTtlSeconds());
     }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.exception.ResourceNotFoundException;
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.AccountBalanceStripe;
+import com.example.onlinebanking.repository.AccountBalanceStripeRepository;
+import com.example.onlinebanking.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service class that splits the balance of designated hot accounts across several rows.
+ *
+ * <p>Every transfer to an account updates its row, so an account receiving a large share of all transfers, such as a
+ * merchant account, serializes them on one row lock. A striped account keeps its {@link Account} row and gets
+ * {@code banking.transfer.striping.stripes} {@link AccountBalanceStripe} rows in addition:
+ * <ul>
+ *     <li>A credit is added to one stripe chosen at random, so up to that many credits proceed at the same time.</li>
+ *     <li>A debit is taken from the {@link Account} row with a conditional {@code UPDATE}. If the row does not cover it,
+ *     {@link #consolidate(Long)} moves the balances of all stripes into the row, under their locks, and the debit is
+ *     tried once more.</li>
+ *     <li>The balance of the account is the balance of its row plus the balances of its stripes, which is what
+ *     {@link AccountService} reports.</li>
+ * </ul>
+ *
+ * <p>The service is enabled with {@code banking.transfer.striping.enabled=true}. The accounts listed in
+ * {@code banking.transfer.striping.accounts} are striped at startup; stripes are stored, so an account stays striped
+ * once striped. {@link TransferService} routes every single transfer from or to a striped account through
+ * {@link #credit(Long, BigDecimal)} and {@link #consolidate(Long)}.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Service
+@ConditionalOnProperty(name = "banking.transfer.striping.enabled", havingValue = "true")
+public class BalanceStripingService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceStripingService.class);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountBalanceStripeRepository stripeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Value("${banking.transfer.striping.accounts:}")
+    private List<String> accountNumbers = List.of();
+
+    @Value("${banking.transfer.striping.stripes:8}")
+    private int stripeCount = 8;
+
+    private final Map<Long, Integer> stripeCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the striped accounts and stripes the configured ones that are not striped yet.
+     */
+    @PostConstruct
+    public void init() {
+        if (stripeCount < 1) {
+            throw new IllegalStateException("banking.transfer.striping.stripes must be at least 1");
+        }
+        for (Object[] row : stripeRepository.countStripesByAccount()) {
+            stripeCounts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        for (String accountNumber : accountNumbers) {
+            if (accountNumber.isBlank()) {
+                continue;
+            }
+            if (accountCache.findId(accountNumber.trim()).isEmpty()) {
+                log.warn("Account {} configured for striping does not exist", accountNumber.trim());
+                continue;
+            }
+            stripe(accountNumber.trim());
+        }
+    }
+
+    /**
+     * Stripes an account, or adds stripes to it until it has {@code banking.transfer.striping.stripes} of them.
+     * The balance of the account is not moved: the new stripes are empty.
+     *
+     * @param accountNumber the account number of the account to stripe.
+     * @throws ResourceNotFoundException if no account is found.
+     */
+    public void stripe(String accountNumber) {
+        Long accountId = accountCache.findId(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        Integer count = transactionTemplate.execute(status -> {
+            // Locking the account row serializes concurrent calls, so each stripe number is inserted once
+            accountRepository.findByIdForUpdate(accountId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+            int existing = (int) stripeRepository.countByAccountId(accountId);
+            List<AccountBalanceStripe> added = new ArrayList<>();
+            for (int stripe = existing; stripe < stripeCount; stripe++) {
+                added.add(new AccountBalanceStripe(accountId, stripe));
+            }
+            stripeRepository.saveAll(added);
+            return Math.max(existing, stripeCount);
+        });
+        stripeCounts.put(accountId, count);
+        log.info("Account {} is striped across {} sub-balances", accountNumber, count);
+    }
+
+    /**
+     * Tells whether an account is striped.
+     *
+     * @param accountId the ID of the account.
+     * @return {@code true} if credits to the account go to its stripes.
+     */
+    public boolean isStriped(Long accountId) {
+        return stripeCounts.containsKey(accountId);
+    }
+
+    /**
+     * Adds an amount to a random stripe of a striped account, within the current transaction.
+     *
+     * @param accountId the ID of the striped account.
+     * @param amount the amount to add.
+     * @throws IllegalStateException if the account is not striped.
+     */
+    public void credit(Long accountId, BigDecimal amount) {
+        Integer count = stripeCounts.get(accountId);
+        if (count == null || stripeRepository.credit(accountId, ThreadLocalRandom.current().nextInt(count), amount) != 1) {
+            throw new IllegalStateException("Account " + accountId + " is not striped");
+        }
+    }
+
+    /**
+     * Moves the balances of all stripes of an account into its {@link Account} row, in a transaction of its own.
+     * The account row is locked before the stripes, in the same order as transfers debiting the account and then
+     * crediting one of its stripes, so the two cannot deadlock.
+     *
+     * @param accountId the ID of the striped account.
+     * @return the amount moved into the account row.
+     * @throws RuntimeException if the account is not found.
+     */
+    public BigDecimal consolidate(Long accountId) {
+        return transactionTemplate.execute(status -> {
+            Account account = accountRepository.findByIdForUpdate(accountId)
+                    .orElseThrow(() -> new RuntimeException("Account not found"));
+            BigDecimal moved = BigDecimal.ZERO;
+            for (AccountBalanceStripe stripe : stripeRepository.findByAccountIdForUpdate(accountId)) {
+                if (stripe.getBalance().signum() != 0) {
+                    moved = moved.add(stripe.getBalance());
+                    stripe.setBalance(BigDecimal.ZERO);
+                }
+            }
+            if (moved.signum() != 0) {
+                account.setBalance(account.getBalance().add(moved));
+                accountCache.updateAfterCommit(account);
+            }
+            return moved;
+        });
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.exception.IdempotencyConflictException;
+import com.example.onlinebanking.model.IdempotencyRecord;
+import com.example.onlinebanking.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.Striped;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Service class for performing requests at most once per {@code Idempotency-Key}.
+ *
+ * <p>Clients retry requests that timed out, without knowing whether the first attempt went through. When such a request
+ * carries an idempotency key, {@link #execute(String, String, String, Runnable)} performs it the first time and replays
+ * its outcome for every retry: a success is returned again, and a rejection is thrown again with the same message.
+ * <ul>
+ *     <li>Outcomes are kept in a local Caffeine cache, so a retry is answered with one hash lookup, without a lock or a
+ *     database query.</li>
+ *     <li>A new key is claimed by inserting an {@link IdempotencyRecord}, whose unique constraint lets only one instance
+ *     perform the request. Within this instance, requests with the same key are serialized by one of
+ *     {@code banking.idempotency.lock-stripes} locks, so concurrent retries wait for the first attempt instead of
+ *     failing on the constraint, while requests with different keys rarely share a lock.</li>
+ *     <li>A failure caused by the database, by overload or by a stopped transfer engine is not an outcome of the
+ *     request: the claim is released so that a retry performs the request again.</li>
+ *     <li>A claim is a lease of {@code banking.idempotency.lease-seconds}. If the instance that claimed a key stops, or
+ *     cannot record the outcome, before the request completes, the key stays in progress only until then: the next
+ *     retry takes the claim over and performs the request. The transfer and its outcome are not written in one
+ *     database transaction, since the transfer engines commit on their own threads, so a crash between the two may
+ *     let the retry perform the transfer again.</li>
+ * </ul>
+ *
+ * <p>Keys are kept for {@code banking.idempotency.ttl-hours}; older records are deleted every hour and may be reused.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    /**
+     * The maximum length of an idempotency key.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${banking.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    @Value("${banking.idempotency.lease-seconds:60}")
+    private long leaseSeconds = 60;
+
+    @Value("${banking.idempotency.cache.max-size:100000}")
+    private long cacheMaxSize = 100_000;
+
+    @Value("${banking.idempotency.lock-stripes:1024}")
+    private int lockStripes = 1024;
+
+    private Cache<Key, Outcome> outcomes;
+
+    private Striped<Lock> locks;
+
+    private ScheduledExecutorService purger;
+
+    /**
+     * The idempotency key of a client.
+     */
+    private record Key(String owner, String idempotencyKey) {
+    }
+
+    /**
+     * The final outcome of a request, as replayed to its retries.
+     */
+    private record Outcome(String fingerprint, String status, String message) {
+    }
+
+    /**
+     * Builds the outcome cache and the locks, and schedules the removal of expired records.
+     */
+    @PostConstruct
+    public void init() {
+        outcomes = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+        locks = Striped.lock(lockStripes);
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeQuietly, 1, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Stops the removal of expired records.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * Performs a request unless it was already performed with the same idempotency key, in which case its outcome is
+     * replayed.
+     *
+     * @param owner the username of the client, or an empty string for an unauthenticated request.
+     * @param idempotencyKey the value of the {@code Idempotency-Key} header.
+     * @param fingerprint the parameters of the request; a retry must send the same ones.
+     * @param action the request to perform.
+     * @throws IdempotencyConflictException if the key was used for different parameters, or its request is still being
+     *                                      performed.
+     * @throws RuntimeException if the key is empty or too long, or with the message of the original rejection.
+     */
+    public void execute(String owner, String idempotencyKey, String fingerprint, Runnable action) {
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Key key = new Key(owner, idempotencyKey);
+        Outcome outcome = outcomes.getIfPresent(key);
+        if (outcome != null) {
+            replay(outcome, fingerprint);
+            return;
+        }
+
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            // A concurrent request with the same key may have finished while this one waited for the lock
+            outcome = outcomes.getIfPresent(key);
+            if (outcome == null) {
+                outcome = findOutcome(key, fingerprint).orElseGet(() -> perform(key, fingerprint, action));
+                outcomes.put(key, outcome);
+            }
+        } finally {
+            lock.unlock();
+        }
+        replay(outcome, fingerprint);
+    }
+
+    /**
+     * Deletes the records of expired keys.
+     *
+     * @return the number of deleted records.
+     */
+    public int purgeExpired() {
+        return idempotencyRecordRepository.deleteCreatedBefore(expiredBefore());
+    }
+
+    private Optional<Outcome> findOutcome(Key key, String fingerprint) {
+        Optional<IdempotencyRecord> existing =
+                idempotencyRecordRepository.findByOwnerAndIdempotencyKey(key.owner(), key.idempotencyKey());
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        IdempotencyRecord record = existing.get();
+        if (record.getCreatedAt().isBefore(expiredBefore())) {
+            idempotencyRecordRepository.delete(record);
+            return Optional.empty();
+        }
+        if (IdempotencyRecord.IN_PROGRESS.equals(record.getStatus())) {
+            checkFingerprint(record.getFingerprint(), fingerprint);
+            LocalDateTime leaseExpiredBefore = LocalDateTime.now().minusSeconds(leaseSeconds);
+            if (!record.getCreatedAt().isBefore(leaseExpiredBefore)
+                    || idempotencyRecordRepository.deleteStaleClaim(record.getId(), leaseExpiredBefore) == 0) {
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress", true);
+            }
+            log.warn("Took over an Idempotency-Key claimed at {} whose request never completed", record.getCreatedAt());
+            return Optional.empty();
+        }
+        return Optional.of(new Outcome(record.getFingerprint(), record.getStatus(), record.getMessage()));
+    }
+
+    private Outcome perform(Key key, String fingerprint, Runnable action) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setOwner(key.owner());
+        record.setIdempotencyKey(key.idempotencyKey());
+        record.setFingerprint(fingerprint);
+        record.setStatus(IdempotencyRecord.IN_PROGRESS);
+        record.setCreatedAt(LocalDateTime.now());
+        try {
+            record = idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance claimed the key between the lookup and the insert
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress", true);
+        }
+
+        try {
+            action.run();
+        } catch (RuntimeException ex) {
+            if (isTransient(ex)) {
+                try {
+                    idempotencyRecordRepository.delete(record);
+                } catch (RuntimeException deleteFailure) {
+                    // The claim is released when its lease expires
+                    ex.addSuppressed(deleteFailure);
+                }
+                throw ex;
+            }
+            return complete(record, IdempotencyRecord.FAILED, ex.getMessage());
+        }
+        return complete(record, IdempotencyRecord.COMPLETED, null);
+    }
+
+    /**
+     * Records the outcome of a request. The request has been performed, so a failure to record it is not reported to
+     * the client: this instance replays the outcome from its cache, and other instances take the claim over once its
+     * lease has expired.
+     */
+    private Outcome complete(IdempotencyRecord record, String status, String message) {
+        record.setStatus(status);
+        record.setMessage(message);
+        try {
+            idempotencyRecordRepository.save(record);
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Could not record the outcome of Idempotency-Key {} of {}", record.getIdempotencyKey(),
+                    record.getOwner(), ex);
+        }
+        return new Outcome(record.getFingerprint(), status, message);
+    }
+
+    private void replay(Outcome outcome, String fingerprint) {
+        checkFingerprint(outcome.fingerprint(), fingerprint);
+        if (IdempotencyRecord.FAILED.equals(outcome.status())) {
+            throw new RuntimeException(outcome.message());
+        }
+    }
+
+    private void checkFingerprint(String expected, String actual) {
+        if (!Objects.equals(expected, actual)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    /**
+     * Indicates whether a failure says nothing about the request itself, so that a retry may succeed.
+     */
+    private static boolean isTransient(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessException || cause instanceof TransactionException
+                    || cause instanceof RejectedExecutionException || cause instanceof InterruptedException
+                    || cause instanceof UncheckedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private LocalDateTime expiredBefore() {
+        return LocalDateTime.now().minusHours(ttlHours);
+    }
+
+    private void purgeQuietly() {
+        try {
+            int purged = purgeExpired();
+            if (purged > 0) {
+                log.info("Deleted {} expired idempotency keys", purged);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Deleting expired idempotency keys failed, will retry", ex);
+        }
+    }
+}
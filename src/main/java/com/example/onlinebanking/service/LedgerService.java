@@ -0,0 +1,139 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.JournalEntry;
+import com.example.onlinebanking.model.JournalEntryType;
+import com.example.onlinebanking.model.PostingDirection;
+import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.model.dto.LedgerBalanceDTO;
+import com.example.onlinebanking.model.dto.LedgerReconciliationDTO;
+import com.example.onlinebanking.repository.JournalEntryRepository;
+import com.example.onlinebanking.repository.PostingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service class for the double-entry ledger of {@link JournalEntry} and
+ * {@link com.example.onlinebanking.model.Posting} rows.
+ *
+ * <p>Every writer that changes a balance records the change here, in the same database transaction as the balance
+ * update: the account balance is the materialized running total of the ledger. Entries are only appended, and with
+ * sequence IDs they are inserted in JDBC batches at commit, so recording a whole batch of transfers costs a few
+ * statements.
+ *
+ * <p>{@link #reconcile()} checks the two against each other with one aggregate query, streamed from a cursor.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Service
+public class LedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private PostingRepository postingRepository;
+
+    /**
+     * Records the opening balance of a new account, within the current transaction.
+     * Nothing is recorded for an account opened with a zero balance.
+     *
+     * @param account the saved account.
+     */
+    public void recordOpening(Account account) {
+        recordOpenings(List.of(account));
+    }
+
+    /**
+     * Records the opening balances of new accounts, within the current transaction: one entry per account opened
+     * with a non-zero balance, with a credit posting on the account.
+     *
+     * @param accounts the saved accounts.
+     */
+    public void recordOpenings(Collection<Account> accounts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<JournalEntry> entries = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            if (account.getBalanceMinorUnits() != 0) {
+                entries.add(new JournalEntry(JournalEntryType.OPENING, now, null)
+                        .addPosting(account.getId(), PostingDirection.CREDIT, account.getBalance()));
+            }
+        }
+        journalEntryRepository.saveAll(entries);
+    }
+
+    /**
+     * Records saved transfer transactions in the ledger, within the current transaction: one entry per transaction,
+     * with a debit posting on the source account and a credit posting on the destination account.
+     *
+     * @param transactions the saved transactions, which must have both accounts.
+     */
+    public void recordTransfers(Collection<Transaction> transactions) {
+        List<JournalEntry> entries = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            BigDecimal amount = transaction.getAmount().toBigDecimal();
+            entries.add(new JournalEntry(JournalEntryType.TRANSFER, transaction.getTimestamp(), transaction.getId())
+                    .addPosting(transaction.getFromAccount().getId(), PostingDirection.DEBIT, amount)
+                    .addPosting(transaction.getToAccount().getId(), PostingDirection.CREDIT, amount));
+        }
+        journalEntryRepository.saveAll(entries);
+    }
+
+    /**
+     * Records one saved transfer transaction in the ledger, within the current transaction.
+     *
+     * @param transaction the saved transaction, which must have both accounts.
+     * @see #recordTransfers(Collection)
+     */
+    public void recordTransfer(Transaction transaction) {
+        recordTransfers(List.of(transaction));
+    }
+
+    /**
+     * Compares the stored balance of every account with the sum of its postings, and checks that every transfer entry
+     * balances. The sums are computed by the database, and the accounts are streamed, so memory use does not depend on
+     * the size of the ledger.
+     * <p>
+     * Balances are read while transfers may still commit, so an account updated during the check can be reported;
+     * it should then reconcile on the next run.
+     * </p>
+     *
+     * @return a {@link LedgerReconciliationDTO} with the accounts that differ and the number of unbalanced entries.
+     */
+    @Transactional(readOnly = true)
+    public LedgerReconciliationDTO reconcile() {
+        long checked = 0;
+        List<LedgerBalanceDTO> mismatches = new ArrayList<>();
+        try (Stream<LedgerBalanceDTO> balances = postingRepository.streamAccountBalances()) {
+            Iterator<LedgerBalanceDTO> iterator = balances.iterator();
+            while (iterator.hasNext()) {
+                LedgerBalanceDTO balance = iterator.next();
+                checked++;
+                if (!balance.isReconciled()) {
+                    mismatches.add(balance);
+                }
+            }
+        }
+        long unbalanced = journalEntryRepository.countUnbalancedTransfers();
+        if (!mismatches.isEmpty() || unbalanced > 0) {
+            log.warn("Ledger reconciliation found {} mismatched accounts and {} unbalanced entries",
+                    mismatches.size(), unbalanced);
+        }
+        return new LedgerReconciliationDTO(checked, mismatches, unbalanced);
+    }
+}
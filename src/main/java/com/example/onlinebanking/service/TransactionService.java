@@ -0,0 +1,211 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.exception.ResourceNotFoundException;
+import com.example.onlinebanking.model.dto.TransactionDTO;
+import com.example.onlinebanking.model.dto.TransactionHistoryView;
+import com.example.onlinebanking.model.dto.TransactionPageDTO;
+import com.example.onlinebanking.model.dto.TransactionRecordView;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Service class for reading the transaction history of accounts.
+ * History is never loaded as a whole: it is either read one keyset page at a time,
+ * or streamed row by row from a database cursor. A stream merges the two index-ordered cursors of the transactions
+ * sent and received by the account, so the first row is passed on as soon as the database returns it.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Service
+public class TransactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
+    private static final Comparator<TransactionHistoryView> HISTORY_OLDEST_FIRST =
+            Comparator.comparing(TransactionHistoryView::getTimestamp).thenComparing(TransactionHistoryView::getId);
+
+    private static final Comparator<TransactionHistoryView> HISTORY_NEWEST_FIRST = HISTORY_OLDEST_FIRST.reversed();
+
+    private static final Comparator<TransactionRecordView> RECORDS_NEWEST_FIRST =
+            Comparator.comparing(TransactionRecordView::getTimestamp).thenComparing(TransactionRecordView::getId).reversed();
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Value("${banking.history.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    /**
+     * Resolves the ID of an account from its account number.
+     *
+     * @param accountNumber the account number.
+     * @return the ID of the account.
+     * @throws ResourceNotFoundException if the account does not exist.
+     */
+    public Long getAccountId(String accountNumber) {
+        return accountRepository.findIdByAccountNumber(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+    }
+
+    /**
+     * Retrieves one page of the transaction history of an account, newest first.
+     *
+     * @param accountNumber the account number.
+     * @param cursor the {@link TransactionPageDTO#getNextCursor() cursor} returned with the previous page,
+     *               or {@code null} for the first page.
+     * @param limit the maximum number of transactions to return, capped at {@code banking.history.max-page-size}.
+     * @return the requested page.
+     * @throws ResourceNotFoundException if the account does not exist.
+     * @throws RuntimeException if the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPageDTO getTransactionHistory(String accountNumber, String cursor, int limit) {
+        Long accountId = getAccountId(accountNumber);
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        // One extra row tells whether another page follows without a count query
+        List<TransactionHistoryView> views;
+        if (cursor == null || cursor.isEmpty()) {
+            views = transactionRepository.findHistory(accountId, pageSize + 1);
+        } else {
+            String[] position = decodeCursor(cursor);
+            views = transactionRepository.findHistoryBefore(accountId,
+                    LocalDateTime.parse(position[0]), Long.valueOf(position[1]), pageSize + 1);
+        }
+        List<TransactionDTO> rows = views.stream().map(this::toDTO).toList();
+
+        if (rows.size() <= pageSize) {
+            return new TransactionPageDTO(rows, null);
+        }
+        List<TransactionDTO> page = rows.subList(0, pageSize);
+        return new TransactionPageDTO(page, encodeCursor(page.get(pageSize - 1)));
+    }
+
+    /**
+     * Passes every transaction of an account, newest first, to the given action as it is read from the database.
+     * The rows are projections, so nothing accumulates in the persistence context while streaming.
+     *
+     * @param accountId the ID of the account, see {@link #getAccountId(String)}.
+     * @param action the action to perform for each transaction.
+     */
+    @Transactional(readOnly = true)
+    public void streamTransactionHistory(Long accountId, Consumer<TransactionDTO> action) {
+        try (Stream<TransactionHistoryView> sent = transactionRepository.streamSentHistory(accountId);
+             Stream<TransactionHistoryView> received = transactionRepository.streamReceivedHistory(accountId)) {
+            forEachMerged(sent, received, HISTORY_NEWEST_FIRST, view -> action.accept(toDTO(view)));
+        }
+    }
+
+    /**
+     * Passes the transactions of an account in a period, oldest first, to the given action as they are read from the
+     * database. This is the source of the account statement. The number of rows and the rate at which they were read
+     * and consumed are logged at the end.
+     *
+     * @param accountId the ID of the account, see {@link #getAccountId(String)}.
+     * @param from the start of the period, inclusive.
+     * @param to the end of the period, exclusive.
+     * @param action the action to perform for each transaction.
+     * @return the number of transactions passed to the action.
+     */
+    @Transactional(readOnly = true)
+    public long streamStatement(Long accountId, LocalDateTime from, LocalDateTime to, Consumer<TransactionDTO> action) {
+        long start = System.nanoTime();
+        long rows;
+        try (Stream<TransactionHistoryView> sent = transactionRepository.streamSentInPeriod(accountId, from, to);
+             Stream<TransactionHistoryView> received = transactionRepository.streamReceivedInPeriod(accountId, from, to)) {
+            rows = forEachMerged(sent, received, HISTORY_OLDEST_FIRST, view -> action.accept(toDTO(view)));
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        log.info("Streamed a statement of {} transactions for account {} in {} ms ({} rows/s)",
+                rows, accountId, elapsed / 1_000_000, rows * 1_000_000_000 / elapsed);
+        return rows;
+    }
+
+    /**
+     * Passes every transaction of an account, newest first, to the given action as it is read from the database,
+     * with the IDs of its accounts. This is the source of the binary export.
+     *
+     * @param accountId the ID of the account, see {@link #getAccountId(String)}.
+     * @param action the action to perform for each transaction.
+     */
+    @Transactional(readOnly = true)
+    public void streamTransactionRecords(Long accountId, Consumer<TransactionRecordView> action) {
+        try (Stream<TransactionRecordView> sent = transactionRepository.streamSentRecords(accountId);
+             Stream<TransactionRecordView> received = transactionRepository.streamReceivedRecords(accountId)) {
+            forEachMerged(sent, received, RECORDS_NEWEST_FIRST, action);
+        }
+    }
+
+    /**
+     * Passes the rows of two streams that are each sorted in the given order to the action, in that order.
+     * Only the current row of each stream is held.
+     *
+     * @param first the first sorted stream; its rows come first among equal rows.
+     * @param second the second sorted stream.
+     * @param order the order of both streams.
+     * @param action the action to perform for each row.
+     * @return the number of rows passed to the action.
+     */
+    private static <T> long forEachMerged(Stream<T> first, Stream<T> second, Comparator<? super T> order,
+                                          Consumer<? super T> action) {
+        Iterator<T> left = first.iterator();
+        Iterator<T> right = second.iterator();
+        T nextLeft = left.hasNext() ? left.next() : null;
+        T nextRight = right.hasNext() ? right.next() : null;
+        long rows = 0;
+        while (nextLeft != null || nextRight != null) {
+            if (nextRight == null || (nextLeft != null && order.compare(nextLeft, nextRight) <= 0)) {
+                action.accept(nextLeft);
+                nextLeft = left.hasNext() ? left.next() : null;
+            } else {
+                action.accept(nextRight);
+                nextRight = right.hasNext() ? right.next() : null;
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    private TransactionDTO toDTO(TransactionHistoryView view) {
+        return new TransactionDTO(view.getId(), view.getFromAccount(), view.getToAccount(),
+                view.getAmount(), view.getType(), view.getTimestamp());
+    }
+
+    private String encodeCursor(TransactionDTO last) {
+        String position = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException(cursor);
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (RuntimeException ex) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.onlinebanking.service;
+
+/**
+ * Enumerates the concurrency-control strategies available to {@link TransferService#transferFunds}.
+ * The active mode is selected with the {@code banking.transfer.locking-mode} property.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+public enum TransferLockingMode {
+
+    /**
+     * Reads both accounts without row locks. A concurrent update of the same account fails the version check and is not retried.
+     */
+    NONE,
+
+    /**
+     * Takes {@code SELECT ... FOR UPDATE} locks on both accounts, always in ascending account id order,
+     * so that opposing transfers (A to B and B to A) queue up instead of deadlocking.
+     */
+    PESSIMISTIC,
+
+    /**
+     * Reads both accounts without row locks and relies on the {@code @Version} column of the account to reject
+     * conflicting updates at commit. Conflicting transfers are retried with backoff within a bounded budget.
+     */
+    OPTIMISTIC
+}
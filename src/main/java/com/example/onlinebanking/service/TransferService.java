@@ -1,15 +1,36 @@
 package com.example.onlinebanking.service;
 
 import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.Money;
 import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.model.dto.TransferRequest;
+import com.example.onlinebanking.model.dto.TransferResult;
+import com.example.onlinebanking.model.dto.TransferStatsDTO;
 import com.example.onlinebanking.repository.AccountRepository;
 import com.example.onlinebanking.repository.TransactionRepository;
-import jakarta.transaction.Transactional;
+import com.example.onlinebanking.service.engine.AccountMailboxEngine;
+import com.example.onlinebanking.service.engine.ShardedBalanceEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service class for handling fund transfer operations between accounts.
@@ -17,6 +38,14 @@ import java.time.LocalDateTime;
  * updating account balances, and recording the transaction in the database.
  * It interacts with the {@link AccountRepository} and {@link TransactionRepository} to perform database operations.
  *
+ * <p>The way concurrent transfers on the same accounts are isolated is controlled by the
+ * {@code banking.transfer.locking-mode} property (see {@link TransferLockingMode}). In optimistic mode every attempt
+ * runs in its own database transaction so that a version conflict can be retried with a fresh read.
+ * When the {@link ShardedBalanceEngine} is enabled, transfers are applied in memory and journaled to the database
+ * asynchronously instead. When the {@link AccountMailboxEngine} is enabled, transfers are serialized per source account
+ * and credits are applied in batches. Otherwise, transfers from or to an account striped by the
+ * {@link BalanceStripingService} credit one of its sub-balances instead of its row.
+ *
  * @author Your Name
  * @version 1.0
  * @since 2023-10-01
@@ -24,12 +53,56 @@ import java.time.LocalDateTime;
 @Service
 public class TransferService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransferService.class);
+
     @Autowired
     private AccountRepository accountRepository;
 
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired(required = false)
+    private ShardedBalanceEngine balanceEngine;
+
+    @Autowired(required = false)
+    private AccountMailboxEngine mailboxEngine;
+
+    @Autowired(required = false)
+    private BalanceStripingService balanceStriping;
+
+    @Value("${banking.transfer.locking-mode:NONE}")
+    private TransferLockingMode lockingMode = TransferLockingMode.NONE;
+
+    @Value("${banking.transfer.optimistic.max-attempts:5}")
+    private int optimisticMaxAttempts = 5;
+
+    @Value("${banking.transfer.optimistic.initial-backoff-ms:2}")
+    private long optimisticInitialBackoffMs = 2;
+
+    @Value("${banking.transfer.optimistic.max-backoff-ms:50}")
+    private long optimisticMaxBackoffMs = 50;
+
+    @Value("${banking.transfer.batch.chunk-size:500}")
+    private int batchChunkSize = 500;
+
+    @Value("${banking.transfer.batch.max-size:50000}")
+    private int batchMaxSize = 50000;
+
+    private final LongAdder optimisticConflicts = new LongAdder();
+
+    private final LongAdder optimisticRetries = new LongAdder();
+
+    private final LongAdder optimisticExhausted = new LongAdder();
+
     /**
      * Transfers funds from one account to another.
      * This method performs the following steps:
@@ -40,38 +113,429 @@ public class TransferService {
      *
      * @param fromAccountNumber the account number of the source account.
      * @param toAccountNumber the account number of the destination account.
-     * @param amount the amount to be transferred.
-     * @throws RuntimeException if the source or destination account is not found, or if the source account has insufficient balance.
+     * @param amount the amount to be transferred, positive with at most two decimal places.
+     * @throws RuntimeException if the amount is invalid, if the source or destination account is not found, if the source
+     *                          account has insufficient balance, or if the optimistic retry budget is exhausted.
      */
-    @Transactional
     public void transferFunds(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
-        // Retrieve the source and destination accounts
-        Account fromAccount = accountRepository.findByAccountNumber(fromAccountNumber)
+        toTransferMinorUnits(amount);
+        if (balanceEngine != null) {
+            balanceEngine.transfer(fromAccountNumber, toAccountNumber, amount);
+        } else if (mailboxEngine != null) {
+            mailboxEngine.transfer(fromAccountNumber, toAccountNumber, amount);
+        } else if (balanceStriping != null && involvesStripedAccount(fromAccountNumber, toAccountNumber)) {
+            transferStriped(fromAccountNumber, toAccountNumber, amount);
+        } else if (lockingMode == TransferLockingMode.OPTIMISTIC) {
+            transferWithRetry(fromAccountNumber, toAccountNumber, amount);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> doTransfer(fromAccountNumber, toAccountNumber, amount));
+        }
+    }
+
+    /**
+     * Returns the concurrency statistics collected since startup.
+     *
+     * @return a {@link TransferStatsDTO} with the active mode and the optimistic conflict, retry and exhaustion counts.
+     */
+    public TransferStatsDTO getStats() {
+        return new TransferStatsDTO(lockingMode.name(), optimisticConflicts.sum(), optimisticRetries.sum(), optimisticExhausted.sum());
+    }
+
+    /**
+     * Transfers funds for every request of a batch and reports the outcome of each one.
+     * <p>
+     * The batch is split into chunks of {@code banking.transfer.batch.chunk-size} transfers. Each chunk loads (and,
+     * in pessimistic mode, locks) all of its accounts with one query, applies its transfers in memory in submission
+     * order, and writes the account updates and transaction rows with JDBC batching in a single database transaction.
+     * A transfer that cannot be applied is reported as failed without affecting the others; a chunk that fails as a
+     * whole (for example on a database error) reports all of its transfers as failed and is rolled back, while the
+     * chunks before it stay committed.
+     * </p>
+     *
+     * @param transfers the transfers to perform, in order.
+     * @return one {@link TransferResult} per transfer, in the same order.
+     * @throws RuntimeException if the batch holds more than {@code banking.transfer.batch.max-size} transfers.
+     */
+    public List<TransferResult> transferBatch(List<TransferRequest> transfers) {
+        if (transfers.size() > batchMaxSize) {
+            throw new RuntimeException("Batch exceeds the maximum of " + batchMaxSize + " transfers");
+        }
+        if (balanceEngine != null || mailboxEngine != null) {
+            return transferBatchSubmitted(transfers);
+        }
+        List<TransferResult> results = new ArrayList<>(transfers.size());
+        for (int start = 0; start < transfers.size(); start += batchChunkSize) {
+            List<TransferRequest> chunk = transfers.subList(start, Math.min(start + batchChunkSize, transfers.size()));
+            int offset = start;
+            try {
+                consolidateStripedSources(chunk);
+                TransactionCallback<List<TransferResult>> callback = status -> doTransferChunk(chunk, offset);
+                results.addAll(lockingMode == TransferLockingMode.OPTIMISTIC
+                        ? executeWithRetry(callback, "Batch chunk at " + offset)
+                        : transactionTemplate.execute(callback));
+            } catch (RuntimeException ex) {
+                log.warn("Batch chunk at {} failed", offset, ex);
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(TransferResult.failed(offset + i, ex.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs the transfer in optimistic mode, retrying each version conflict in a new transaction.
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred.
+     * @throws RuntimeException if the transfer fails or still conflicts after {@code max-attempts} attempts.
+     */
+    private void transferWithRetry(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        executeWithRetry(status -> {
+            doTransfer(fromAccountNumber, toAccountNumber, amount);
+            return null;
+        }, "Transfer " + fromAccountNumber + " -> " + toAccountNumber);
+    }
+
+    /**
+     * Runs the callback in a new transaction, retrying it after each optimistic version conflict.
+     * <p>
+     * Attempts are separated by an exponential backoff with full jitter, capped at {@code max-backoff-ms},
+     * so that the transfers that collided do not collide again on the next attempt.
+     * </p>
+     *
+     * @param callback the work to run in each attempt.
+     * @param description a description of the work, used in the log when the retry budget is exhausted.
+     * @return the result of the successful attempt.
+     * @throws RuntimeException if the work fails or still conflicts after {@code max-attempts} attempts.
+     */
+    private <T> T executeWithRetry(TransactionCallback<T> callback, String description) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(callback);
+            } catch (OptimisticLockingFailureException ex) {
+                optimisticConflicts.increment();
+                if (attempt >= optimisticMaxAttempts) {
+                    optimisticExhausted.increment();
+                    log.warn("{} gave up after {} conflicting attempts", description, attempt);
+                    throw new RuntimeException("Transfer conflicted with concurrent updates, please retry", ex);
+                }
+                optimisticRetries.increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Tells whether the source or destination account of a transfer is striped.
+     * Unknown accounts are not striped; the transfer then fails on the regular path.
+     */
+    private boolean involvesStripedAccount(String fromAccountNumber, String toAccountNumber) {
+        return accountCache.findId(fromAccountNumber).map(balanceStriping::isStriped).orElse(false)
+                || accountCache.findId(toAccountNumber).map(balanceStriping::isStriped).orElse(false);
+    }
+
+    /**
+     * Performs a transfer from or to a striped account without locking the striped account's row for a credit.
+     * <p>
+     * The source account is debited first with a conditional {@code UPDATE}, then the destination account is credited:
+     * a random stripe if it is striped, its row otherwise. If a striped source account's row does not cover the amount,
+     * its stripes are consolidated into the row in a separate transaction, holding no other lock, and the transfer is
+     * tried once more.
+     * </p>
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred.
+     * @throws RuntimeException if an account is not found, or the source account has insufficient balance.
+     */
+    private void transferStriped(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        Long fromId = accountCache.findId(fromAccountNumber)
                 .orElseThrow(() -> new RuntimeException("From account not found"));
-        Account toAccount = accountRepository.findByAccountNumber(toAccountNumber)
+        Long toId = accountCache.findId(toAccountNumber)
                 .orElseThrow(() -> new RuntimeException("To account not found"));
+        for (int attempt = 1; ; attempt++) {
+            boolean debited = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (accountRepository.debitIfSufficient(fromId, amount) == 0) {
+                    return false;
+                }
+                if (balanceStriping.isStriped(toId)) {
+                    balanceStriping.credit(toId, amount);
+                } else if (accountRepository.adjustBalance(toId, amount) == 0) {
+                    throw new RuntimeException("To account not found");
+                }
+                Transaction transaction = transactionRepository.save(newTransferTransaction(
+                        accountRepository.getReferenceById(fromId), accountRepository.getReferenceById(toId),
+                        Money.toMinorUnits(amount), LocalDateTime.now()));
+                ledgerService.recordTransfer(transaction);
+                accountCache.evictAfterCommit(List.of(fromId, toId));
+                return true;
+            }));
+            if (debited) {
+                return;
+            }
+            if (attempt > 1 || !balanceStriping.isStriped(fromId) || balanceStriping.consolidate(fromId).signum() == 0) {
+                throw new RuntimeException("Insufficient balance");
+            }
+        }
+    }
+
+    /**
+     * Moves the stripes of every striped source account of a batch chunk into its row, so that the chunk, which reads
+     * and updates account rows only, sees their whole balance.
+     *
+     * @param chunk the transfers of the chunk.
+     */
+    private void consolidateStripedSources(List<TransferRequest> chunk) {
+        if (balanceStriping == null) {
+            return;
+        }
+        Set<Long> sourceIds = new HashSet<>();
+        for (TransferRequest request : chunk) {
+            if (request.getFromAccountNumber() != null) {
+                accountCache.findId(request.getFromAccountNumber()).filter(balanceStriping::isStriped).ifPresent(sourceIds::add);
+            }
+        }
+        sourceIds.forEach(balanceStriping::consolidate);
+    }
+
+    /**
+     * Submits every transfer of a batch to the {@link ShardedBalanceEngine} or the {@link AccountMailboxEngine} at once
+     * and collects the outcomes.
+     *
+     * @param transfers the transfers to perform, in order.
+     * @return one {@link TransferResult} per transfer, in the same order.
+     */
+    private List<TransferResult> transferBatchSubmitted(List<TransferRequest> transfers) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(transfers.size());
+        for (TransferRequest request : transfers) {
+            try {
+                futures.add(balanceEngine != null
+                        ? balanceEngine.submitTransfer(request.getFromAccountNumber(), request.getToAccountNumber(), request.getAmount())
+                        : mailboxEngine.submitTransfer(request.getFromAccountNumber(), request.getToAccountNumber(), request.getAmount()));
+            } catch (RuntimeException ex) {
+                futures.add(CompletableFuture.failedFuture(ex));
+            }
+        }
+        List<TransferResult> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).join();
+                results.add(TransferResult.completed(i));
+            } catch (CompletionException ex) {
+                results.add(TransferResult.failed(i, ex.getCause().getMessage()));
+            }
+        }
+        return results;
+    }
 
-        // Check if the source account has sufficient balance
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
+    /**
+     * Sleeps for a random duration bounded by the exponential backoff for the given attempt.
+     *
+     * @param attempt the number of the attempt that just failed, starting at 1.
+     */
+    private void backOff(int attempt) {
+        long ceiling = Math.min(optimisticMaxBackoffMs, optimisticInitialBackoffMs << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying transfer", ex);
+        }
+    }
+
+    /**
+     * Performs a single transfer attempt inside the current transaction.
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred.
+     * @throws RuntimeException if the source or destination account is not found, or if the source account has insufficient balance.
+     */
+    private void doTransfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        // Retrieve the source and destination accounts
+        Account fromAccount;
+        Account toAccount;
+        if (lockingMode == TransferLockingMode.PESSIMISTIC) {
+            LockedAccounts locked = lockAccountsInIdOrder(fromAccountNumber, toAccountNumber);
+            fromAccount = locked.fromAccount();
+            toAccount = locked.toAccount();
+        } else {
+            // The account IDs never change, so they come from the cache; the balances are always read from the database
+            Long fromId = accountCache.findId(fromAccountNumber)
+                    .orElseThrow(() -> new RuntimeException("From account not found"));
+            Long toId = accountCache.findId(toAccountNumber)
+                    .orElseThrow(() -> new RuntimeException("To account not found"));
+            fromAccount = accountRepository.findById(fromId)
+                    .orElseThrow(() -> new RuntimeException("From account not found"));
+            toAccount = accountRepository.findById(toId)
+                    .orElseThrow(() -> new RuntimeException("To account not found"));
+        }
+
+        // Check if the source account has sufficient balance, in minor units so that the arithmetic does not allocate
+        long transferred = Money.toMinorUnits(amount);
+        long available = fromAccount.getBalanceMinorUnits();
+        if (available < transferred) {
             throw new RuntimeException("Insufficient balance");
         }
 
         // Update account balances
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        toAccount.setBalance(toAccount.getBalance().add(amount));
+        fromAccount.setBalanceMinorUnits(Money.subtract(available, transferred));
+        toAccount.setBalanceMinorUnits(Money.add(toAccount.getBalanceMinorUnits(), transferred));
 
         // Save updated account balances
         accountRepository.save(fromAccount);
         accountRepository.save(toAccount);
 
-        // Create and save the transaction record
+        // Create and save the transaction record and its ledger entry
+        Transaction transaction = newTransferTransaction(fromAccount, toAccount, transferred, LocalDateTime.now());
+        transactionRepository.save(transaction);
+        ledgerService.recordTransfer(transaction);
+
+        // Publish the new balances to the cache once, and only if, the transaction commits
+        accountCache.updateAfterCommit(fromAccount);
+        accountCache.updateAfterCommit(toAccount);
+    }
+
+    /**
+     * Applies one chunk of a batch inside the current transaction.
+     *
+     * @param chunk the transfers of the chunk, in order.
+     * @param offset the position of the first transfer of the chunk in the whole batch.
+     * @return one {@link TransferResult} per transfer of the chunk, in the same order.
+     */
+    private List<TransferResult> doTransferChunk(List<TransferRequest> chunk, int offset) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (TransferRequest request : chunk) {
+            accountNumbers.add(request.getFromAccountNumber());
+            accountNumbers.add(request.getToAccountNumber());
+        }
+        accountNumbers.remove(null);
+
+        List<Account> loaded = lockingMode == TransferLockingMode.PESSIMISTIC
+                ? accountRepository.findByAccountNumberInForUpdate(accountNumbers)
+                : accountRepository.findByAccountNumberIn(accountNumbers);
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account account : loaded) {
+            accounts.put(account.getAccountNumber(), account);
+        }
+
+        List<TransferResult> results = new ArrayList<>(chunk.size());
+        List<Transaction> transactions = new ArrayList<>(chunk.size());
+        Set<Account> modified = new HashSet<>();
+        LocalDateTime timestamp = LocalDateTime.now();
+        for (int i = 0; i < chunk.size(); i++) {
+            TransferRequest request = chunk.get(i);
+            int index = offset + i;
+            Account fromAccount = accounts.get(request.getFromAccountNumber());
+            Account toAccount = accounts.get(request.getToAccountNumber());
+            long transferred;
+            try {
+                transferred = toTransferMinorUnits(request.getAmount());
+            } catch (RuntimeException ex) {
+                results.add(TransferResult.failed(index, ex.getMessage()));
+                continue;
+            }
+            if (fromAccount == null) {
+                results.add(TransferResult.failed(index, "From account not found"));
+            } else if (toAccount == null) {
+                results.add(TransferResult.failed(index, "To account not found"));
+            } else if (fromAccount.getBalanceMinorUnits() < transferred) {
+                results.add(TransferResult.failed(index, "Insufficient balance"));
+            } else {
+                // Managed entities: the updates are flushed in one JDBC batch at commit
+                fromAccount.setBalanceMinorUnits(Money.subtract(fromAccount.getBalanceMinorUnits(), transferred));
+                toAccount.setBalanceMinorUnits(Money.add(toAccount.getBalanceMinorUnits(), transferred));
+                transactions.add(newTransferTransaction(fromAccount, toAccount, transferred, timestamp));
+                modified.add(fromAccount);
+                modified.add(toAccount);
+                results.add(TransferResult.completed(index));
+            }
+        }
+        transactionRepository.saveAll(transactions);
+        ledgerService.recordTransfers(transactions);
+        modified.forEach(accountCache::updateAfterCommit);
+        return results;
+    }
+
+    /**
+     * Converts the amount of a transfer to minor units.
+     *
+     * @param amount the amount to be transferred.
+     * @return the amount in minor units.
+     * @throws RuntimeException if the amount is missing, not positive, has more than two decimal places or is out of range.
+     */
+    private static long toTransferMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            throw new RuntimeException("Amount is required");
+        }
+        long minorUnits = Money.toMinorUnits(amount);
+        if (minorUnits <= 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
+        return minorUnits;
+    }
+
+    /**
+     * Creates the transaction record of a transfer.
+     *
+     * @param fromAccount the source account.
+     * @param toAccount the destination account.
+     * @param amount the transferred amount in minor units.
+     * @param timestamp the time of the transfer.
+     * @return the new, unsaved transaction.
+     */
+    private Transaction newTransferTransaction(Account fromAccount, Account toAccount, long amount, LocalDateTime timestamp) {
         Transaction transaction = new Transaction();
-        transaction.setAmount(amount);
+        transaction.setAmount(Money.ofMinorUnits(amount));
         transaction.setType("TRANSFER");
-        transaction.setTimestamp(LocalDateTime.now());
+        transaction.setTimestamp(timestamp);
         transaction.setFromAccount(fromAccount);
         transaction.setToAccount(toAccount);
+        return transaction;
+    }
 
-        transactionRepository.save(transaction);
+    /**
+     * Takes {@code SELECT ... FOR UPDATE} locks on the source and destination accounts in ascending id order.
+     * <p>
+     * The ids are resolved through the {@link AccountCache} first, whose loads are projections, so no account entity
+     * is loaded into the persistence context before its row is locked and the balances read afterwards are always
+     * the committed ones.
+     * Locking in a global order guarantees that two transfers in opposite directions never wait on each other in a cycle.
+     * </p>
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @return the locked source and destination accounts.
+     * @throws RuntimeException if the source or destination account is not found.
+     */
+    private LockedAccounts lockAccountsInIdOrder(String fromAccountNumber, String toAccountNumber) {
+        Long fromId = accountCache.findId(fromAccountNumber)
+                .orElseThrow(() -> new RuntimeException("From account not found"));
+        Long toId = accountCache.findId(toAccountNumber)
+                .orElseThrow(() -> new RuntimeException("To account not found"));
+
+        Long firstId = fromId <= toId ? fromId : toId;
+        Long secondId = fromId <= toId ? toId : fromId;
+
+        Account first = accountRepository.findByIdForUpdate(firstId)
+                .orElseThrow(() -> new RuntimeException("Account " + firstId + " not found"));
+        Account second = firstId.equals(secondId) ? first : accountRepository.findByIdForUpdate(secondId)
+                .orElseThrow(() -> new RuntimeException("Account " + secondId + " not found"));
+
+        return fromId.equals(firstId) ? new LockedAccounts(first, second) : new LockedAccounts(second, first);
+    }
+
+    /**
+     * The source and destination accounts of a transfer after their rows have been locked.
+     *
+     * @param fromAccount the locked source account.
+     * @param toAccount the locked destination account.
+     */
+    private record LockedAccounts(Account fromAccount, Account toAccount) {
     }
-}
\ No newline at end of file
+}
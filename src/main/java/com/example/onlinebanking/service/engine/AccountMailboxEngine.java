@@ -0,0 +1,397 @@
+package com.example.onlinebanking.service.engine;
+
+import com.example.onlinebanking.model.Money;
+import com.example.onlinebanking.model.PendingCredit;
+import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.PendingCreditRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import com.example.onlinebanking.service.AccountCache;
+import com.example.onlinebanking.service.LedgerService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transfer executor that serializes transfers per debited account, so that transfers never wait for each other's
+ * row locks.
+ *
+ * <p>Each source account has a mailbox: a queue of its transfers that is drained by at most one worker at a time.
+ * <ul>
+ *     <li>A worker takes up to {@code banking.transfer.mailbox.batch-size} transfers from one mailbox and performs them
+ *     in one database transaction. Each transfer debits the source account with a conditional {@code UPDATE} that
+ *     fails if the balance is too low, and inserts its {@link Transaction} row and a {@link PendingCredit} row.</li>
+ *     <li>The destination account is not touched. Every {@code banking.transfer.mailbox.credit-flush-interval-ms}, a
+ *     flusher adds the pending credits of each account to its balance with one {@code UPDATE}, in account ID order,
+ *     and deletes them. A merchant account receiving thousands of transfers per second is thus updated once per
+ *     flush instead of once per transfer.</li>
+ * </ul>
+ * Since only one worker debits an account, and only the flusher credits it, a transaction locks a single account row
+ * and never waits behind another transfer of the same payer. Throughput grows with the number of distinct payers, up to
+ * {@code banking.transfer.mailbox.workers}, which should not exceed the connection pool. A mailbox is created for an
+ * existing account when a transfer is queued and removed once it is empty, so only accounts with queued transfers
+ * hold one.
+ *
+ * <p>The debit, the transaction row and the pending credit commit together, so a crash loses no money: credits not yet
+ * applied are applied by the next flush after a restart. Until then, the balance of the destination account does not
+ * include them, and the credited money cannot be spent yet.
+ *
+ * <p>The engine is enabled with {@code banking.transfer.mailbox.enabled=true};
+ * {@link com.example.onlinebanking.service.TransferService} then routes every transfer through it.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Component
+@ConditionalOnProperty(name = "banking.transfer.mailbox.enabled", havingValue = "true")
+public class AccountMailboxEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountMailboxEngine.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PendingCreditRepository pendingCreditRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Value("${banking.transfer.mailbox.workers:10}")
+    private int workerCount = 10;
+
+    @Value("${banking.transfer.mailbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${banking.transfer.mailbox.credit-flush-interval-ms:50}")
+    private long creditFlushIntervalMs = 50;
+
+    @Value("${banking.transfer.mailbox.credit-flush-batch-size:5000}")
+    private int creditFlushBatchSize = 5000;
+
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private ExecutorService workers;
+
+    private ScheduledExecutorService flusher;
+
+    private volatile boolean accepting;
+
+    /**
+     * Starts the workers and the credit flusher.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "transfer-mailbox-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pending-credit-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushCreditsQuietly, creditFlushIntervalMs, creditFlushIntervalMs,
+                TimeUnit.MILLISECONDS);
+        accepting = true;
+        log.info("Transfer mailboxes started with {} workers", workerCount);
+    }
+
+    /**
+     * Stops accepting transfers, waits for the queued ones, and applies every pending credit.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!accepting) {
+            return;
+        }
+        accepting = false;
+        try {
+            long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+            while (queued.get() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            workers.shutdown();
+            workers.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            flusher.shutdown();
+            flusher.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flushCreditsQuietly();
+    }
+
+    /**
+     * Transfers funds between two accounts and waits until the debit has committed.
+     * The destination account is credited by the next credit flush.
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred, positive with at most two decimal places.
+     * @throws RuntimeException if the amount is invalid, an account is not found, or the source account has
+     *                          insufficient balance.
+     * @throws RejectedExecutionException if the engine is stopped; the transfer was not performed.
+     */
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        try {
+            submitTransfer(fromAccountNumber, toAccountNumber, amount).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Queues a transfer in the mailbox of its source account without waiting for it.
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred, positive with at most two decimal places.
+     * @return a future completed once the debit has committed, or completed exceptionally if the transfer was rejected.
+     */
+    public CompletableFuture<Void> submitTransfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Long fromId;
+        try {
+            if (Money.toMinorUnits(amount) <= 0) {
+                throw new RuntimeException("Amount must be positive");
+            }
+            fromId = accountCache.findId(fromAccountNumber)
+                    .orElseThrow(() -> new RuntimeException("From account not found"));
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+            return result;
+        }
+        // Count the transfer before checking the flag, so that shutdown() either waits for it or we see the flag cleared
+        queued.incrementAndGet();
+        result.whenComplete((ignored, error) -> queued.decrementAndGet());
+        if (!accepting) {
+            result.completeExceptionally(new RejectedExecutionException("Transfer mailboxes are not running"));
+            return result;
+        }
+        QueuedTransfer transfer = new QueuedTransfer(toAccountNumber, amount, result);
+        // Added under the map's lock on the key, so that drain() cannot remove the mailbox in between
+        Mailbox mailbox = mailboxes.compute(fromAccountNumber, (accountNumber, current) -> {
+            Mailbox target = current != null ? current : new Mailbox(accountNumber, fromId);
+            target.transfers.add(transfer);
+            return target;
+        });
+        try {
+            schedule(mailbox);
+        } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(new RejectedExecutionException("Transfer mailboxes are not running", ex));
+        }
+        return result;
+    }
+
+    /**
+     * Adds every pending credit to the balance of its account, in batches of {@code credit-flush-batch-size}.
+     * Each batch locks its credits, applies the sum per account in account ID order and deletes the credits in one
+     * database transaction, so a credit is applied exactly once even if several instances flush at the same time.
+     *
+     * @return the number of credits applied.
+     */
+    public int flushCredits() {
+        int applied = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<PendingCredit> credits =
+                        pendingCreditRepository.findOldestForUpdate(PageRequest.of(0, creditFlushBatchSize));
+                if (credits.isEmpty()) {
+                    return 0;
+                }
+                Map<Long, BigDecimal> sums = new TreeMap<>();
+                List<Long> ids = new ArrayList<>(credits.size());
+                for (PendingCredit credit : credits) {
+                    sums.merge(credit.getAccountId(), credit.getAmount(), BigDecimal::add);
+                    ids.add(credit.getId());
+                }
+                // TreeMap order: concurrent writers touching the same rows lock them in the same order and cannot deadlock
+                sums.forEach(accountRepository::adjustBalance);
+                if (pendingCreditRepository.deleteByIds(ids) != ids.size()) {
+                    throw new IllegalStateException("Pending credits were applied concurrently");
+                }
+                accountCache.evictAfterCommit(sums.keySet());
+                return credits.size();
+            });
+            applied += count;
+            if (count < creditFlushBatchSize) {
+                return applied;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of transfers queued or being performed.
+     *
+     * @return the number of queued transfers.
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    private void schedule(Mailbox mailbox) {
+        if (mailbox.scheduled.compareAndSet(false, true)) {
+            workers.execute(() -> drain(mailbox));
+        }
+    }
+
+    /**
+     * Performs one batch of a mailbox, then hands the worker back so that other mailboxes get their turn.
+     */
+    private void drain(Mailbox mailbox) {
+        try {
+            List<QueuedTransfer> batch = new ArrayList<>(batchSize);
+            QueuedTransfer transfer;
+            while (batch.size() < batchSize && (transfer = mailbox.transfers.poll()) != null) {
+                batch.add(transfer);
+            }
+            if (!batch.isEmpty()) {
+                perform(mailbox, batch);
+            }
+        } finally {
+            // An empty mailbox is removed under the same lock as submitTransfer() adds to it, so nothing is left behind.
+            // This worker still owns it, so no other worker can be draining it; once removed, new transfers go to a
+            // new mailbox, which this worker no longer touches.
+            mailboxes.computeIfPresent(mailbox.accountNumber,
+                    (accountNumber, current) -> current == mailbox && mailbox.transfers.isEmpty() ? null : current);
+            mailbox.scheduled.set(false);
+            // A transfer added after the poll but before the flag was cleared would otherwise wait for the next one
+            if (!mailbox.transfers.isEmpty()) {
+                schedule(mailbox);
+            }
+        }
+    }
+
+    private void perform(Mailbox mailbox, List<QueuedTransfer> batch) {
+        List<RuntimeException> failures = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                failures.clear();
+                LocalDateTime timestamp = LocalDateTime.now();
+                for (QueuedTransfer transfer : batch) {
+                    failures.add(debit(mailbox.accountId, transfer, timestamp));
+                }
+                accountCache.evictAfterCommit(List.of(mailbox.accountId));
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Transfers from {} failed", mailbox.accountNumber, ex);
+            batch.forEach(transfer -> transfer.result().completeExceptionally(ex));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (failures.get(i) == null) {
+                batch.get(i).result().complete(null);
+            } else {
+                batch.get(i).result().completeExceptionally(failures.get(i));
+            }
+        }
+    }
+
+    /**
+     * Debits one transfer of a batch and records it with its pending credit.
+     *
+     * @return {@code null} if the transfer was recorded, or the reason it was rejected.
+     */
+    private RuntimeException debit(Long fromId, QueuedTransfer transfer, LocalDateTime timestamp) {
+        Optional<Long> toId = accountCache.findId(transfer.toAccountNumber());
+        if (toId.isEmpty()) {
+            return new RuntimeException("To account not found");
+        }
+        if (accountRepository.debitIfSufficient(fromId, transfer.amount()) == 0) {
+            return new RuntimeException("Insufficient balance");
+        }
+        Transaction row = new Transaction();
+        row.setAmount(Money.of(transfer.amount()));
+        row.setType("TRANSFER");
+        row.setTimestamp(timestamp);
+        row.setFromAccount(accountRepository.getReferenceById(fromId));
+        row.setToAccount(accountRepository.getReferenceById(toId.get()));
+        transactionRepository.save(row);
+        ledgerService.recordTransfer(row);
+        pendingCreditRepository.save(new PendingCredit(toId.get(), transfer.amount()));
+        return null;
+    }
+
+    private void flushCreditsQuietly() {
+        try {
+            flushCredits();
+        } catch (RuntimeException ex) {
+            log.warn("Pending credit flush failed, will retry", ex);
+        }
+    }
+
+    /**
+     * The queue of transfers debiting one account.
+     * The flag is set while a worker owns the mailbox, so that its transfers are performed one batch at a time, in order.
+     */
+    private static final class Mailbox {
+
+        final String accountNumber;
+
+        final Long accountId;
+
+        final ConcurrentLinkedQueue<QueuedTransfer> transfers = new ConcurrentLinkedQueue<>();
+
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Mailbox(String accountNumber, Long accountId) {
+            this.accountNumber = accountNumber;
+            this.accountId = accountId;
+        }
+    }
+
+    /**
+     * A transfer waiting in the mailbox of its source account.
+     *
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred.
+     * @param result the future completed once the transfer was performed or rejected.
+     */
+    private record QueuedTransfer(String toAccountNumber, BigDecimal amount, CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.onlinebanking.service.engine;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.repository.AccountRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single-writer partition of the in-memory balances held by {@link ShardedBalanceEngine}.
+ *
+ * <p>Every method except {@link #execute(Runnable)} and {@link #shutdown(long)} must be called from the shard's
+ * own writer thread. Because only that thread ever touches the balances, they are read and updated without locks.
+ * Accounts are loaded from the {@link AccountRepository} the first time the shard sees them.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+final class BalanceShard {
+
+    private final AccountRepository accountRepository;
+
+    private final ExecutorService writer;
+
+    private final Map<String, AccountBalance> balances = new HashMap<>();
+
+    /**
+     * Constructs a shard with its own writer thread.
+     *
+     * @param index the index of the shard, used to name the writer thread.
+     * @param accountRepository the repository used to load accounts on first access.
+     */
+    BalanceShard(int index, AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-shard-" + index);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a task on the shard's writer thread.
+     *
+     * @param task the task to run.
+     */
+    void execute(Runnable task) {
+        writer.execute(task);
+    }
+
+    /**
+     * Returns the in-memory balance of an account, loading it from the database on first access.
+     *
+     * @param accountNumber the account number.
+     * @param notFoundMessage the message of the exception thrown if the account does not exist.
+     * @return the in-memory balance of the account.
+     * @throws RuntimeException if the account does not exist.
+     */
+    AccountBalance resolve(String accountNumber, String notFoundMessage) {
+        AccountBalance balance = balances.get(accountNumber);
+        if (balance == null) {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new RuntimeException(notFoundMessage));
+            balance = new AccountBalance(account.getId(), account.getBalanceMinorUnits());
+            balances.put(accountNumber, balance);
+        }
+        return balance;
+    }
+
+    /**
+     * Moves an amount from the available balance of an account into its reserved balance.
+     * This is the first phase of a transfer whose destination lives in another shard.
+     *
+     * @param balance the balance to reserve from.
+     * @param amount the amount in minor units.
+     * @throws RuntimeException if the available balance is lower than the amount.
+     */
+    void reserve(AccountBalance balance, long amount) {
+        if (balance.available < amount) {
+            throw new RuntimeException("Insufficient balance");
+        }
+        balance.available -= amount;
+        balance.reserved += amount;
+    }
+
+    /**
+     * Adds an amount to the available balance of an account.
+     * This is the second phase of a transfer whose source lives in another shard.
+     *
+     * @param balance the balance to credit.
+     * @param amount the amount in minor units.
+     */
+    void credit(AccountBalance balance, long amount) {
+        balance.available += amount;
+    }
+
+    /**
+     * Drops a reservation once the destination shard has credited the amount.
+     *
+     * @param balance the balance holding the reservation.
+     * @param amount the amount in minor units.
+     */
+    void commit(AccountBalance balance, long amount) {
+        balance.reserved -= amount;
+    }
+
+    /**
+     * Returns a reserved amount to the available balance because the transfer could not be completed.
+     *
+     * @param balance the balance holding the reservation.
+     * @param amount the amount in minor units.
+     */
+    void release(AccountBalance balance, long amount) {
+        balance.reserved -= amount;
+        balance.available += amount;
+    }
+
+    /**
+     * Moves an amount between two accounts of this shard in a single step.
+     *
+     * @param from the balance to debit.
+     * @param to the balance to credit.
+     * @param amount the amount in minor units.
+     * @throws RuntimeException if the available balance of the source is lower than the amount.
+     */
+    void transfer(AccountBalance from, AccountBalance to, long amount) {
+        if (from.available < amount) {
+            throw new RuntimeException("Insufficient balance");
+        }
+        from.available -= amount;
+        to.available += amount;
+    }
+
+    /**
+     * Drops every cached balance so that the next access reloads it from the database.
+     */
+    void clear() {
+        balances.clear();
+    }
+
+    /**
+     * Stops the writer thread after the queued tasks have run.
+     *
+     * @param timeoutMillis how long to wait for the queued tasks.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void shutdown(long timeoutMillis) throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The in-memory balance of one account, in minor units.
+     * Only the writer thread of the owning shard reads or writes its fields.
+     */
+    static final class AccountBalance {
+
+        final long accountId;
+
+        long available;
+
+        long reserved;
+
+        AccountBalance(long accountId, long available) {
+            this.accountId = accountId;
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package com.example.onlinebanking.service.engine;
+
+import com.example.onlinebanking.model.JournalCheckpoint;
+import com.example.onlinebanking.model.Money;
+import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.JournalCheckpointRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import com.example.onlinebanking.service.AccountCache;
+import com.example.onlinebanking.service.LedgerService;
+import com.example.onlinebanking.service.engine.BalanceShard.AccountBalance;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory balance engine that applies transfers without touching the database on the request path.
+ *
+ * <p>Balances are partitioned by account number into N {@link BalanceShard}s, each owned by a single writer thread:
+ * <ul>
+ *     <li>A transfer between two accounts of the same shard is applied in one step on that shard's thread, without locks.</li>
+ *     <li>A transfer across shards reserves the amount on the source shard, credits it on the destination shard,
+ *     and then commits (or releases) the reservation on the source shard.</li>
+ * </ul>
+ *
+ * <p>The database becomes a write-behind journal. Every applied transfer is appended to an in-memory queue that a
+ * background flusher drains in batches. Each batch inserts its {@link Transaction} rows and adds the net balance delta
+ * of every touched account in one database transaction, so the stored balances always equal the opening balances plus
+ * the journaled transfers. The engine reloads exact balances from the database on first access after a restart.
+ *
+ * <p>Without a write-ahead journal, a transfer is acknowledged once applied in memory, and the transfers that were not
+ * flushed yet are lost in a crash. With {@code banking.engine.wal.directory} set, every applied transfer is also
+ * appended to a {@link WriteAheadJournal} on disk, and acknowledged only once the journal has synced it; one sync
+ * covers all the transfers appended during the group-commit window. Each flushed batch moves a
+ * {@link JournalCheckpoint} in the same database transaction, and {@link #start()} replays the records beyond the
+ * checkpoint before accepting transfers, so an acknowledged transfer survives a crash and is applied exactly once.
+ * Only synced transfers are written to the database. If a sync fails, the engine stops: it rejects new transfers and
+ * balance reads, and never writes the transfers that were not synced, so a restart reloads balances without them.
+ *
+ * <p>The engine is enabled with {@code banking.engine.enabled=true}; {@link com.example.onlinebanking.service.TransferService}
+ * then routes every transfer through it.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine.enabled", havingValue = "true")
+public class ShardedBalanceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedBalanceEngine.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private static final String CHECKPOINT_NAME = "balance-engine";
+
+    private static final CompletableFuture<Void> APPLIED = CompletableFuture.completedFuture(null);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Value("${banking.engine.shards:0}")
+    private int shardCount;
+
+    @Value("${banking.engine.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    @Value("${banking.engine.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    @Value("${banking.engine.wal.directory:}")
+    private String walDirectory;
+
+    @Value("${banking.engine.wal.segment-size-mb:64}")
+    private int walSegmentSizeMb;
+
+    @Value("${banking.engine.wal.group-commit-window-us:200}")
+    private long walGroupCommitWindowUs;
+
+    private final ConcurrentLinkedQueue<JournalEntry> journal = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private List<JournalEntry> unflushedBatch = List.of();
+
+    /**
+     * Keeps the in-memory journal in the order of the write-ahead journal's sequence numbers.
+     */
+    private final Object appendLock = new Object();
+
+    private volatile WriteAheadJournal wal;
+
+    private volatile BalanceShard[] shards;
+
+    private volatile boolean accepting;
+
+    private volatile boolean failed;
+
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Replays the write-ahead journal, if enabled, then starts the shard writer threads and the background flusher.
+     * Balances are not preloaded; each shard loads an account from the database the first time it is used.
+     *
+     * @throws RuntimeException if the write-ahead journal cannot be opened or replayed.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (walDirectory != null && !walDirectory.isBlank()) {
+            wal = openWriteAheadJournal();
+        }
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        BalanceShard[] created = new BalanceShard[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new BalanceShard(i, accountRepository);
+        }
+        shards = created;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        failed = false;
+        accepting = true;
+        log.info("Balance engine started with {} shards", count);
+    }
+
+    /**
+     * Stops accepting transfers, waits for the in-flight ones, and flushes the journal.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stop(true);
+    }
+
+    /**
+     * Stops the engine.
+     * <p>
+     * With {@code flush} set to {@code false} the journal entries that have not been written yet are discarded,
+     * which is exactly what a process crash does. Calling {@link #start()} afterwards replays them from the write-ahead
+     * journal, if enabled, and reloads balances from the database.
+     * </p>
+     *
+     * @param flush whether to write the pending journal entries before stopping.
+     */
+    public synchronized void stop(boolean flush) {
+        if (flusher == null || flusher.isShutdown()) {
+            return;
+        }
+        accepting = false;
+        try {
+            long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+            while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            flusher.shutdown();
+            flusher.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            for (BalanceShard shard : shards) {
+                shard.shutdown(SHUTDOWN_TIMEOUT_MS);
+                shard.clear();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (flush) {
+            flush();
+        }
+        synchronized (journal) {
+            // What flush() left was not synced yet: the write-ahead journal replays it, unless the sync failed
+            journal.clear();
+            unflushedBatch = List.of();
+        }
+        if (wal != null) {
+            wal.close();
+            wal = null;
+        }
+    }
+
+    /**
+     * Transfers funds between two accounts and waits until the transfer has been applied in memory and, if enabled,
+     * synced to the write-ahead journal. The transfer is written to the database by the next journal flush.
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred, positive with at most two decimal places.
+     * @throws RuntimeException if the amount is not positive, if an account is not found, or if the source account has
+     *                          insufficient balance.
+     * @throws java.util.concurrent.RejectedExecutionException if the engine is stopped; the transfer was not applied.
+     */
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        try {
+            submitTransfer(fromAccountNumber, toAccountNumber, amount).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Submits a transfer to the owning shards without waiting for it to be applied.
+     *
+     * @param fromAccountNumber the account number of the source account.
+     * @param toAccountNumber the account number of the destination account.
+     * @param amount the amount to be transferred, positive with at most two decimal places.
+     * @return a future completed once the transfer has been applied and, if enabled, synced to the write-ahead journal,
+     *         or completed exceptionally if it was rejected.
+     * @throws RuntimeException if the amount is not positive or has more than two decimal places.
+     */
+    public CompletableFuture<Void> submitTransfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        long minorUnits = toMinorUnits(amount);
+        if (minorUnits <= 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        // Count the transfer before checking the flag, so that stop() either sees it in flight or we see the flag cleared
+        inFlight.incrementAndGet();
+        result.whenComplete((ignored, error) -> inFlight.decrementAndGet());
+        if (!accepting) {
+            result.completeExceptionally(new RejectedExecutionException("Balance engine is not running"));
+            return result;
+        }
+        BalanceShard source = shardFor(fromAccountNumber);
+        BalanceShard destination = shardFor(toAccountNumber);
+
+        if (source == destination) {
+            source.execute(() -> {
+                try {
+                    AccountBalance from = source.resolve(fromAccountNumber, "From account not found");
+                    AccountBalance to = source.resolve(toAccountNumber, "To account not found");
+                    source.transfer(from, to, minorUnits);
+                    CompletableFuture<Void> durable;
+                    try {
+                        durable = append(from, to, minorUnits);
+                    } catch (RuntimeException ex) {
+                        // Not journaled, so undo it; no other task runs on this shard in between
+                        source.transfer(to, from, minorUnits);
+                        throw ex;
+                    }
+                    acknowledge(durable, result);
+                } catch (RuntimeException ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+            return result;
+        }
+
+        // Phase 1: reserve on the source shard
+        source.execute(() -> {
+            AccountBalance from;
+            try {
+                from = source.resolve(fromAccountNumber, "From account not found");
+                source.reserve(from, minorUnits);
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+                return;
+            }
+            // Phase 2: credit on the destination shard, then commit or release the reservation on the source shard
+            destination.execute(() -> {
+                CompletableFuture<Void> durable;
+                try {
+                    AccountBalance to = destination.resolve(toAccountNumber, "To account not found");
+                    // Journal before the destination thread can spend the credit, so the journal order respects causality
+                    durable = append(from, to, minorUnits);
+                    destination.credit(to, minorUnits);
+                } catch (RuntimeException ex) {
+                    source.execute(() -> source.release(from, minorUnits));
+                    result.completeExceptionally(ex);
+                    return;
+                }
+                source.execute(() -> {
+                    source.commit(from, minorUnits);
+                    acknowledge(durable, result);
+                });
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Returns the available in-memory balance of an account.
+     * Amounts reserved by cross-shard transfers that are still in flight are not included.
+     *
+     * @param accountNumber the account number.
+     * @return the available balance.
+     * @throws RuntimeException if the account is not found, or if the engine stopped after a failed sync.
+     */
+    public BigDecimal getBalance(String accountNumber) {
+        if (failed) {
+            throw new RuntimeException("Balance engine stopped after a transfer journal failure");
+        }
+        BalanceShard shard = shardFor(accountNumber);
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        shard.execute(() -> {
+            try {
+                result.complete(shard.resolve(accountNumber, "Account not found").available);
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        try {
+            return BigDecimal.valueOf(result.join(), 2);
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes every pending journal entry to the database, in batches of {@code flush-batch-size}.
+     * Each batch inserts its transaction rows and applies the net balance delta of every touched account in one
+     * database transaction. A batch that fails is kept and retried first on the next flush. With the write-ahead
+     * journal enabled, only the entries it has synced are written. The segments of the write-ahead journal that have
+     * been written completely are deleted afterwards.
+     *
+     * @return the number of journal entries written.
+     */
+    public int flush() {
+        synchronized (journal) {
+            WriteAheadJournal current = wal;
+            long durableSequence = current != null ? current.getDurableSequence() : Long.MAX_VALUE;
+            int written = 0;
+            long appliedSequence = 0;
+            while (true) {
+                if (unflushedBatch.isEmpty()) {
+                    List<JournalEntry> batch = new ArrayList<>(flushBatchSize);
+                    JournalEntry entry;
+                    // Only this thread polls, and entries are queued in sequence order
+                    while (batch.size() < flushBatchSize && (entry = journal.peek()) != null
+                            && entry.sequence() <= durableSequence) {
+                        batch.add(journal.poll());
+                    }
+                    unflushedBatch = batch;
+                }
+                if (unflushedBatch.isEmpty()) {
+                    if (current != null && appliedSequence > 0) {
+                        current.truncate(appliedSequence);
+                    }
+                    return written;
+                }
+                writeBatch(unflushedBatch);
+                written += unflushedBatch.size();
+                appliedSequence = unflushedBatch.get(unflushedBatch.size() - 1).sequence();
+                unflushedBatch = List.of();
+            }
+        }
+    }
+
+    /**
+     * Converts an amount to minor units (cents).
+     *
+     * @param amount the amount, with at most two decimal places.
+     * @return the amount in minor units.
+     * @throws RuntimeException if the amount has more than two decimal places or does not fit in a {@code long}.
+     */
+    static long toMinorUnits(BigDecimal amount) {
+        return Money.toMinorUnits(amount);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Balance journal flush failed, will retry", ex);
+        }
+    }
+
+    private void writeBatch(List<JournalEntry> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Long> deltas = new HashMap<>();
+            List<Transaction> rows = new ArrayList<>(batch.size());
+            for (JournalEntry entry : batch) {
+                deltas.merge(entry.fromAccountId(), -entry.amount(), Long::sum);
+                deltas.merge(entry.toAccountId(), entry.amount(), Long::sum);
+
+                Transaction transaction = new Transaction();
+                transaction.setAmount(Money.ofMinorUnits(entry.amount()));
+                transaction.setType("TRANSFER");
+                transaction.setTimestamp(entry.timestamp());
+                transaction.setFromAccount(accountRepository.getReferenceById(entry.fromAccountId()));
+                transaction.setToAccount(accountRepository.getReferenceById(entry.toAccountId()));
+                rows.add(transaction);
+            }
+            // Apply the deltas in id order so that concurrent writers touching the same rows cannot deadlock
+            new TreeMap<>(deltas).forEach((accountId, delta) -> {
+                if (delta != 0) {
+                    accountRepository.adjustBalance(accountId, BigDecimal.valueOf(delta, 2));
+                }
+            });
+            transactionRepository.saveAll(rows);
+            ledgerService.recordTransfers(rows);
+            // Entries are queued in sequence order, so the last one of the batch carries its highest sequence number
+            long appliedSequence = batch.get(batch.size() - 1).sequence();
+            if (appliedSequence > 0) {
+                checkpointRepository.save(new JournalCheckpoint(CHECKPOINT_NAME, appliedSequence));
+            }
+            accountCache.evictAfterCommit(deltas.keySet());
+        });
+    }
+
+    /**
+     * Opens the write-ahead journal and writes the records beyond the stored checkpoint to the database.
+     */
+    private WriteAheadJournal openWriteAheadJournal() {
+        WriteAheadJournal opened = new WriteAheadJournal(Path.of(walDirectory), walSegmentSizeMb * 1024 * 1024,
+                TimeUnit.MICROSECONDS.toNanos(walGroupCommitWindowUs));
+        long appliedSequence = checkpointRepository.findById(CHECKPOINT_NAME)
+                .map(JournalCheckpoint::getAppliedSequence)
+                .orElse(0L);
+        try {
+            List<WriteAheadJournal.Entry> pending = opened.open(appliedSequence);
+            for (int start = 0; start < pending.size(); start += flushBatchSize) {
+                List<JournalEntry> batch = new ArrayList<>();
+                for (WriteAheadJournal.Entry entry : pending.subList(start, Math.min(start + flushBatchSize, pending.size()))) {
+                    batch.add(new JournalEntry(entry.sequence(), entry.fromAccountId(), entry.toAccountId(),
+                            entry.amount(), entry.timestamp()));
+                }
+                writeBatch(batch);
+            }
+            if (!pending.isEmpty()) {
+                opened.truncate(pending.get(pending.size() - 1).sequence());
+                log.info("Replayed {} transfers from the write-ahead journal", pending.size());
+            }
+            return opened;
+        } catch (IOException ex) {
+            opened.close();
+            throw new UncheckedIOException("Could not open the write-ahead journal in " + walDirectory, ex);
+        } catch (RuntimeException ex) {
+            opened.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Queues an applied transfer for the database and, if enabled, appends it to the write-ahead journal.
+     *
+     * @return a future completed once the transfer is durable.
+     */
+    private CompletableFuture<Void> append(AccountBalance from, AccountBalance to, long amount) {
+        WriteAheadJournal current = wal;
+        if (current == null) {
+            journal.add(new JournalEntry(0, from.accountId, to.accountId, amount, LocalDateTime.now()));
+            return APPLIED;
+        }
+        // Truncated to the precision of the write-ahead journal, so a replayed transfer is stored with the same time
+        LocalDateTime timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        synchronized (appendLock) {
+            long sequence = current.append(from.accountId, to.accountId, amount, timestamp, durable);
+            journal.add(new JournalEntry(sequence, from.accountId, to.accountId, amount, timestamp));
+        }
+        return durable;
+    }
+
+    private void acknowledge(CompletableFuture<Void> durable, CompletableFuture<Void> result) {
+        durable.whenComplete((ignored, error) -> {
+            if (error == null) {
+                result.complete(null);
+            } else {
+                failStop();
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    /**
+     * Stops accepting transfers after the write-ahead journal failed to sync. The in-memory balances include
+     * transfers that are not durable, so they are not served either; {@link #stop(boolean)} and {@link #start()}
+     * reload them from the database.
+     */
+    private void failStop() {
+        if (!failed) {
+            failed = true;
+            accepting = false;
+            log.error("Balance engine stopped after a transfer journal failure; restart it to reload balances");
+        }
+    }
+
+    private BalanceShard shardFor(String accountNumber) {
+        BalanceShard[] current = shards;
+        return current[Math.floorMod(accountNumber.hashCode(), current.length)];
+    }
+
+    /**
+     * A transfer that has been applied in memory and is waiting to be written to the database.
+     *
+     * @param sequence the sequence number of the transfer in the write-ahead journal, {@code 0} without one.
+     * @param fromAccountId the ID of the debited account.
+     * @param toAccountId the ID of the credited account.
+     * @param amount the amount in minor units.
+     * @param timestamp the time the transfer was applied.
+     */
+    private record JournalEntry(long sequence, long fromAccountId, long toAccountId, long amount, LocalDateTime timestamp) {
+    }
+}
@@ -0,0 +1,472 @@
+package com.example.onlinebanking.service.engine;
+
+import com.example.onlinebanking.model.TransactionRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of the transfers applied by {@link ShardedBalanceEngine}, on memory-mapped files.
+ *
+ * <p>Transfers are appended as fixed-size records to the current segment file, which is mapped into memory, so an
+ * append is a few memory writes under a lock. A single committer thread makes them durable with group commit: it
+ * waits for the group-commit window, then forces everything appended so far to disk with one {@code msync} and
+ * completes the futures of all the transfers it covered. The window trades the latency of a transfer for fewer syncs.
+ *
+ * <p>Every record carries a sequence number and a CRC-32 checksum. A record torn by a crash fails the checksum, so
+ * {@link #open(long)} stops reading its segment there. Segments are never written again after a restart: appends go to
+ * a new segment, and {@link #truncate(long)} deletes the segments whose records have all been applied to the database.
+ * A segment without any valid record, such as the one opened by a run that appended nothing, is deleted on open.
+ *
+ * <p>A failed sync is final. The durable sequence number stays where it was, the records appended since the last
+ * successful sync are overwritten with zeros so that a restart does not replay them, their futures complete
+ * exceptionally, and every later append is rejected.
+ *
+ * <p>All methods are thread-safe.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class WriteAheadJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadJournal.class);
+
+    /**
+     * The size of a record: magic number and checksum, then a {@link TransactionRecord} whose ID is the sequence number.
+     */
+    static final int RECORD_SIZE = 8 + TransactionRecord.SIZE;
+
+    private static final int MAGIC = 0x57414c31;
+
+    private static final String SEGMENT_PREFIX = "transfers-";
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final long groupCommitWindowNanos;
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+    private final CRC32 checksum = new CRC32();
+
+    private final TransactionRecord record = new TransactionRecord();
+
+    private Segment current;
+
+    private int forcedPosition;
+
+    private long appendedSequence;
+
+    private long durableSequence;
+
+    private boolean running;
+
+    private RuntimeException failure;
+
+    private Thread committer;
+
+    /**
+     * Constructs a journal; nothing is read or written until {@link #open(long)}.
+     *
+     * @param directory the directory of the segment files, created if needed.
+     * @param segmentSize the size of a segment file in bytes, rounded down to whole records.
+     * @param groupCommitWindowNanos how long the committer waits for more appends before a sync, {@code 0} to sync at once.
+     */
+    WriteAheadJournal(Path directory, int segmentSize, long groupCommitWindowNanos) {
+        this.directory = directory;
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        this.groupCommitWindowNanos = groupCommitWindowNanos;
+        if (this.segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("A journal segment must hold at least one record");
+        }
+    }
+
+    /**
+     * Reads the existing segments, deletes those without any valid record, starts a new one for appends, and starts
+     * the committer.
+     *
+     * @param appliedSequence the sequence number of the last record already applied to the database.
+     * @return the valid records with a higher sequence number, in order; they must be applied before new transfers.
+     * @throws IOException if a segment cannot be read or created.
+     */
+    synchronized List<Entry> open(long appliedSequence) throws IOException {
+        if (current != null) {
+            throw new IllegalStateException("Transfer journal is already open");
+        }
+        Files.createDirectories(directory);
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(WriteAheadJournal::isSegment).sorted().toList();
+        }
+        List<Entry> pending = new ArrayList<>();
+        long last = appliedSequence;
+        for (Path path : paths) {
+            long firstSequence = firstSequenceOf(path);
+            Segment segment = new Segment(path, firstSequence);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                Entry entry;
+                while ((entry = read(buffer, segment.lastSequence + 1)) != null) {
+                    segment.lastSequence = entry.sequence();
+                    if (entry.sequence() > appliedSequence) {
+                        pending.add(entry);
+                    }
+                }
+            }
+            if (segment.lastSequence < firstSequence) {
+                // Nothing to replay, and its name may be the one the new segment needs
+                Files.delete(path);
+                continue;
+            }
+            last = Math.max(last, segment.lastSequence);
+            segments.add(segment);
+        }
+        appendedSequence = last;
+        durableSequence = last;
+        current = createSegment(last + 1);
+        forcedPosition = 0;
+        failure = null;
+        running = true;
+        committer = new Thread(this::commitLoop, "transfer-journal-committer");
+        committer.setDaemon(true);
+        committer.start();
+        log.info("Transfer journal opened in {} with {} records to replay", directory, pending.size());
+        return pending;
+    }
+
+    /**
+     * Appends a transfer to the journal. The record is durable once {@code durable} completes.
+     *
+     * @param fromAccountId the ID of the debited account.
+     * @param toAccountId the ID of the credited account.
+     * @param amount the amount in minor units.
+     * @param timestamp the time the transfer was applied.
+     * @param durable completed once the record has been synced to disk, or exceptionally if the sync failed.
+     * @return the sequence number of the record.
+     * @throws IllegalStateException if the journal is not open, or a sync has failed.
+     * @throws UncheckedIOException if a new segment cannot be created.
+     */
+    synchronized long append(long fromAccountId, long toAccountId, long amount, LocalDateTime timestamp,
+                             CompletableFuture<Void> durable) {
+        if (failure != null) {
+            throw new IllegalStateException("Transfer journal sync failed", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Transfer journal is not open");
+        }
+        if (current.buffer.remaining() < RECORD_SIZE) {
+            roll();
+            if (failure != null) {
+                throw new IllegalStateException("Transfer journal sync failed", failure);
+            }
+        }
+        long sequence = ++appendedSequence;
+        write(current.buffer, new Entry(sequence, fromAccountId, toAccountId, amount, timestamp));
+        current.lastSequence = sequence;
+        waiters.add(new Waiter(sequence, durable));
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Deletes the segments, other than the current one, whose records have all been applied to the database.
+     *
+     * @param appliedSequence the sequence number of the last record applied to the database.
+     */
+    synchronized void truncate(long appliedSequence) {
+        while (segments.size() > 1 && segments.peekFirst().lastSequence <= appliedSequence) {
+            Segment segment = segments.pollFirst();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException ex) {
+                log.warn("Could not delete transfer journal segment {}", segment.path, ex);
+            }
+        }
+    }
+
+    /**
+     * Syncs every appended record, completes their futures, and stops the committer.
+     * After a failed sync, nothing is synced any more and the pending futures have already failed.
+     */
+    void close() {
+        Thread stopping;
+        synchronized (this) {
+            if (current == null) {
+                return;
+            }
+            running = false;
+            notifyAll();
+            stopping = committer;
+        }
+        try {
+            stopping.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            closeChannel(current);
+            segments.clear();
+            current = null;
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last record synced to disk. It does not move after a failed sync.
+     *
+     * @return the durable sequence number.
+     */
+    synchronized long getDurableSequence() {
+        return durableSequence;
+    }
+
+    private void commitLoop() {
+        while (true) {
+            synchronized (this) {
+                while (running && appendedSequence == durableSequence) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (failure != null) {
+                    break;
+                }
+                if (appendedSequence == durableSequence) {
+                    return;
+                }
+            }
+            if (groupCommitWindowNanos > 0) {
+                LockSupport.parkNanos(groupCommitWindowNanos);
+            }
+            commit();
+        }
+        List<Waiter> failed;
+        RuntimeException cause;
+        synchronized (this) {
+            failed = new ArrayList<>(waiters);
+            waiters.clear();
+            cause = new RuntimeException("Transfer journal sync failed", failure);
+        }
+        for (Waiter waiter : failed) {
+            waiter.durable.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Syncs the records appended so far. The sync runs outside the lock, so appends continue meanwhile;
+     * earlier segments were synced completely when the journal rolled over to a new one.
+     * On failure, the journal fails and {@link #commitLoop()} fails every pending future.
+     */
+    private void commit() {
+        long target;
+        MappedByteBuffer buffer;
+        int from;
+        int to;
+        synchronized (this) {
+            target = appendedSequence;
+            buffer = current.buffer;
+            from = forcedPosition;
+            to = buffer.position();
+        }
+        try {
+            if (to > from) {
+                force(buffer, from, to - from);
+            }
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                fail(ex);
+            }
+            return;
+        }
+        List<Waiter> done = new ArrayList<>();
+        synchronized (this) {
+            if (failure != null) {
+                return;
+            }
+            if (current.buffer == buffer) {
+                forcedPosition = to;
+            }
+            durableSequence = target;
+            while (!waiters.isEmpty() && waiters.peekFirst().sequence <= target) {
+                done.add(waiters.pollFirst());
+            }
+        }
+        for (Waiter waiter : done) {
+            waiter.durable.complete(null);
+        }
+    }
+
+    /**
+     * Syncs and closes the full current segment and starts the next one. Called with the lock held.
+     */
+    private void roll() {
+        try {
+            force(current.buffer, 0, current.buffer.position());
+        } catch (RuntimeException ex) {
+            fail(ex);
+            return;
+        }
+        closeChannel(current);
+        current = createSegment(appendedSequence + 1);
+        forcedPosition = 0;
+    }
+
+    /**
+     * Forces a range of a segment to disk.
+     *
+     * @param buffer the mapped segment.
+     * @param index the offset of the range.
+     * @param length the length of the range.
+     */
+    void force(MappedByteBuffer buffer, int index, int length) {
+        buffer.force(index, length);
+    }
+
+    /**
+     * Fails the journal after a sync error: zeroes the records that were not synced, so that they read as torn if the
+     * pages still reach the disk, and stops accepting appends. Called with the lock held.
+     */
+    private void fail(RuntimeException cause) {
+        log.error("Transfer journal sync failed; {} appended transfers are not durable",
+                appendedSequence - durableSequence, cause);
+        MappedByteBuffer buffer = current.buffer;
+        for (int i = forcedPosition; i < buffer.position(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        failure = cause;
+        running = false;
+        notifyAll();
+    }
+
+    private Segment createSegment(long firstSequence) {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        Segment segment = new Segment(path, firstSequence);
+        try {
+            segment.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            segment.buffer = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create transfer journal segment " + path, ex);
+        }
+        segments.add(segment);
+        return segment;
+    }
+
+    private void closeChannel(Segment segment) {
+        if (segment == null || segment.channel == null) {
+            return;
+        }
+        try {
+            segment.buffer.force();
+            segment.channel.close();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not close transfer journal segment {}", segment.path, ex);
+        }
+        segment.channel = null;
+    }
+
+    private void write(MappedByteBuffer buffer, Entry entry) {
+        int start = buffer.position();
+        buffer.putInt(start, MAGIC);
+        record.wrap(buffer, start + 8).write(entry.sequence(), entry.fromAccountId(), entry.toAccountId(),
+                entry.amount(), TransactionRecord.toEpochMicros(entry.timestamp()), TransactionRecord.TYPE_TRANSFER);
+        buffer.putInt(start + 4, checksumOf(buffer, start));
+        buffer.position(start + RECORD_SIZE);
+    }
+
+    /**
+     * Reads the record at the position of the buffer.
+     *
+     * @return the record, or {@code null} at the end of the valid records: an unused, torn or out-of-sequence record.
+     */
+    private Entry read(ByteBuffer buffer, long expectedSequence) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        if (buffer.getInt(start) != MAGIC || buffer.getInt(start + 4) != checksumOf(buffer, start)
+                || record.wrap(buffer, start + 8).getId() != expectedSequence) {
+            return null;
+        }
+        buffer.position(start + RECORD_SIZE);
+        return new Entry(record.getId(), record.getFromAccountId(), record.getToAccountId(),
+                record.getAmountMinorUnits(), record.getTimestamp());
+    }
+
+    private int checksumOf(ByteBuffer buffer, int start) {
+        checksum.reset();
+        checksum.update(buffer.slice(start + 8, TransactionRecord.SIZE));
+        return (int) checksum.getValue();
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * A transfer recorded in the journal.
+     *
+     * @param sequence the sequence number of the record, increasing by one per record.
+     * @param fromAccountId the ID of the debited account.
+     * @param toAccountId the ID of the credited account.
+     * @param amount the amount in minor units.
+     * @param timestamp the time the transfer was applied, to the microsecond.
+     */
+    record Entry(long sequence, long fromAccountId, long toAccountId, long amount, LocalDateTime timestamp) {
+    }
+
+    /**
+     * A segment file; only the current one is open and mapped.
+     */
+    private static final class Segment {
+
+        final Path path;
+
+        long lastSequence;
+
+        FileChannel channel;
+
+        MappedByteBuffer buffer;
+
+        Segment(Path path, long firstSequence) {
+            this.path = path;
+            this.lastSequence = firstSequence - 1;
+        }
+    }
+
+    /**
+     * A transfer waiting for its record to be synced.
+     */
+    private record Waiter(long sequence, CompletableFuture<Void> durable) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.onlinebanking.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Password check throughput of each encoder setting, skipped unless {@code -Dbenchmark=true} is set.
+ *
+ * <p>A login costs one password check, so the checks per second measured on a single thread are the logins per second
+ * one core can serve. Each setting is configured through {@link SecurityConfig#passwordEncoder()} exactly as it would be
+ * with the {@code banking.security.password.*} properties.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PasswordHashingBenchmarkTest {
+
+    private static final long DURATION_NANOS = 5_000_000_000L;
+
+    /**
+     * Prints the logins per second per core of BCrypt at several strengths, PBKDF2 and Argon2.
+     */
+    @Test
+    void benchmarkPasswordHashing() {
+        for (int strength : new int[]{8, 10, 12}) {
+            SecurityConfig securityConfig = new SecurityConfig();
+            ReflectionTestUtils.setField(securityConfig, "bcryptStrength", strength);
+            measure("bcrypt, strength " + strength, securityConfig.passwordEncoder());
+        }
+
+        SecurityConfig pbkdf2 = new SecurityConfig();
+        ReflectionTestUtils.setField(pbkdf2, "passwordEncoderId", "pbkdf2");
+        measure("pbkdf2, 310000 iterations", pbkdf2.passwordEncoder());
+
+        SecurityConfig argon2 = new SecurityConfig();
+        ReflectionTestUtils.setField(argon2, "passwordEncoderId", "argon2");
+        measure("argon2, 16 MiB, 2 iterations", argon2.passwordEncoder());
+    }
+
+    private void measure(String name, PasswordEncoder passwordEncoder) {
+        String hash = passwordEncoder.encode("correct horse battery staple");
+        assertTrue(passwordEncoder.matches("correct horse battery staple", hash));
+
+        int logins = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            passwordEncoder.matches("correct horse battery staple", hash);
+            logins++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < DURATION_NANOS);
+        System.out.printf("Password check (%s): %.1f logins/s per core, %.1f ms/login%n",
+                name, logins * 1_000_000_000.0 / elapsed, elapsed / 1_000_000.0 / logins);
+    }
+}
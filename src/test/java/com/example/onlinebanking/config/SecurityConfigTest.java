@@ -5,9 +5,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for the {@link SecurityConfig} class.
@@ -38,4 +40,49 @@ class SecurityConfigTest {
         PasswordEncoder passwordEncoder = securityConfig.passwordEncoder();
         assertNotNull(passwordEncoder, "PasswordEncoder should not be null");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that hashes stored without an encoder prefix still match, and are flagged for re-encoding.
+     */
+    @Test
+    void testPasswordEncoder_UpgradesLegacyHash() {
+        // Arrange
+        PasswordEncoder passwordEncoder = securityConfig.passwordEncoder();
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password");
+
+        // Act & Assert
+        assertTrue(passwordEncoder.matches("password", legacyHash), "A legacy BCrypt hash should match");
+        assertTrue(passwordEncoder.upgradeEncoding(legacyHash), "A legacy BCrypt hash should be re-encoded");
+        String upgradedHash = passwordEncoder.encode("password");
+        assertTrue(upgradedHash.startsWith("{bcrypt}"), "New hashes should carry the encoder prefix");
+        assertFalse(passwordEncoder.upgradeEncoding(upgradedHash), "A current hash should not be re-encoded");
+    }
+
+    /**
+     * Tests that switching the encoder keeps existing hashes valid and upgrades them.
+     */
+    @Test
+    void testPasswordEncoder_SwitchToPbkdf2() {
+        // Arrange
+        String bcryptHash = securityConfig.passwordEncoder().encode("password");
+        ReflectionTestUtils.setField(securityConfig, "passwordEncoderId", "pbkdf2");
+        ReflectionTestUtils.setField(securityConfig, "pbkdf2Iterations", 1000);
+
+        // Act
+        PasswordEncoder passwordEncoder = securityConfig.passwordEncoder();
+
+        // Assert
+        assertTrue(passwordEncoder.matches("password", bcryptHash), "An existing BCrypt hash should still match");
+        assertTrue(passwordEncoder.upgradeEncoding(bcryptHash), "An existing BCrypt hash should be re-encoded");
+        assertTrue(passwordEncoder.encode("password").startsWith("{pbkdf2}"), "New hashes should use PBKDF2");
+    }
+
+    /**
+     * Tests that an unknown encoder ID is rejected at startup.
+     */
+    @Test
+    void testPasswordEncoder_UnknownEncoder() {
+        ReflectionTestUtils.setField(securityConfig, "passwordEncoderId", "md5");
+        assertThrows(IllegalStateException.class, () -> securityConfig.passwordEncoder());
+    }
+}
@@ -1,15 +1,40 @@
 package com.example.onlinebanking.controller;
 
+import com.example.onlinebanking.exception.ResourceNotFoundException;
 import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.TransactionRecord;
+import com.example.onlinebanking.model.dto.AccountCacheStatsDTO;
+import com.example.onlinebanking.model.dto.AccountDTO;
+import com.example.onlinebanking.model.dto.AccountImportResultDTO;
+import com.example.onlinebanking.model.dto.TransactionDTO;
+import com.example.onlinebanking.model.dto.TransactionPageDTO;
+import com.example.onlinebanking.model.dto.TransactionRecordView;
+import com.example.onlinebanking.service.AccountImportService;
 import com.example.onlinebanking.service.AccountService;
+import com.example.onlinebanking.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,9 +47,13 @@ import static org.mockito.Mockito.*;
  * <p>Key test cases include:
  * <ul>
  *     <li>Creating a new account</li>
+ *     <li>Importing accounts in bulk from CSV or NDJSON</li>
  *     <li>Retrieving an existing account by ID</li>
  *     <li>Handling the case when an account is not found</li>
  *     <li>Deleting an account</li>
+ *     <li>Reading the transaction history one page at a time or as a stream</li>
+ *     <li>Exporting the transaction history as binary records</li>
+ *     <li>Streaming a statement as CSV or NDJSON, compressed when the client accepts gzip</li>
  * </ul>
  *
  * <p>Each test method follows the Arrange-Act-Assert pattern to ensure clarity and maintainability.
@@ -40,6 +69,17 @@ class AccountControllerTest {
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private AccountImportService accountImportService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
     @InjectMocks
     private AccountController accountController;
 
@@ -70,7 +110,7 @@ class AccountControllerTest {
         assertNotNull(createdAccount);
         assertEquals(1L, createdAccount.getId());
         assertEquals("123456789", createdAccount.getAccountNumber());
-        assertEquals(BigDecimal.valueOf(1000.0), createdAccount.getBalance());
+        assertEquals(new BigDecimal("1000.00"), createdAccount.getBalance());
 
         // Verify that the service method was called
         verify(accountService, times(1)).createAccount(account);
@@ -78,27 +118,23 @@ class AccountControllerTest {
 
     /**
      * Tests the {@link AccountController#getAccount(Long)} method when the account is found.
-     * Verifies that the controller correctly retrieves and returns the account.
+     * Verifies that the controller correctly retrieves and returns the account projection.
      */
     @Test
     void testGetAccount_Found() {
         // Arrange
         Long accountId = 1L;
-        Account account = new Account();
-        account.setId(accountId);
-        account.setAccountNumber("123456789");
-        account.setBalance(BigDecimal.valueOf(1000.0));
+        AccountDTO account = new AccountDTO(accountId, "123456789", BigDecimal.valueOf(1000.0));
 
-        when(accountService.getAccount(accountId)).thenReturn(Optional.of(account));
+        when(accountService.getAccount(accountId)).thenReturn(account);
 
         // Act
-        Optional<Account> result = accountController.getAccount(accountId);
+        AccountDTO result = accountController.getAccount(accountId);
 
         // Assert
-        assertTrue(result.isPresent());
-        assertEquals(accountId, result.get().getId());
-        assertEquals("123456789", result.get().getAccountNumber());
-        assertEquals(BigDecimal.valueOf(1000.0), result.get().getBalance());
+        assertEquals(accountId, result.getId());
+        assertEquals("123456789", result.getAccountNumber());
+        assertEquals(BigDecimal.valueOf(1000.0), result.getBalance());
 
         // Verify that the service method was called
         verify(accountService, times(1)).getAccount(accountId);
@@ -106,22 +142,77 @@ class AccountControllerTest {
 
     /**
      * Tests the {@link AccountController#getAccount(Long)} method when the account is not found.
-     * Verifies that the controller correctly handles the case and returns an empty Optional.
+     * Verifies that the {@link ResourceNotFoundException} of the service is propagated, which is mapped to 404 Not Found.
      */
     @Test
     void testGetAccount_NotFound() {
         // Arrange
         Long accountId = 1L;
-        when(accountService.getAccount(accountId)).thenReturn(Optional.empty());
+        when(accountService.getAccount(accountId)).thenThrow(new ResourceNotFoundException("Account not found"));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> accountController.getAccount(accountId));
+
+        // Verify that the service method was called
+        verify(accountService, times(1)).getAccount(accountId);
+    }
+
+    /**
+     * Tests the {@link AccountController#getAccountByNumber(String)} method.
+     * Verifies that the controller delegates the lookup by account number to the service.
+     */
+    @Test
+    void testGetAccountByNumber() {
+        // Arrange
+        AccountDTO account = new AccountDTO(1L, "123456789", BigDecimal.valueOf(1000.0));
+        when(accountService.getAccountByNumber("123456789")).thenReturn(account);
 
         // Act
-        Optional<Account> result = accountController.getAccount(accountId);
+        AccountDTO result = accountController.getAccountByNumber("123456789");
 
         // Assert
-        assertFalse(result.isPresent());
+        assertSame(account, result);
+        verify(accountService, times(1)).getAccountByNumber("123456789");
+    }
 
-        // Verify that the service method was called
-        verify(accountService, times(1)).getAccount(accountId);
+    /**
+     * Tests the {@link AccountController#getCacheStats()} method.
+     * Verifies that the controller returns the statistics reported by the service.
+     */
+    @Test
+    void testGetCacheStats() {
+        // Arrange
+        AccountCacheStatsDTO stats = new AccountCacheStatsDTO(9, 1, 0.9, 0, 1);
+        when(accountService.getCacheStats()).thenReturn(stats);
+
+        // Act
+        AccountCacheStatsDTO result = accountController.getCacheStats();
+
+        // Assert
+        assertEquals(9, result.getHits());
+        assertEquals(1, result.getMisses());
+    }
+
+    /**
+     * Tests the {@link AccountController#importAccountsCsv(InputStream)} and
+     * {@link AccountController#importAccountsNdjson(InputStream)} methods.
+     * Verifies that the controller passes the request body to the import service with the format of the request.
+     *
+     * @throws Exception if an error occurs while reading the request body.
+     */
+    @Test
+    void testImportAccounts() throws Exception {
+        // Arrange
+        InputStream csv = new ByteArrayInputStream(new byte[0]);
+        InputStream ndjson = new ByteArrayInputStream(new byte[0]);
+        AccountImportResultDTO csvResult = new AccountImportResultDTO(3, 0, List.of());
+        AccountImportResultDTO ndjsonResult = new AccountImportResultDTO(1, 1, List.of());
+        when(accountImportService.importAccounts(csv, AccountImportService.Format.CSV)).thenReturn(csvResult);
+        when(accountImportService.importAccounts(ndjson, AccountImportService.Format.NDJSON)).thenReturn(ndjsonResult);
+
+        // Act & Assert
+        assertSame(csvResult, accountController.importAccountsCsv(csv));
+        assertSame(ndjsonResult, accountController.importAccountsNdjson(ndjson));
     }
 
     /**
@@ -141,4 +232,186 @@ class AccountControllerTest {
         // Verify that the service method was called
         verify(accountService, times(1)).deleteAccount(accountId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the {@link AccountController#getTransactions(String, String, int)} method.
+     * Verifies that the controller delegates to the service with the cursor and limit of the request.
+     */
+    @Test
+    void testGetTransactions() {
+        // Arrange
+        TransactionPageDTO page = new TransactionPageDTO(List.of(), "next");
+        when(transactionService.getTransactionHistory("123456789", "cursor", 20)).thenReturn(page);
+
+        // Act
+        TransactionPageDTO result = accountController.getTransactions("123456789", "cursor", 20);
+
+        // Assert
+        assertSame(page, result);
+        verify(transactionService, times(1)).getTransactionHistory("123456789", "cursor", 20);
+    }
+
+    /**
+     * Tests the {@link AccountController#streamTransactions(String)} method.
+     * Verifies that each transaction passed by the service is written as one line of JSON.
+     *
+     * @throws Exception if an error occurs while writing the response body.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamTransactions() throws Exception {
+        // Arrange
+        LocalDateTime timestamp = LocalDateTime.of(2023, 10, 1, 12, 0);
+        when(transactionService.getAccountId("123456789")).thenReturn(7L);
+        doAnswer(invocation -> {
+            Consumer<TransactionDTO> action = invocation.getArgument(1);
+            action.accept(new TransactionDTO(2L, "123456789", "987654321", new BigDecimal("10.00"), "TRANSFER", timestamp));
+            action.accept(new TransactionDTO(1L, "987654321", "123456789", new BigDecimal("5.00"), "TRANSFER", timestamp));
+            return null;
+        }).when(transactionService).streamTransactionHistory(eq(7L), any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        accountController.streamTransactions("123456789").writeTo(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readValue(lines[0], TransactionDTO.class).getId());
+        assertEquals(new BigDecimal("5.00"), objectMapper.readValue(lines[1], TransactionDTO.class).getAmount());
+    }
+
+    /**
+     * Tests the {@link AccountController#exportTransactions(String)} method.
+     * Verifies that each transaction passed by the service is written as one fixed-width record, across several blocks.
+     *
+     * @throws Exception if an error occurs while writing the response body.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportTransactions() throws Exception {
+        // Arrange
+        LocalDateTime timestamp = LocalDateTime.of(2023, 10, 1, 12, 0);
+        when(transactionService.getAccountId("123456789")).thenReturn(7L);
+        doAnswer(invocation -> {
+            Consumer<TransactionRecordView> action = invocation.getArgument(1);
+            for (long id = 300; id > 0; id--) {
+                TransactionRecordView view = mock(TransactionRecordView.class);
+                when(view.getId()).thenReturn(id);
+                when(view.getFromAccountId()).thenReturn(7L);
+                when(view.getToAccountId()).thenReturn(8L);
+                when(view.getAmount()).thenReturn(new BigDecimal("10.00"));
+                when(view.getType()).thenReturn("TRANSFER");
+                when(view.getTimestamp()).thenReturn(timestamp);
+                action.accept(view);
+            }
+            return null;
+        }).when(transactionService).streamTransactionRecords(eq(7L), any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        accountController.exportTransactions("123456789").writeTo(out);
+
+        // Assert
+        ByteBuffer body = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(300 * TransactionRecord.SIZE, body.limit());
+        TransactionRecord last = new TransactionRecord().wrap(body, 299 * TransactionRecord.SIZE);
+        assertEquals(1L, last.getId());
+        assertEquals(8L, last.getToAccountId());
+        assertEquals(new BigDecimal("10.00"), last.getAmount());
+        assertEquals(timestamp, last.getTimestamp());
+    }
+
+    /**
+     * Tests the {@link AccountController#getStatement(String, LocalDate, LocalDate, String, String)} method with the CSV
+     * format and a client that accepts gzip.
+     * Verifies the period passed to the service, the headers, and that the body is the compressed CSV, with a field
+     * holding a comma quoted.
+     *
+     * @throws Exception if an error occurs while writing the response body.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetStatement_CsvGzip() throws Exception {
+        // Arrange
+        LocalDateTime timestamp = LocalDateTime.of(2023, 10, 1, 12, 0);
+        when(transactionService.getAccountId("123456789")).thenReturn(7L);
+        doAnswer(invocation -> {
+            Consumer<TransactionDTO> action = invocation.getArgument(3);
+            action.accept(new TransactionDTO(1L, "123456789", "98,7", new BigDecimal("10.00"), "TRANSFER", timestamp));
+            action.accept(new TransactionDTO(2L, null, "123456789", new BigDecimal("5.50"), "TRANSFER", timestamp));
+            return 2L;
+        }).when(transactionService).streamStatement(eq(7L), eq(LocalDateTime.of(2023, 10, 1, 0, 0)),
+                eq(LocalDateTime.of(2023, 11, 1, 0, 0)), any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = accountController.getStatement("123456789",
+                LocalDate.of(2023, 10, 1), LocalDate.of(2023, 10, 31), "CSV", "deflate, gzip;q=0.8");
+        response.getBody().writeTo(out);
+
+        // Assert
+        HttpHeaders headers = response.getHeaders();
+        assertEquals("text/csv", headers.getContentType().toString());
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("attachment; filename=\"statement-123456789.csv\"", headers.getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals("id,timestamp,type,fromAccount,toAccount,amount\n"
+                + "1,2023-10-01T12:00,TRANSFER,123456789,\"98,7\",10.00\n"
+                + "2,2023-10-01T12:00,TRANSFER,,123456789,5.50\n", csv);
+    }
+
+    /**
+     * Tests the {@link AccountController#getStatement(String, LocalDate, LocalDate, String, String)} method with the
+     * NDJSON format, without a period and with gzip refused.
+     * Verifies that the body is uncompressed, with one transaction per line.
+     *
+     * @throws Exception if an error occurs while writing the response body.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetStatement_Ndjson() throws Exception {
+        // Arrange
+        LocalDateTime timestamp = LocalDateTime.of(2023, 10, 1, 12, 0);
+        when(transactionService.getAccountId("123456789")).thenReturn(7L);
+        doAnswer(invocation -> {
+            Consumer<TransactionDTO> action = invocation.getArgument(3);
+            action.accept(new TransactionDTO(1L, "123456789", "987654321", new BigDecimal("10.00"), "TRANSFER", timestamp));
+            return 1L;
+        }).when(transactionService).streamStatement(eq(7L), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = accountController.getStatement("123456789", null, null,
+                "ndjson", "gzip;q=0");
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        assertEquals(new BigDecimal("10.00"), objectMapper.readValue(lines[0], TransactionDTO.class).getAmount());
+    }
+
+    /**
+     * Tests that the {@link AccountController#getStatement(String, LocalDate, LocalDate, String, String)} method
+     * rejects an unknown format and a period that ends before it starts, before reading anything.
+     */
+    @Test
+    void testGetStatement_Rejections() {
+        RuntimeException format = assertThrows(RuntimeException.class,
+                () -> accountController.getStatement("123456789", null, null, "xml", null));
+        assertEquals("Unsupported statement format xml", format.getMessage());
+
+        RuntimeException period = assertThrows(RuntimeException.class, () -> accountController.getStatement(
+                "123456789", LocalDate.of(2023, 10, 31), LocalDate.of(2023, 10, 1), "csv", null));
+        assertEquals("Statement period ends before it starts", period.getMessage());
+
+        verifyNoInteractions(transactionService);
+    }
+}
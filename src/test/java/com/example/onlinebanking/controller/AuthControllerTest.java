@@ -2,6 +2,7 @@ package com.example.onlinebanking.controller;
 
 import com.example.onlinebanking.model.dto.AuthRequest;
 import com.example.onlinebanking.model.dto.AuthResponse;
+import com.example.onlinebanking.model.dto.RefreshRequest;
 import com.example.onlinebanking.service.AuthService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +23,7 @@ import static org.mockito.Mockito.*;
  * <p>Key test cases include:
  * <ul>
  *     <li>Successful user login and JWT token generation</li>
+ *     <li>Exchanging a refresh token for new tokens</li>
  * </ul>
  *
  * <p>Each test method follows the Arrange-Act-Assert pattern to ensure clarity and maintainability.
@@ -71,4 +73,25 @@ class AuthControllerTest {
         // Verify that the service method was called
         verify(authService, times(1)).login(authRequest);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the {@link AuthController#refresh(RefreshRequest)} method.
+     * Verifies that the controller returns the new tokens issued by the service with HTTP status 200 (OK).
+     */
+    @Test
+    void testRefresh_Success() {
+        // Arrange
+        RefreshRequest refreshRequest = new RefreshRequest("refresh-token");
+        AuthResponse authResponse = new AuthResponse("jwt-token", "next-refresh-token", 900L);
+        when(authService.refresh(refreshRequest)).thenReturn(authResponse);
+
+        // Act
+        ResponseEntity<AuthResponse> response = authController.refresh(refreshRequest);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("jwt-token", response.getBody().getToken());
+        assertEquals("next-refresh-token", response.getBody().getRefreshToken());
+        verify(authService, times(1)).refresh(refreshRequest);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.onlinebanking.controller;
+
+import com.example.onlinebanking.security.JwtKeyRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link JwksController} class.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class JwksControllerTest {
+
+    @Mock
+    private JwtKeyRegistry keyRegistry;
+
+    @InjectMocks
+    private JwksController jwksController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests that the key set of the registry is returned with a public cache lifetime.
+     */
+    @Test
+    void testGetJwks() {
+        // Arrange
+        Map<String, Object> jwks = Map.of("keys", List.of(Map.of("kty", "RSA", "kid", "key-1")));
+        when(keyRegistry.jwks()).thenReturn(jwks);
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = jwksController.getJwks();
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(jwks, response.getBody());
+        assertTrue(response.getHeaders().getCacheControl().contains("max-age=300"));
+    }
+}
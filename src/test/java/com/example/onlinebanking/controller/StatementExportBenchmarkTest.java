@@ -0,0 +1,177 @@
+package com.example.onlinebanking.controller;
+
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.UserRepository;
+import com.example.onlinebanking.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement export benchmark on a long history, skipped unless {@code -Dbenchmark=true} is set.
+ *
+ * <p>One account is given {@code -Dbenchmark.rows} transactions (5,000,000 by default; the target is 50,000,000 with
+ * a large enough heap for the in-memory database). The benchmark streams its whole statement through
+ * {@link AccountController#getStatement} as CSV and NDJSON, plain and gzip-compressed, into a sink that counts the
+ * bytes and, after every {@value HeapSamplingSink#SAMPLE_BYTES} bytes, collects garbage and samples the retained heap.
+ * It prints the throughput of each variant and fails if the retained heap grows by more than
+ * {@value #MAX_RETAINED_GROWTH_MB} MB while streaming, which it would if the rows were buffered anywhere on the way.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest
+@Import(TransactionService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StatementExportBenchmarkTest {
+
+    private static final long MAX_RETAINED_GROWTH_MB = 64;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AccountController accountController;
+
+    private long rows;
+
+    /**
+     * Creates two accounts and fills the history of the first one with generated transfers in both directions.
+     */
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("statement");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        jdbcTemplate.update("""
+                insert into account (id, account_number, balance, user_id, version)
+                select x, 'STMT-' || x, 0, ?, 0 from system_range(1, 2)""", user.getId());
+        rows = Long.getLong("benchmark.rows", 5_000_000L);
+        long start = System.nanoTime();
+        jdbcTemplate.update("""
+                insert into transaction (id, amount, type, timestamp, from_account_id, to_account_id)
+                select x, 1.25, 'TRANSFER', dateadd('SECOND', x, timestamp '2023-01-01 00:00:00'),
+                       mod(x, 2) + 1, 2 - mod(x, 2)
+                from system_range(1, ?)""", rows);
+        System.out.printf("Loaded %d statement rows in %.1fs%n", rows, (System.nanoTime() - start) / 1_000_000_000.0);
+
+        accountController = new AccountController();
+        ReflectionTestUtils.setField(accountController, "transactionService", transactionService);
+        ReflectionTestUtils.setField(accountController, "objectMapper", new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+
+    /**
+     * Removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("truncate table transaction");
+        jdbcTemplate.update("delete from account");
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Streams the statement in every format, with and without gzip, and checks that every row was written with
+     * bounded memory.
+     */
+    @Test
+    void benchmarkStatementExport() throws Exception {
+        for (String format : new String[]{"csv", "ndjson"}) {
+            for (boolean gzip : new boolean[]{false, true}) {
+                HeapSamplingSink sink = new HeapSamplingSink();
+                long start = System.nanoTime();
+                accountController.getStatement("STMT-1", null, null, format, gzip ? "gzip" : null)
+                        .getBody()
+                        .writeTo(sink);
+                long elapsed = System.nanoTime() - start;
+
+                if (!gzip) {
+                    assertEquals(format.equals("csv") ? rows + 1 : rows, sink.lines);
+                    assertTrue(sink.samples > 1, "The statement is too short to sample the heap");
+                }
+                long growthMb = (sink.maxRetained - sink.firstRetained) / 1_048_576;
+                System.out.printf("Statement %s%s: %d rows, %.1f MB in %.1fs (%.0f rows/s), retained heap %d MB, "
+                                + "grew by %d MB%n",
+                        format, gzip ? " gzip" : "", rows, sink.bytes / 1_048_576.0, elapsed / 1_000_000_000.0,
+                        rows * 1_000_000_000.0 / elapsed, sink.maxRetained / 1_048_576, growthMb);
+                assertTrue(growthMb <= MAX_RETAINED_GROWTH_MB, "Retained heap grew by " + growthMb + " MB");
+            }
+        }
+    }
+
+    /**
+     * Discards what is written to it, counting bytes and lines. After every {@value #SAMPLE_BYTES} bytes it collects
+     * garbage and samples the used heap, which is then what the export retains; the samples are costly, but rare.
+     */
+    private static final class HeapSamplingSink extends OutputStream {
+
+        private static final long SAMPLE_BYTES = 8L << 20;
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        private long bytes;
+
+        private long lines;
+
+        private long nextSample = SAMPLE_BYTES;
+
+        private int samples;
+
+        private long firstRetained;
+
+        private long maxRetained;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+            bytes += length;
+            if (bytes >= nextSample) {
+                nextSample += SAMPLE_BYTES;
+                memory.gc();
+                long retained = memory.getHeapMemoryUsage().getUsed();
+                if (samples++ == 0) {
+                    firstRetained = retained;
+                }
+                maxRetained = Math.max(maxRetained, retained);
+            }
+        }
+    }
+}
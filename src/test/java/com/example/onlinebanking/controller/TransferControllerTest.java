@@ -2,13 +2,16 @@
  * Unit tests for the {@link com.example.onlinebanking.controller.TransferController} class.
  *
  * <p>This test class uses Mockito to mock dependencies and Spring's MockMvc for testing
- * the REST endpoints. It verifies the behavior of the {@link TransferController#transferFunds(String, String, BigDecimal)}
+ * the REST endpoints. It verifies the behavior of the {@link TransferController#transferFunds(String, String, BigDecimal, String, String, java.security.Principal)}
  * method under different scenarios, including successful transfers and transfer failures.
  *
  * <p>Key test cases include:
  * <ul>
  *     <li>Successful transfer of funds between accounts</li>
  *     <li>Transfer failure due to insufficient balance or other errors</li>
+ *     <li>Transfers sent with an {@code Idempotency-Key} header</li>
+ *     <li>Asynchronous transfers and their status</li>
+ *     <li>Batch transfers submitted as a JSON array or as newline-delimited JSON</li>
  * </ul>
  *
  * <p>Each test method follows the Arrange-Act-Assert pattern to ensure clarity and maintainability.
@@ -20,20 +23,36 @@
  */
 package com.example.onlinebanking.controller;
 
+import com.example.onlinebanking.model.dto.TransferResult;
+import com.example.onlinebanking.model.dto.TransferStatsDTO;
+import com.example.onlinebanking.model.dto.TransferStatusDTO;
+import com.example.onlinebanking.service.AsyncTransferService;
+import com.example.onlinebanking.service.IdempotencyService;
 import com.example.onlinebanking.service.TransferService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class TransferControllerTest {
@@ -41,6 +60,15 @@ class TransferControllerTest {
     @Mock
     private TransferService transferService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private TransferController transferController;
 
@@ -57,7 +85,7 @@ class TransferControllerTest {
     }
 
     /**
-     * Tests the {@link TransferController#transferFunds(String, String, BigDecimal)} method for a successful transfer.
+     * Tests the {@link TransferController#transferFunds(String, String, BigDecimal, String, String, java.security.Principal)} method for a successful transfer.
      *
      * <p>This test verifies that the method returns a 200 OK status when the transfer is successful,
      * and that the appropriate method is called on the mocked {@link TransferService}.
@@ -93,7 +121,7 @@ class TransferControllerTest {
     }
 
     /**
-     * Tests the {@link TransferController#transferFunds(String, String, BigDecimal)} method for a transfer failure.
+     * Tests the {@link TransferController#transferFunds(String, String, BigDecimal, String, String, java.security.Principal)} method for a transfer failure.
      *
      * <p>This test verifies that the method returns a 400 Bad Request status when the transfer fails,
      * and that the appropriate method is called on the mocked {@link TransferService}.
@@ -127,4 +155,204 @@ class TransferControllerTest {
         // Verify interactions
         verify(transferService, times(1)).transferFunds(fromAccount, toAccount, amount);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the {@link TransferController#transferFunds(String, String, BigDecimal, String, String, java.security.Principal)} method
+     * with an {@code Idempotency-Key} header.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Mock the {@link IdempotencyService} to perform the request it is given.</li>
+     *     <li>Act: Perform a POST request to the transfer endpoint with an idempotency key.</li>
+     *     <li>Assert: Verify that the transfer went through the idempotency service with the key and the request parameters.</li>
+     * </ol>
+     *
+     * @throws Exception if an error occurs during the test execution.
+     */
+    @Test
+    void testTransferFunds_IdempotencyKey() throws Exception {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100.00");
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(3).run();
+            return null;
+        }).when(idempotencyService).execute(anyString(), anyString(), anyString(), any(Runnable.class));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/transfers")
+                        .header("Idempotency-Key", "3f0c2a9e-1b7d-4c55-9a0e-0d6f1f2b7c11")
+                        .param("fromAccountNumber", "123456")
+                        .param("toAccountNumber", "654321")
+                        .param("amount", amount.toString()))
+                .andExpect(status().isOk());
+
+        // Verify interactions
+        verify(idempotencyService, times(1)).execute(eq(""), eq("3f0c2a9e-1b7d-4c55-9a0e-0d6f1f2b7c11"),
+                eq("123456:654321:100"), any(Runnable.class));
+        verify(transferService, times(1)).transferFunds("123456", "654321", amount);
+    }
+
+    /**
+     * Tests that a transfer without an {@code Idempotency-Key} header bypasses the {@link IdempotencyService}.
+     *
+     * @throws Exception if an error occurs during the test execution.
+     */
+    @Test
+    void testTransferFunds_WithoutIdempotencyKey() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/transfers")
+                        .param("fromAccountNumber", "123456")
+                        .param("toAccountNumber", "654321")
+                        .param("amount", "100.00"))
+                .andExpect(status().isOk());
+
+        // Verify interactions
+        verifyNoInteractions(idempotencyService);
+        verify(transferService, times(1)).transferFunds("123456", "654321", new BigDecimal("100.00"));
+    }
+
+    /**
+     * Tests that a transfer sent with {@code Prefer: respond-async} is queued and answered with 202 (Accepted).
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Mock the {@link AsyncTransferService} to accept the transfer and run it at once.</li>
+     *     <li>Act: Perform a POST request to the transfer endpoint with the {@code Prefer} header.</li>
+     *     <li>Assert: Verify the 202 status, the transfer ID and its location, and that the queued transfer calls the service.</li>
+     * </ol>
+     *
+     * @throws Exception if an error occurs during the test execution.
+     */
+    @Test
+    void testTransferFunds_Async() throws Exception {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100.00");
+        when(asyncTransferService.submit(eq(""), isNull(), eq("123456"), eq("654321"), eq(amount), any(Runnable.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(5).run();
+                    return new TransferStatusDTO("transfer-1", TransferStatusDTO.PENDING, null);
+                });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/transfers")
+                        .header("Prefer", "respond-async")
+                        .param("fromAccountNumber", "123456")
+                        .param("toAccountNumber", "654321")
+                        .param("amount", amount.toString()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/transfers/transfer-1"))
+                .andExpect(jsonPath("$.id").value("transfer-1"))
+                .andExpect(jsonPath("$.status").value(TransferStatusDTO.PENDING));
+
+        // Verify interactions
+        verify(transferService, times(1)).transferFunds("123456", "654321", amount);
+    }
+
+    /**
+     * Tests the {@link TransferController#getTransferStatus(String)} method.
+     *
+     * @throws Exception if an error occurs during the test execution.
+     */
+    @Test
+    void testGetTransferStatus() throws Exception {
+        // Arrange
+        when(asyncTransferService.getStatus("transfer-1"))
+                .thenReturn(new TransferStatusDTO("transfer-1", TransferStatusDTO.FAILED, "Insufficient balance"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/transfers/transfer-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(TransferStatusDTO.FAILED))
+                .andExpect(jsonPath("$.message").value("Insufficient balance"));
+    }
+
+    /**
+     * Tests the {@link TransferController#getStats()} method.
+     *
+     * <p>This test verifies that the endpoint returns the locking mode and the optimistic counters reported by the service.
+     *
+     * @throws Exception if an error occurs during the test execution.
+     */
+    @Test
+    void testGetStats() throws Exception {
+        // Arrange
+        when(transferService.getStats()).thenReturn(new TransferStatsDTO("OPTIMISTIC", 7, 5, 2));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/transfers/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lockingMode").value("OPTIMISTIC"))
+                .andExpect(jsonPath("$.conflicts").value(7))
+                .andExpect(jsonPath("$.retries").value(5))
+                .andExpect(jsonPath("$.exhausted").value(2));
+    }
+
+    /**
+     * Tests the {@link TransferController#transferBatch(List)} method with a JSON array body.
+     *
+     * @throws Exception if an error occurs during the test execution.
+     */
+    @Test
+    void testTransferBatch_Json() throws Exception {
+        // Arrange
+        when(transferService.transferBatch(anyList()))
+                .thenReturn(List.of(TransferResult.completed(0), TransferResult.failed(1, "Insufficient balance")));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/transfers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"fromAccountNumber\":\"123456\",\"toAccountNumber\":\"654321\",\"amount\":100.00},"
+                                + "{\"fromAccountNumber\":\"123456\",\"toAccountNumber\":\"654321\",\"amount\":9999.00}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(TransferResult.COMPLETED))
+                .andExpect(jsonPath("$[1].status").value(TransferResult.FAILED))
+                .andExpect(jsonPath("$[1].message").value("Insufficient balance"));
+
+        // Verify interactions
+        verify(transferService, times(1)).transferBatch(argThat(transfers -> transfers.size() == 2
+                && new BigDecimal("9999.00").compareTo(transfers.get(1).getAmount()) == 0));
+    }
+
+    /**
+     * Tests the {@link TransferController#transferBatchNdjson(java.io.InputStream)} method with one transfer per line.
+     *
+     * @throws Exception if an error occurs during the test execution.
+     */
+    @Test
+    void testTransferBatch_Ndjson() throws Exception {
+        // Arrange
+        when(transferService.transferBatch(anyList()))
+                .thenReturn(List.of(TransferResult.completed(0), TransferResult.completed(1)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/transfers/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .content("{\"fromAccountNumber\":\"123456\",\"toAccountNumber\":\"654321\",\"amount\":1.00}\n"
+                                + "{\"fromAccountNumber\":\"654321\",\"toAccountNumber\":\"123456\",\"amount\":2.00}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        // Verify interactions
+        verify(transferService, times(1)).transferBatch(argThat(transfers -> transfers.size() == 2
+                && "654321".equals(transfers.get(1).getFromAccountNumber())));
+    }
+
+    /**
+     * Tests that {@link TransferController#transferBatchNdjson(java.io.InputStream)} stops reading the body once it
+     * holds more than the maximum number of transfers: the line after the limit is malformed and never parsed.
+     */
+    @Test
+    void testTransferBatch_NdjsonTooLarge() {
+        // Arrange
+        ReflectionTestUtils.setField(transferController, "batchMaxSize", 1);
+        String body = "{\"fromAccountNumber\":\"123456\",\"toAccountNumber\":\"654321\",\"amount\":1.00}\n"
+                + "{\"fromAccountNumber\":\"654321\",\"toAccountNumber\":\"123456\",\"amount\":2.00}\n"
+                + "{\"fromAccountNumber\":";
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> transferController.transferBatchNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+        assertEquals("Batch exceeds the maximum of 1 transfers", exception.getMessage());
+        verify(transferService, never()).transferBatch(anyList());
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.onlinebanking.controller;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import com.example.onlinebanking.security.JwtPrincipal;
+import com.example.onlinebanking.security.JwtUtil;
+import com.example.onlinebanking.service.AsyncTransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of {@code POST /api/transfers} in its blocking and asynchronous modes, skipped unless
+ * {@code -Dbenchmark=true} is set.
+ *
+ * <p>The application runs on a real Tomcat port. For each number of concurrent clients, every client sends
+ * {@value #REQUESTS_PER_CLIENT} transfers between random accounts, one after the other, and the latency of each
+ * response is recorded:
+ * <ul>
+ *     <li>in blocking mode a response is sent once the transfer has committed;</li>
+ *     <li>in asynchronous mode ({@code Prefer: respond-async}) once it is queued; the time until the queue has drained
+ *     is reported separately.</li>
+ * </ul>
+ * The p50 and p99 latencies and the failed requests are printed per level, followed by the largest number of
+ * concurrent clients served without failures within a p99 budget of {@code -Dbenchmark.p99-budget-ms} (200 by
+ * default). Run it again with {@code -Dspring.threads.virtual.enabled=true} on Java 21 to compare virtual threads.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "banking.auth.refresh-tokens.snapshot-file=",
+        "spring.datasource.url=jdbc:h2:mem:transferload;LOCK_TIMEOUT=10000"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransferLoadBenchmarkTest {
+
+    private static final int[] CLIENTS = {8, 32, 128, 512};
+    private static final int REQUESTS_PER_CLIENT = 50;
+    private static final int ACCOUNTS = 256;
+    private static final long P99_BUDGET_MS = Long.getLong("benchmark.p99-budget-ms", 200);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AsyncTransferService asyncTransferService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newCachedThreadPool())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private String token;
+
+    /**
+     * Creates the accounts the clients transfer between and a token to authenticate with.
+     */
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.findByUsername("load").orElseGet(() -> {
+            User created = new User();
+            created.setUsername("load");
+            created.setPassword("password");
+            created.setRole("USER");
+            return userRepository.save(created);
+        });
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            if (accountRepository.findByAccountNumber("LOAD-" + i).isEmpty()) {
+                Account account = new Account();
+                account.setAccountNumber("LOAD-" + i);
+                account.setBalance(new BigDecimal("1000000.00"));
+                account.setUser(user);
+                accounts.add(account);
+            }
+        }
+        accountRepository.saveAll(accounts);
+        token = jwtUtil.generateToken(new JwtPrincipal(user.getId(), user.getUsername(), user.getRole(), List.of()));
+    }
+
+    /**
+     * Compares the blocking and asynchronous modes at increasing numbers of concurrent clients.
+     *
+     * @throws InterruptedException if the benchmark is interrupted while waiting for the clients.
+     */
+    @Test
+    void benchmarkBlockingVersusAsync() throws InterruptedException {
+        for (boolean async : new boolean[]{false, true}) {
+            String mode = async ? "async" : "blocking";
+            run(mode, 32, async);
+            int maxClients = 0;
+            for (int clients : CLIENTS) {
+                long p99 = run(mode, clients, async);
+                if (p99 >= 0 && p99 <= P99_BUDGET_MS) {
+                    maxClients = clients;
+                }
+            }
+            System.out.printf("Transfer load (%s): up to %d concurrent clients within a p99 of %d ms%n",
+                    mode, maxClients, P99_BUDGET_MS);
+        }
+    }
+
+    /**
+     * Runs one level of the load test.
+     *
+     * @return the p99 latency in milliseconds, or {@code -1} if any request failed.
+     */
+    private long run(String mode, int clients, boolean async) throws InterruptedException {
+        long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                    + "/api/transfers?fromAccountNumber=LOAD-" + from + "&toAccountNumber=LOAD-" + to
+                                    + "&amount=0.01"))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(30))
+                            .POST(HttpRequest.BodyPublishers.noBody());
+                    if (async) {
+                        request.header("Prefer", "respond-async");
+                    }
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() / 100 != 2) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception ex) {
+                        failed.incrementAndGet();
+                    }
+                    latencies[next.getAndIncrement()] = System.nanoTime() - sent;
+                }
+                return null;
+            });
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES), "Load test did not finish in time");
+        long respondedNanos = System.nanoTime() - startNanos;
+        while (asyncTransferService.getPendingCount() > 0) {
+            Thread.sleep(1);
+        }
+        long drainedNanos = System.nanoTime() - startNanos;
+
+        Arrays.sort(latencies);
+        long p50 = latencies[latencies.length / 2] / 1_000_000;
+        long p99 = latencies[(int) (latencies.length * 0.99)] / 1_000_000;
+        System.out.printf("Transfer load (%s, %d clients): p50 %d ms, p99 %d ms, %d failed, %.0f responses/s, "
+                        + "all transfers done after %d ms%n",
+                mode, clients, p50, p99, failed.get(), latencies.length * 1_000_000_000.0 / respondedNanos,
+                drainedNanos / 1_000_000);
+        return failed.get() == 0 ? p99 : -1;
+    }
+}
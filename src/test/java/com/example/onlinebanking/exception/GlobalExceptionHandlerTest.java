@@ -10,6 +10,7 @@
  * <ul>
  *     <li>Handling {@link ResourceNotFoundException} with HTTP status 404 (Not Found)</li>
  *     <li>Handling generic exceptions with HTTP status 500 (Internal Server Error)</li>
+ *     <li>Handling {@link java.util.concurrent.RejectedExecutionException} with HTTP status 503 (Service Unavailable)</li>
  * </ul>
  *
  * <p>Each test method follows the Arrange-Act-Assert pattern to ensure clarity and maintainability.
@@ -30,6 +31,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.context.request.WebRequest;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.mock;
@@ -119,4 +122,53 @@ class GlobalExceptionHandlerTest {
         assertEquals("Internal server error", errorDetails.getMessage());
         assertEquals("Test request details", errorDetails.getDetails());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the {@link GlobalExceptionHandler#handleRejectedExecutionException(RejectedExecutionException)} method.
+     * <p>
+     * This test verifies that work rejected by a full executor is reported with HTTP status 503 (Service Unavailable).
+     * </p>
+     */
+    @Test
+    @DisplayName("Test handleRejectedExecutionException")
+    void testHandleRejectedExecutionException() {
+        // Arrange
+        RejectedExecutionException exception = new RejectedExecutionException("Queue full");
+
+        // Act
+        ResponseEntity<ErrorDetails> response = globalExceptionHandler.handleRejectedExecutionException(exception);
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+
+        ErrorDetails errorDetails = response.getBody();
+        assertNotNull(errorDetails);
+        assertEquals("Server busy, try again later", errorDetails.getMessage());
+    }
+
+    /**
+     * Tests the {@link GlobalExceptionHandler#handleIdempotencyConflictException(IdempotencyConflictException)} method.
+     * <p>
+     * This test verifies that a request that cannot be answered from its idempotency key is reported with HTTP status 409 (Conflict).
+     * </p>
+     */
+    @Test
+    @DisplayName("Test handleIdempotencyConflictException")
+    void testHandleIdempotencyConflictException() {
+        // Arrange
+        IdempotencyConflictException exception =
+                new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+
+        // Act
+        ResponseEntity<ErrorDetails> response = globalExceptionHandler.handleIdempotencyConflictException(exception);
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+
+        ErrorDetails errorDetails = response.getBody();
+        assertNotNull(errorDetails);
+        assertEquals("A request with this Idempotency-Key is still in progress", errorDetails.getMessage());
+    }
+}
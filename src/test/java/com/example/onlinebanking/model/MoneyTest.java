@@ -0,0 +1,149 @@
+package com.example.onlinebanking.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link Money} class and the {@link MoneyConverter} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Exact conversion from and to {@link BigDecimal}, up to the limits of a {@code long}.</li>
+ *     <li>Rejection of amounts with more than two decimal places and of amounts out of range.</li>
+ *     <li>Checked addition and subtraction at the limits.</li>
+ *     <li>Conversion to and from the database column.</li>
+ *     <li>A benchmark of the balance check and update against {@link BigDecimal}, skipped unless
+ *     {@code -Dbenchmark=true} is set.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class MoneyTest {
+
+    private static final BigDecimal MAX = new BigDecimal("92233720368547758.07");
+    private static final BigDecimal MIN = new BigDecimal("-92233720368547758.08");
+
+    /**
+     * Tests that amounts are converted exactly, whatever their scale, up to the largest and smallest amounts.
+     */
+    @Test
+    void testOf_ExactAtLimits() {
+        assertEquals(Long.MAX_VALUE, Money.of(MAX).getMinorUnits());
+        assertEquals(Long.MIN_VALUE, Money.of(MIN).getMinorUnits());
+        assertEquals(MAX, Money.of(MAX).toBigDecimal());
+        assertEquals(MIN, Money.ofMinorUnits(Long.MIN_VALUE).toBigDecimal());
+        assertEquals(1_000L, Money.of(new BigDecimal("10")).getMinorUnits());
+        assertEquals(1_050L, Money.of(new BigDecimal("10.500")).getMinorUnits());
+        assertEquals(new BigDecimal("10.50"), Money.of(new BigDecimal("10.5")).toBigDecimal());
+        assertEquals("0.01", Money.ofMinorUnits(1).toString());
+        assertSame(Money.ZERO, Money.of(new BigDecimal("0.000")));
+    }
+
+    /**
+     * Tests that amounts that cannot be held exactly are rejected instead of rounded or wrapped around.
+     */
+    @Test
+    void testOf_Rejections() {
+        RuntimeException scale = assertThrows(RuntimeException.class, () -> Money.of(new BigDecimal("0.001")));
+        assertEquals("Amount must have at most 2 decimal places", scale.getMessage());
+
+        RuntimeException range = assertThrows(RuntimeException.class, () -> Money.of(MAX.add(new BigDecimal("0.01"))));
+        assertEquals("Amount out of range", range.getMessage());
+        assertThrows(RuntimeException.class, () -> Money.of(MIN.subtract(new BigDecimal("0.01"))));
+    }
+
+    /**
+     * Tests that addition and subtraction are exact up to the limits and rejected beyond them.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Act: Add and subtract amounts that reach the limits exactly, then amounts that go one cent beyond.</li>
+     *     <li>Assert: Verify the exact results, and that the others are rejected.</li>
+     * </ol>
+     */
+    @Test
+    void testArithmetic_CheckedAtLimits() {
+        // Act & Assert
+        assertEquals(Long.MAX_VALUE, Money.add(Long.MAX_VALUE - 1, 1));
+        assertEquals(Long.MIN_VALUE, Money.subtract(Long.MIN_VALUE + 1, 1));
+        assertEquals(Money.of(MAX), Money.of(MAX).minus(Money.ofMinorUnits(1)).plus(Money.ofMinorUnits(1)));
+
+        RuntimeException overflow = assertThrows(RuntimeException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertEquals("Amount out of range", overflow.getMessage());
+        assertThrows(RuntimeException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+        assertThrows(RuntimeException.class, () -> Money.subtract(0, Long.MIN_VALUE));
+        assertThrows(RuntimeException.class, () -> Money.of(MAX).plus(Money.ofMinorUnits(1)));
+
+        assertTrue(Money.ofMinorUnits(99).isLessThan(Money.ofMinorUnits(100)));
+        assertEquals(0, Money.of(new BigDecimal("1.0")).compareTo(Money.of(BigDecimal.ONE)));
+        assertEquals(Money.of(new BigDecimal("1.0")), Money.of(BigDecimal.ONE));
+    }
+
+    /**
+     * Tests that the converter maps amounts to two-decimal column values and back, including {@code null}.
+     */
+    @Test
+    void testConverter_RoundTrip() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("1234.50"), converter.convertToDatabaseColumn(Money.of(new BigDecimal("1234.5"))));
+        assertEquals(Money.ofMinorUnits(123_450), converter.convertToEntityAttribute(new BigDecimal("1234.50")));
+        assertEquals(Money.of(MAX), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(Money.of(MAX))));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    /**
+     * Measures the balance check and update of a transfer, as done by the transfer service, with {@link BigDecimal}
+     * balances and with minor units on an {@link Account}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkBalanceUpdate() {
+        int iterations = 20_000_000;
+        BigDecimal amount = new BigDecimal("0.01");
+        long transferred = Money.toMinorUnits(amount);
+        Account from = new Account();
+        Account to = new Account();
+
+        for (int round = 0; round < 2; round++) {
+            BigDecimal fromBalance = new BigDecimal("1000000000.00");
+            BigDecimal toBalance = BigDecimal.ZERO;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                if (fromBalance.compareTo(amount) < 0) {
+                    throw new IllegalStateException("Insufficient balance");
+                }
+                fromBalance = fromBalance.subtract(amount);
+                toBalance = toBalance.add(amount);
+            }
+            long bigDecimal = System.nanoTime() - start;
+
+            from.setBalance(new BigDecimal("1000000000.00"));
+            to.setBalance(BigDecimal.ZERO);
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                long available = from.getBalanceMinorUnits();
+                if (available < transferred) {
+                    throw new IllegalStateException("Insufficient balance");
+                }
+                from.setBalanceMinorUnits(Money.subtract(available, transferred));
+                to.setBalanceMinorUnits(Money.add(to.getBalanceMinorUnits(), transferred));
+            }
+            long money = System.nanoTime() - start;
+
+            assertEquals(0, fromBalance.compareTo(from.getBalance()));
+            assertEquals(0, toBalance.compareTo(to.getBalance()));
+            if (round == 1) {
+                System.out.printf("Balance check and update: BigDecimal %.2f ns/op, Money %.2f ns/op%n",
+                        (double) bigDecimal / iterations, (double) money / iterations);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.onlinebanking.model;
+
+import com.example.onlinebanking.model.dto.TransactionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link TransactionRecord} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Encoding a transaction and decoding every field back, at an offset within a buffer.</li>
+ *     <li>Encoding a transaction without accounts.</li>
+ *     <li>Encoding deposits and withdrawals, which have a single account.</li>
+ *     <li>Rejecting amounts with more than two decimal places, unknown types and records that do not fit.</li>
+ *     <li>A size and speed comparison with Jackson JSON, skipped unless {@code -Dbenchmark=true} is set.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class TransactionRecordTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2023, 10, 1, 12, 30, 15, 123_456_000);
+
+    /**
+     * Tests that every field of a transaction survives encoding and decoding, and that the record is written in place.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Build a transfer between two accounts.</li>
+     *     <li>Act: Write it as the second record of a buffer.</li>
+     *     <li>Assert: Verify every field and that the position of the buffer did not move.</li>
+     * </ol>
+     */
+    @Test
+    void testWrite_RoundTrip() {
+        // Arrange
+        Transaction transaction = transfer(42L, account(7L), account(8L), new BigDecimal("1234.5"));
+        ByteBuffer buffer = ByteBuffer.allocate(2 * TransactionRecord.SIZE);
+
+        // Act
+        TransactionRecord record = new TransactionRecord().wrap(buffer, TransactionRecord.SIZE);
+        record.write(transaction);
+
+        // Assert
+        assertEquals(0, buffer.position());
+        assertEquals(42L, record.getId());
+        assertEquals(7L, record.getFromAccountId());
+        assertEquals(8L, record.getToAccountId());
+        assertEquals(123_450L, record.getAmountMinorUnits());
+        assertEquals(new BigDecimal("1234.50"), record.getAmount());
+        assertEquals(TIMESTAMP, record.getTimestamp());
+        assertEquals(TransactionRecord.TYPE_TRANSFER, record.getTypeCode());
+        assertEquals("TRANSFER", record.getType());
+        assertEquals(0L, new TransactionRecord().wrap(buffer, 0).getId());
+    }
+
+    /**
+     * Tests that a transaction without accounts and ID is written with zeros, in little-endian order as well.
+     */
+    @Test
+    void testWrite_WithoutAccounts() {
+        ByteBuffer buffer = ByteBuffer.allocate(TransactionRecord.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        TransactionRecord record = new TransactionRecord().wrap(buffer, 0);
+        record.write(transfer(null, null, null, new BigDecimal("0.01")));
+
+        assertEquals(0L, record.getId());
+        assertEquals(0L, record.getFromAccountId());
+        assertEquals(0L, record.getToAccountId());
+        assertEquals(1L, record.getAmountMinorUnits());
+        assertEquals(1, buffer.get(24));
+    }
+
+    /**
+     * Tests that a deposit, which has no source account, survives encoding and decoding.
+     */
+    @Test
+    void testWrite_DepositRoundTrip() {
+        Transaction deposit = transfer(43L, null, account(8L), new BigDecimal("250.00"));
+        deposit.setType("DEPOSIT");
+        TransactionRecord record = new TransactionRecord().wrap(ByteBuffer.allocate(TransactionRecord.SIZE), 0);
+
+        record.write(deposit);
+
+        assertEquals(43L, record.getId());
+        assertEquals(0L, record.getFromAccountId());
+        assertEquals(8L, record.getToAccountId());
+        assertEquals(new BigDecimal("250.00"), record.getAmount());
+        assertEquals(TIMESTAMP, record.getTimestamp());
+        assertEquals(TransactionRecord.TYPE_DEPOSIT, record.getTypeCode());
+        assertEquals("DEPOSIT", record.getType());
+    }
+
+    /**
+     * Tests that a withdrawal, which has no destination account, survives encoding and decoding.
+     */
+    @Test
+    void testWrite_WithdrawalRoundTrip() {
+        Transaction withdrawal = transfer(44L, account(7L), null, new BigDecimal("99.99"));
+        withdrawal.setType("WITHDRAWAL");
+        TransactionRecord record = new TransactionRecord().wrap(ByteBuffer.allocate(TransactionRecord.SIZE), 0);
+
+        record.write(withdrawal);
+
+        assertEquals(44L, record.getId());
+        assertEquals(7L, record.getFromAccountId());
+        assertEquals(0L, record.getToAccountId());
+        assertEquals(new BigDecimal("99.99"), record.getAmount());
+        assertEquals(TIMESTAMP, record.getTimestamp());
+        assertEquals(TransactionRecord.TYPE_WITHDRAWAL, record.getTypeCode());
+        assertEquals("WITHDRAWAL", record.getType());
+    }
+
+    /**
+     * Tests that values the format cannot hold are rejected.
+     */
+    @Test
+    void testWrite_Rejections() {
+        TransactionRecord record = new TransactionRecord().wrap(ByteBuffer.allocate(TransactionRecord.SIZE), 0);
+
+        RuntimeException scale = assertThrows(RuntimeException.class,
+                () -> record.write(transfer(1L, account(7L), account(8L), new BigDecimal("0.001"))));
+        assertEquals("Amount must have at most 2 decimal places", scale.getMessage());
+
+        Transaction refund = transfer(1L, null, account(8L), BigDecimal.ONE);
+        refund.setType("REFUND");
+        RuntimeException type = assertThrows(RuntimeException.class, () -> record.write(refund));
+        assertEquals("Unknown transaction type REFUND", type.getMessage());
+
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> new TransactionRecord().wrap(ByteBuffer.allocate(TransactionRecord.SIZE), 1));
+    }
+
+    /**
+     * Compares the size of a record and the time to encode and decode it with Jackson JSON of a
+     * {@link TransactionDTO}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstJackson() throws Exception {
+        int iterations = 2_000_000;
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Transaction transaction = transfer(123_456_789L, account(1_000_001L), account(1_000_002L),
+                new BigDecimal("1234.56"));
+        TransactionDTO dto = new TransactionDTO(transaction.getId(), "ACC-1000001", "ACC-1000002",
+                transaction.getAmount().toBigDecimal(), transaction.getType(), transaction.getTimestamp());
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * TransactionRecord.SIZE);
+        TransactionRecord record = new TransactionRecord();
+        long checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                record.wrap(buffer, (i & 1023) * TransactionRecord.SIZE).write(transaction);
+            }
+            long encode = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                record.wrap(buffer, (i & 1023) * TransactionRecord.SIZE);
+                checksum += record.getAmountMinorUnits() + record.getTimestamp().getNano() + record.getToAccountId();
+            }
+            long decode = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.printf("Binary record: %d bytes, encode %.1f ns/op, decode %.1f ns/op%n",
+                        TransactionRecord.SIZE, (double) encode / iterations, (double) decode / iterations);
+            }
+        }
+
+        byte[] json = objectMapper.writeValueAsBytes(dto);
+        int jsonIterations = iterations / 10;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < jsonIterations; i++) {
+                checksum += objectMapper.writeValueAsBytes(dto).length;
+            }
+            long encode = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < jsonIterations; i++) {
+                TransactionDTO decoded = objectMapper.readValue(json, TransactionDTO.class);
+                checksum += decoded.getAmount().unscaledValue().longValue() + decoded.getTimestamp().getNano();
+            }
+            long decode = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.printf("Jackson JSON:  %d bytes, encode %.1f ns/op, decode %.1f ns/op%n",
+                        json.length, (double) encode / jsonIterations, (double) decode / jsonIterations);
+            }
+        }
+        assertNotEquals(0, checksum);
+    }
+
+    private Transaction transfer(Long id, Account from, Account to, BigDecimal amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setFromAccount(from);
+        transaction.setToAccount(to);
+        transaction.setAmount(Money.of(amount));
+        transaction.setType("TRANSFER");
+        transaction.setTimestamp(TIMESTAMP);
+        return transaction;
+    }
+
+    private Account account(Long id) {
+        Account account = new Account();
+        account.setId(id);
+        return account;
+    }
+}
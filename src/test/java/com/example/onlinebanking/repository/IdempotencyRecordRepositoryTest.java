@@ -0,0 +1,90 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.IdempotencyRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit 5 test class for {@link IdempotencyRecordRepository}.
+ *
+ * <p>Key test cases include:
+ * <ul>
+ *     <li>Finding a record by owner and idempotency key</li>
+ *     <li>Rejecting a second claim of the same key by the unique constraint</li>
+ *     <li>Allowing the same key for different owners</li>
+ *     <li>Deleting expired records</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest
+class IdempotencyRecordRepositoryTest {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    /**
+     * Tests that a claimed key is found by its owner and key, and not by another owner.
+     */
+    @Test
+    void testFindByOwnerAndIdempotencyKey() {
+        // Arrange
+        idempotencyRecordRepository.saveAndFlush(record("john_doe", "key-1", LocalDateTime.now()));
+
+        // Act & Assert
+        assertTrue(idempotencyRecordRepository.findByOwnerAndIdempotencyKey("john_doe", "key-1").isPresent());
+        assertTrue(idempotencyRecordRepository.findByOwnerAndIdempotencyKey("jane_doe", "key-1").isEmpty());
+    }
+
+    /**
+     * Tests that the unique constraint rejects a second claim of the same key by the same owner,
+     * while another owner may use the same key.
+     */
+    @Test
+    void testSave_DuplicateKeyRejected() {
+        // Arrange
+        idempotencyRecordRepository.saveAndFlush(record("john_doe", "key-1", LocalDateTime.now()));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> idempotencyRecordRepository.saveAndFlush(record("jane_doe", "key-1", LocalDateTime.now())));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> idempotencyRecordRepository.saveAndFlush(record("john_doe", "key-1", LocalDateTime.now())));
+    }
+
+    /**
+     * Tests that {@link IdempotencyRecordRepository#deleteCreatedBefore(LocalDateTime)} only deletes older records.
+     */
+    @Test
+    void testDeleteCreatedBefore() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRecordRepository.saveAndFlush(record("john_doe", "old", now.minusDays(2)));
+        idempotencyRecordRepository.saveAndFlush(record("john_doe", "new", now));
+
+        // Act
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(now.minusDays(1));
+
+        // Assert
+        assertEquals(1, deleted);
+        assertTrue(idempotencyRecordRepository.findByOwnerAndIdempotencyKey("john_doe", "old").isEmpty());
+        assertTrue(idempotencyRecordRepository.findByOwnerAndIdempotencyKey("john_doe", "new").isPresent());
+    }
+
+    private static IdempotencyRecord record(String owner, String key, LocalDateTime createdAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setOwner(owner);
+        record.setIdempotencyKey(key);
+        record.setFingerprint("123456:654321:100");
+        record.setStatus(IdempotencyRecord.COMPLETED);
+        record.setCreatedAt(createdAt);
+        return record;
+    }
+}
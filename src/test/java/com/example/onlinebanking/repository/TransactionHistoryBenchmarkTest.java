@@ -0,0 +1,118 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.model.dto.TransactionHistoryView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * History lookup benchmark on a large ledger, skipped unless {@code -Dbenchmark=true} is set.
+ *
+ * <p>The ledger is filled with {@code -Dbenchmark.rows} transactions (10,000,000 by default) spread over
+ * {@value #ACCOUNTS} accounts. The benchmark then reads the newest {@value #PAGE_SIZE} transactions of random accounts
+ * with the original {@code from_account_id OR to_account_id} filter and with
+ * {@link TransactionRepository#findHistory(Long, int)}, which merges two index range scans, and prints the mean
+ * latency of both.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionHistoryBenchmarkTest {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int LOOKUPS = 200;
+
+    private static final String OR_QUERY = """
+            select t.id from transaction t
+            where t.from_account_id = ? or t.to_account_id = ?
+            order by t.timestamp desc, t.id desc
+            limit ?""";
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates the accounts and fills the ledger with generated rows.
+     */
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("history");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        jdbcTemplate.update("""
+                insert into account (id, account_number, balance, user_id, version)
+                select x, 'HIST-' || x, 0, ?, 0 from system_range(1, ?)""", user.getId(), ACCOUNTS);
+        long rows = Long.getLong("benchmark.rows", 10_000_000L);
+        long start = System.nanoTime();
+        jdbcTemplate.update("""
+                insert into transaction (id, amount, type, timestamp, from_account_id, to_account_id)
+                select x, 1, 'TRANSFER', dateadd('SECOND', x, timestamp '2023-01-01 00:00:00'),
+                       mod(x, ?) + 1, mod(x * 7 + 3, ?) + 1
+                from system_range(1, ?)""", ACCOUNTS, ACCOUNTS, rows);
+        System.out.printf("Loaded %d ledger rows in %.1fs%n", rows, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    /**
+     * Removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("truncate table transaction");
+        jdbcTemplate.update("delete from account");
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Compares the latency of the OR filter with the merged index range scans, and checks that both return the same rows.
+     */
+    @Test
+    void benchmarkHistoryLookup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long orNanos = 0;
+        long unionNanos = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            long accountId = random.nextLong(1, ACCOUNTS + 1);
+
+            long start = System.nanoTime();
+            List<Long> expected = jdbcTemplate.queryForList(OR_QUERY, Long.class, accountId, accountId, PAGE_SIZE);
+            orNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Long> actual = transactionRepository.findHistory(accountId, PAGE_SIZE).stream()
+                    .map(TransactionHistoryView::getId)
+                    .toList();
+            unionNanos += System.nanoTime() - start;
+
+            assertEquals(expected, actual, "History differs for account " + accountId);
+        }
+        System.out.printf("History lookup (%d rows): OR filter %.2f ms, merged index scans %.2f ms%n",
+                PAGE_SIZE, orNanos / 1_000_000.0 / LOOKUPS, unionNanos / 1_000_000.0 / LOOKUPS);
+    }
+}
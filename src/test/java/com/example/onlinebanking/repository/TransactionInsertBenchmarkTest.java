@@ -0,0 +1,137 @@
+package com.example.onlinebanking.repository;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.Money;
+import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Insert throughput benchmark for the transaction ledger table, skipped unless {@code -Dbenchmark=true} is set.
+ *
+ * <p>The same number of rows is written twice through {@link TransactionRepository#saveAll(Iterable)}:
+ * <ul>
+ *     <li>with a JDBC batch size of 1, i.e. one round trip per row as with the former {@code IDENTITY} ids;</li>
+ *     <li>with the configured {@code hibernate.jdbc.batch_size} and sequence ids allocated in blocks.</li>
+ * </ul>
+ * Both runs print their inserts per second.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=pooled-lo"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionInsertBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Account fromAccount;
+
+    private Account toAccount;
+
+    /**
+     * Creates the two accounts referenced by every inserted transaction.
+     */
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+        fromAccount = newAccount("BENCH-1", user);
+        toAccount = newAccount("BENCH-2", user);
+    }
+
+    /**
+     * Removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAllInBatch();
+        accountRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    /**
+     * Measures ledger inserts per second without and with JDBC batching.
+     */
+    @Test
+    void benchmarkLedgerInserts() {
+        double unbatched = insertRows(1);
+        double batched = insertRows(50);
+        System.out.printf("Ledger inserts: %.0f rows/sec unbatched, %.0f rows/sec batched (x%.1f)%n",
+                unbatched, batched, batched / unbatched);
+        assertEquals(2L * ROWS, transactionRepository.count());
+    }
+
+    private double insertRows(int jdbcBatchSize) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        for (int written = 0; written < ROWS; written += ROWS_PER_TRANSACTION) {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                List<Transaction> transactions = new ArrayList<>(ROWS_PER_TRANSACTION);
+                for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                    Transaction transaction = new Transaction();
+                    transaction.setAmount(Money.of(BigDecimal.ONE));
+                    transaction.setType("TRANSFER");
+                    transaction.setTimestamp(LocalDateTime.now());
+                    transaction.setFromAccount(fromAccount);
+                    transaction.setToAccount(toAccount);
+                    transactions.add(transaction);
+                }
+                transactionRepository.saveAll(transactions);
+            });
+        }
+        return ROWS / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private Account newAccount(String accountNumber, User user) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setBalance(BigDecimal.ZERO);
+        account.setUser(user);
+        return accountRepository.save(account);
+    }
+}
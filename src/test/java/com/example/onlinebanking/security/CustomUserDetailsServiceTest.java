@@ -1,6 +1,7 @@
 package com.example.onlinebanking.security;
 
 import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.AccountRepository;
 import com.example.onlinebanking.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +33,9 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AccountRepository accountRepository;
+
     @InjectMocks
     private CustomUserDetailsService customUserDetailsService;
 
@@ -51,9 +56,10 @@ class CustomUserDetailsServiceTest {
      *
      * <p>Steps:
      * <ol>
-     *   <li>Arrange: Create a user and mock the {@link UserRepository} to return the user when queried by username.</li>
+     *   <li>Arrange: Create a user and mock the {@link UserRepository} to return the user when queried by username,
+     *       and the {@link AccountRepository} to return the IDs of its accounts.</li>
      *   <li>Act: Call the {@link CustomUserDetailsService#loadUserByUsername(String)} method.</li>
-     *   <li>Assert: Verify that the returned {@link CustomUserDetails} object is not null and contains the correct username.</li>
+     *   <li>Assert: Verify that the returned {@link CustomUserDetails} object is not null and contains the correct username and account IDs.</li>
      * </ol>
      * </p>
      */
@@ -62,11 +68,13 @@ class CustomUserDetailsServiceTest {
         // Arrange
         String username = "john_doe";
         User user = new User();
+        user.setId(7L);
         user.setUsername(username);
         user.setPassword("password123");
 
-        // Mock the repository method
+        // Mock the repository methods
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(accountRepository.findIdsByUserId(7L)).thenReturn(List.of(1L, 2L));
 
         // Act
         CustomUserDetails result = customUserDetailsService.loadUserByUsername(username);
@@ -74,6 +82,7 @@ class CustomUserDetailsServiceTest {
         // Assert
         assertNotNull(result, "UserDetails should not be null");
         assertEquals(username, result.getUsername(), "The username should match");
+        assertEquals(List.of(1L, 2L), result.getAccountIds(), "The account IDs should match");
     }
 
     /**
@@ -0,0 +1,135 @@
+package com.example.onlinebanking.security;
+
+import com.example.onlinebanking.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link JwtAuthenticationFilter} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Authenticating a request from the claims of a valid bearer token.</li>
+ *     <li>Leaving a request with a tampered token unauthenticated.</li>
+ *     <li>Leaving a request without a bearer token unauthenticated.</li>
+ * </ul>
+ *
+ * <p>The filter has no access to the database, so every request it authenticates is served from the token alone.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class JwtAuthenticationFilterTest {
+
+    private JwtUtil jwtUtil;
+
+    private JwtAuthenticationFilter filter;
+
+    private String token;
+
+    /**
+     * Sets up the filter and issues a token for a user owning two accounts.
+     */
+    @BeforeEach
+    void setUp() {
+        JwtKeyRegistry keyRegistry = new JwtKeyRegistry();
+        keyRegistry.init();
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "keyRegistry", keyRegistry);
+        filter = new JwtAuthenticationFilter(jwtUtil);
+
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("john_doe");
+        user.setPassword("password");
+        user.setRole("USER");
+        token = jwtUtil.generateToken(new CustomUserDetails(user, List.of(1L, 2L)));
+    }
+
+    /**
+     * Clears the security context after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Tests that a request with a valid bearer token is authenticated from the token's claims.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Create a request carrying the token in its {@code Authorization} header.</li>
+     *     <li>Act: Run the filter.</li>
+     *     <li>Assert: Verify the principal, role and account IDs, and that the chain continued.</li>
+     * </ol>
+     */
+    @Test
+    void testDoFilter_ValidToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication, "The request should be authenticated");
+        JwtPrincipal principal = (JwtPrincipal) authentication.getPrincipal();
+        assertEquals(new JwtPrincipal(7L, "john_doe", "USER", List.of(1L, 2L)), principal);
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+        assertNotNull(chain.getRequest(), "The filter chain should continue");
+    }
+
+    /**
+     * Tests that a request with a tampered token is passed on unauthenticated.
+     */
+    @Test
+    void testDoFilter_TamperedToken() throws Exception {
+        // Arrange
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tamperedToken = token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + tamperedToken);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication(), "The request should not be authenticated");
+        assertNotNull(chain.getRequest(), "The filter chain should continue");
+    }
+
+    /**
+     * Tests that a request without a bearer token is passed on unauthenticated.
+     */
+    @Test
+    void testDoFilter_NoToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication(), "The request should not be authenticated");
+        assertNotNull(chain.getRequest(), "The filter chain should continue");
+    }
+}
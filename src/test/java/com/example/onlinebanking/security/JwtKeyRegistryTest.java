@@ -0,0 +1,111 @@
+package com.example.onlinebanking.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link JwtKeyRegistry} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Keeping a replaced key for verification, and dropping it once its tokens have expired.</li>
+ *     <li>Publishing RSA and EC public keys as a JSON Web Key Set.</li>
+ *     <li>Never publishing an HMAC secret.</li>
+ *     <li>Rejecting an unsupported algorithm, and HS256 without a secret.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class JwtKeyRegistryTest {
+
+    /**
+     * Tests that a rotated key still verifies until its tokens have expired.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Create an ES256 registry whose tokens expire immediately.</li>
+     *     <li>Act: Rotate the key twice.</li>
+     *     <li>Assert: Verify that the first key was kept by the first rotation and dropped by the second.</li>
+     * </ol>
+     */
+    @Test
+    void testRotate_RetiresReplacedKeys() {
+        // Arrange
+        JwtKeyRegistry registry = registry("ES256", "");
+        ReflectionTestUtils.setField(registry, "accessTokenTtlSeconds", -61L);
+        SigningKey first = registry.current();
+
+        // Act
+        registry.rotate();
+        SigningKey second = registry.current();
+        boolean firstKeptAfterFirstRotation = registry.find(first.kid()).isPresent();
+        registry.rotate();
+
+        // Assert
+        assertNotEquals(first.kid(), second.kid());
+        assertTrue(firstKeptAfterFirstRotation, "A replaced key should verify until its tokens expire");
+        assertTrue(registry.find(first.kid()).isEmpty(), "A retired key should be dropped once its tokens expired");
+        assertTrue(registry.find(second.kid()).isPresent());
+    }
+
+    /**
+     * Tests that RSA and EC public keys are published with their key IDs.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testJwks_PublishesPublicKeys() {
+        // Arrange
+        JwtKeyRegistry rsa = registry("RS256", "");
+        JwtKeyRegistry ec = registry("ES256", "");
+
+        // Act
+        List<Map<String, Object>> rsaKeys = (List<Map<String, Object>>) rsa.jwks().get("keys");
+        List<Map<String, Object>> ecKeys = (List<Map<String, Object>>) ec.jwks().get("keys");
+
+        // Assert
+        assertEquals(1, rsaKeys.size());
+        assertEquals("RSA", rsaKeys.get(0).get("kty"));
+        assertEquals("AQAB", rsaKeys.get(0).get("e"));
+        assertEquals(rsa.current().kid(), rsaKeys.get(0).get("kid"));
+        assertEquals("RS256", rsaKeys.get(0).get("alg"));
+
+        assertEquals(1, ecKeys.size());
+        assertEquals("P-256", ecKeys.get(0).get("crv"));
+        assertEquals(43, ((String) ecKeys.get(0).get("x")).length(), "Coordinates should be 32 bytes long");
+        assertEquals(43, ((String) ecKeys.get(0).get("y")).length(), "Coordinates should be 32 bytes long");
+    }
+
+    /**
+     * Tests that an HMAC secret is never published.
+     */
+    @Test
+    void testJwks_HidesHmacSecret() {
+        JwtKeyRegistry registry = registry("HS256", "c2VjcmV0");
+        assertEquals(List.of(), registry.jwks().get("keys"));
+    }
+
+    /**
+     * Tests that an unsupported algorithm and HS256 without a secret are rejected at startup.
+     */
+    @Test
+    void testInit_InvalidConfiguration() {
+        assertThrows(IllegalStateException.class, () -> registry("none", ""));
+        assertThrows(IllegalStateException.class, () -> registry("HS512", "c2VjcmV0"));
+        assertThrows(IllegalStateException.class, () -> registry("HS256", ""));
+    }
+
+    private static JwtKeyRegistry registry(String algorithm, String secret) {
+        JwtKeyRegistry registry = new JwtKeyRegistry();
+        ReflectionTestUtils.setField(registry, "algorithm", algorithm);
+        ReflectionTestUtils.setField(registry, "secret", secret);
+        registry.init();
+        return registry;
+    }
+}
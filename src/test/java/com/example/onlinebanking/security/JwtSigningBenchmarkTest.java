@@ -0,0 +1,66 @@
+package com.example.onlinebanking.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Token signing and verification throughput of each signing algorithm, skipped unless {@code -Dbenchmark=true} is set.
+ *
+ * <p>Every login and refresh signs one token, and every request with a token not yet in the cache of verified tokens
+ * verifies one. Each token is distinct so that the cache of verified tokens is bypassed. The tokens signed and verified
+ * per second on a single thread are printed for HS256, RS256 and ES256.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtSigningBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int TOKENS = 20_000;
+
+    /**
+     * Prints the signatures and verifications per second of each algorithm.
+     */
+    @Test
+    void benchmarkTokenSigning() {
+        measure("HS256", JwtUtilTest.keyRegistry("HS256", "c2VjcmV0"));
+        measure("RS256", JwtUtilTest.keyRegistry("RS256", ""));
+        measure("ES256", JwtUtilTest.keyRegistry("ES256", ""));
+    }
+
+    private void measure(String name, JwtKeyRegistry keyRegistry) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "keyRegistry", keyRegistry);
+        for (int i = 0; i < WARMUP; i++) {
+            jwtUtil.verify(jwtUtil.generateToken(principal(i)));
+        }
+
+        String[] tokens = new String[TOKENS];
+        long start = System.nanoTime();
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtUtil.generateToken(principal(i));
+        }
+        long signNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < TOKENS; i++) {
+            assertEquals("user" + i, jwtUtil.verify(tokens[i]).getSubject());
+        }
+        long verifyNanos = System.nanoTime() - start;
+
+        System.out.printf("Token signing (%s): %,.0f signatures/s, %,.0f verifications/s, %d-character tokens%n",
+                name, TOKENS * 1_000_000_000.0 / signNanos, TOKENS * 1_000_000_000.0 / verifyNanos,
+                tokens[0].length());
+    }
+
+    private static JwtPrincipal principal(int i) {
+        return new JwtPrincipal((long) i, "user" + i, "USER", List.of((long) i));
+    }
+}
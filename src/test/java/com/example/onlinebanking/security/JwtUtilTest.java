@@ -1,18 +1,20 @@
 package com.example.onlinebanking.security;
 
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 /**
  * Test class for {@link JwtUtil}.
  * This class tests the functionality of the JwtUtil class, including token generation,
@@ -26,6 +28,10 @@ import static org.mockito.Mockito.when;
  *     <li>Validating a token for a valid user.</li>
  *     <li>Validating a token for an invalid user.</li>
  *     <li>Validating an expired token.</li>
+ *     <li>Verifying the signature of a token only once across repeated validations.</li>
+ *     <li>Rejecting a token whose signature does not match.</li>
+ *     <li>Signing with an RS256 key named by the {@code kid} header.</li>
+ *     <li>Rejecting a token whose algorithm differs from the algorithm of its key.</li>
  * </ul>
  *
  * <p>This class uses Mockito to mock dependencies and JWT (JSON Web Token) utilities
@@ -50,12 +56,14 @@ class JwtUtilTest {
             .compact();
 
     /**
-     * Initializes the test environment by setting up mocks.
+     * Initializes the test environment by setting up mocks, and an HS256 key registry with the secret
+     * the test tokens are signed with.
      * This method is executed before each test case to ensure a clean test environment.
      */
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(jwtUtil, "keyRegistry", keyRegistry("HS256", SECRET_KEY));
     }
 
     /**
@@ -200,4 +208,125 @@ class JwtUtilTest {
         // Assert
         assertFalse(isValid, "The token should be invalid if it is expired");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that repeated validations of the same token verify its signature only once.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Spy on {@link JwtUtil} and mock the {@link UserDetails}.</li>
+     *     <li>Act: Validate the same token three times and extract its username.</li>
+     *     <li>Assert: Verify that every call succeeds and the token was parsed and verified once.</li>
+     * </ol>
+     */
+    @Test
+    void testValidateToken_VerifiesSignatureOnce() {
+        // Arrange
+        JwtUtil cachingJwtUtil = spy(new JwtUtil());
+        ReflectionTestUtils.setField(cachingJwtUtil, "keyRegistry", keyRegistry("HS256", SECRET_KEY));
+        UserDetails userDetails = mock(UserDetails.class);
+        when(userDetails.getUsername()).thenReturn(USERNAME);
+
+        // Act
+        boolean first = cachingJwtUtil.validateToken(TOKEN, userDetails);
+        boolean second = cachingJwtUtil.validateToken(TOKEN, userDetails);
+        boolean third = cachingJwtUtil.validateToken(TOKEN, userDetails);
+        String extractedUsername = cachingJwtUtil.extractUsername(TOKEN);
+
+        // Assert
+        assertTrue(first && second && third, "The token should be valid on every call");
+        assertEquals(USERNAME, extractedUsername, "The cached claims should contain the correct username");
+        verify(cachingJwtUtil, times(1)).verify(TOKEN);
+    }
+
+    /**
+     * Tests that a token with a tampered payload is rejected, even when the original token was already verified.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Validate the original token, then replace its payload while keeping its signature.</li>
+     *     <li>Act: Call the {@link JwtUtil#validateToken(String, UserDetails)} method with the tampered token.</li>
+     *     <li>Assert: Verify that a {@link SignatureException} is thrown.</li>
+     * </ol>
+     */
+    @Test
+    void testValidateToken_TamperedToken() {
+        // Arrange
+        UserDetails userDetails = mock(UserDetails.class);
+        when(userDetails.getUsername()).thenReturn("mallory");
+        jwtUtil.validateToken(TOKEN, userDetails);
+        String otherToken = Jwts.builder()
+                .setSubject("mallory")
+                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
+                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .compact();
+        String[] original = TOKEN.split("\\.");
+        String[] other = otherToken.split("\\.");
+        String tamperedToken = original[0] + "." + other[1] + "." + original[2];
+
+        // Act & Assert
+        assertThrows(SignatureException.class, () -> jwtUtil.validateToken(tamperedToken, userDetails),
+                "A token with a tampered payload should be rejected");
+    }
+
+    /**
+     * Tests that tokens are signed with the current key of an RS256 registry and verified by its {@code kid}.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Use an RS256 key registry and mock the {@link CustomUserDetails}.</li>
+     *     <li>Act: Generate a token and validate it.</li>
+     *     <li>Assert: Verify the {@code kid} and {@code alg} headers, and that the token is valid.</li>
+     * </ol>
+     */
+    @Test
+    void testGenerateToken_Rs256() {
+        // Arrange
+        JwtKeyRegistry registry = keyRegistry("RS256", "");
+        ReflectionTestUtils.setField(jwtUtil, "keyRegistry", registry);
+        CustomUserDetails userDetails = mock(CustomUserDetails.class);
+        when(userDetails.getUsername()).thenReturn(USERNAME);
+
+        // Act
+        String generatedToken = jwtUtil.generateToken(userDetails);
+
+        // Assert
+        JwsHeader<?> header = Jwts.parser().setSigningKey(registry.current().verificationKey())
+                .parseClaimsJws(generatedToken).getHeader();
+        assertEquals(registry.current().kid(), header.getKeyId());
+        assertEquals("RS256", header.getAlgorithm());
+        assertTrue(jwtUtil.validateToken(generatedToken, userDetails));
+    }
+
+    /**
+     * Tests that an HS256 token naming an RS256 key is rejected, even when its HMAC is computed over the public key.
+     */
+    @Test
+    void testValidateToken_AlgorithmMismatch() {
+        // Arrange
+        JwtKeyRegistry registry = keyRegistry("RS256", "");
+        ReflectionTestUtils.setField(jwtUtil, "keyRegistry", registry);
+        String forgedToken = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, registry.current().kid())
+                .setSubject(USERNAME)
+                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60))
+                .signWith(SignatureAlgorithm.HS256, registry.current().verificationKey().getEncoded())
+                .compact();
+        UserDetails userDetails = mock(UserDetails.class);
+        when(userDetails.getUsername()).thenReturn(USERNAME);
+
+        // Act & Assert
+        assertThrows(SignatureException.class, () -> jwtUtil.validateToken(forgedToken, userDetails));
+    }
+
+    /**
+     * Creates a key registry for an algorithm, with a Base64 secret for HS256.
+     */
+    static JwtKeyRegistry keyRegistry(String algorithm, String secret) {
+        JwtKeyRegistry registry = new JwtKeyRegistry();
+        ReflectionTestUtils.setField(registry, "algorithm", algorithm);
+        ReflectionTestUtils.setField(registry, "secret", secret);
+        registry.init();
+        return registry;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.onlinebanking.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Token validation throughput, skipped unless {@code -Dbenchmark=true} is set.
+ *
+ * <p>The same token is validated repeatedly, as it is when a client sends it with every request:
+ * <ul>
+ *     <li>the original path builds a new parser for each claim and parses the token twice per validation;</li>
+ *     <li>the single-parse path verifies the token once per validation with the shared parser;</li>
+ *     <li>the cached path calls {@link JwtUtil#validateToken(String, UserDetails)}, which verifies the token once
+ *     and then serves it from the cache of verified tokens.</li>
+ * </ul>
+ * The number of validations per second of each path is printed.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtValidationBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int VALIDATIONS = 1_000_000;
+    private static final String SECRET_KEY = "secret";
+    private static final String USERNAME = "john_doe";
+
+    /**
+     * Compares the validations per second of the original, single-parse and cached paths.
+     */
+    @Test
+    void benchmarkTokenValidation() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "keyRegistry", JwtUtilTest.keyRegistry("HS256", SECRET_KEY));
+        UserDetails userDetails = new User(USERNAME, "password", Collections.emptyList());
+        String token = Jwts.builder()
+                .setSubject(USERNAME)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
+                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .compact();
+
+        measure("original", t -> {
+            String subject = Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(t).getBody().getSubject();
+            Date expiration = Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(t).getBody().getExpiration();
+            return subject.equals(userDetails.getUsername()) && !expiration.before(new Date());
+        }, token);
+        measure("single parse", t -> {
+            Claims claims = jwtUtil.verify(t);
+            return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
+        }, token);
+        measure("cached", t -> jwtUtil.validateToken(t, userDetails), token);
+    }
+
+    private void measure(String name, Predicate<String> validation, String token) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertTrue(validation.test(token));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < VALIDATIONS; i++) {
+            assertTrue(validation.test(token));
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("Token validation (%s): %,.0f validations/s%n", name, VALIDATIONS * 1_000_000_000.0 / nanos);
+    }
+}
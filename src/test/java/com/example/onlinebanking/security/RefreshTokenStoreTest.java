@@ -0,0 +1,154 @@
+package com.example.onlinebanking.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link RefreshTokenStore} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Rotating a refresh token, which returns the stored principal and a new token.</li>
+ *     <li>Revoking the whole family when a rotated token is presented again.</li>
+ *     <li>Rejecting expired, revoked and malformed tokens.</li>
+ *     <li>Purging expired families without a snapshot file.</li>
+ *     <li>Restoring the store from a snapshot, without the families revoked before it was written.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class RefreshTokenStoreTest {
+
+    private static final JwtPrincipal PRINCIPAL = new JwtPrincipal(7L, "john_doe", "USER", List.of(1L, 2L));
+
+    private RefreshTokenStore refreshTokenStore;
+
+    /**
+     * Creates a store without snapshots.
+     */
+    @BeforeEach
+    void setUp() {
+        refreshTokenStore = new RefreshTokenStore();
+    }
+
+    /**
+     * Tests that a refresh token is exchanged for a new one issued for the same principal.
+     */
+    @Test
+    void testRotate_ReturnsPrincipalAndNewToken() {
+        // Arrange
+        String refreshToken = refreshTokenStore.issue(PRINCIPAL);
+
+        // Act
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(refreshToken);
+
+        // Assert
+        assertEquals(PRINCIPAL, rotation.principal());
+        assertNotEquals(refreshToken, rotation.refreshToken());
+        assertEquals(PRINCIPAL, refreshTokenStore.rotate(rotation.refreshToken()).principal());
+    }
+
+    /**
+     * Tests that presenting a token a second time revokes every token of its family.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Issue a token and rotate it once.</li>
+     *     <li>Act: Present the first token again.</li>
+     *     <li>Assert: Verify that it is rejected and that the token it was rotated into no longer works either.</li>
+     * </ol>
+     */
+    @Test
+    void testRotate_ReuseRevokesFamily() {
+        // Arrange
+        String refreshToken = refreshTokenStore.issue(PRINCIPAL);
+        String rotated = refreshTokenStore.rotate(refreshToken).refreshToken();
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> refreshTokenStore.rotate(refreshToken));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenStore.rotate(rotated));
+        assertEquals(0, refreshTokenStore.size());
+    }
+
+    /**
+     * Tests that expired, revoked and malformed tokens are rejected.
+     */
+    @Test
+    void testRotate_InvalidTokens() {
+        // Arrange
+        String revoked = refreshTokenStore.issue(PRINCIPAL);
+        refreshTokenStore.revoke(revoked);
+        ReflectionTestUtils.setField(refreshTokenStore, "ttlSeconds", 0L);
+        String expired = refreshTokenStore.issue(PRINCIPAL);
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> refreshTokenStore.rotate(revoked));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenStore.rotate(expired));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenStore.rotate("not-a-token"));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenStore.rotate(null));
+    }
+
+    /**
+     * Tests that expired families are purged when no snapshot file is configured.
+     */
+    @Test
+    void testPurgeExpired_WithoutSnapshotFile() {
+        // Arrange
+        String live = refreshTokenStore.issue(PRINCIPAL);
+        ReflectionTestUtils.setField(refreshTokenStore, "ttlSeconds", 0L);
+        refreshTokenStore.issue(PRINCIPAL);
+        refreshTokenStore.issue(PRINCIPAL);
+
+        // Act
+        refreshTokenStore.purgeExpired();
+
+        // Assert
+        assertEquals(1, refreshTokenStore.size());
+        assertEquals(PRINCIPAL, refreshTokenStore.rotate(live).principal());
+    }
+
+    /**
+     * Tests that a snapshot restores the live families, and not the revoked ones.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Issue tokens for two users, revoke the second user's token, and write a snapshot.</li>
+     *     <li>Act: Start a new store from the snapshot.</li>
+     *     <li>Assert: Verify that the first token can be rotated and the revoked one cannot.</li>
+     * </ol>
+     */
+    @Test
+    void testSnapshot_RestoresLiveFamilies(@TempDir Path directory) throws Exception {
+        // Arrange
+        String snapshotFile = directory.resolve("refresh-tokens.snapshot").toString();
+        ReflectionTestUtils.setField(refreshTokenStore, "snapshotFile", snapshotFile);
+        String kept = refreshTokenStore.issue(PRINCIPAL);
+        String revoked = refreshTokenStore.issue(new JwtPrincipal(8L, "jane_doe", "USER", List.of()));
+        refreshTokenStore.revoke(revoked);
+        refreshTokenStore.snapshot();
+
+        // Act
+        RefreshTokenStore restored = new RefreshTokenStore();
+        ReflectionTestUtils.setField(restored, "snapshotFile", snapshotFile);
+        restored.start();
+
+        // Assert
+        try {
+            assertEquals(1, restored.size());
+            assertEquals(PRINCIPAL, restored.rotate(kept).principal());
+            assertThrows(BadCredentialsException.class, () -> restored.rotate(revoked));
+        } finally {
+            restored.shutdown();
+        }
+    }
+}
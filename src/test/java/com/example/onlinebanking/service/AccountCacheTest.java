@@ -0,0 +1,226 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.dto.AccountCacheStatsDTO;
+import com.example.onlinebanking.model.dto.AccountSnapshot;
+import com.example.onlinebanking.repository.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link AccountCache} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Loading an account once and serving later lookups from the cache, with hit and miss counts.</li>
+ *     <li>Publishing a new balance only when the transaction commits, and never on rollback.</li>
+ *     <li>Keeping the newer of two snapshots when updates arrive out of order.</li>
+ *     <li>Evicting accounts by ID after a bulk update commits, including when the cache is full.</li>
+ * </ul>
+ *
+ * <p>Transactions are simulated by driving {@link TransactionSynchronizationManager} directly.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class AccountCacheTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @InjectMocks
+    private AccountCache accountCache;
+
+    /**
+     * Sets up the test environment by initializing the mocks and building the cache.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        accountCache.init();
+        when(accountRepository.findSnapshotByAccountNumber("123456789"))
+                .thenReturn(Optional.of(new AccountSnapshot(1L, "123456789", 5L, new BigDecimal("100.00"), 1L)));
+    }
+
+    /**
+     * Clears any simulated transaction left by a failed test.
+     */
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Tests that an account is read from the database once and then served from the cache.
+     */
+    @Test
+    void testGet_LoadsOnceAndRecordsStats() {
+        // Act
+        accountCache.get("123456789");
+        Optional<Long> id = accountCache.findId("123456789");
+        Optional<Long> missing = accountCache.findId("missing");
+
+        // Assert
+        assertEquals(Optional.of(1L), id);
+        assertEquals(Optional.empty(), missing);
+        verify(accountRepository, times(1)).findSnapshotByAccountNumber("123456789");
+
+        AccountCacheStatsDTO stats = accountCache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+    }
+
+    /**
+     * Tests that a modified balance becomes visible at commit and not before.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Cache the account, then start a simulated transaction.</li>
+     *     <li>Act: Register the update of a modified account, then commit.</li>
+     *     <li>Assert: Verify the old balance is served until the commit and the new one afterwards.</li>
+     * </ol>
+     */
+    @Test
+    void testUpdateAfterCommit_VisibleOnlyAfterCommit() {
+        // Arrange
+        accountCache.get("123456789");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        accountCache.updateAfterCommit(account(new BigDecimal("60.00"), 2L));
+        BigDecimal beforeCommit = accountCache.get("123456789").orElseThrow().balance();
+        commit();
+
+        // Assert
+        assertEquals(new BigDecimal("100.00"), beforeCommit);
+        assertEquals(new BigDecimal("60.00"), accountCache.get("123456789").orElseThrow().balance());
+    }
+
+    /**
+     * Tests that a rolled back transaction leaves the cached balance untouched.
+     */
+    @Test
+    void testUpdateAfterCommit_IgnoredOnRollback() {
+        // Arrange
+        accountCache.get("123456789");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        accountCache.updateAfterCommit(account(new BigDecimal("60.00"), 2L));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertEquals(new BigDecimal("100.00"), accountCache.get("123456789").orElseThrow().balance());
+    }
+
+    /**
+     * Tests that an update carrying an older version does not replace a newer cached balance.
+     */
+    @Test
+    void testUpdateAfterCommit_KeepsNewerVersion() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        accountCache.updateAfterCommit(account(new BigDecimal("40.00"), 3L));
+        commit();
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        accountCache.updateAfterCommit(account(new BigDecimal("60.00"), 2L));
+        commit();
+
+        // Assert
+        assertEquals(new BigDecimal("40.00"), accountCache.get("123456789").orElseThrow().balance());
+        verify(accountRepository, never()).findSnapshotByAccountNumber(anyString());
+    }
+
+    /**
+     * Tests that a bulk update evicts the account by ID at commit, so the next read reloads it.
+     */
+    @Test
+    void testEvictAfterCommit_ReloadsAfterCommit() {
+        // Arrange
+        accountCache.get("123456789");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        accountCache.evictAfterCommit(List.of(1L));
+        accountCache.get("123456789");
+        commit();
+        accountCache.get("123456789");
+
+        // Assert
+        verify(accountRepository, times(2)).findSnapshotByAccountNumber("123456789");
+    }
+
+    /**
+     * Tests that an account that is still cached is found by ID once the cache is full, so a bulk update evicts it.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Limit the cache to three accounts, read one account repeatedly so that it stays cached, and
+     *     load fifty others through it.</li>
+     *     <li>Act: Evict the first account by ID after its balance changed in the database, and read it again.</li>
+     *     <li>Assert: Verify that the new balance is read from the database.</li>
+     * </ol>
+     */
+    @Test
+    void testEvictById_FullCache() {
+        // Arrange
+        ReflectionTestUtils.setField(accountCache, "maxSize", 3L);
+        accountCache.init();
+        when(accountRepository.findSnapshotByAccountNumber(startsWith("OTHER-"))).thenAnswer(invocation -> {
+            String accountNumber = invocation.getArgument(0);
+            long id = 100 + Long.parseLong(accountNumber.substring("OTHER-".length()));
+            return Optional.of(new AccountSnapshot(id, accountNumber, 5L, BigDecimal.ONE, 1L));
+        });
+        for (int i = 0; i < 50; i++) {
+            accountCache.get("123456789");
+            accountCache.get("123456789");
+            accountCache.get("OTHER-" + i);
+        }
+        when(accountRepository.findSnapshotByAccountNumber("123456789"))
+                .thenReturn(Optional.of(new AccountSnapshot(1L, "123456789", 5L, new BigDecimal("60.00"), 2L)));
+
+        // Act
+        accountCache.evictById(1L);
+        AccountSnapshot snapshot = accountCache.get("123456789").orElseThrow();
+
+        // Assert
+        assertEquals(new BigDecimal("60.00"), snapshot.balance());
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+    }
+
+    private Account account(BigDecimal balance, Long version) {
+        Account account = new Account();
+        account.setId(1L);
+        account.setAccountNumber("123456789");
+        account.setBalance(balance);
+        account.setVersion(version);
+        return account;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.model.dto.AccountImportRejectionDTO;
+import com.example.onlinebanking.model.dto.AccountImportResultDTO;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.JournalEntryRepository;
+import com.example.onlinebanking.repository.PostingRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the {@link AccountImportService} class, against an embedded H2 database.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Importing CSV rows, with invalid rows, unknown users and taken account numbers rejected, and the opening
+ *     balances recorded in the ledger.</li>
+ *     <li>Importing NDJSON rows over several chunks, with a duplicate across chunks and malformed lines rejected.</li>
+ *     <li>Capping the list of rejected rows.</li>
+ *     <li>Rejecting a CSV body without the header line.</li>
+ *     <li>A benchmark importing one million accounts, skipped unless {@code -Dbenchmark=true} is set.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest
+@Import({AccountImportService.class, LedgerService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountImportServiceTest {
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private PostingRepository postingRepository;
+
+    private User user;
+
+    /**
+     * Creates the owner of the imported accounts and one existing account.
+     */
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("partner");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        Account existing = new Account();
+        existing.setAccountNumber("EXISTING");
+        existing.setBalance(BigDecimal.ZERO);
+        existing.setUser(user);
+        accountRepository.save(existing);
+    }
+
+    /**
+     * Removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        postingRepository.deleteAllInBatch();
+        journalEntryRepository.deleteAllInBatch();
+        accountRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    /**
+     * Tests that valid CSV rows are imported with their opening balances, and that the others are reported.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Build a CSV body with two valid rows, a blank line, and rows with too many decimal places, a
+     *     negative balance, a missing field, an unknown user and a taken account number.</li>
+     *     <li>Act: Import it.</li>
+     *     <li>Assert: Verify the counts, the line number and reason of each rejected row, the balances of the new
+     *     accounts and that the ledger reconciles.</li>
+     * </ol>
+     */
+    @Test
+    void testImportCsv() throws Exception {
+        // Arrange
+        String csv = AccountImportService.CSV_HEADER + "\n"
+                + "CSV-1," + user.getId() + ",100.50\n"
+                + "\n"
+                + "CSV-2, " + user.getId() + " ,0\n"
+                + "CSV-3," + user.getId() + ",1.001\n"
+                + "CSV-4," + user.getId() + ",-5.00\n"
+                + "CSV-5," + user.getId() + "\n"
+                + "CSV-6," + (user.getId() + 1000) + ",10.00\n"
+                + "EXISTING," + user.getId() + ",10.00\n";
+
+        // Act
+        AccountImportResultDTO result = accountImportService.importAccounts(stream(csv), AccountImportService.Format.CSV);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(5, result.getRejected());
+        List<AccountImportRejectionDTO> rejections = result.getRejections();
+        assertEquals(List.of(5L, 6L, 7L, 8L, 9L), rejections.stream().map(AccountImportRejectionDTO::getLine).toList());
+        assertEquals("Amount must have at most 2 decimal places", rejections.get(0).getReason());
+        assertEquals("Balance must not be negative", rejections.get(1).getReason());
+        assertEquals("Expected 3 fields, found 2", rejections.get(2).getReason());
+        assertEquals("User not found", rejections.get(3).getReason());
+        assertEquals("CSV-6", rejections.get(3).getAccountNumber());
+        assertEquals("Account number already exists", rejections.get(4).getReason());
+
+        assertEquals(new BigDecimal("100.50"), accountRepository.findByAccountNumber("CSV-1").orElseThrow().getBalance());
+        assertEquals(new BigDecimal("0.00"), accountRepository.findByAccountNumber("CSV-2").orElseThrow().getBalance());
+        assertEquals(1, journalEntryRepository.count());
+        assertTrue(ledgerService.reconcile().isReconciled());
+    }
+
+    /**
+     * Tests that NDJSON rows are imported chunk by chunk, and that a duplicate in a later chunk and malformed lines
+     * are reported.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Use chunks of two lines, and build a body with three valid rows, a malformed line, a row without
+     *     a user and a row repeating the first account number in the third chunk.</li>
+     *     <li>Act: Import it.</li>
+     *     <li>Assert: Verify the counts, the rejected rows and the imported accounts.</li>
+     * </ol>
+     */
+    @Test
+    void testImportNdjson_AcrossChunks() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(accountImportService, "chunkSize", 2);
+        long userId = user.getId();
+        String ndjson = "{\"accountNumber\":\"JSON-1\",\"userId\":" + userId + ",\"balance\":12.34}\n"
+                + "{\"accountNumber\":\"JSON-2\",\"userId\":\"" + userId + "\",\"balance\":\"0.10\"}\n"
+                + "{\"accountNumber\":\"JSON-3\",\"userId\":" + userId + ",\n"
+                + "{\"accountNumber\":\"JSON-4\",\"balance\":1}\n"
+                + "{\"accountNumber\":\"JSON-1\",\"userId\":" + userId + ",\"balance\":1}\n"
+                + "{\"accountNumber\":\"JSON-5\",\"userId\":" + userId + ",\"balance\":5}\n";
+
+        try {
+            // Act
+            AccountImportResultDTO result = accountImportService.importAccounts(stream(ndjson),
+                    AccountImportService.Format.NDJSON);
+
+            // Assert
+            assertEquals(3, result.getImported());
+            assertEquals(3, result.getRejected());
+            assertEquals("Invalid JSON", result.getRejections().get(0).getReason());
+            assertEquals(3L, result.getRejections().get(0).getLine());
+            assertEquals("Invalid user ID", result.getRejections().get(1).getReason());
+            assertEquals("Account number already exists", result.getRejections().get(2).getReason());
+            assertEquals(5L, result.getRejections().get(2).getLine());
+            assertEquals(new BigDecimal("12.34"), accountRepository.findByAccountNumber("JSON-1").orElseThrow().getBalance());
+            assertEquals(new BigDecimal("5.00"), accountRepository.findByAccountNumber("JSON-5").orElseThrow().getBalance());
+            assertTrue(ledgerService.reconcile().isReconciled());
+        } finally {
+            ReflectionTestUtils.setField(accountImportService, "chunkSize", 5000);
+        }
+    }
+
+    /**
+     * Tests that every rejected row is counted, but only the first ones are listed.
+     */
+    @Test
+    void testImport_RejectionsCapped() throws Exception {
+        ReflectionTestUtils.setField(accountImportService, "maxReportedRejections", 2);
+        String csv = AccountImportService.CSV_HEADER + "\n" + ",1,1\n".repeat(5);
+
+        try {
+            AccountImportResultDTO result = accountImportService.importAccounts(stream(csv),
+                    AccountImportService.Format.CSV);
+
+            assertEquals(0, result.getImported());
+            assertEquals(5, result.getRejected());
+            assertEquals(2, result.getRejections().size());
+            assertEquals("Missing account number", result.getRejections().get(0).getReason());
+        } finally {
+            ReflectionTestUtils.setField(accountImportService, "maxReportedRejections", 1000);
+        }
+    }
+
+    /**
+     * Tests that a CSV body without the header line is rejected as a whole.
+     */
+    @Test
+    void testImportCsv_MissingHeader() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> accountImportService.importAccounts(
+                stream("CSV-1," + user.getId() + ",1.00\n"), AccountImportService.Format.CSV));
+
+        assertEquals("CSV import must start with the header " + AccountImportService.CSV_HEADER, exception.getMessage());
+        assertEquals(1, accountRepository.count());
+    }
+
+    /**
+     * Imports one million accounts from a generated CSV stream, which is never held in memory as a whole, and
+     * reports the throughput.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkImportMillionAccounts() throws Exception {
+        int rows = 1_000_000;
+        String owner = "," + user.getId() + ",100.00\n";
+        Iterator<InputStream> lines = Stream.concat(Stream.of(AccountImportService.CSV_HEADER + "\n"),
+                        IntStream.range(0, rows).mapToObj(i -> "BULK-" + i + owner))
+                .map(this::stream)
+                .iterator();
+        InputStream csv = new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return lines.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return lines.next();
+            }
+        });
+
+        long start = System.nanoTime();
+        AccountImportResultDTO result = accountImportService.importAccounts(csv, AccountImportService.Format.CSV);
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(rows, result.getImported());
+        assertEquals(0, result.getRejected());
+        System.out.printf("Imported %d accounts in %.1f s (%.0f accounts/s)%n",
+                rows, elapsed / 1e9, rows * 1e9 / elapsed);
+    }
+
+    private InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
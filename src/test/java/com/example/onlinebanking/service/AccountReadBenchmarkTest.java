@@ -0,0 +1,145 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Per-request cost of reading an account, skipped unless {@code -Dbenchmark=true} is set.
+ *
+ * <p>Each request reads one account in a read-only transaction and serializes the result to JSON:
+ * <ul>
+ *     <li>the entity path loads the {@link Account} with {@code findById} (which also joins its user)
+ *     and serializes the fields the old endpoint exposed;</li>
+ *     <li>the projection path calls {@link AccountService#getAccount(Long)} and serializes the {@code AccountDTO}.</li>
+ * </ul>
+ * Both the mean latency and the bytes allocated by the calling thread are printed per request.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest
+@Import({AccountService.class, AccountCache.class, LedgerService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AccountReadBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int REQUESTS = 100_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Long accountId;
+
+    /**
+     * Creates the account read by the benchmark.
+     */
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("reader");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        Account account = new Account();
+        account.setAccountNumber("READ-1");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setUser(user);
+        accountId = accountRepository.save(account).getId();
+    }
+
+    /**
+     * Removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Compares the latency and allocations per request of the entity and projection paths.
+     *
+     * @throws Exception if a request fails.
+     */
+    @Test
+    void benchmarkAccountRead() throws Exception {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Callable<byte[]> entityRead = () -> readOnly.execute(status -> {
+            Account account = accountRepository.findById(accountId).orElseThrow();
+            return writeJson(Map.of(
+                    "id", account.getId(),
+                    "accountNumber", account.getAccountNumber(),
+                    "balance", account.getBalance(),
+                    "userId", account.getUser().getId()));
+        });
+        Callable<byte[]> projectionRead = () -> readOnly.execute(status -> writeJson(accountService.getAccount(accountId)));
+
+        measure("entity", entityRead);
+        measure("projection", projectionRead);
+    }
+
+    private void measure(String name, Callable<byte[]> request) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            request.call();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            request.call();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("Account read (%s): %.1f us/request, %d bytes allocated/request%n",
+                name, nanos / 1_000.0 / REQUESTS, allocated / REQUESTS);
+    }
+
+    private byte[] writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.onlinebanking.service;
 
+import com.example.onlinebanking.exception.ResourceNotFoundException;
 import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.dto.AccountDTO;
+import com.example.onlinebanking.model.dto.AccountSnapshot;
 import com.example.onlinebanking.repository.AccountRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -23,6 +27,8 @@ import static org.mockito.Mockito.*;
  *     <li>Creating a new account and verifying its details.</li>
  *     <li>Retrieving an existing account by its ID.</li>
  *     <li>Attempting to retrieve a non-existent account.</li>
+ *     <li>Retrieving an account by its account number from the account cache.</li>
+ *     <li>Retrieving a striped account by its account number from the database, with its stripes.</li>
  *     <li>Deleting an account by its ID.</li>
  * </ul>
  *
@@ -38,6 +44,12 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private LedgerService ledgerService;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -58,7 +70,8 @@ class AccountServiceTest {
      * <ol>
      *     <li>Arrange: Create a mock account and set up the repository to return it when saved.</li>
      *     <li>Act: Call the {@link AccountService#createAccount(Account)} method.</li>
-     *     <li>Assert: Verify that the returned account matches the expected details and that the repository's save method was called once.</li>
+     *     <li>Assert: Verify that the returned account matches the expected details, that the repository's save method was called once
+     *     and that the opening balance was recorded in the ledger.</li>
      * </ol>
      */
     @Test
@@ -80,8 +93,9 @@ class AccountServiceTest {
         assertEquals("123456789", savedAccount.getAccountNumber());
         assertEquals(0, BigDecimal.valueOf(1000.0).compareTo(savedAccount.getBalance()));
 
-        // Verify that the repository's save method was called once
+        // Verify that the repository's save method was called once and the opening balance was recorded
         verify(accountRepository, times(1)).save(account);
+        verify(ledgerService, times(1)).recordOpening(account);
     }
 
     /**
@@ -90,58 +104,53 @@ class AccountServiceTest {
      *
      * <p>Steps:
      * <ol>
-     *     <li>Arrange: Create a mock account and set up the repository to return it when queried by ID.</li>
+     *     <li>Arrange: Create an account projection and set up the repository to return it when queried by ID.</li>
      *     <li>Act: Call the {@link AccountService#getAccount(Long)} method.</li>
-     *     <li>Assert: Verify that the returned account matches the expected details and that the repository's findById method was called once.</li>
+     *     <li>Assert: Verify that the returned account matches the expected details and that the entity is never loaded.</li>
      * </ol>
      */
     @Test
     void testGetAccount() {
         // Arrange
-        Account account = new Account();
-        account.setId(1L);
-        account.setAccountNumber("123456789");
-        account.setBalance(BigDecimal.valueOf(100.0));
+        AccountDTO account = new AccountDTO(1L, "123456789", BigDecimal.valueOf(100.0));
 
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findDtoById(1L)).thenReturn(Optional.of(account));
 
         // Act
-        Optional<Account> foundAccount = accountService.getAccount(1L);
+        AccountDTO foundAccount = accountService.getAccount(1L);
 
         // Assert
-        assertTrue(foundAccount.isPresent());
-        assertEquals(1L, foundAccount.get().getId());
-        assertEquals("123456789", foundAccount.get().getAccountNumber());
-        assertEquals(0, BigDecimal.valueOf(100.0).compareTo(foundAccount.get().getBalance()));
+        assertEquals(1L, foundAccount.getId());
+        assertEquals("123456789", foundAccount.getAccountNumber());
+        assertEquals(0, BigDecimal.valueOf(100.0).compareTo(foundAccount.getBalance()));
 
-        // Verify that the repository's findById method was called once
-        verify(accountRepository, times(1)).findById(1L);
+        // Verify that the projection query was used instead of loading the entity
+        verify(accountRepository, times(1)).findDtoById(1L);
+        verify(accountRepository, never()).findById(anyLong());
     }
 
     /**
      * Tests the {@link AccountService#getAccount(Long)} method when the account does not exist.
-     * Verifies that an empty Optional is returned.
+     * Verifies that a {@link ResourceNotFoundException} is thrown.
      *
      * <p>Steps:
      * <ol>
      *     <li>Arrange: Set up the repository to return an empty Optional when queried by ID.</li>
      *     <li>Act: Call the {@link AccountService#getAccount(Long)} method.</li>
-     *     <li>Assert: Verify that the returned Optional is empty and that the repository's findById method was called once.</li>
+     *     <li>Assert: Verify that the exception is thrown and that the repository's findDtoById method was called once.</li>
      * </ol>
      */
     @Test
     void testGetAccount_NotFound() {
         // Arrange
-        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+        when(accountRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
-        // Act
-        Optional<Account> foundAccount = accountService.getAccount(1L);
-
-        // Assert
-        assertFalse(foundAccount.isPresent());
+        // Act & Assert
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> accountService.getAccount(1L));
+        assertEquals("Account not found", exception.getMessage());
 
-        // Verify that the repository's findById method was called once
-        verify(accountRepository, times(1)).findById(1L);
+        // Verify that the repository's findDtoById method was called once
+        verify(accountRepository, times(1)).findDtoById(1L);
     }
 
     /**
@@ -164,7 +173,64 @@ class AccountServiceTest {
         accountService.deleteAccount(1L);
 
         // Assert
-        // Verify that the repository's deleteById method was called once
+        // Verify that the repository's deleteById method was called once and the cached entry evicted
         verify(accountRepository, times(1)).deleteById(1L);
+        verify(accountCache, times(1)).evictById(1L);
+    }
+
+    /**
+     * Tests the {@link AccountService#getAccountByNumber(String)} method.
+     * Verifies that the account is served from the account cache without querying the repository.
+     */
+    @Test
+    void testGetAccountByNumber() {
+        // Arrange
+        when(accountCache.get("123456789"))
+                .thenReturn(Optional.of(new AccountSnapshot(1L, "123456789", 5L, BigDecimal.valueOf(100.0), 3L)));
+
+        // Act
+        AccountDTO foundAccount = accountService.getAccountByNumber("123456789");
+
+        // Assert
+        assertEquals(1L, foundAccount.getId());
+        assertEquals("123456789", foundAccount.getAccountNumber());
+        assertEquals(0, BigDecimal.valueOf(100.0).compareTo(foundAccount.getBalance()));
+        verifyNoInteractions(accountRepository);
+    }
+
+    /**
+     * Tests the {@link AccountService#getAccountByNumber(String)} method for a striped account.
+     * Verifies that the balance is read from the repository, which adds the stripes, instead of the cache.
+     */
+    @Test
+    void testGetAccountByNumber_Striped() {
+        // Arrange
+        BalanceStripingService balanceStriping = mock(BalanceStripingService.class);
+        ReflectionTestUtils.setField(accountService, "balanceStriping", balanceStriping);
+        when(balanceStriping.isStriped(1L)).thenReturn(true);
+        when(accountCache.get("123456789"))
+                .thenReturn(Optional.of(new AccountSnapshot(1L, "123456789", 5L, BigDecimal.valueOf(100.0), 3L)));
+        when(accountRepository.findDtoById(1L))
+                .thenReturn(Optional.of(new AccountDTO(1L, "123456789", BigDecimal.valueOf(250.0))));
+
+        // Act
+        AccountDTO foundAccount = accountService.getAccountByNumber("123456789");
+
+        // Assert
+        assertEquals(0, BigDecimal.valueOf(250.0).compareTo(foundAccount.getBalance()));
+        verify(accountRepository, times(1)).findDtoById(1L);
+    }
+
+    /**
+     * Tests the {@link AccountService#getAccountByNumber(String)} method when the account does not exist.
+     * Verifies that a {@link ResourceNotFoundException} is thrown.
+     */
+    @Test
+    void testGetAccountByNumber_NotFound() {
+        // Arrange
+        when(accountCache.get("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> accountService.getAccountByNumber("missing"));
     }
 }
\ No newline at end of file
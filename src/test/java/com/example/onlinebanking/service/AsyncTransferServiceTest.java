@@ -0,0 +1,222 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.exception.IdempotencyConflictException;
+import com.example.onlinebanking.exception.ResourceNotFoundException;
+import com.example.onlinebanking.model.dto.TransferStatusDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link AsyncTransferService} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Accepting a transfer as pending and reporting its outcome once performed.</li>
+ *     <li>Rejecting invalid transfers before they are queued.</li>
+ *     <li>Rejecting submissions beyond the admission limit, and admitting again once a transfer finished.</li>
+ *     <li>Answering a retry with the same {@code Idempotency-Key} with the transfer accepted first.</li>
+ *     <li>Waiting for a key still in progress elsewhere instead of reporting the conflict as a failure.</li>
+ *     <li>Reporting an unknown transfer ID as not found.</li>
+ * </ul>
+ *
+ * <p>The executor is mocked so that queued transfers run only when the test says so.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class AsyncTransferServiceTest {
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private AsyncTaskExecutor transferExecutor;
+
+    @InjectMocks
+    private AsyncTransferService asyncTransferService;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    /**
+     * Sets up the test environment with two known accounts and an executor that only queues the transfers.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(asyncTransferService, "maxPending", 2);
+        asyncTransferService.init();
+        when(accountCache.findId("123456")).thenReturn(Optional.of(1L));
+        when(accountCache.findId("654321")).thenReturn(Optional.of(2L));
+        when(accountCache.findId("000000")).thenReturn(Optional.empty());
+        doAnswer(invocation -> queued.add(invocation.getArgument(0))).when(transferExecutor).execute(any(Runnable.class));
+    }
+
+    /**
+     * Tests that a transfer is pending until it is performed, and then reports its outcome.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Act: Submit a transfer that succeeds and one that fails, then run the queued transfers.</li>
+     *     <li>Assert: Verify that both were pending before, and completed or failed with the message after.</li>
+     * </ol>
+     */
+    @Test
+    void testSubmit_ReportsOutcome() {
+        // Act
+        TransferStatusDTO completed = asyncTransferService.submit("123456", "654321", new BigDecimal("10.00"), () -> { });
+        TransferStatusDTO failed = asyncTransferService.submit("123456", "654321", new BigDecimal("10.00"), () -> {
+            throw new RuntimeException("Insufficient balance");
+        });
+        boolean pendingBeforeRun = TransferStatusDTO.PENDING.equals(asyncTransferService.getStatus(completed.getId()).getStatus());
+        queued.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(TransferStatusDTO.PENDING, completed.getStatus());
+        assertNotEquals(completed.getId(), failed.getId());
+        assertTrue(pendingBeforeRun);
+        assertEquals(TransferStatusDTO.COMPLETED, asyncTransferService.getStatus(completed.getId()).getStatus());
+        TransferStatusDTO failedStatus = asyncTransferService.getStatus(failed.getId());
+        assertEquals(TransferStatusDTO.FAILED, failedStatus.getStatus());
+        assertEquals("Insufficient balance", failedStatus.getMessage());
+        assertEquals(0, asyncTransferService.getPendingCount());
+    }
+
+    /**
+     * Tests that invalid transfers are rejected before they are queued.
+     */
+    @Test
+    void testSubmit_Invalid() {
+        Runnable transfer = () -> fail("An invalid transfer must not be performed");
+
+        assertThrows(RuntimeException.class,
+                () -> asyncTransferService.submit("123456", "654321", BigDecimal.ZERO, transfer));
+        assertThrows(RuntimeException.class,
+                () -> asyncTransferService.submit("123456", "123456", BigDecimal.TEN, transfer));
+        RuntimeException notFound = assertThrows(RuntimeException.class,
+                () -> asyncTransferService.submit("123456", "000000", BigDecimal.TEN, transfer));
+
+        assertEquals("To account not found", notFound.getMessage());
+        assertTrue(queued.isEmpty());
+    }
+
+    /**
+     * Tests that submissions beyond {@code banking.transfer.async.max-pending} are rejected,
+     * and accepted again once a pending transfer finished.
+     */
+    @Test
+    void testSubmit_AdmissionLimit() {
+        // Arrange
+        asyncTransferService.submit("123456", "654321", BigDecimal.ONE, () -> { });
+        asyncTransferService.submit("123456", "654321", BigDecimal.ONE, () -> { });
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class,
+                () -> asyncTransferService.submit("123456", "654321", BigDecimal.ONE, () -> { }));
+        assertEquals(2, asyncTransferService.getPendingCount());
+
+        queued.get(0).run();
+        assertDoesNotThrow(() -> asyncTransferService.submit("123456", "654321", BigDecimal.ONE, () -> { }));
+    }
+
+    /**
+     * Tests that a transfer rejected by the executor releases its admission and leaves no status behind.
+     */
+    @Test
+    void testSubmit_ExecutorRejects() {
+        // Arrange
+        doThrow(new RejectedExecutionException("Queue full")).when(transferExecutor).execute(any(Runnable.class));
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class,
+                () -> asyncTransferService.submit("123456", "654321", BigDecimal.ONE, () -> { }));
+        assertEquals(0, asyncTransferService.getPendingCount());
+    }
+
+    /**
+     * Tests that a retry with the same idempotency key is not queued again and gets the first transfer's status,
+     * while a key reused for a different transfer or by another client is not confused with it.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Act: Submit a transfer with a key, retry it before and after it was performed, and submit with the same
+     *     key a different transfer and the same transfer of another client.</li>
+     *     <li>Assert: Verify that the retries got the first ID and its current status, that the different transfer
+     *     was refused, and that only the first transfer and the other client's were queued.</li>
+     * </ol>
+     */
+    @Test
+    void testSubmit_RetryWithIdempotencyKey() {
+        // Act
+        AtomicInteger performed = new AtomicInteger();
+        TransferStatusDTO first = asyncTransferService.submit("john_doe", "key-1", "123456", "654321",
+                new BigDecimal("10.00"), performed::incrementAndGet);
+        TransferStatusDTO pendingRetry = asyncTransferService.submit("john_doe", "key-1", "123456", "654321",
+                new BigDecimal("10.0"), performed::incrementAndGet);
+        queued.get(0).run();
+        TransferStatusDTO completedRetry = asyncTransferService.submit("john_doe", "key-1", "123456", "654321",
+                new BigDecimal("10.00"), performed::incrementAndGet);
+        IdempotencyConflictException conflict = assertThrows(IdempotencyConflictException.class,
+                () -> asyncTransferService.submit("john_doe", "key-1", "123456", "654321",
+                        new BigDecimal("20.00"), performed::incrementAndGet));
+        TransferStatusDTO otherClient = asyncTransferService.submit("jane_doe", "key-1", "123456", "654321",
+                new BigDecimal("10.00"), performed::incrementAndGet);
+
+        // Assert
+        assertEquals(first.getId(), pendingRetry.getId());
+        assertEquals(TransferStatusDTO.PENDING, pendingRetry.getStatus());
+        assertEquals(first.getId(), completedRetry.getId());
+        assertEquals(TransferStatusDTO.COMPLETED, completedRetry.getStatus());
+        assertEquals("Idempotency-Key was already used for a different request", conflict.getMessage());
+        assertNotEquals(first.getId(), otherClient.getId());
+        assertEquals(2, queued.size());
+        assertEquals(1, performed.get());
+        assertEquals(1, asyncTransferService.getPendingCount());
+    }
+
+    /**
+     * Tests that a transfer whose key is still being performed elsewhere waits for that outcome instead of failing.
+     */
+    @Test
+    void testSubmit_KeyInProgressElsewhere() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        Runnable transfer = () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress", true);
+            }
+        };
+
+        // Act
+        TransferStatusDTO accepted = asyncTransferService.submit("john_doe", "key-1", "123456", "654321",
+                BigDecimal.ONE, transfer);
+        queued.get(0).run();
+
+        // Assert
+        assertEquals(3, attempts.get());
+        assertEquals(TransferStatusDTO.COMPLETED, asyncTransferService.getStatus(accepted.getId()).getStatus());
+    }
+
+    /**
+     * Tests that an unknown transfer ID is reported as not found.
+     */
+    @Test
+    void testGetStatus_NotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> asyncTransferService.getStatus("unknown"));
+    }
+}
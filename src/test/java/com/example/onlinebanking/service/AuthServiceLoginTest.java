@@ -0,0 +1,148 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.config.SecurityConfig;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.model.dto.AuthRequest;
+import com.example.onlinebanking.model.dto.AuthResponse;
+import com.example.onlinebanking.repository.UserRepository;
+import com.example.onlinebanking.security.CaffeineUserCache;
+import com.example.onlinebanking.security.CustomUserDetailsService;
+import com.example.onlinebanking.security.JwtKeyRegistry;
+import com.example.onlinebanking.security.JwtUtil;
+import com.example.onlinebanking.security.RefreshTokenStore;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Integration tests for {@link AuthService#login(AuthRequest)} against the database.
+ *
+ * <p>Logins go through the same {@link org.springframework.security.authentication.dao.DaoAuthenticationProvider}
+ * as in production, and the statements sent to the database are counted with Hibernate statistics.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>A first login, which loads the user once.</li>
+ *     <li>A repeated login within the cache lifetime, which does not query the database.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({AuthService.class, CustomUserDetailsService.class, CaffeineUserCache.class, JwtUtil.class, JwtKeyRegistry.class,
+        RefreshTokenStore.class,
+        AuthServiceLoginTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceLoginTest {
+
+    /**
+     * Authentication beans for the test, wired as in {@link SecurityConfig} but with a cheap password hash.
+     */
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        AuthenticationManager authenticationManager(CustomUserDetailsService userDetailsService,
+                                                    PasswordEncoder passwordEncoder, UserCache userCache) {
+            return new ProviderManager(new SecurityConfig()
+                    .authenticationProvider(userDetailsService, passwordEncoder, userCache));
+        }
+
+        @Bean
+        Executor loginExecutor() {
+            return Runnable::run;
+        }
+    }
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    /**
+     * Creates the user that logs in.
+     */
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("login_user");
+        user.setPassword(passwordEncoder.encode("password"));
+        user.setRole("USER");
+        userRepository.save(user);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Tests that a login loads the user once, and a repeated login is served from the user cache.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Act: Log in twice with the same credentials, counting the statements of each login.</li>
+     *     <li>Assert: Verify that the first login runs one user query and one account ID query,
+     *     and the second login none.</li>
+     * </ol>
+     */
+    @Test
+    void testLogin_QueryCount() {
+        // Act
+        long firstQueries = login();
+        long secondQueries = login();
+
+        // Assert
+        assertEquals(2, firstQueries, "The first login should load the user and its account IDs once");
+        assertEquals(0, secondQueries, "A repeated login should be served from the user cache");
+    }
+
+    private long login() {
+        statistics.clear();
+        AuthResponse response = authService.login(new AuthRequest("login_user", "password"));
+
+        assertNotNull(response.getToken());
+        return statistics.getPrepareStatementCount();
+    }
+}
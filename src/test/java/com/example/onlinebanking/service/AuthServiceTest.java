@@ -3,17 +3,26 @@ package com.example.onlinebanking.service;
 import com.example.onlinebanking.model.User;
 import com.example.onlinebanking.model.dto.AuthRequest;
 import com.example.onlinebanking.model.dto.AuthResponse;
+import com.example.onlinebanking.model.dto.RefreshRequest;
 import com.example.onlinebanking.security.CustomUserDetails;
 import com.example.onlinebanking.security.CustomUserDetailsService;
+import com.example.onlinebanking.security.JwtPrincipal;
 import com.example.onlinebanking.security.JwtUtil;
+import com.example.onlinebanking.security.RefreshTokenStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,6 +38,8 @@ import static org.mockito.Mockito.*;
  * <ul>
  *     <li>Successful authentication, where a valid {@link AuthResponse} is returned.</li>
  *     <li>Authentication failure, where an {@link AuthenticationException} is thrown.</li>
+ *     <li>A full login queue, where the login is rejected before authenticating.</li>
+ *     <li>Exchanging a refresh token, and rejecting an invalid one.</li>
  * </ul>
  *
  * @author [Your Name]
@@ -46,6 +57,9 @@ class AuthServiceTest {
     @Mock
     private CustomUserDetailsService userDetailsService;
 
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
     @InjectMocks
     private AuthService authService;
 
@@ -56,6 +70,8 @@ class AuthServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Run logins on the calling thread
+        ReflectionTestUtils.setField(authService, "loginExecutor", (Executor) Runnable::run);
     }
 
     /**
@@ -67,11 +83,11 @@ class AuthServiceTest {
      *
      * <p>Steps:
      * <ol>
-     *     <li>Arrange: Create an {@link AuthRequest} and mock the behavior of the
-     *     {@link AuthenticationManager}, {@link CustomUserDetailsService}, and {@link JwtUtil}.</li>
+     *     <li>Arrange: Create an {@link AuthRequest} and mock the {@link AuthenticationManager} to return
+     *     the authenticated user details, and the {@link JwtUtil} to return a token.</li>
      *     <li>Act: Call the {@link AuthService#login(AuthRequest)} method.</li>
      *     <li>Assert: Verify that the returned {@link AuthResponse} contains the expected token
-     *     and that the mocked methods were called as expected.</li>
+     *     and that the user was not loaded a second time.</li>
      * </ol>
      */
     @Test
@@ -82,9 +98,10 @@ class AuthServiceTest {
         CustomUserDetails userDetails = new CustomUserDetails(user);
         String token = "jwt-token";
 
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(null);
-        when(userDetailsService.loadUserByUsername("user")).thenReturn(userDetails);
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
         when(jwtUtil.generateToken(userDetails)).thenReturn(token);
+        when(refreshTokenStore.issue(any(JwtPrincipal.class))).thenReturn("refresh-token");
 
         // Act
         AuthResponse authResponse = authService.login(authRequest);
@@ -92,10 +109,11 @@ class AuthServiceTest {
         // Assert
         assertNotNull(authResponse);
         assertEquals(token, authResponse.getToken());
+        assertEquals("refresh-token", authResponse.getRefreshToken());
 
         // Verify interactions
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userDetailsService, times(1)).loadUserByUsername("user");
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(jwtUtil, times(1)).generateToken(userDetails);
     }
 
@@ -133,4 +151,63 @@ class AuthServiceTest {
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(jwtUtil, never()).generateToken(any(CustomUserDetails.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that a login rejected by the login executor fails without authenticating the user.
+     */
+    @Test
+    void testLogin_Rejected() {
+        // Arrange
+        AuthRequest authRequest = new AuthRequest("user", "password");
+        ReflectionTestUtils.setField(authService, "loginExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("Queue full");
+        });
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> authService.login(authRequest));
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    /**
+     * Tests that a refresh token is exchanged for new tokens without authenticating the user again.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Mock the {@link RefreshTokenStore} to rotate the token and the {@link JwtUtil} to return a token.</li>
+     *     <li>Act: Call the {@link AuthService#refresh(RefreshRequest)} method.</li>
+     *     <li>Assert: Verify the new tokens, and that neither the password nor the user was checked.</li>
+     * </ol>
+     */
+    @Test
+    void testRefresh_Success() {
+        // Arrange
+        JwtPrincipal principal = new JwtPrincipal(7L, "user", "USER", List.of(1L));
+        when(refreshTokenStore.rotate("refresh-token"))
+                .thenReturn(new RefreshTokenStore.Rotation("next-refresh-token", principal));
+        when(jwtUtil.generateToken(principal)).thenReturn("jwt-token");
+        when(jwtUtil.getAccessTokenTtlSeconds()).thenReturn(900L);
+
+        // Act
+        AuthResponse authResponse = authService.refresh(new RefreshRequest("refresh-token"));
+
+        // Assert
+        assertEquals("jwt-token", authResponse.getToken());
+        assertEquals("next-refresh-token", authResponse.getRefreshToken());
+        assertEquals(900L, authResponse.getExpiresIn());
+        verify(authenticationManager, never()).authenticate(any());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    /**
+     * Tests that an invalid refresh token is rejected without issuing a token.
+     */
+    @Test
+    void testRefresh_InvalidToken() {
+        // Arrange
+        when(refreshTokenStore.rotate("stale-token")).thenThrow(new BadCredentialsException("Invalid refresh token"));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> authService.refresh(new RefreshRequest("stale-token")));
+        verify(jwtUtil, never()).generateToken(any(JwtPrincipal.class));
+    }
+}
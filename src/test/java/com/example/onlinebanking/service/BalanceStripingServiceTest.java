@@ -0,0 +1,321 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.AccountBalanceStripe;
+import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.AccountBalanceStripeRepository;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the {@link BalanceStripingService} class and the striped transfer path of
+ * {@link TransferService}, against an embedded H2 database.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Striping an account without changing its reported balance.</li>
+ *     <li>Credits that go to the stripes and leave the account row untouched.</li>
+ *     <li>Debits beyond the account row that consolidate the stripes, and are rejected if the sum does not cover them.</li>
+ *     <li>Concurrent transfers to and from a striped account that conserve the total balance.</li>
+ *     <li>A credit throughput benchmark for 1 to 16 stripes, skipped unless {@code -Dbenchmark=true} is set.</li>
+ * </ul>
+ *
+ * <p>Each test uses fresh account numbers, since the account IDs of earlier tests stay in the {@link AccountCache}.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest(properties = {
+        "banking.transfer.striping.enabled=true",
+        "banking.transfer.striping.stripes=4",
+        "banking.transfer.locking-mode=PESSIMISTIC",
+        "spring.datasource.url=jdbc:h2:mem:striping;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=20"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BalanceStripingService.class, TransferService.class, AccountService.class, AccountCache.class, LedgerService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BalanceStripingServiceTest {
+
+    private static final int PAYERS = 8;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private BalanceStripingService balanceStriping;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountBalanceStripeRepository stripeRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    private String prefix;
+
+    private Account hot;
+
+    private final List<String> payers = new ArrayList<>();
+
+    /**
+     * Creates a striped hot account and {@value #PAYERS} regular accounts, all with the same opening balance.
+     */
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("striping");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        prefix = "STR-" + RUN.incrementAndGet() + "-";
+        hot = createAccount(prefix + "HOT", OPENING_BALANCE);
+        balanceStriping.stripe(hot.getAccountNumber());
+        for (int i = 0; i < PAYERS; i++) {
+            payers.add(createAccount(prefix + i, OPENING_BALANCE).getAccountNumber());
+        }
+    }
+
+    /**
+     * Removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        stripeRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Tests that striping an account creates its stripes and does not change its reported balance.
+     */
+    @Test
+    void testStripe_BalanceUnchanged() {
+        assertTrue(balanceStriping.isStriped(hot.getId()));
+        assertEquals(4, stripeRepository.countByAccountId(hot.getId()));
+        assertEquals(0, OPENING_BALANCE.compareTo(accountService.getAccount(hot.getId()).getBalance()));
+        assertEquals(0, OPENING_BALANCE.compareTo(accountService.getAccountByNumber(hot.getAccountNumber()).getBalance()));
+
+        // Striping again adds nothing
+        balanceStriping.stripe(hot.getAccountNumber());
+        assertEquals(4, stripeRepository.countByAccountId(hot.getId()));
+    }
+
+    /**
+     * Tests that credits to a striped account go to its stripes, and that its reported balance includes them.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Act: Transfer 1.00 from each payer to the hot account, five times over.</li>
+     *     <li>Assert: Verify that the hot account's row and version are unchanged, that the credits are spread over
+     *     several stripes, and that both account lookups report the opening balance plus the credits.</li>
+     * </ol>
+     */
+    @Test
+    void testTransfer_CreditsGoToStripes() {
+        // Act
+        for (int round = 0; round < 5; round++) {
+            for (String payer : payers) {
+                transferService.transferFunds(payer, hot.getAccountNumber(), BigDecimal.ONE);
+            }
+        }
+
+        // Assert
+        Account row = accountRepository.findById(hot.getId()).orElseThrow();
+        assertEquals(0, OPENING_BALANCE.compareTo(row.getBalance()));
+        assertEquals(hot.getVersion(), row.getVersion());
+        List<AccountBalanceStripe> stripes = stripeRepository.findAll().stream()
+                .filter(stripe -> stripe.getAccountId().equals(hot.getId()))
+                .toList();
+        assertTrue(stripes.stream().filter(stripe -> stripe.getBalance().signum() > 0).count() > 1,
+                "Credits should be spread over several stripes");
+        BigDecimal expected = OPENING_BALANCE.add(BigDecimal.valueOf(5L * PAYERS));
+        assertEquals(0, expected.compareTo(accountService.getAccount(hot.getId()).getBalance()));
+        assertEquals(0, expected.compareTo(accountService.getAccountByNumber(hot.getAccountNumber()).getBalance()));
+        assertEquals(0, new BigDecimal("995.00").compareTo(accountService.getAccountByNumber(payers.get(0)).getBalance()));
+    }
+
+    /**
+     * Tests that a debit beyond the account row consolidates the stripes, and that a debit beyond the whole balance
+     * is rejected without changing it.
+     */
+    @Test
+    void testTransfer_DebitConsolidatesStripes() {
+        // Arrange
+        for (String payer : payers) {
+            transferService.transferFunds(payer, hot.getAccountNumber(), new BigDecimal("10.00"));
+        }
+
+        // Act
+        transferService.transferFunds(hot.getAccountNumber(), payers.get(0), new BigDecimal("1050.00"));
+        RuntimeException insufficient = assertThrows(RuntimeException.class,
+                () -> transferService.transferFunds(hot.getAccountNumber(), payers.get(0), new BigDecimal("30.01")));
+
+        // Assert
+        assertEquals("Insufficient balance", insufficient.getMessage());
+        assertEquals(0, BigDecimal.ZERO.compareTo(stripeRepository.sumBalanceByAccountId(hot.getId())));
+        assertEquals(0, new BigDecimal("30.00").compareTo(accountService.getAccount(hot.getId()).getBalance()));
+        assertEquals(0, new BigDecimal("2040.00").compareTo(accountService.getAccount(
+                accountRepository.findByAccountNumber(payers.get(0)).orElseThrow().getId()).getBalance()));
+    }
+
+    /**
+     * Tests that invalid transfers from or to a striped account are rejected with the usual messages.
+     */
+    @Test
+    void testTransfer_Rejections() {
+        RuntimeException toMissing = assertThrows(RuntimeException.class,
+                () -> transferService.transferFunds(hot.getAccountNumber(), "missing", BigDecimal.ONE));
+        assertEquals("To account not found", toMissing.getMessage());
+
+        RuntimeException negative = assertThrows(RuntimeException.class,
+                () -> transferService.transferFunds(payers.get(0), hot.getAccountNumber(), new BigDecimal("-1.00")));
+        assertEquals("Amount must be positive", negative.getMessage());
+
+        assertEquals(0, transactionRepository.count());
+    }
+
+    /**
+     * Tests that concurrent transfers to and from the striped account conserve the total balance,
+     * and that every reported balance equals its opening balance replayed with the recorded transactions.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the transfers.
+     */
+    @Test
+    void testTransfer_ConcurrentTransfersConserveTotal() throws InterruptedException {
+        List<String> accounts = new ArrayList<>(payers);
+        accounts.add(hot.getAccountNumber());
+        ExecutorService executor = Executors.newFixedThreadPool(PAYERS);
+        for (int t = 0; t < PAYERS; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 200; i++) {
+                    String from = accounts.get(random.nextInt(accounts.size()));
+                    String to = random.nextBoolean() ? hot.getAccountNumber() : accounts.get(random.nextInt(accounts.size()));
+                    try {
+                        transferService.transferFunds(from, to, BigDecimal.valueOf(random.nextInt(1, 20000), 2));
+                    } catch (RuntimeException ex) {
+                        assertEquals("Insufficient balance", ex.getMessage());
+                    }
+                }
+                return null;
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Transfers did not finish in time");
+
+        Map<Long, BigDecimal> replayed = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findAll()) {
+            replayed.merge(transaction.getFromAccount().getId(), transaction.getAmount().toBigDecimal().negate(), BigDecimal::add);
+            replayed.merge(transaction.getToAccount().getId(), transaction.getAmount().toBigDecimal(), BigDecimal::add);
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accountRepository.findAll()) {
+            BigDecimal balance = accountService.getAccount(account.getId()).getBalance();
+            assertTrue(account.getBalance().signum() >= 0, "Negative row balance for " + account.getAccountNumber());
+            assertEquals(0, OPENING_BALANCE.add(replayed.getOrDefault(account.getId(), BigDecimal.ZERO)).compareTo(balance),
+                    "Replay differs for " + account.getAccountNumber());
+            total = total.add(balance);
+        }
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(PAYERS + 1L)).compareTo(total));
+    }
+
+    /**
+     * Measures credits per second into one hot account from 16 concurrent payers, for 1 to 16 stripes.
+     *
+     * @throws InterruptedException if the benchmark is interrupted while waiting for the payers.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkCreditThroughput() throws InterruptedException {
+        int payerCount = 16;
+        int transfersPerPayer = 1_000;
+        List<String> benchmarkPayers = new ArrayList<>();
+        for (int i = 0; i < payerCount; i++) {
+            benchmarkPayers.add(createAccount(prefix + "PAYER-" + i, new BigDecimal("1000000.00")).getAccountNumber());
+        }
+        double single = 0;
+        for (int stripes : new int[]{1, 2, 4, 8, 16}) {
+            ReflectionTestUtils.setField(balanceStriping, "stripeCount", stripes);
+            String merchant = createAccount(prefix + "MERCHANT-" + stripes, BigDecimal.ZERO).getAccountNumber();
+            balanceStriping.stripe(merchant);
+
+            ExecutorService executor = Executors.newFixedThreadPool(payerCount);
+            CountDownLatch start = new CountDownLatch(1);
+            for (String payer : benchmarkPayers) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < transfersPerPayer; i++) {
+                        transferService.transferFunds(payer, merchant, BigDecimal.ONE);
+                    }
+                    return null;
+                });
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES), "Benchmark did not finish in time");
+            double rate = payerCount * transfersPerPayer * 1_000_000_000.0 / (System.nanoTime() - startNanos);
+            if (stripes == 1) {
+                single = rate;
+            }
+            System.out.printf("Hot account credits (%d stripes): %.0f transfers/sec, %.1fx one stripe%n",
+                    stripes, rate, rate / single);
+            assertEquals(0, BigDecimal.valueOf((long) payerCount * transfersPerPayer)
+                    .compareTo(accountService.getAccountByNumber(merchant).getBalance()));
+        }
+        ReflectionTestUtils.setField(balanceStriping, "stripeCount", 4);
+    }
+
+    private Account createAccount(String accountNumber, BigDecimal balance) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setBalance(balance);
+        account.setUser(user);
+        return accountRepository.save(account);
+    }
+}
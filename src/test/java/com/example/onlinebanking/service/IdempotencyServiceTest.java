@@ -0,0 +1,396 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.exception.IdempotencyConflictException;
+import com.example.onlinebanking.model.IdempotencyRecord;
+import com.example.onlinebanking.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link IdempotencyService} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Performing a request once and replaying its success or rejection to retries from the cache.</li>
+ *     <li>Serializing concurrent requests with the same key, so that only one is performed.</li>
+ *     <li>Replaying an outcome recorded by another instance, and refusing a key still in progress there.</li>
+ *     <li>Rejecting a key reused for a different request.</li>
+ *     <li>Taking over a key whose claim has outlived its lease.</li>
+ *     <li>Releasing the key when a request fails for a transient reason or because the transfer engine is stopped.</li>
+ *     <li>Answering with the outcome when it cannot be recorded.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class IdempotencyServiceTest {
+
+    private static final String OWNER = "john_doe";
+    private static final String KEY = "3f0c2a9e-1b7d-4c55-9a0e-0d6f1f2b7c11";
+    private static final String FINGERPRINT = "123456:654321:100";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    /**
+     * Sets up the test environment by initializing the mocks and building the cache and locks.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService.init();
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(anyString(), anyString())).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    /**
+     * Stops the background purge.
+     */
+    @AfterEach
+    void tearDown() {
+        idempotencyService.shutdown();
+    }
+
+    /**
+     * Tests that a request is performed once and its retries are answered from the cache.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Act: Execute the same request three times with the same key.</li>
+     *     <li>Assert: Verify that it was performed and recorded once, and the database was queried once.</li>
+     * </ol>
+     */
+    @Test
+    void testExecute_PerformsOnce() {
+        // Arrange
+        AtomicInteger performed = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+        }
+
+        // Assert
+        assertEquals(1, performed.get());
+        verify(idempotencyRecordRepository, times(1)).findByOwnerAndIdempotencyKey(OWNER, KEY);
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(argThat(record ->
+                OWNER.equals(record.getOwner()) && KEY.equals(record.getIdempotencyKey())));
+        verify(idempotencyRecordRepository, times(1)).save(argThat(record ->
+                IdempotencyRecord.COMPLETED.equals(record.getStatus())));
+    }
+
+    /**
+     * Tests that a rejection is recorded and thrown again with the same message to a retry.
+     */
+    @Test
+    void testExecute_ReplaysRejection() {
+        // Arrange
+        AtomicInteger performed = new AtomicInteger();
+        Runnable action = () -> {
+            performed.incrementAndGet();
+            throw new RuntimeException("Insufficient balance");
+        };
+
+        // Act
+        RuntimeException first = assertThrows(RuntimeException.class,
+                () -> idempotencyService.execute(OWNER, KEY, FINGERPRINT, action));
+        RuntimeException retry = assertThrows(RuntimeException.class,
+                () -> idempotencyService.execute(OWNER, KEY, FINGERPRINT, action));
+
+        // Assert
+        assertEquals("Insufficient balance", first.getMessage());
+        assertEquals("Insufficient balance", retry.getMessage());
+        assertEquals(1, performed.get());
+        verify(idempotencyRecordRepository).save(argThat(record -> IdempotencyRecord.FAILED.equals(record.getStatus())
+                && "Insufficient balance".equals(record.getMessage())));
+    }
+
+    /**
+     * Tests that the same key sent with different parameters is rejected without performing the request.
+     */
+    @Test
+    void testExecute_DifferentRequest() {
+        // Arrange
+        AtomicInteger performed = new AtomicInteger();
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+
+        // Act & Assert
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(OWNER, KEY, "123456:654321:200", performed::incrementAndGet));
+        assertEquals(1, performed.get());
+    }
+
+    /**
+     * Tests that keys of different owners do not collide.
+     */
+    @Test
+    void testExecute_KeysScopedByOwner() {
+        // Arrange
+        AtomicInteger performed = new AtomicInteger();
+
+        // Act
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+        idempotencyService.execute("jane_doe", KEY, FINGERPRINT, performed::incrementAndGet);
+
+        // Assert
+        assertEquals(2, performed.get());
+    }
+
+    /**
+     * Tests that a request with the same key arriving while the first one is performed waits for it
+     * and receives its outcome, instead of performing the request again.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Start a request that blocks until released.</li>
+     *     <li>Act: Send the same request from another thread, then release the first one.</li>
+     *     <li>Assert: Verify that both calls returned and the request was performed once.</li>
+     * </ol>
+     *
+     * @throws Exception if a thread fails or times out.
+     */
+    @Test
+    void testExecute_ConcurrentRetryWaits() throws Exception {
+        // Arrange
+        AtomicInteger performed = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable action = () -> {
+            performed.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> idempotencyService.execute(OWNER, KEY, FINGERPRINT, action));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Act
+            Future<?> retry = executor.submit(() -> idempotencyService.execute(OWNER, KEY, FINGERPRINT, action));
+            Thread.sleep(50);
+            release.countDown();
+
+            // Assert
+            first.get(5, TimeUnit.SECONDS);
+            retry.get(5, TimeUnit.SECONDS);
+            assertEquals(1, performed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that an outcome recorded by another instance is replayed without performing the request.
+     */
+    @Test
+    void testExecute_ReplaysStoredOutcome() {
+        // Arrange
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, KEY))
+                .thenReturn(Optional.of(storedRecord(IdempotencyRecord.COMPLETED, LocalDateTime.now())));
+        AtomicInteger performed = new AtomicInteger();
+
+        // Act
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+
+        // Assert
+        assertEquals(0, performed.get());
+        verify(idempotencyRecordRepository, never()).saveAndFlush(any());
+    }
+
+    /**
+     * Tests that a key still in progress on another instance, found either by the lookup or by the unique
+     * constraint, is refused with a conflict.
+     */
+    @Test
+    void testExecute_InProgressElsewhere() {
+        // Arrange
+        AtomicInteger performed = new AtomicInteger();
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, KEY))
+                .thenReturn(Optional.of(storedRecord(IdempotencyRecord.IN_PROGRESS, LocalDateTime.now())));
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, "other-key")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(argThat(record -> "other-key".equals(record.getIdempotencyKey()))))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotency_record_owner_key"));
+
+        // Act & Assert
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet));
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(OWNER, "other-key", FINGERPRINT, performed::incrementAndGet));
+        assertEquals(0, performed.get());
+    }
+
+    /**
+     * Tests that a claim older than its lease, left by an instance that never completed the request, is taken over.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Store a claim made ten minutes ago, which the conditional delete removes.</li>
+     *     <li>Act: Execute the request with the same key.</li>
+     *     <li>Assert: Verify that the request was performed and the key claimed again.</li>
+     * </ol>
+     */
+    @Test
+    void testExecute_TakesOverStaleClaim() {
+        // Arrange
+        IdempotencyRecord stale = storedRecord(IdempotencyRecord.IN_PROGRESS, LocalDateTime.now().minusMinutes(10));
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.of(stale));
+        when(idempotencyRecordRepository.deleteStaleClaim(any(), any(LocalDateTime.class))).thenReturn(1);
+        AtomicInteger performed = new AtomicInteger();
+
+        // Act
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+
+        // Assert
+        assertEquals(1, performed.get());
+        verify(idempotencyRecordRepository).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    /**
+     * Tests that a stale claim taken over by another instance first is refused with a conflict.
+     */
+    @Test
+    void testExecute_StaleClaimTakenOverElsewhere() {
+        // Arrange
+        IdempotencyRecord stale = storedRecord(IdempotencyRecord.IN_PROGRESS, LocalDateTime.now().minusMinutes(10));
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.of(stale));
+        when(idempotencyRecordRepository.deleteStaleClaim(any(), any(LocalDateTime.class))).thenReturn(0);
+        AtomicInteger performed = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet));
+        assertEquals(0, performed.get());
+    }
+
+    /**
+     * Tests that an expired record is deleted and its key performed again.
+     */
+    @Test
+    void testExecute_ExpiredRecord() {
+        // Arrange
+        IdempotencyRecord expired = storedRecord(IdempotencyRecord.COMPLETED, LocalDateTime.now().minusDays(2));
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenReturn(Optional.of(expired));
+        AtomicInteger performed = new AtomicInteger();
+
+        // Act
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+
+        // Assert
+        assertEquals(1, performed.get());
+        verify(idempotencyRecordRepository).delete(expired);
+    }
+
+    /**
+     * Tests that a request failing for a transient reason releases its key, so that a retry performs it again.
+     */
+    @Test
+    void testExecute_TransientFailureReleasesKey() {
+        // Arrange
+        AtomicInteger performed = new AtomicInteger();
+        Runnable conflicting = () -> {
+            performed.incrementAndGet();
+            throw new RuntimeException("Transfer conflicted with concurrent updates, please retry",
+                    new OptimisticLockingFailureException("version"));
+        };
+
+        // Act
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute(OWNER, KEY, FINGERPRINT, conflicting));
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+
+        // Assert
+        assertEquals(2, performed.get());
+        verify(idempotencyRecordRepository, times(1)).delete(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    /**
+     * Tests that a transfer refused because the transfer engine is stopped releases its key instead of recording
+     * the refusal, so that a retry after a restart performs it.
+     */
+    @Test
+    void testExecute_EngineStoppedReleasesKey() {
+        // Arrange
+        AtomicInteger performed = new AtomicInteger();
+        Runnable stopped = () -> {
+            performed.incrementAndGet();
+            throw new RejectedExecutionException("Transfer mailboxes are not running");
+        };
+
+        // Act
+        assertThrows(RejectedExecutionException.class,
+                () -> idempotencyService.execute(OWNER, KEY, FINGERPRINT, stopped));
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+
+        // Assert
+        assertEquals(2, performed.get());
+        verify(idempotencyRecordRepository, times(1)).delete(any(IdempotencyRecord.class));
+    }
+
+    /**
+     * Tests that a performed request is answered with its outcome even if the outcome cannot be recorded,
+     * and that retries on this instance replay it.
+     */
+    @Test
+    void testExecute_OutcomeNotRecorded() {
+        // Arrange
+        when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection lost"));
+        AtomicInteger performed = new AtomicInteger();
+
+        // Act
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+        idempotencyService.execute(OWNER, KEY, FINGERPRINT, performed::incrementAndGet);
+
+        // Assert
+        assertEquals(1, performed.get());
+    }
+
+    /**
+     * Tests that empty and overlong keys are rejected.
+     */
+    @Test
+    void testExecute_InvalidKey() {
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute(OWNER, "", FINGERPRINT, () -> { }));
+        assertThrows(RuntimeException.class,
+                () -> idempotencyService.execute(OWNER, "k".repeat(256), FINGERPRINT, () -> { }));
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    private static IdempotencyRecord storedRecord(String status, LocalDateTime createdAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setOwner(OWNER);
+        record.setIdempotencyKey(KEY);
+        record.setFingerprint(FINGERPRINT);
+        record.setStatus(status);
+        record.setCreatedAt(createdAt);
+        return record;
+    }
+}
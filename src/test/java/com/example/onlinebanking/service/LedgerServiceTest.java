@@ -0,0 +1,223 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.JournalEntry;
+import com.example.onlinebanking.model.JournalEntryType;
+import com.example.onlinebanking.model.Posting;
+import com.example.onlinebanking.model.PostingDirection;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.model.dto.LedgerReconciliationDTO;
+import com.example.onlinebanking.model.dto.TransferRequest;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.JournalEntryRepository;
+import com.example.onlinebanking.repository.PostingRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the {@link LedgerService} class and the ledger entries written by {@link AccountService} and
+ * {@link TransferService}, against an embedded H2 database.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Opening balances and transfers recorded as balanced journal entries, with a reconciled ledger.</li>
+ *     <li>Batch transfers recording entries for completed transfers only.</li>
+ *     <li>Reconciliation reporting a balance changed outside the ledger.</li>
+ *     <li>Reconciliation reporting a transfer entry whose postings do not balance.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest(properties = "banking.transfer.locking-mode=PESSIMISTIC")
+@Import({LedgerService.class, AccountService.class, TransferService.class, AccountCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerServiceTest {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private PostingRepository postingRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Account first;
+
+    private Account second;
+
+    private String firstNumber;
+
+    private String secondNumber;
+
+    /**
+     * Opens two accounts through the {@link AccountService}, which records their opening balances.
+     * Each test uses fresh account numbers, since the account IDs of earlier tests stay in the {@link AccountCache}.
+     */
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("ledger");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        String prefix = "LEDGER-" + RUN.incrementAndGet() + "-";
+        firstNumber = prefix + 1;
+        secondNumber = prefix + 2;
+        first = accountService.createAccount(newAccount(user, firstNumber));
+        second = accountService.createAccount(newAccount(user, secondNumber));
+    }
+
+    /**
+     * Removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        postingRepository.deleteAll();
+        journalEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Tests that opening balances and transfers are recorded as journal entries, and that the ledger reconciles.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Act: Transfer 100.00 from the first account to the second and 40.00 back.</li>
+     *     <li>Assert: Verify that there are two opening and two transfer entries, that each transfer entry refers to
+     *     its transaction, and that the postings of each account sum to its balance.</li>
+     * </ol>
+     */
+    @Test
+    void testRecordTransfer_LedgerReconciles() {
+        // Act
+        transferService.transferFunds(firstNumber, secondNumber, new BigDecimal("100.00"));
+        transferService.transferFunds(secondNumber, firstNumber, new BigDecimal("40.00"));
+
+        // Assert
+        List<JournalEntry> entries = journalEntryRepository.findAll();
+        assertEquals(2, entries.stream().filter(entry -> entry.getType() == JournalEntryType.OPENING).count());
+        assertEquals(2, entries.stream().filter(entry -> entry.getType() == JournalEntryType.TRANSFER).count());
+        assertTrue(entries.stream()
+                .filter(entry -> entry.getType() == JournalEntryType.TRANSFER)
+                .allMatch(entry -> transactionRepository.existsById(entry.getTransactionId())));
+        assertEquals(6, postingRepository.count());
+        assertEquals(0, new BigDecimal("940.00").compareTo(postingRepository.sumByAccountId(first.getId())));
+        assertEquals(0, new BigDecimal("1060.00").compareTo(postingRepository.sumByAccountId(second.getId())));
+
+        LedgerReconciliationDTO reconciliation = ledgerService.reconcile();
+        assertTrue(reconciliation.isReconciled());
+        assertEquals(2, reconciliation.getAccountsChecked());
+    }
+
+    /**
+     * Tests that a batch records one entry per completed transfer, and none for a rejected one.
+     */
+    @Test
+    void testRecordTransfers_Batch() {
+        transferService.transferBatch(List.of(
+                new TransferRequest(firstNumber, secondNumber, new BigDecimal("10.00")),
+                new TransferRequest(firstNumber, secondNumber, new BigDecimal("5000.00")),
+                new TransferRequest(secondNumber, firstNumber, new BigDecimal("20.00"))));
+
+        assertEquals(2, journalEntryRepository.findAll().stream()
+                .filter(entry -> entry.getType() == JournalEntryType.TRANSFER)
+                .count());
+        assertTrue(ledgerService.reconcile().isReconciled());
+    }
+
+    /**
+     * Tests that a balance changed without a ledger entry is reported with both balances.
+     */
+    @Test
+    void testReconcile_BalanceMismatch() {
+        // Arrange
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> accountRepository.adjustBalance(second.getId(), new BigDecimal("0.01")));
+
+        // Act
+        LedgerReconciliationDTO reconciliation = ledgerService.reconcile();
+
+        // Assert
+        assertFalse(reconciliation.isReconciled());
+        assertEquals(1, reconciliation.getMismatches().size());
+        assertEquals(secondNumber, reconciliation.getMismatches().get(0).getAccountNumber());
+        assertEquals(0, new BigDecimal("1000.01").compareTo(reconciliation.getMismatches().get(0).getBalance()));
+        assertEquals(0, OPENING_BALANCE.compareTo(reconciliation.getMismatches().get(0).getLedgerBalance()));
+        assertEquals(0, reconciliation.getUnbalancedEntries());
+    }
+
+    /**
+     * Tests that a transfer entry whose postings do not sum to zero is reported.
+     */
+    @Test
+    void testReconcile_UnbalancedEntry() {
+        // Arrange
+        journalEntryRepository.save(new JournalEntry(JournalEntryType.TRANSFER, LocalDateTime.now(), null)
+                .addPosting(first.getId(), PostingDirection.DEBIT, new BigDecimal("10.00"))
+                .addPosting(second.getId(), PostingDirection.CREDIT, new BigDecimal("9.99")));
+
+        // Act
+        LedgerReconciliationDTO reconciliation = ledgerService.reconcile();
+
+        // Assert
+        assertFalse(reconciliation.isReconciled());
+        assertEquals(1, reconciliation.getUnbalancedEntries());
+        assertEquals(2, reconciliation.getMismatches().size());
+        List<Posting> postings = postingRepository.findAll();
+        assertEquals(4, postings.size());
+    }
+
+    private Account newAccount(User user, String accountNumber) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setBalance(OPENING_BALANCE);
+        account.setUser(user);
+        return account;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.exception.ResourceNotFoundException;
+import com.example.onlinebanking.model.dto.TransactionHistoryView;
+import com.example.onlinebanking.model.dto.TransactionPageDTO;
+import com.example.onlinebanking.model.dto.TransactionRecordView;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link TransactionService} class.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Reading the first page of the history and chaining to the next page with its cursor.</li>
+ *     <li>Reading the last page, which has no cursor.</li>
+ *     <li>Rejecting malformed cursors and unknown accounts.</li>
+ *     <li>Streaming the whole history to a consumer, with account numbers or with account IDs.</li>
+ *     <li>Streaming the statement of a period to a consumer and counting its rows.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class TransactionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 10, 1, 12, 0);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    /**
+     * Sets up the test environment by initializing the mocks.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(accountRepository.findIdByAccountNumber("123456789")).thenReturn(Optional.of(7L));
+    }
+
+    /**
+     * Tests that a full page returns a cursor which seeks past its last row.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Return one row more than the requested limit from the first-page query.</li>
+     *     <li>Act: Request the first page, then the next page with the returned cursor.</li>
+     *     <li>Assert: Verify the page size and that the next query starts after the last row of the first page.</li>
+     * </ol>
+     */
+    @Test
+    void testGetTransactionHistory_CursorChainsPages() {
+        // Arrange
+        when(transactionRepository.findHistory(7L, 3))
+                .thenReturn(rows(30, 29, 28));
+        when(transactionRepository.findHistoryBefore(7L, NOW.minusSeconds(29), 29L, 3))
+                .thenReturn(rows(28));
+
+        // Act
+        TransactionPageDTO first = transactionService.getTransactionHistory("123456789", null, 2);
+        TransactionPageDTO second = transactionService.getTransactionHistory("123456789", first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(2, first.getTransactions().size());
+        assertEquals(29L, first.getTransactions().get(1).getId());
+        assertNotNull(first.getNextCursor());
+        assertEquals(1, second.getTransactions().size());
+        assertNull(second.getNextCursor());
+    }
+
+    /**
+     * Tests that a malformed cursor is rejected.
+     */
+    @Test
+    void testGetTransactionHistory_InvalidCursor() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transactionService.getTransactionHistory("123456789", "not-a-cursor", 10));
+        assertEquals("Invalid cursor", exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    /**
+     * Tests that the history of an unknown account is reported as not found.
+     */
+    @Test
+    void testGetTransactionHistory_AccountNotFound() {
+        // Arrange
+        when(accountRepository.findIdByAccountNumber("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> transactionService.getTransactionHistory("missing", null, 10));
+    }
+
+    /**
+     * Tests that the requested limit is capped at the maximum page size.
+     */
+    @Test
+    void testGetTransactionHistory_LimitCapped() {
+        // Arrange
+        when(transactionRepository.findHistory(eq(7L), anyInt())).thenReturn(List.of());
+
+        // Act
+        transactionService.getTransactionHistory("123456789", null, 1_000_000);
+
+        // Assert
+        verify(transactionRepository).findHistory(7L, 501);
+    }
+
+    /**
+     * Tests that the sent and received rows are merged newest first, and that both cursors are closed.
+     * A row with a higher ID is older here.
+     */
+    @Test
+    void testStreamTransactionHistory() {
+        // Arrange
+        List<Boolean> closed = new ArrayList<>();
+        when(transactionRepository.streamSentHistory(7L))
+                .thenReturn(rows(1, 4, 5).stream().onClose(() -> closed.add(true)));
+        when(transactionRepository.streamReceivedHistory(7L))
+                .thenReturn(rows(2, 3, 6).stream().onClose(() -> closed.add(true)));
+        List<Long> ids = new ArrayList<>();
+
+        // Act
+        transactionService.streamTransactionHistory(7L, transaction -> ids.add(transaction.getId()));
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), ids);
+        assertEquals(2, closed.size());
+    }
+
+    /**
+     * Tests that every streamed export row reaches the consumer in order, with its account IDs.
+     */
+    @Test
+    void testStreamTransactionRecords() {
+        // Arrange
+        SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        when(transactionRepository.streamSentRecords(7L)).thenReturn(Arrays.stream(new long[]{2})
+                .mapToObj(id -> projectionFactory.createProjection(TransactionRecordView.class, Map.of(
+                        "id", id,
+                        "fromAccountId", 7L,
+                        "toAccountId", 8L,
+                        "amount", BigDecimal.ONE,
+                        "type", "TRANSFER",
+                        "timestamp", NOW.minusSeconds(1)))));
+        when(transactionRepository.streamReceivedRecords(7L)).thenReturn(Arrays.stream(new long[]{1, 3})
+                .mapToObj(id -> projectionFactory.createProjection(TransactionRecordView.class, Map.of(
+                        "id", id,
+                        "fromAccountId", 8L,
+                        "toAccountId", 7L,
+                        "amount", BigDecimal.ONE,
+                        "type", "TRANSFER",
+                        "timestamp", NOW.minusSeconds(id)))));
+        List<TransactionRecordView> records = new ArrayList<>();
+
+        // Act
+        transactionService.streamTransactionRecords(7L, records::add);
+
+        // Assert
+        assertEquals(List.of(2L, 1L, 3L), records.stream().map(TransactionRecordView::getId).toList());
+        assertEquals(8L, records.get(0).getToAccountId());
+    }
+
+    /**
+     * Tests that the sent and received statement rows of the period are merged oldest first, and that the rows are
+     * counted. A row with a higher ID is older here.
+     */
+    @Test
+    void testStreamStatement() {
+        // Arrange
+        LocalDateTime from = NOW.minusDays(30);
+        when(transactionRepository.streamSentInPeriod(7L, from, NOW)).thenReturn(rows(4, 3).stream());
+        when(transactionRepository.streamReceivedInPeriod(7L, from, NOW)).thenReturn(rows(5, 2, 1).stream());
+        List<Long> ids = new ArrayList<>();
+
+        // Act
+        long count = transactionService.streamStatement(7L, from, NOW, transaction -> ids.add(transaction.getId()));
+
+        // Assert
+        assertEquals(5, count);
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), ids);
+    }
+
+    private List<TransactionHistoryView> rows(long... ids) {
+        SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        return Arrays.stream(ids)
+                .mapToObj(id -> projectionFactory.createProjection(TransactionHistoryView.class, Map.of(
+                        "id", id,
+                        "fromAccount", "123456789",
+                        "toAccount", "987654321",
+                        "amount", BigDecimal.ONE,
+                        "type", "TRANSFER",
+                        "timestamp", NOW.minusSeconds(id))))
+                .toList();
+    }
+}
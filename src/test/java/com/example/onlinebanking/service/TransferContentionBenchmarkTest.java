@@ -0,0 +1,161 @@
+package com.example.onlinebanking.service;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contention benchmark for {@link TransferService#transferFunds(String, String, BigDecimal)}.
+ *
+ * <p>64 threads transfer random amounts between a handful of hot accounts in both directions. The test reports
+ * the achieved throughput and asserts that:
+ * <ul>
+ *     <li>The sum of all balances is unchanged (no lost updates).</li>
+ *     <li>No balance ever goes negative.</li>
+ *     <li>No transfer failed for any reason other than insufficient balance or an exhausted optimistic retry budget
+ *     (no deadlocks or lock timeouts).</li>
+ * </ul>
+ *
+ * <p>The benchmark is skipped by default. Run it with {@code mvn test -Dbenchmark=true -Dtest=TransferContentionBenchmarkTest},
+ * adding {@code -Dbenchmark.mode=OPTIMISTIC} to measure the optimistic mode instead of the pessimistic one.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest(properties = {
+        "banking.transfer.locking-mode=${benchmark.mode:PESSIMISTIC}",
+        "spring.datasource.url=jdbc:h2:mem:contention;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=64"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransferService.class, AccountCache.class, LedgerService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransferContentionBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int TRANSFERS_PER_THREAD = 200;
+    private static final int HOT_ACCOUNTS = 4;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("10000.00");
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    /**
+     * Creates one user owning {@value #HOT_ACCOUNTS} accounts, each funded with the same initial balance.
+     */
+    @BeforeEach
+    void setUp() {
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("contention");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setAccountNumber("HOT-" + i);
+            account.setBalance(INITIAL_BALANCE);
+            account.setUser(user);
+            accountRepository.save(account);
+            accountNumbers.add(account.getAccountNumber());
+        }
+    }
+
+    /**
+     * Runs the contended workload and checks that money is neither created nor destroyed.
+     *
+     * @throws InterruptedException if the benchmark is interrupted while waiting for the workers.
+     */
+    @Test
+    void transfersOnHotAccountsKeepTotalBalance() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+        AtomicInteger conflicted = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(HOT_ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(HOT_ACCOUNTS - 1)) % HOT_ACCOUNTS;
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 500), 2);
+                    try {
+                        transferService.transferFunds(accountNumbers.get(from), accountNumbers.get(to), amount);
+                        completed.incrementAndGet();
+                    } catch (RuntimeException ex) {
+                        if ("Insufficient balance".equals(ex.getMessage())) {
+                            insufficient.incrementAndGet();
+                        } else if ("Transfer conflicted with concurrent updates, please retry".equals(ex.getMessage())) {
+                            conflicted.incrementAndGet();
+                        } else {
+                            unexpected.add(ex);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES), "Benchmark did not finish in time");
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%s: %d threads, %d transfers committed, %d rejected, %d gave up, %.0f transfers/sec, %d conflicts, %d retries%n",
+                transferService.getStats().getLockingMode(), THREADS, completed.get(), insufficient.get(), conflicted.get(),
+                completed.get() / seconds, transferService.getStats().getConflicts(), transferService.getStats().getRetries());
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accountRepository.findAll()) {
+            assertTrue(account.getBalance().signum() >= 0, "Balance went negative for " + account.getAccountNumber());
+            total = total.add(account.getBalance());
+        }
+
+        assertTrue(unexpected.isEmpty(), "Unexpected transfer failures: " + unexpected);
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(HOT_ACCOUNTS)).compareTo(total),
+                "Total balance drifted");
+    }
+}
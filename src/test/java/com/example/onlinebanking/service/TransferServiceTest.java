@@ -2,15 +2,25 @@ package com.example.onlinebanking.service;
 
 import com.example.onlinebanking.model.Account;
 import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.model.dto.AccountSnapshot;
+import com.example.onlinebanking.model.dto.TransferRequest;
+import com.example.onlinebanking.model.dto.TransferResult;
+import com.example.onlinebanking.model.dto.TransferStatsDTO;
 import com.example.onlinebanking.repository.AccountRepository;
 import com.example.onlinebanking.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -43,6 +53,12 @@ class TransferServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private LedgerService ledgerService;
+
     @InjectMocks
     private TransferService transferService;
 
@@ -53,6 +69,12 @@ class TransferServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transferService, "transactionTemplate", new TransactionTemplate(transactionManager));
+
+        AccountCache accountCache = new AccountCache();
+        ReflectionTestUtils.setField(accountCache, "accountRepository", accountRepository);
+        accountCache.init();
+        ReflectionTestUtils.setField(transferService, "accountCache", accountCache);
     }
 
     /**
@@ -76,30 +98,33 @@ class TransferServiceTest {
         BigDecimal amount = BigDecimal.valueOf(500.0);
 
         Account fromAccount = new Account();
+        fromAccount.setId(1L);
         fromAccount.setAccountNumber(fromAccountNumber);
         fromAccount.setBalance(BigDecimal.valueOf(1000.0));
 
         Account toAccount = new Account();
+        toAccount.setId(2L);
         toAccount.setAccountNumber(toAccountNumber);
         toAccount.setBalance(BigDecimal.valueOf(2000.0));
 
-        when(accountRepository.findByAccountNumber(fromAccountNumber)).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findByAccountNumber(toAccountNumber)).thenReturn(Optional.of(toAccount));
+        stubLookup(fromAccount);
+        stubLookup(toAccount);
 
         // Act
         transferService.transferFunds(fromAccountNumber, toAccountNumber, amount);
 
         // Assert
         // Verify account balances are updated
-        assertEquals(BigDecimal.valueOf(500.0), fromAccount.getBalance()); // 1000 - 500 = 500
-        assertEquals(BigDecimal.valueOf(2500.0), toAccount.getBalance()); // 2000 + 500 = 2500
+        assertEquals(new BigDecimal("500.00"), fromAccount.getBalance()); // 1000 - 500 = 500
+        assertEquals(new BigDecimal("2500.00"), toAccount.getBalance()); // 2000 + 500 = 2500
 
         // Verify repository methods are called
-        verify(accountRepository, times(1)).findByAccountNumber(fromAccountNumber);
-        verify(accountRepository, times(1)).findByAccountNumber(toAccountNumber);
+        verify(accountRepository, times(1)).findById(1L);
+        verify(accountRepository, times(1)).findById(2L);
         verify(accountRepository, times(1)).save(fromAccount);
         verify(accountRepository, times(1)).save(toAccount);
         verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(ledgerService, times(1)).recordTransfer(any(Transaction.class));
     }
 
     /**
@@ -123,7 +148,7 @@ class TransferServiceTest {
         String toAccountNumber = "987654321";
         BigDecimal amount = BigDecimal.valueOf(500.0);
 
-        when(accountRepository.findByAccountNumber(fromAccountNumber)).thenReturn(Optional.empty());
+        when(accountRepository.findSnapshotByAccountNumber(fromAccountNumber)).thenReturn(Optional.empty());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -133,8 +158,8 @@ class TransferServiceTest {
         assertEquals("From account not found", exception.getMessage());
 
         // Verify repository methods are called
-        verify(accountRepository, times(1)).findByAccountNumber(fromAccountNumber);
-        verify(accountRepository, never()).findByAccountNumber(toAccountNumber);
+        verify(accountRepository, times(1)).findSnapshotByAccountNumber(fromAccountNumber);
+        verify(accountRepository, never()).findSnapshotByAccountNumber(toAccountNumber);
         verify(accountRepository, never()).save(any(Account.class));
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
@@ -161,11 +186,12 @@ class TransferServiceTest {
         BigDecimal amount = BigDecimal.valueOf(500.0);
 
         Account fromAccount = new Account();
+        fromAccount.setId(1L);
         fromAccount.setAccountNumber(fromAccountNumber);
         fromAccount.setBalance(BigDecimal.valueOf(1000.0));
 
-        when(accountRepository.findByAccountNumber(fromAccountNumber)).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findByAccountNumber(toAccountNumber)).thenReturn(Optional.empty());
+        stubLookup(fromAccount);
+        when(accountRepository.findSnapshotByAccountNumber(toAccountNumber)).thenReturn(Optional.empty());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -175,8 +201,8 @@ class TransferServiceTest {
         assertEquals("To account not found", exception.getMessage());
 
         // Verify repository methods are called
-        verify(accountRepository, times(1)).findByAccountNumber(fromAccountNumber);
-        verify(accountRepository, times(1)).findByAccountNumber(toAccountNumber);
+        verify(accountRepository, times(1)).findSnapshotByAccountNumber(fromAccountNumber);
+        verify(accountRepository, times(1)).findSnapshotByAccountNumber(toAccountNumber);
         verify(accountRepository, never()).save(any(Account.class));
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
@@ -203,15 +229,17 @@ class TransferServiceTest {
         BigDecimal amount = BigDecimal.valueOf(1500.0);
 
         Account fromAccount = new Account();
+        fromAccount.setId(1L);
         fromAccount.setAccountNumber(fromAccountNumber);
         fromAccount.setBalance(BigDecimal.valueOf(1000.0));
 
         Account toAccount = new Account();
+        toAccount.setId(2L);
         toAccount.setAccountNumber(toAccountNumber);
         toAccount.setBalance(BigDecimal.valueOf(2000.0));
 
-        when(accountRepository.findByAccountNumber(fromAccountNumber)).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findByAccountNumber(toAccountNumber)).thenReturn(Optional.of(toAccount));
+        stubLookup(fromAccount);
+        stubLookup(toAccount);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -221,9 +249,313 @@ class TransferServiceTest {
         assertEquals("Insufficient balance", exception.getMessage());
 
         // Verify repository methods are called
-        verify(accountRepository, times(1)).findByAccountNumber(fromAccountNumber);
-        verify(accountRepository, times(1)).findByAccountNumber(toAccountNumber);
+        verify(accountRepository, times(1)).findById(1L);
+        verify(accountRepository, times(1)).findById(2L);
         verify(accountRepository, never()).save(any(Account.class));
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that the {@link TransferService#transferFunds(String, String, BigDecimal)} method rejects negative and zero
+     * amounts before routing the transfer, without touching the repositories.
+     */
+    @Test
+    void testTransferFunds_NonPositiveAmount() {
+        // Act & Assert
+        RuntimeException negative = assertThrows(RuntimeException.class,
+                () -> transferService.transferFunds("123456789", "987654321", new BigDecimal("-10.00")));
+        assertEquals("Amount must be positive", negative.getMessage());
+
+        RuntimeException zero = assertThrows(RuntimeException.class,
+                () -> transferService.transferFunds("123456789", "987654321", BigDecimal.ZERO));
+        assertEquals("Amount must be positive", zero.getMessage());
+
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    /**
+     * Tests the {@link TransferService#transferFunds(String, String, BigDecimal)} method in {@link TransferLockingMode#PESSIMISTIC} mode.
+     *
+     * <p>This test verifies that both account rows are locked in ascending id order, even when the source account
+     * has the higher id, and that the balances read under the locks are updated.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Switch the service to pessimistic mode and set up the repository to resolve ids and lock accounts.</li>
+     *     <li>Act: Call the {@link TransferService#transferFunds(String, String, BigDecimal)} method.</li>
+     *     <li>Assert: Verify the lock order, the updated balances, and that no unlocked read was performed.</li>
+     * </ol>
+     */
+    @Test
+    void testTransferFunds_PessimisticLocksInIdOrder() {
+        // Arrange
+        ReflectionTestUtils.setField(transferService, "lockingMode", TransferLockingMode.PESSIMISTIC);
+        String fromAccountNumber = "123456789";
+        String toAccountNumber = "987654321";
+        BigDecimal amount = BigDecimal.valueOf(500.0);
+
+        Account fromAccount = new Account();
+        fromAccount.setId(2L);
+        fromAccount.setAccountNumber(fromAccountNumber);
+        fromAccount.setBalance(BigDecimal.valueOf(1000.0));
+
+        Account toAccount = new Account();
+        toAccount.setId(1L);
+        toAccount.setAccountNumber(toAccountNumber);
+        toAccount.setBalance(BigDecimal.valueOf(2000.0));
+
+        when(accountRepository.findSnapshotByAccountNumber(fromAccountNumber)).thenReturn(Optional.of(snapshot(fromAccount)));
+        when(accountRepository.findSnapshotByAccountNumber(toAccountNumber)).thenReturn(Optional.of(snapshot(toAccount)));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(toAccount));
+
+        // Act
+        transferService.transferFunds(fromAccountNumber, toAccountNumber, amount);
+
+        // Assert
+        assertEquals(new BigDecimal("500.00"), fromAccount.getBalance());
+        assertEquals(new BigDecimal("2500.00"), toAccount.getBalance());
+
+        InOrder lockOrder = inOrder(accountRepository);
+        lockOrder.verify(accountRepository).findByIdForUpdate(1L);
+        lockOrder.verify(accountRepository).findByIdForUpdate(2L);
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).findById(any());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+
+    /**
+     * Tests the {@link TransferService#transferFunds(String, String, BigDecimal)} method in {@link TransferLockingMode#PESSIMISTIC} mode
+     * when the destination account is not found.
+     *
+     * <p>This test verifies that no row is locked when one of the accounts cannot be resolved.
+     */
+    @Test
+    void testTransferFunds_PessimisticDestinationAccountNotFound() {
+        // Arrange
+        ReflectionTestUtils.setField(transferService, "lockingMode", TransferLockingMode.PESSIMISTIC);
+        when(accountRepository.findSnapshotByAccountNumber("123456789")).thenReturn(Optional.of(snapshot(newAccount("123456789", "0.00"))));
+        when(accountRepository.findSnapshotByAccountNumber("987654321")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transferService.transferFunds("123456789", "987654321", BigDecimal.TEN));
+
+        assertEquals("To account not found", exception.getMessage());
+        verify(accountRepository, never()).findByIdForUpdate(any());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    /**
+     * Tests the {@link TransferService#transferFunds(String, String, BigDecimal)} method in {@link TransferLockingMode#OPTIMISTIC} mode
+     * when the first attempt hits a version conflict.
+     *
+     * <p>This test verifies that the transfer is retried with freshly read accounts in a new transaction,
+     * and that the conflict and retry are counted.
+     */
+    @Test
+    void testTransferFunds_OptimisticRetriesOnConflict() {
+        // Arrange
+        ReflectionTestUtils.setField(transferService, "lockingMode", TransferLockingMode.OPTIMISTIC);
+        ReflectionTestUtils.setField(transferService, "optimisticInitialBackoffMs", 0L);
+        String fromAccountNumber = "123456789";
+        String toAccountNumber = "987654321";
+
+        Account staleFrom = newAccount(fromAccountNumber, "1000.00");
+        Account staleTo = newAccount(toAccountNumber, "2000.00");
+        Account freshFrom = newAccount(fromAccountNumber, "900.00");
+        Account freshTo = newAccount(toAccountNumber, "2100.00");
+
+        when(accountRepository.findSnapshotByAccountNumber(fromAccountNumber)).thenReturn(Optional.of(snapshot(staleFrom)));
+        when(accountRepository.findSnapshotByAccountNumber(toAccountNumber)).thenReturn(Optional.of(snapshot(staleTo)));
+        when(accountRepository.findById(staleFrom.getId())).thenReturn(Optional.of(staleFrom), Optional.of(freshFrom));
+        when(accountRepository.findById(staleTo.getId())).thenReturn(Optional.of(staleTo), Optional.of(freshTo));
+        when(accountRepository.save(staleFrom)).thenThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L));
+
+        // Act
+        transferService.transferFunds(fromAccountNumber, toAccountNumber, new BigDecimal("100.00"));
+
+        // Assert
+        assertEquals(new BigDecimal("800.00"), freshFrom.getBalance());
+        assertEquals(new BigDecimal("2200.00"), freshTo.getBalance());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+
+        TransferStatsDTO stats = transferService.getStats();
+        assertEquals("OPTIMISTIC", stats.getLockingMode());
+        assertEquals(1, stats.getConflicts());
+        assertEquals(1, stats.getRetries());
+        assertEquals(0, stats.getExhausted());
+    }
+
+    /**
+     * Tests the {@link TransferService#transferFunds(String, String, BigDecimal)} method in {@link TransferLockingMode#OPTIMISTIC} mode
+     * when every attempt conflicts.
+     *
+     * <p>This test verifies that the service gives up after the configured number of attempts.
+     */
+    @Test
+    void testTransferFunds_OptimisticRetryBudgetExhausted() {
+        // Arrange
+        ReflectionTestUtils.setField(transferService, "lockingMode", TransferLockingMode.OPTIMISTIC);
+        ReflectionTestUtils.setField(transferService, "optimisticInitialBackoffMs", 0L);
+        ReflectionTestUtils.setField(transferService, "optimisticMaxAttempts", 3);
+
+        stubLookup(newAccount("123456789", "1000.00"));
+        stubLookup(newAccount("987654321", "1000.00"));
+        when(accountRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(newAccount(String.valueOf(invocation.<Long>getArgument(0)), "1000.00")));
+        when(accountRepository.save(any(Account.class))).thenThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transferService.transferFunds("123456789", "987654321", BigDecimal.TEN));
+
+        assertEquals("Transfer conflicted with concurrent updates, please retry", exception.getMessage());
+        verify(accountRepository, times(3)).findById(123456789L);
+        // The account IDs are only looked up once, later attempts are served from the cache
+        verify(accountRepository, times(1)).findSnapshotByAccountNumber("123456789");
+        verify(transactionRepository, never()).save(any(Transaction.class));
+
+        TransferStatsDTO stats = transferService.getStats();
+        assertEquals(3, stats.getConflicts());
+        assertEquals(2, stats.getRetries());
+        assertEquals(1, stats.getExhausted());
+    }
+
+    /**
+     * Tests the {@link TransferService#transferBatch(List)} method with a mix of valid and invalid transfers.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Return two accounts from a single lookup by account numbers.</li>
+     *     <li>Act: Submit a batch with one valid transfer, one unknown destination and one overdraft.</li>
+     *     <li>Assert: Verify the per-transfer results, the balances and that the transactions are saved together.</li>
+     * </ol>
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransferBatch_MixedResults() {
+        // Arrange
+        Account fromAccount = newAccount("123456789", "1000.00");
+        Account toAccount = newAccount("987654321", "2000.00");
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount));
+
+        List<TransferRequest> transfers = List.of(
+                new TransferRequest("123456789", "987654321", new BigDecimal("300.00")),
+                new TransferRequest("123456789", "missing", new BigDecimal("10.00")),
+                new TransferRequest("123456789", "987654321", new BigDecimal("800.00")));
+
+        // Act
+        List<TransferResult> results = transferService.transferBatch(transfers);
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(TransferResult.COMPLETED, results.get(0).getStatus());
+        assertEquals(TransferResult.FAILED, results.get(1).getStatus());
+        assertEquals("To account not found", results.get(1).getMessage());
+        assertEquals(TransferResult.FAILED, results.get(2).getStatus());
+        assertEquals("Insufficient balance", results.get(2).getMessage());
+        assertEquals(new BigDecimal("700.00"), fromAccount.getBalance());
+        assertEquals(new BigDecimal("2300.00"), toAccount.getBalance());
+
+        verify(accountRepository, times(1)).findByAccountNumberIn(anyCollection());
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(transactionRepository, times(1)).saveAll(argThat(saved -> ((List<Transaction>) saved).size() == 1));
+    }
+
+    /**
+     * Tests that {@link TransferService#transferBatch(List)} reports invalid amounts per transfer without failing
+     * the rest of the chunk.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Return two accounts from a single lookup by account numbers.</li>
+     *     <li>Act: Submit a batch with a negative, a zero, a missing and a three-decimal amount, then a valid one.</li>
+     *     <li>Assert: Verify that only the last transfer was applied and saved.</li>
+     * </ol>
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransferBatch_InvalidAmounts() {
+        // Arrange
+        Account fromAccount = newAccount("123456789", "1000.00");
+        Account toAccount = newAccount("987654321", "2000.00");
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount));
+
+        List<TransferRequest> transfers = List.of(
+                new TransferRequest("123456789", "987654321", new BigDecimal("-50.00")),
+                new TransferRequest("123456789", "987654321", BigDecimal.ZERO),
+                new TransferRequest("123456789", "987654321", null),
+                new TransferRequest("123456789", "987654321", new BigDecimal("1.005")),
+                new TransferRequest("123456789", "987654321", new BigDecimal("100.00")));
+
+        // Act
+        List<TransferResult> results = transferService.transferBatch(transfers);
+
+        // Assert
+        assertEquals(List.of(TransferResult.FAILED, TransferResult.FAILED, TransferResult.FAILED, TransferResult.FAILED,
+                TransferResult.COMPLETED), results.stream().map(TransferResult::getStatus).toList());
+        assertEquals("Amount must be positive", results.get(0).getMessage());
+        assertEquals("Amount must be positive", results.get(1).getMessage());
+        assertEquals("Amount is required", results.get(2).getMessage());
+        assertEquals("Amount must have at most 2 decimal places", results.get(3).getMessage());
+        assertEquals(new BigDecimal("900.00"), fromAccount.getBalance());
+        assertEquals(new BigDecimal("2100.00"), toAccount.getBalance());
+        verify(transactionRepository, times(1)).saveAll(argThat(saved -> ((List<Transaction>) saved).size() == 1));
+    }
+
+    /**
+     * Tests that {@link TransferService#transferBatch(List)} rejects batches larger than the configured maximum.
+     */
+    @Test
+    void testTransferBatch_TooLarge() {
+        // Arrange
+        ReflectionTestUtils.setField(transferService, "batchMaxSize", 1);
+        List<TransferRequest> transfers = List.of(
+                new TransferRequest("123456789", "987654321", BigDecimal.ONE),
+                new TransferRequest("123456789", "987654321", BigDecimal.ONE));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> transferService.transferBatch(transfers));
+        assertEquals("Batch exceeds the maximum of 1 transfers", exception.getMessage());
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    /**
+     * Helper method to create an {@link Account} with the given number and balance.
+     * The account ID is derived from the account number.
+     *
+     * @param accountNumber the account number to set.
+     * @param balance the balance to set.
+     * @return the new account.
+     */
+    private Account newAccount(String accountNumber, String balance) {
+        Account account = new Account();
+        account.setId(Long.valueOf(accountNumber));
+        account.setAccountNumber(accountNumber);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+
+    /**
+     * Helper method to make an account resolvable by number through the account cache and loadable by ID.
+     *
+     * @param account the account to stub.
+     */
+    private void stubLookup(Account account) {
+        when(accountRepository.findSnapshotByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(snapshot(account)));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+    }
+
+    /**
+     * Helper method to build the cache snapshot of an account.
+     *
+     * @param account the account.
+     * @return the snapshot of the account.
+     */
+    private AccountSnapshot snapshot(Account account) {
+        return new AccountSnapshot(account.getId(), account.getAccountNumber(), null, account.getBalance(), account.getVersion());
+    }
+}
@@ -0,0 +1,410 @@
+package com.example.onlinebanking.service.engine;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.PendingCreditRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import com.example.onlinebanking.service.AccountCache;
+import com.example.onlinebanking.service.LedgerService;
+import com.example.onlinebanking.service.TransferLockingMode;
+import com.example.onlinebanking.service.TransferService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the {@link AccountMailboxEngine} class against an embedded H2 database.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Rejection of invalid amounts, unknown accounts and insufficient balances with the same messages as the
+ *     database path.</li>
+ *     <li>Removal of idle mailboxes, and no mailbox for an unknown source account.</li>
+ *     <li>Transfers submitted while a worker finishes its mailbox, which never run in two workers at once.</li>
+ *     <li>Concurrent transfers that conserve the total balance and are recorded exactly.</li>
+ *     <li>Credits to a hot account that are applied with a single balance update per flush.</li>
+ *     <li>A hot-account benchmark comparing the mailboxes with pessimistic locking at an increasing number of
+ *     distinct payers, skipped unless {@code -Dbenchmark=true} is set.</li>
+ * </ul>
+ *
+ * <p>Each test uses fresh account numbers, since the account IDs of earlier tests stay in the {@link AccountCache}.
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest(properties = {
+        "banking.transfer.mailbox.enabled=true",
+        "banking.transfer.mailbox.workers=16",
+        "banking.transfer.mailbox.credit-flush-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:mailbox;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=20"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AccountMailboxEngine.class, AccountCache.class, LedgerService.class, TransferService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountMailboxEngineTest {
+
+    private static final int ACCOUNTS = 16;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private AccountMailboxEngine engine;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PendingCreditRepository pendingCreditRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    private String prefix;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    /**
+     * Creates {@value #ACCOUNTS} accounts with the same opening balance.
+     */
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("mailbox");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        prefix = "MBX-" + RUN.incrementAndGet() + "-";
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(createAccount(prefix + i, OPENING_BALANCE).getAccountNumber());
+        }
+    }
+
+    /**
+     * Applies the remaining credits and removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        engine.flushCredits();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Tests that invalid transfers are rejected without recording anything.
+     */
+    @Test
+    void testTransfer_Rejections() {
+        String from = accountNumbers.get(0);
+        String to = accountNumbers.get(1);
+
+        RuntimeException fromMissing = assertThrows(RuntimeException.class, () -> engine.transfer("missing", to, BigDecimal.ONE));
+        assertEquals("From account not found", fromMissing.getMessage());
+
+        RuntimeException toMissing = assertThrows(RuntimeException.class, () -> engine.transfer(from, "missing", BigDecimal.ONE));
+        assertEquals("To account not found", toMissing.getMessage());
+
+        RuntimeException insufficient = assertThrows(RuntimeException.class,
+                () -> engine.transfer(from, to, new BigDecimal("1000.01")));
+        assertEquals("Insufficient balance", insufficient.getMessage());
+
+        RuntimeException negative = assertThrows(RuntimeException.class,
+                () -> engine.transfer(from, to, new BigDecimal("-1.00")));
+        assertEquals("Amount must be positive", negative.getMessage());
+
+        RuntimeException scale = assertThrows(RuntimeException.class,
+                () -> engine.transfer(from, to, new BigDecimal("1.005")));
+        assertEquals("Amount must have at most 2 decimal places", scale.getMessage());
+
+        assertEquals(0, transactionRepository.count());
+        assertEquals(0, pendingCreditRepository.count());
+        assertEquals(0, OPENING_BALANCE.compareTo(accountRepository.findByAccountNumber(from).orElseThrow().getBalance()));
+    }
+
+    /**
+     * Tests that no mailbox is created for an unknown source account, and that mailboxes are removed once drained.
+     */
+    @Test
+    void testSubmitTransfer_RemovesIdleMailboxes() throws InterruptedException {
+        Map<?, ?> mailboxes = (Map<?, ?>) ReflectionTestUtils.getField(engine, "mailboxes");
+
+        assertThrows(RuntimeException.class, () -> engine.transfer("missing", accountNumbers.get(1), BigDecimal.ONE));
+        assertTrue(mailboxes.isEmpty());
+
+        runRandomTransfers(1_000);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!mailboxes.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(mailboxes.isEmpty(), mailboxes.size() + " idle mailboxes left");
+    }
+
+    /**
+     * Tests that a payer's transfers are performed by one worker at a time, even when they are submitted while the
+     * worker that drained the mailbox is finishing.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Count the database transactions of the engine running at the same time.</li>
+     *     <li>Act: From two threads, transfer from the same payer over and over, each thread submitting its next transfer
+     *     as soon as the previous one has committed.</li>
+     *     <li>Assert: Verify that no two batches ran at once, that the payer was debited for every transfer, and that
+     *     no mailbox is left.</li>
+     * </ol>
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the submitters.
+     */
+    @Test
+    void testSubmitTransfer_SingleWorkerPerPayer() throws InterruptedException {
+        // Arrange
+        TransactionTemplate original = (TransactionTemplate) ReflectionTestUtils.getField(engine, "transactionTemplate");
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        ReflectionTestUtils.setField(engine, "transactionTemplate",
+                new TransactionTemplate(original.getTransactionManager()) {
+                    @Override
+                    public <T> T execute(TransactionCallback<T> action) {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        try {
+                            return super.execute(action);
+                        } finally {
+                            active.decrementAndGet();
+                        }
+                    }
+                });
+        String payer = accountNumbers.get(0);
+        int submitters = 2;
+        int transfersPerSubmitter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(submitters);
+
+        // Act
+        try {
+            for (int i = 0; i < submitters; i++) {
+                String payee = accountNumbers.get(i + 1);
+                executor.execute(() -> {
+                    for (int j = 0; j < transfersPerSubmitter; j++) {
+                        engine.transfer(payer, payee, new BigDecimal("0.01"));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        } finally {
+            ReflectionTestUtils.setField(engine, "transactionTemplate", original);
+        }
+
+        // Assert
+        assertEquals(1, maxActive.get(), "Transfers of one payer ran in two workers at once");
+        assertEquals(0, OPENING_BALANCE.subtract(new BigDecimal("0.01").multiply(
+                        BigDecimal.valueOf((long) submitters * transfersPerSubmitter)))
+                .compareTo(accountRepository.findByAccountNumber(payer).orElseThrow().getBalance()));
+        Map<?, ?> mailboxes = (Map<?, ?>) ReflectionTestUtils.getField(engine, "mailboxes");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!mailboxes.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(mailboxes.isEmpty(), mailboxes.size() + " idle mailboxes left");
+    }
+
+    /**
+     * Tests that concurrent transfers conserve the total balance once the credits are applied,
+     * and that the stored balances equal the opening balances replayed with the recorded transactions.
+     */
+    @Test
+    void testTransfer_ConcurrentTransfersConserveTotal() {
+        runRandomTransfers(5_000);
+        engine.flushCredits();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accountRepository.findAll()) {
+            assertTrue(account.getBalance().signum() >= 0, "Negative balance for " + account.getAccountNumber());
+            total = total.add(account.getBalance());
+        }
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+        assertEquals(0, pendingCreditRepository.count());
+        assertTransactionsReplayToStoredBalances();
+    }
+
+    /**
+     * Tests that the credits of many transfers to one account are held back and then applied with one update.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Act: Transfer 1.00 from each of the other accounts to the first one, ten times over.</li>
+     *     <li>Assert: Verify that the payers were debited at once while the payee's balance is unchanged,
+     *     then that one flush credits the whole sum and increments the payee's version once.</li>
+     * </ol>
+     */
+    @Test
+    void testFlushCredits_CoalescesHotAccount() {
+        // Arrange
+        String merchant = accountNumbers.get(0);
+        Account before = accountRepository.findByAccountNumber(merchant).orElseThrow();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // Act
+        for (int round = 0; round < 10; round++) {
+            for (int i = 1; i < ACCOUNTS; i++) {
+                futures.add(engine.submitTransfer(accountNumbers.get(i), merchant, BigDecimal.ONE));
+            }
+        }
+        futures.forEach(CompletableFuture::join);
+        Account held = accountRepository.findByAccountNumber(merchant).orElseThrow();
+        long pending = pendingCreditRepository.count();
+        int applied = engine.flushCredits();
+        Account after = accountRepository.findByAccountNumber(merchant).orElseThrow();
+
+        // Assert
+        assertEquals(0, OPENING_BALANCE.compareTo(held.getBalance()), "Credits should wait for the flush");
+        assertEquals(0, new BigDecimal("990.00").compareTo(
+                accountRepository.findByAccountNumber(accountNumbers.get(1)).orElseThrow().getBalance()));
+        assertEquals(10L * (ACCOUNTS - 1), pending);
+        assertEquals(10 * (ACCOUNTS - 1), applied);
+        assertEquals(0, OPENING_BALANCE.add(BigDecimal.valueOf(10L * (ACCOUNTS - 1))).compareTo(after.getBalance()));
+        assertEquals(before.getVersion() + 1, after.getVersion(), "All credits should be applied with one update");
+    }
+
+    /**
+     * Measures transfers per second into one hot merchant account, from 1 to 16 distinct payers sending concurrently,
+     * through the mailboxes and through {@link TransferService} with pessimistic locking.
+     *
+     * @throws InterruptedException if the benchmark is interrupted while waiting for the payers.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkHotAccountScaling() throws InterruptedException {
+        int transfersPerPayer = 2_000;
+        Account merchant = createAccount(prefix + "MERCHANT", BigDecimal.ZERO);
+        List<String> payers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            payers.add(createAccount(prefix + "PAYER-" + i, new BigDecimal("1000000.00")).getAccountNumber());
+        }
+        ReflectionTestUtils.setField(transferService, "lockingMode", TransferLockingMode.PESSIMISTIC);
+        Object mailboxEngine = ReflectionTestUtils.getField(transferService, "mailboxEngine");
+
+        for (boolean mailboxes : new boolean[]{true, false}) {
+            ReflectionTestUtils.setField(transferService, "mailboxEngine", mailboxes ? mailboxEngine : null);
+            String mode = mailboxes ? "mailboxes" : "pessimistic";
+            double single = 0;
+            for (int payerCount : new int[]{1, 2, 4, 8, 16}) {
+                double rate = runHotAccountTransfers(merchant.getAccountNumber(), payers.subList(0, payerCount),
+                        transfersPerPayer);
+                if (payerCount == 1) {
+                    single = rate;
+                }
+                System.out.printf("Hot account (%s, %d payers): %.0f transfers/sec, %.1fx one payer%n",
+                        mode, payerCount, rate, rate / single);
+            }
+        }
+        ReflectionTestUtils.setField(transferService, "mailboxEngine", mailboxEngine);
+        ReflectionTestUtils.setField(transferService, "lockingMode", TransferLockingMode.NONE);
+        engine.flushCredits();
+        assertTransactionsReplayToStoredBalances();
+    }
+
+    private double runHotAccountTransfers(String merchant, List<String> payers, int transfersPerPayer)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(payers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        for (String payer : payers) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < transfersPerPayer; i++) {
+                    transferService.transferFunds(payer, merchant, BigDecimal.ONE);
+                }
+                return null;
+            });
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES), "Benchmark did not finish in time");
+        return payers.size() * transfersPerPayer * 1_000_000_000.0 / (System.nanoTime() - startNanos);
+    }
+
+    private void runRandomTransfers(int count) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(count);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            String from = accountNumbers.get(random.nextInt(ACCOUNTS));
+            String to = accountNumbers.get(random.nextInt(ACCOUNTS));
+            futures.add(engine.submitTransfer(from, to, BigDecimal.valueOf(random.nextInt(1, 5000), 2)));
+            if (i % 500 == 0) {
+                engine.flushCredits();
+            }
+        }
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException ex) {
+                assertEquals("Insufficient balance", ex.getCause().getMessage());
+            }
+        }
+    }
+
+    private void assertTransactionsReplayToStoredBalances() {
+        Map<Long, BigDecimal> opening = new HashMap<>();
+        Map<Long, BigDecimal> replayed = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findAll()) {
+            replayed.merge(transaction.getFromAccount().getId(), transaction.getAmount().toBigDecimal().negate(), BigDecimal::add);
+            replayed.merge(transaction.getToAccount().getId(), transaction.getAmount().toBigDecimal(), BigDecimal::add);
+        }
+        for (Account account : accountRepository.findAll()) {
+            opening.put(account.getId(), account.getAccountNumber().contains("PAYER")
+                    ? new BigDecimal("1000000.00")
+                    : account.getAccountNumber().contains("MERCHANT") ? BigDecimal.ZERO : OPENING_BALANCE);
+            BigDecimal expected = opening.get(account.getId()).add(replayed.getOrDefault(account.getId(), BigDecimal.ZERO));
+            assertEquals(0, expected.compareTo(account.getBalance()), "Replay differs for " + account.getAccountNumber());
+        }
+    }
+
+    private Account createAccount(String accountNumber, BigDecimal balance) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setBalance(balance);
+        account.setUser(user);
+        return accountRepository.save(account);
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.onlinebanking.service.engine;
+
+import com.example.onlinebanking.model.Account;
+import com.example.onlinebanking.model.Transaction;
+import com.example.onlinebanking.model.User;
+import com.example.onlinebanking.repository.AccountRepository;
+import com.example.onlinebanking.repository.TransactionRepository;
+import com.example.onlinebanking.repository.UserRepository;
+import com.example.onlinebanking.service.AccountCache;
+import com.example.onlinebanking.service.LedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the {@link ShardedBalanceEngine} class against an embedded H2 database.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Rejection of unknown accounts and insufficient balances with the same messages as the database path.</li>
+ *     <li>Same-shard and cross-shard transfers that conserve the total balance and are journaled exactly.</li>
+ *     <li>A simulated crash that discards unflushed transfers, after which the reloaded balances equal
+ *     the opening balances replayed with the journal.</li>
+ *     <li>A simulated crash with the write-ahead journal enabled, after which every acknowledged transfer is in the
+ *     database.</li>
+ *     <li>A failed sync of the write-ahead journal, which stops the engine without storing the failed transfer.</li>
+ *     <li>A throughput benchmark, skipped unless {@code -Dbenchmark=true} is set.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+@DataJpaTest(properties = {
+        "banking.engine.enabled=true",
+        "banking.engine.shards=4",
+        "banking.engine.flush-interval-ms=5"
+})
+@Import({ShardedBalanceEngine.class, AccountCache.class, LedgerService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardedBalanceEngineTest {
+
+    private static final int ACCOUNTS = 16;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private ShardedBalanceEngine engine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    /**
+     * Creates {@value #ACCOUNTS} accounts with the same opening balance.
+     */
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("engine");
+        user.setPassword("password");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setAccountNumber("ENG-" + i);
+            account.setBalance(OPENING_BALANCE);
+            account.setUser(user);
+            accountRepository.save(account);
+            accountNumbers.add(account.getAccountNumber());
+        }
+    }
+
+    /**
+     * Restarts the engine with empty state and removes the test data.
+     */
+    @AfterEach
+    void tearDown() {
+        engine.stop(false);
+        engine.start();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Tests that unknown accounts, insufficient balances and negative amounts are rejected without journaling anything.
+     */
+    @Test
+    void testTransfer_Rejections() {
+        RuntimeException fromMissing = assertThrows(RuntimeException.class,
+                () -> engine.transfer("missing", "ENG-0", BigDecimal.ONE));
+        assertEquals("From account not found", fromMissing.getMessage());
+
+        RuntimeException toMissing = assertThrows(RuntimeException.class,
+                () -> engine.transfer("ENG-0", "missing", BigDecimal.ONE));
+        assertEquals("To account not found", toMissing.getMessage());
+
+        RuntimeException insufficient = assertThrows(RuntimeException.class,
+                () -> engine.transfer("ENG-0", "ENG-1", new BigDecimal("1000.01")));
+        assertEquals("Insufficient balance", insufficient.getMessage());
+
+        RuntimeException negative = assertThrows(RuntimeException.class,
+                () -> engine.transfer("ENG-0", "ENG-1", new BigDecimal("-5.00")));
+        assertEquals("Amount must be positive", negative.getMessage());
+
+        assertEquals(0, engine.flush());
+        assertEquals(0, OPENING_BALANCE.compareTo(engine.getBalance("ENG-0")));
+        assertEquals(0, transactionRepository.count());
+    }
+
+    /**
+     * Tests that concurrent transfers are applied exactly in memory and in the database after a flush.
+     */
+    @Test
+    void testTransfer_FlushedBalancesMatchMemory() {
+        runRandomTransfers(20_000);
+        engine.flush();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accountRepository.findAll()) {
+            assertEquals(0, engine.getBalance(account.getAccountNumber()).compareTo(account.getBalance()),
+                    "Memory and database disagree for " + account.getAccountNumber());
+            total = total.add(account.getBalance());
+        }
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+        assertJournalReplaysToStoredBalances();
+    }
+
+    /**
+     * Tests that a crash in the middle of a workload leaves the database consistent with its journal,
+     * and that the restarted engine reloads exactly those balances.
+     */
+    @Test
+    void testCrashReplay_BalancesEqualJournal() {
+        runRandomTransfers(20_000);
+        engine.stop(false);
+        engine.start();
+
+        assertJournalReplaysToStoredBalances();
+        for (Account account : accountRepository.findAll()) {
+            assertEquals(0, engine.getBalance(account.getAccountNumber()).compareTo(account.getBalance()),
+                    "Reloaded balance differs for " + account.getAccountNumber());
+        }
+    }
+
+    /**
+     * Tests that with the write-ahead journal enabled, every acknowledged transfer survives a crash that discards
+     * the unflushed ones, and that the journal is not replayed twice.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Restart the engine with a write-ahead journal and without periodic flushes.</li>
+     *     <li>Act: Run transfers, crash the engine before any flush, and restart it.</li>
+     *     <li>Assert: Verify that one transaction row was stored per acknowledged transfer, that the stored balances
+     *     match them, and that another restart stores nothing more.</li>
+     * </ol>
+     *
+     * @param directory the directory of the write-ahead journal.
+     */
+    @Test
+    void testWalCrashReplay_AcknowledgedTransfersSurvive(@TempDir Path directory) {
+        // Arrange
+        ReflectionTestUtils.setField(engine, "walDirectory", directory.toString());
+        ReflectionTestUtils.setField(engine, "walGroupCommitWindowUs", 100L);
+        ReflectionTestUtils.setField(engine, "flushIntervalMs", 3_600_000L);
+        try {
+            engine.stop(true);
+            engine.start();
+
+            // Act
+            int acknowledged = runRandomTransfers(5_000);
+            engine.stop(false);
+            assertEquals(0, transactionRepository.count());
+            engine.start();
+
+            // Assert
+            assertEquals(acknowledged, transactionRepository.count());
+            assertJournalReplaysToStoredBalances();
+            for (Account account : accountRepository.findAll()) {
+                assertEquals(0, engine.getBalance(account.getAccountNumber()).compareTo(account.getBalance()),
+                        "Replayed balance differs for " + account.getAccountNumber());
+            }
+            engine.stop(false);
+            engine.start();
+            assertEquals(acknowledged, transactionRepository.count());
+        } finally {
+            ReflectionTestUtils.setField(engine, "walDirectory", "");
+            ReflectionTestUtils.setField(engine, "flushIntervalMs", 5L);
+        }
+    }
+
+    /**
+     * Tests that a failed sync of the write-ahead journal stops the engine without writing the transfer it failed,
+     * so that a restart reloads balances without it.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Restart the engine with a write-ahead journal whose syncs can be made to fail, and make one
+     *     durable transfer.</li>
+     *     <li>Act: Fail the next sync, transfer again, then stop and restart the engine.</li>
+     *     <li>Assert: Verify that the second transfer and the ones after it were rejected, that balances were not
+     *     served meanwhile, and that the database and the reloaded balances hold only the first transfer.</li>
+     * </ol>
+     *
+     * @param directory the directory of the write-ahead journal.
+     */
+    @Test
+    void testWalSyncFailure_StopsWithoutUnsyncedTransfers(@TempDir Path directory) throws IOException {
+        // Arrange
+        AtomicBoolean failing = new AtomicBoolean();
+        WriteAheadJournal journal = new WriteAheadJournal(directory, 1 << 20, 0) {
+            @Override
+            void force(MappedByteBuffer buffer, int index, int length) {
+                if (failing.get()) {
+                    throw new UncheckedIOException(new IOException("Input/output error"));
+                }
+                super.force(buffer, index, length);
+            }
+        };
+        engine.stop(true);
+        journal.open(0);
+        ReflectionTestUtils.setField(engine, "wal", journal);
+        engine.start();
+        engine.transfer("ENG-0", "ENG-1", new BigDecimal("10.00"));
+
+        // Act
+        failing.set(true);
+        RuntimeException syncFailed = assertThrows(RuntimeException.class,
+                () -> engine.transfer("ENG-0", "ENG-2", new BigDecimal("20.00")));
+        RuntimeException stopped = assertThrows(RuntimeException.class,
+                () -> engine.transfer("ENG-3", "ENG-4", new BigDecimal("30.00")));
+        RuntimeException unavailable = assertThrows(RuntimeException.class, () -> engine.getBalance("ENG-0"));
+        engine.stop(true);
+        engine.start();
+
+        // Assert
+        assertEquals("Transfer journal sync failed", syncFailed.getMessage());
+        assertEquals("Balance engine is not running", stopped.getMessage());
+        assertInstanceOf(RejectedExecutionException.class, stopped);
+        assertEquals("Balance engine stopped after a transfer journal failure", unavailable.getMessage());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(1, journal.getDurableSequence());
+        assertJournalReplaysToStoredBalances();
+        assertEquals(0, new BigDecimal("990.00").compareTo(engine.getBalance("ENG-0")));
+        assertEquals(0, new BigDecimal("1010.00").compareTo(engine.getBalance("ENG-1")));
+        assertEquals(0, OPENING_BALANCE.compareTo(engine.getBalance("ENG-2")));
+    }
+
+    /**
+     * Measures in-memory transfer throughput across all shards.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkThroughput() {
+        int transfers = 1_000_000;
+        long start = System.nanoTime();
+        runRandomTransfers(transfers);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Sharded engine: %d transfers in %.2fs, %.0f transfers/sec%n", transfers, seconds, transfers / seconds);
+        engine.flush();
+        assertJournalReplaysToStoredBalances();
+    }
+
+    private int runRandomTransfers(int count) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(count);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            String from = accountNumbers.get(random.nextInt(ACCOUNTS));
+            String to = accountNumbers.get(random.nextInt(ACCOUNTS));
+            futures.add(engine.submitTransfer(from, to, BigDecimal.valueOf(random.nextInt(1, 5000), 2)));
+        }
+        int completed = 0;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+                completed++;
+            } catch (CompletionException ex) {
+                assertEquals("Insufficient balance", ex.getCause().getMessage());
+            }
+        }
+        return completed;
+    }
+
+    private void assertJournalReplaysToStoredBalances() {
+        Map<Long, BigDecimal> replayed = new HashMap<>();
+        for (Account account : accountRepository.findAll()) {
+            replayed.put(account.getId(), OPENING_BALANCE);
+        }
+        for (Transaction transaction : transactionRepository.findAll()) {
+            replayed.merge(transaction.getFromAccount().getId(), transaction.getAmount().toBigDecimal().negate(), BigDecimal::add);
+            replayed.merge(transaction.getToAccount().getId(), transaction.getAmount().toBigDecimal(), BigDecimal::add);
+        }
+        for (Account account : accountRepository.findAll()) {
+            assertEquals(0, replayed.get(account.getId()).compareTo(account.getBalance()),
+                    "Journal replay differs for " + account.getAccountNumber());
+            assertTrue(account.getBalance().signum() >= 0, "Negative stored balance for " + account.getAccountNumber());
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.onlinebanking.service.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link WriteAheadJournal} class, on files in a temporary directory.
+ *
+ * <p>The test cases include:
+ * <ul>
+ *     <li>Records acknowledged after a sync and read back in order after a restart, beyond the applied sequence.</li>
+ *     <li>A torn record at the end of a segment, which ends the valid records.</li>
+ *     <li>Reopening after runs that appended nothing.</li>
+ *     <li>Rolling over to new segments and deleting the applied ones.</li>
+ *     <li>A throughput benchmark at several group-commit windows, skipped unless {@code -Dbenchmark=true} is set.</li>
+ * </ul>
+ *
+ * @author Your Name
+ * @version 1.0
+ * @since 2023-10-01
+ */
+class WriteAheadJournalTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2023, 10, 1, 12, 30, 15, 123_456_000);
+
+    /**
+     * Tests that appended records become durable and are returned by the next open, except the applied ones.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Open an empty journal and append three records.</li>
+     *     <li>Act: Wait for them to be synced, close the journal and open it again with the first one applied.</li>
+     *     <li>Assert: Verify that the other two records are returned unchanged and that numbering continues.</li>
+     * </ol>
+     *
+     * @param directory the journal directory.
+     */
+    @Test
+    void testOpen_ReturnsRecordsBeyondAppliedSequence(@TempDir Path directory) throws IOException {
+        // Arrange
+        WriteAheadJournal journal = new WriteAheadJournal(directory, 1024 * 1024, 0);
+        assertTrue(journal.open(0).isEmpty());
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            assertEquals(i, journal.append(i, i + 10, i * 100L, TIMESTAMP, future));
+            durable.add(future);
+        }
+
+        // Act
+        durable.forEach(CompletableFuture::join);
+        assertEquals(3, journal.getDurableSequence());
+        journal.close();
+        WriteAheadJournal reopened = new WriteAheadJournal(directory, 1024 * 1024, 0);
+        List<WriteAheadJournal.Entry> pending = reopened.open(1);
+
+        // Assert
+        assertEquals(List.of(
+                new WriteAheadJournal.Entry(2, 2, 12, 200, TIMESTAMP),
+                new WriteAheadJournal.Entry(3, 3, 13, 300, TIMESTAMP)), pending);
+        assertEquals(4, reopened.append(1, 2, 1, TIMESTAMP, new CompletableFuture<>()));
+        reopened.close();
+    }
+
+    /**
+     * Tests that a record that fails its checksum ends the valid records, and that numbering continues after the last
+     * valid one.
+     *
+     * @param directory the journal directory.
+     */
+    @Test
+    void testOpen_StopsAtTornRecord(@TempDir Path directory) throws IOException {
+        // Arrange
+        WriteAheadJournal journal = new WriteAheadJournal(directory, 1024 * 1024, 0);
+        journal.open(0);
+        for (int i = 1; i <= 3; i++) {
+            journal.append(i, i + 10, i * 100L, TIMESTAMP, new CompletableFuture<>());
+        }
+        journal.close();
+        Path segment = segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xff}), 2 * WriteAheadJournal.RECORD_SIZE + 30);
+        }
+
+        // Act
+        WriteAheadJournal reopened = new WriteAheadJournal(directory, 1024 * 1024, 0);
+        List<WriteAheadJournal.Entry> pending = reopened.open(0);
+
+        // Assert
+        assertEquals(2, pending.size());
+        assertEquals(2, pending.get(1).sequence());
+        assertEquals(3, reopened.append(1, 2, 1, TIMESTAMP, new CompletableFuture<>()));
+        reopened.close();
+    }
+
+    /**
+     * Tests that the journal reopens after runs that appended nothing, whose empty segments are deleted.
+     *
+     * <p>Steps:
+     * <ol>
+     *     <li>Arrange: Append one record, then open and close the journal twice without appending.</li>
+     *     <li>Act: Open the journal again.</li>
+     *     <li>Assert: Verify that the record is returned, numbering continues, and only its segment and the new one
+     *     are left.</li>
+     * </ol>
+     *
+     * @param directory the journal directory.
+     */
+    @Test
+    void testOpen_AfterIdleRuns(@TempDir Path directory) throws IOException {
+        // Arrange
+        WriteAheadJournal journal = new WriteAheadJournal(directory, 1024 * 1024, 0);
+        journal.open(0);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        journal.append(1, 2, 100, TIMESTAMP, durable);
+        durable.join();
+        journal.close();
+        for (int run = 0; run < 2; run++) {
+            WriteAheadJournal idle = new WriteAheadJournal(directory, 1024 * 1024, 0);
+            assertEquals(1, idle.open(0).size());
+            idle.close();
+        }
+
+        // Act
+        WriteAheadJournal reopened = new WriteAheadJournal(directory, 1024 * 1024, 0);
+        List<WriteAheadJournal.Entry> pending = reopened.open(0);
+
+        // Assert
+        assertEquals(List.of(new WriteAheadJournal.Entry(1, 1, 2, 100, TIMESTAMP)), pending);
+        assertEquals(2, reopened.append(1, 2, 1, TIMESTAMP, new CompletableFuture<>()));
+        assertEquals(2, segments(directory).size());
+        reopened.close();
+    }
+
+    /**
+     * Tests that full segments are rolled over and that only the segments with unapplied records are kept.
+     *
+     * @param directory the journal directory.
+     */
+    @Test
+    void testTruncate_DeletesAppliedSegments(@TempDir Path directory) throws IOException {
+        // Arrange: four records per segment
+        WriteAheadJournal journal = new WriteAheadJournal(directory, 4 * WriteAheadJournal.RECORD_SIZE, 0);
+        journal.open(0);
+        for (int i = 1; i <= 10; i++) {
+            journal.append(i, i + 1, 1, TIMESTAMP, new CompletableFuture<>());
+        }
+        journal.close();
+        assertEquals(3, segments(directory).size());
+
+        // Act
+        WriteAheadJournal reopened = new WriteAheadJournal(directory, 4 * WriteAheadJournal.RECORD_SIZE, 0);
+        List<WriteAheadJournal.Entry> pending = reopened.open(0);
+        reopened.truncate(8);
+
+        // Assert
+        assertEquals(10, pending.size());
+        assertEquals(2, segments(directory).size());
+        reopened.close();
+        WriteAheadJournal restarted = new WriteAheadJournal(directory, 4 * WriteAheadJournal.RECORD_SIZE, 0);
+        assertEquals(List.of(9L, 10L), restarted.open(8).stream().map(WriteAheadJournal.Entry::sequence).toList());
+        restarted.close();
+    }
+
+    /**
+     * Measures how many transfers per second concurrent clients get acknowledged, each waiting for its transfer to be
+     * durable before sending the next, at several group-commit windows.
+     *
+     * @param directory the journal directory.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkGroupCommitWindows(@TempDir Path directory) throws Exception {
+        int clients = 64;
+        int transfersPerClient = 2_000;
+        for (long windowMicros : new long[]{0, 100, 500, 2_000}) {
+            Path windowDirectory = Files.createDirectory(directory.resolve("window-" + windowMicros));
+            WriteAheadJournal journal = new WriteAheadJournal(windowDirectory, 64 * 1024 * 1024,
+                    TimeUnit.MICROSECONDS.toNanos(windowMicros));
+            journal.open(0);
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                long accountId = client;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < transfersPerClient; i++) {
+                        CompletableFuture<Void> durable = new CompletableFuture<>();
+                        journal.append(accountId, accountId + 1, 100,
+                                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS), durable);
+                        durable.join();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            executor.shutdown();
+            journal.close();
+            int transfers = clients * transfersPerClient;
+            System.out.printf("Group commit window %5d us: %d transfers in %.2fs, %.0f transfers/sec, %.0f us per transfer%n",
+                    windowMicros, transfers, seconds, transfers / seconds, seconds * 1_000_000 * clients / transfers);
+        }
+    }
+
+    private List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}